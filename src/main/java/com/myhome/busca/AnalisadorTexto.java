@@ -0,0 +1,133 @@
+package com.myhome.busca;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Quebra títulos, descrições e consultas em termos (IndiceTexto)
+ *
+ * RESPONSABILIDADES:
+ * - Separar palavras por qualquer caractere que não seja letra ou dígito
+ * - Remover acentos e maiúsculas ("Água" e "agua" são o mesmo termo)
+ * - Descartar palavras vazias do português ("de", "com", "para"...)
+ * - Reduzir plurais comuns ao singular ("piscinas" -> "piscina",
+ *   "imóveis" -> "imovel", "jardins" -> "jardim")
+ *
+ * A redução é só de sufixos, sem dicionário: pode errar em palavras
+ * irregulares, mas erra igual no anúncio e na consulta, que continuam
+ * se encontrando.
+ */
+public final class AnalisadorTexto {
+
+    private static final Set<String> PALAVRAS_VAZIAS = new HashSet<>(Arrays.asList(
+            "a", "o", "as", "os", "e", "de", "da", "das", "do", "dos", "em", "na", "nas", "no", "nos",
+            "um", "uma", "uns", "umas", "com", "para", "pra", "por", "pelo", "pela", "pelos", "pelas",
+            "ao", "aos", "que", "se", "ou", "sem", "seu", "sua", "seus", "suas", "mais", "muito",
+            "muita", "sao", "esta", "este", "essa", "esse", "ja", "bem", "tem", "nao"));
+
+    // Sufixos de plural e o singular correspondente, do mais longo ao mais curto
+    private static final String[][] PLURAIS = {
+        {"oes", "ao"}, {"aes", "ao"}, {"ais", "al"}, {"eis", "el"}, {"ois", "ol"},
+        {"res", "r"}, {"zes", "z"}, {"ns", "m"}
+    };
+
+    private static final int TAMANHO_MINIMO_RADICAL = 4;
+
+    // Marca de acento solta (texto já decomposto): não faz parte da palavra
+    private static final char ACENTO = '\u0000';
+
+    // U+00C0 a U+00FF em minúscula e sem acento ('×' e '÷' continuam separadores)
+    private static final char[] LATIN1 = new char[64];
+
+    static {
+        for (char c = '\u00c0'; c <= '\u00ff'; c++) {
+            String decomposto = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            LATIN1[c - '\u00c0'] = Character.toLowerCase(decomposto.charAt(0));
+        }
+    }
+
+    private AnalisadorTexto() {
+    }
+
+    /**
+     * Termos do texto, na ordem em que aparecem (com repetições)
+     */
+    public static List<String> termos(String texto) {
+        List<String> termos = new ArrayList<>();
+        if (texto == null || texto.isEmpty()) {
+            return termos;
+        }
+        char[] palavra = new char[32];
+        int tamanho = 0;
+        for (int i = 0; i <= texto.length(); i++) {
+            char c = i < texto.length() ? dobrar(texto.charAt(i)) : ' ';
+            if (c == ACENTO) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (tamanho == palavra.length) {
+                    palavra = Arrays.copyOf(palavra, tamanho * 2);
+                }
+                palavra[tamanho++] = c;
+            } else if (tamanho > 0) {
+                adicionar(termos, new String(palavra, 0, tamanho));
+                tamanho = 0;
+            }
+        }
+        return termos;
+    }
+
+    /**
+     * Termos distintos de uma consulta, na ordem em que aparecem
+     */
+    public static List<String> termosDistintos(String consulta) {
+        List<String> distintos = new ArrayList<>();
+        for (String termo : termos(consulta)) {
+            if (!distintos.contains(termo)) {
+                distintos.add(termo);
+            }
+        }
+        return distintos;
+    }
+
+    private static void adicionar(List<String> termos, String palavra) {
+        if (!PALAVRAS_VAZIAS.contains(palavra)) {
+            termos.add(singular(palavra));
+        }
+    }
+
+    /**
+     * Caractere em minúscula e sem acento. Letras latinas comuns saem da
+     * tabela, sem normalizar o texto inteiro; as demais passam pelo
+     * Normalizer (NFD). Marcas de acento soltas viram ACENTO, descartado.
+     */
+    private static char dobrar(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        if (c >= '\u00c0' && c <= '\u00ff') {
+            return LATIN1[c - '\u00c0'];
+        }
+        if (Character.getType(c) == Character.NON_SPACING_MARK) {
+            return ACENTO;
+        }
+        String decomposto = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+        return Character.toLowerCase(decomposto.charAt(0));
+    }
+
+    private static String singular(String palavra) {
+        if (palavra.length() < TAMANHO_MINIMO_RADICAL || !palavra.endsWith("s")) {
+            return palavra;
+        }
+        for (String[] plural : PLURAIS) {
+            if (palavra.endsWith(plural[0]) && palavra.length() - plural[0].length() >= 2) {
+                return palavra.substring(0, palavra.length() - plural[0].length()) + plural[1];
+            }
+        }
+        return palavra.endsWith("ss") ? palavra : palavra.substring(0, palavra.length() - 1);
+    }
+}
@@ -0,0 +1,222 @@
+package com.myhome.busca;
+
+import java.util.Locale;
+
+import com.myhome.model.Endereco;
+
+/**
+ * Área de uma busca por mapa: círculo (ponto + raio) ou retângulo
+ *
+ * RESPONSABILIDADES:
+ * - Validar as coordenadas (latitude -90..90, longitude -180..180, raio > 0)
+ * - Informar o retângulo envolvente, usado pelo IndiceGeografico para
+ *   escolher as células a visitar
+ * - Decidir se um ponto está dentro: no retângulo, pelas coordenadas; no
+ *   círculo, pela distância sobre a esfera (haversine, comparada sem
+ *   calcular a distância em km)
+ *
+ * Áreas que cruzariam o antimeridiano (±180°) são cortadas nele. Imutável.
+ */
+public final class AreaGeografica {
+
+    public static final double RAIO_TERRA_KM = 6371.0088;
+    public static final double KM_POR_GRAU = RAIO_TERRA_KM * Math.PI / 180;
+    // Margem de arredondamento nas bordas de contemRetangulo
+    private static final double FOLGA_GRAUS = 1e-9;
+
+    private final boolean circulo;
+    private final double latitude;
+    private final double longitude;
+    private final double raioKm;
+    private final double latitudeMin;
+    private final double latitudeMax;
+    private final double longitudeMin;
+    private final double longitudeMax;
+    // Círculo: cos(latitude do centro) e o limite do termo de haversine
+    // (sen²(raio/2), raio em radianos), para comparar sem asin e sqrt
+    private final double cosseno;
+    private final double limite;
+
+    private AreaGeografica(boolean circulo, double latitude, double longitude, double raioKm,
+            double latitudeMin, double latitudeMax, double longitudeMin, double longitudeMax) {
+        this.circulo = circulo;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.raioKm = raioKm;
+        this.latitudeMin = latitudeMin;
+        this.latitudeMax = latitudeMax;
+        this.longitudeMin = longitudeMin;
+        this.longitudeMax = longitudeMax;
+        this.cosseno = Math.cos(Math.toRadians(latitude));
+        double meioAngulo = Math.min(Math.PI, raioKm / RAIO_TERRA_KM) / 2;
+        this.limite = Math.sin(meioAngulo) * Math.sin(meioAngulo);
+    }
+
+    /**
+     * Anúncios a até raioKm do ponto
+     *
+     * @throws IllegalArgumentException se as coordenadas ou o raio forem inválidos
+     */
+    public static AreaGeografica raio(double latitude, double longitude, double raioKm) {
+        validar(latitude, longitude);
+        if (!(raioKm > 0) || Double.isInfinite(raioKm)) {
+            throw new IllegalArgumentException("Raio deve ser maior que zero: " + raioKm);
+        }
+        // Extremos do círculo sobre a esfera (o de longitude vale fora dos polos)
+        double angulo = raioKm / RAIO_TERRA_KM;
+        double latitudeMin = Math.max(-90, latitude - Math.toDegrees(angulo));
+        double latitudeMax = Math.min(90, latitude + Math.toDegrees(angulo));
+        double longitudeMin = -180;
+        double longitudeMax = 180;
+        if (latitudeMin > -90 && latitudeMax < 90) {
+            double seno = Math.sin(angulo) / Math.cos(Math.toRadians(latitude));
+            if (seno < 1) {
+                double variacao = Math.toDegrees(Math.asin(seno));
+                longitudeMin = Math.max(-180, longitude - variacao);
+                longitudeMax = Math.min(180, longitude + variacao);
+            }
+        }
+        return new AreaGeografica(true, latitude, longitude, raioKm,
+                latitudeMin, latitudeMax, longitudeMin, longitudeMax);
+    }
+
+    /**
+     * Anúncios dentro do retângulo (bordas incluídas), ex.: a parte do mapa na tela
+     *
+     * @throws IllegalArgumentException se as coordenadas forem inválidas ou mínimo > máximo
+     */
+    public static AreaGeografica retangulo(double latitudeMin, double longitudeMin,
+            double latitudeMax, double longitudeMax) {
+        validar(latitudeMin, longitudeMin);
+        validar(latitudeMax, longitudeMax);
+        if (latitudeMin > latitudeMax || longitudeMin > longitudeMax) {
+            throw new IllegalArgumentException("Retângulo inválido: mínimo maior que máximo");
+        }
+        return new AreaGeografica(false, (latitudeMin + latitudeMax) / 2, (longitudeMin + longitudeMax) / 2, 0,
+                latitudeMin, latitudeMax, longitudeMin, longitudeMax);
+    }
+
+    private static void validar(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Coordenadas inválidas: " + latitude + ", " + longitude);
+        }
+    }
+
+    /**
+     * Indica se o ponto está na área (coordenadas NaN nunca estão)
+     */
+    public boolean contem(double latitude, double longitude) {
+        if (!(latitude >= latitudeMin && latitude <= latitudeMax
+                && longitude >= longitudeMin && longitude <= longitudeMax)) {
+            return false;
+        }
+        if (!circulo) {
+            return true;
+        }
+        double senoLatitude = Math.sin(Math.toRadians(latitude - this.latitude) / 2);
+        double senoLongitude = Math.sin(Math.toRadians(longitude - this.longitude) / 2);
+        return senoLatitude * senoLatitude
+                + cosseno * Math.cos(Math.toRadians(latitude)) * senoLongitude * senoLongitude <= limite;
+    }
+
+    public boolean contem(Endereco endereco) {
+        return endereco != null && contem(endereco.getLatitude(), endereco.getLongitude());
+    }
+
+    /**
+     * Indica se o retângulo inteiro (ex.: uma célula do IndiceGeografico)
+     * está na área, com folga: na dúvida, false e os pontos são conferidos
+     * um a um. No círculo, limita por cima o termo de haversine de qualquer
+     * ponto do retângulo (latitude mais distante do centro, maior cosseno,
+     * longitude mais distante).
+     */
+    boolean contemRetangulo(double latitudeMin, double longitudeMin, double latitudeMax, double longitudeMax) {
+        latitudeMin -= FOLGA_GRAUS;
+        longitudeMin -= FOLGA_GRAUS;
+        latitudeMax += FOLGA_GRAUS;
+        longitudeMax += FOLGA_GRAUS;
+        if (latitudeMin < this.latitudeMin || latitudeMax > this.latitudeMax
+                || longitudeMin < this.longitudeMin || longitudeMax > this.longitudeMax) {
+            return false;
+        }
+        if (!circulo) {
+            return true;
+        }
+        double dLatitude = Math.max(Math.abs(latitudeMin - latitude), Math.abs(latitudeMax - latitude));
+        double dLongitude = Math.max(Math.abs(longitudeMin - longitude), Math.abs(longitudeMax - longitude));
+        double cossenoMaximo = latitudeMin <= 0 && latitudeMax >= 0 ? 1
+                : Math.cos(Math.toRadians(Math.min(Math.abs(latitudeMin), Math.abs(latitudeMax))));
+        double senoLatitude = Math.sin(Math.toRadians(dLatitude) / 2);
+        double senoLongitude = Math.sin(Math.toRadians(dLongitude) / 2);
+        double termo = senoLatitude * senoLatitude + cosseno * cossenoMaximo * senoLongitude * senoLongitude;
+        return termo <= limite * (1 - 1e-9);
+    }
+
+    /**
+     * Distância sobre a esfera entre dois pontos (fórmula de haversine)
+     */
+    public static double distanciaKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLatitude = Math.toRadians(latitude2 - latitude1);
+        double dLongitude = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(dLatitude / 2) * Math.sin(dLatitude / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(dLongitude / 2) * Math.sin(dLongitude / 2);
+        return 2 * RAIO_TERRA_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Fração do retângulo envolvente ocupada pela área (π/4 no círculo)
+     */
+    double getFracaoDoEnvolvente() {
+        return circulo ? Math.PI / 4 : 1.0;
+    }
+
+    /**
+     * Chave da área (CacheBusca): mesma área, mesma chave
+     */
+    public String chave() {
+        return circulo
+                ? "r" + latitude + "," + longitude + "," + raioKm
+                : "b" + latitudeMin + "," + longitudeMin + "," + latitudeMax + "," + longitudeMax;
+    }
+
+    public boolean isCirculo() {
+        return circulo;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public double getRaioKm() {
+        return raioKm;
+    }
+
+    public double getLatitudeMin() {
+        return latitudeMin;
+    }
+
+    public double getLatitudeMax() {
+        return latitudeMax;
+    }
+
+    public double getLongitudeMin() {
+        return longitudeMin;
+    }
+
+    public double getLongitudeMax() {
+        return longitudeMax;
+    }
+
+    @Override
+    public String toString() {
+        return circulo
+                ? String.format(Locale.ROOT, "%.1f km de (%.5f, %.5f)", raioKm, latitude, longitude)
+                : String.format(Locale.ROOT, "(%.5f, %.5f) a (%.5f, %.5f)",
+                        latitudeMin, longitudeMin, latitudeMax, longitudeMax);
+    }
+}
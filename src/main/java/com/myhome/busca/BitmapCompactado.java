@@ -0,0 +1,419 @@
+package com.myhome.busca;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Conjunto de inteiros não negativos compactado (no estilo Roaring)
+ *
+ * RESPONSABILIDADES:
+ * - Guardar posições (ordinais dos anúncios) em blocos de 65.536 valores,
+ *   cada um com o container mais compacto para sua densidade:
+ *   array ordenado de char (até 4.096 valores) ou mapa de 1.024 longs
+ * - Combinar conjuntos com E (interseção) e OU (união) bloco a bloco,
+ *   sem percorrer os valores um a um quando os dois lados são densos
+ * - Percorrer os valores em ordem crescente
+ *
+ * Não é seguro para uso concorrente; quem o guarda (IndiceBitmap) sincroniza.
+ */
+public final class BitmapCompactado {
+
+    /**
+     * Acima disso o array ocupa mais que o mapa de bits (4.096 * 2 bytes = 8 KB)
+     */
+    private static final int LIMITE_ARRAY = 4096;
+
+    // Blocos ordenados pela chave (16 bits altos do valor)
+    private char[] chaves = new char[4];
+    private Container[] containers = new Container[4];
+    private int tamanho;
+
+    public void adicionar(int valor) {
+        char chave = (char) (valor >>> 16);
+        int i = posicao(chave);
+        if (i < 0) {
+            i = -i - 1;
+            inserirBloco(i, chave, new ContainerArray());
+        }
+        containers[i] = containers[i].adicionar((char) valor);
+    }
+
+    public void remover(int valor) {
+        int i = posicao((char) (valor >>> 16));
+        if (i < 0) {
+            return;
+        }
+        containers[i] = containers[i].remover((char) valor);
+        if (containers[i].cardinalidade() == 0) {
+            System.arraycopy(chaves, i + 1, chaves, i, tamanho - i - 1);
+            System.arraycopy(containers, i + 1, containers, i, tamanho - i - 1);
+            containers[--tamanho] = null;
+        }
+    }
+
+    public boolean contem(int valor) {
+        int i = posicao((char) (valor >>> 16));
+        return i >= 0 && containers[i].contem((char) valor);
+    }
+
+    public int cardinalidade() {
+        int total = 0;
+        for (int i = 0; i < tamanho; i++) {
+            total += containers[i].cardinalidade();
+        }
+        return total;
+    }
+
+    public boolean isVazio() {
+        return tamanho == 0;
+    }
+
+    /**
+     * Valores em ordem crescente
+     */
+    public void paraCada(IntConsumer destino) {
+        for (int i = 0; i < tamanho; i++) {
+            containers[i].paraCada(chaves[i] << 16, destino);
+        }
+    }
+
+    public BitmapCompactado copia() {
+        BitmapCompactado copia = new BitmapCompactado();
+        copia.chaves = Arrays.copyOf(chaves, Math.max(4, tamanho));
+        copia.containers = new Container[copia.chaves.length];
+        for (int i = 0; i < tamanho; i++) {
+            copia.containers[i] = containers[i].copia();
+        }
+        copia.tamanho = tamanho;
+        return copia;
+    }
+
+    // ========================================
+    // OPERAÇÕES ENTRE CONJUNTOS
+    // ========================================
+
+    /**
+     * Interseção: só os blocos presentes nos dois lados são combinados
+     */
+    public static BitmapCompactado e(BitmapCompactado a, BitmapCompactado b) {
+        BitmapCompactado resultado = new BitmapCompactado();
+        int i = 0;
+        int j = 0;
+        while (i < a.tamanho && j < b.tamanho) {
+            if (a.chaves[i] < b.chaves[j]) {
+                i++;
+            } else if (a.chaves[i] > b.chaves[j]) {
+                j++;
+            } else {
+                Container bloco = a.containers[i].e(b.containers[j]);
+                if (bloco.cardinalidade() > 0) {
+                    resultado.inserirBloco(resultado.tamanho, a.chaves[i], bloco);
+                }
+                i++;
+                j++;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * União: blocos de um lado só são copiados, os comuns são combinados
+     */
+    public static BitmapCompactado ou(BitmapCompactado a, BitmapCompactado b) {
+        BitmapCompactado resultado = new BitmapCompactado();
+        int i = 0;
+        int j = 0;
+        while (i < a.tamanho || j < b.tamanho) {
+            if (j >= b.tamanho || (i < a.tamanho && a.chaves[i] < b.chaves[j])) {
+                resultado.inserirBloco(resultado.tamanho, a.chaves[i], a.containers[i].copia());
+                i++;
+            } else if (i >= a.tamanho || b.chaves[j] < a.chaves[i]) {
+                resultado.inserirBloco(resultado.tamanho, b.chaves[j], b.containers[j].copia());
+                j++;
+            } else {
+                resultado.inserirBloco(resultado.tamanho, a.chaves[i], a.containers[i].ou(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return resultado;
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private int posicao(char chave) {
+        return Arrays.binarySearch(chaves, 0, tamanho, chave);
+    }
+
+    private void inserirBloco(int i, char chave, Container container) {
+        if (tamanho == chaves.length) {
+            chaves = Arrays.copyOf(chaves, tamanho * 2);
+            containers = Arrays.copyOf(containers, tamanho * 2);
+        }
+        System.arraycopy(chaves, i, chaves, i + 1, tamanho - i);
+        System.arraycopy(containers, i, containers, i + 1, tamanho - i);
+        chaves[i] = chave;
+        containers[i] = container;
+        tamanho++;
+    }
+
+    /**
+     * Valores de um bloco (16 bits baixos). As operações retornam o container
+     * a usar dali em diante, que pode ser de outro tipo.
+     */
+    private abstract static class Container {
+
+        abstract Container adicionar(char valor);
+
+        abstract Container remover(char valor);
+
+        abstract boolean contem(char valor);
+
+        abstract int cardinalidade();
+
+        abstract Container e(Container outro);
+
+        abstract Container ou(Container outro);
+
+        abstract void paraCada(int base, IntConsumer destino);
+
+        abstract Container copia();
+    }
+
+    /**
+     * Bloco esparso: valores ordenados em um array de char
+     */
+    private static final class ContainerArray extends Container {
+
+        private char[] valores;
+        private int quantidade;
+
+        ContainerArray() {
+            this(new char[4], 0);
+        }
+
+        ContainerArray(char[] valores, int quantidade) {
+            this.valores = valores;
+            this.quantidade = quantidade;
+        }
+
+        @Override
+        Container adicionar(char valor) {
+            int i = Arrays.binarySearch(valores, 0, quantidade, valor);
+            if (i >= 0) {
+                return this;
+            }
+            if (quantidade == LIMITE_ARRAY) {
+                return paraBits().adicionar(valor);
+            }
+            i = -i - 1;
+            if (quantidade == valores.length) {
+                valores = Arrays.copyOf(valores, Math.min(LIMITE_ARRAY, quantidade * 2));
+            }
+            System.arraycopy(valores, i, valores, i + 1, quantidade - i);
+            valores[i] = valor;
+            quantidade++;
+            return this;
+        }
+
+        @Override
+        Container remover(char valor) {
+            int i = Arrays.binarySearch(valores, 0, quantidade, valor);
+            if (i >= 0) {
+                System.arraycopy(valores, i + 1, valores, i, quantidade - i - 1);
+                quantidade--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contem(char valor) {
+            return Arrays.binarySearch(valores, 0, quantidade, valor) >= 0;
+        }
+
+        @Override
+        int cardinalidade() {
+            return quantidade;
+        }
+
+        @Override
+        Container e(Container outro) {
+            char[] resultado = new char[Math.min(quantidade, outro.cardinalidade())];
+            int n = 0;
+            if (outro instanceof ContainerArray) {
+                ContainerArray array = (ContainerArray) outro;
+                int i = 0;
+                int j = 0;
+                while (i < quantidade && j < array.quantidade) {
+                    if (valores[i] < array.valores[j]) {
+                        i++;
+                    } else if (valores[i] > array.valores[j]) {
+                        j++;
+                    } else {
+                        resultado[n++] = valores[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < quantidade; i++) {
+                    if (outro.contem(valores[i])) {
+                        resultado[n++] = valores[i];
+                    }
+                }
+            }
+            return new ContainerArray(resultado, n);
+        }
+
+        @Override
+        Container ou(Container outro) {
+            if (outro instanceof ContainerBits) {
+                return outro.ou(this);
+            }
+            ContainerArray array = (ContainerArray) outro;
+            char[] resultado = new char[quantidade + array.quantidade];
+            int n = 0;
+            int i = 0;
+            int j = 0;
+            while (i < quantidade || j < array.quantidade) {
+                if (j >= array.quantidade || (i < quantidade && valores[i] < array.valores[j])) {
+                    resultado[n++] = valores[i++];
+                } else if (i >= quantidade || array.valores[j] < valores[i]) {
+                    resultado[n++] = array.valores[j++];
+                } else {
+                    resultado[n++] = valores[i];
+                    i++;
+                    j++;
+                }
+            }
+            ContainerArray uniao = new ContainerArray(resultado, n);
+            return n > LIMITE_ARRAY ? uniao.paraBits() : uniao;
+        }
+
+        @Override
+        void paraCada(int base, IntConsumer destino) {
+            for (int i = 0; i < quantidade; i++) {
+                destino.accept(base | valores[i]);
+            }
+        }
+
+        @Override
+        Container copia() {
+            return new ContainerArray(Arrays.copyOf(valores, Math.max(4, quantidade)), quantidade);
+        }
+
+        private ContainerBits paraBits() {
+            ContainerBits bits = new ContainerBits();
+            for (int i = 0; i < quantidade; i++) {
+                bits.adicionar(valores[i]);
+            }
+            return bits;
+        }
+    }
+
+    /**
+     * Bloco denso: um bit por valor possível (65.536 bits = 1.024 longs)
+     */
+    private static final class ContainerBits extends Container {
+
+        private final long[] bits;
+        private int quantidade;
+
+        ContainerBits() {
+            this(new long[1024], 0);
+        }
+
+        ContainerBits(long[] bits, int quantidade) {
+            this.bits = bits;
+            this.quantidade = quantidade;
+        }
+
+        @Override
+        Container adicionar(char valor) {
+            long antes = bits[valor >>> 6];
+            bits[valor >>> 6] = antes | (1L << valor);
+            if (antes != bits[valor >>> 6]) {
+                quantidade++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remover(char valor) {
+            long antes = bits[valor >>> 6];
+            bits[valor >>> 6] = antes & ~(1L << valor);
+            if (antes != bits[valor >>> 6]) {
+                quantidade--;
+            }
+            return quantidade <= LIMITE_ARRAY ? paraArray() : this;
+        }
+
+        @Override
+        boolean contem(char valor) {
+            return (bits[valor >>> 6] & (1L << valor)) != 0;
+        }
+
+        @Override
+        int cardinalidade() {
+            return quantidade;
+        }
+
+        @Override
+        Container e(Container outro) {
+            if (outro instanceof ContainerArray) {
+                return outro.e(this);
+            }
+            long[] outros = ((ContainerBits) outro).bits;
+            long[] resultado = new long[1024];
+            int n = 0;
+            for (int i = 0; i < resultado.length; i++) {
+                resultado[i] = bits[i] & outros[i];
+                n += Long.bitCount(resultado[i]);
+            }
+            ContainerBits intersecao = new ContainerBits(resultado, n);
+            return n <= LIMITE_ARRAY ? intersecao.paraArray() : intersecao;
+        }
+
+        @Override
+        Container ou(Container outro) {
+            ContainerBits uniao = (ContainerBits) copia();
+            if (outro instanceof ContainerArray) {
+                outro.paraCada(0, valor -> uniao.adicionar((char) valor));
+                return uniao;
+            }
+            long[] outros = ((ContainerBits) outro).bits;
+            int n = 0;
+            for (int i = 0; i < uniao.bits.length; i++) {
+                uniao.bits[i] |= outros[i];
+                n += Long.bitCount(uniao.bits[i]);
+            }
+            uniao.quantidade = n;
+            return uniao;
+        }
+
+        @Override
+        void paraCada(int base, IntConsumer destino) {
+            for (int i = 0; i < bits.length; i++) {
+                long palavra = bits[i];
+                while (palavra != 0) {
+                    destino.accept(base | (i << 6) | Long.numberOfTrailingZeros(palavra));
+                    palavra &= palavra - 1;
+                }
+            }
+        }
+
+        @Override
+        Container copia() {
+            return new ContainerBits(bits.clone(), quantidade);
+        }
+
+        private ContainerArray paraArray() {
+            char[] valores = new char[Math.max(4, quantidade)];
+            int[] n = new int[1];
+            paraCada(0, valor -> valores[n[0]++] = (char) valor);
+            return new ContainerArray(valores, n[0]);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.myhome.busca;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.myhome.model.Anuncio;
+import com.myhome.singleton.ConfigurationManager;
+
+/**
+ * Cache LRU dos resultados de busca, por filtros normalizados
+ *
+ * RESPONSABILIDADES:
+ * - Guardar até busca.cache.capacidade resultados, descartando o usado
+ *   há mais tempo (LinkedHashMap em ordem de acesso)
+ * - Invalidar só as buscas afetadas por uma alteração do catálogo
+ *   (IndiceCatalogo): as que continham o anúncio ou que passam a aceitá-lo
+ * - Contar acertos, falhas, despejos e invalidações
+ *
+ * Resultados maiores que busca.cache.resultados.max não são guardados:
+ * ocupariam memória e deixariam a invalidação mais cara. Uma busca calculada
+ * enquanto o catálogo mudava também não é guardada (ver getGeracao).
+ */
+public class CacheBusca implements IndiceCatalogo {
+
+    private static final class Entrada {
+        final List<Anuncio> resultado;
+        final Set<String> ids;
+        final Predicate<Anuncio> criterio;
+
+        Entrada(List<Anuncio> resultado, Set<String> ids, Predicate<Anuncio> criterio) {
+            this.resultado = resultado;
+            this.ids = ids;
+            this.criterio = criterio;
+        }
+    }
+
+    private final int capacidade;
+    private final int maximoResultados;
+    private final LinkedHashMap<String, Entrada> entradas;
+
+    private long geracao;
+    private long acertos;
+    private long falhas;
+    private long despejos;
+    private long invalidacoes;
+
+    public CacheBusca() {
+        this(Integer.parseInt(ConfigurationManager.getInstance()
+                        .getProperty("busca.cache.capacidade", "256").trim()),
+                Integer.parseInt(ConfigurationManager.getInstance()
+                        .getProperty("busca.cache.resultados.max", "10000").trim()));
+    }
+
+    /**
+     * @param capacidade Buscas guardadas (0 desativa o cache)
+     * @param maximoResultados Maior resultado guardado
+     */
+    public CacheBusca(int capacidade, int maximoResultados) {
+        this.capacidade = Math.max(0, capacidade);
+        this.maximoResultados = maximoResultados;
+        this.entradas = new LinkedHashMap<String, Entrada>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> maisAntiga) {
+                if (size() > CacheBusca.this.capacidade) {
+                    despejos++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // ========================================
+    // CONSULTA
+    // ========================================
+
+    /**
+     * Resultado guardado para os filtros (cópia), ou null
+     */
+    public synchronized List<Anuncio> buscar(String chave) {
+        Entrada entrada = capacidade > 0 ? entradas.get(chave) : null;
+        if (entrada == null) {
+            falhas++;
+            return null;
+        }
+        acertos++;
+        return new ArrayList<>(entrada.resultado);
+    }
+
+    /**
+     * Guarda o resultado calculado a partir da geração informada
+     *
+     * @param geracao Valor de getGeracao() antes de calcular a busca
+     * @param criterio Se um anúncio atende aos filtros (para a invalidação)
+     */
+    public synchronized void guardar(String chave, long geracao, List<Anuncio> resultado,
+            Predicate<Anuncio> criterio) {
+        if (capacidade == 0 || geracao != this.geracao || resultado.size() > maximoResultados) {
+            return;
+        }
+        Set<String> ids = new HashSet<>();
+        for (Anuncio anuncio : resultado) {
+            ids.add(anuncio.getId());
+        }
+        entradas.put(chave, new Entrada(Collections.unmodifiableList(new ArrayList<>(resultado)), ids, criterio));
+    }
+
+    /**
+     * Muda a cada alteração do catálogo
+     */
+    public synchronized long getGeracao() {
+        return geracao;
+    }
+
+    // ========================================
+    // INVALIDAÇÃO (IndiceCatalogo)
+    // ========================================
+
+    @Override
+    public synchronized void indexar(List<Anuncio> anuncios) {
+        geracao++;
+        invalidacoes += entradas.size();
+        entradas.clear();
+    }
+
+    @Override
+    public synchronized void adicionar(Anuncio anuncio) {
+        invalidar(anuncio);
+    }
+
+    @Override
+    public synchronized void atualizar(Anuncio anuncio) {
+        invalidar(anuncio);
+    }
+
+    @Override
+    public synchronized void remover(Anuncio anuncio) {
+        invalidar(anuncio);
+    }
+
+    private void invalidar(Anuncio anuncio) {
+        geracao++;
+        String id = anuncio.getId();
+        Iterator<Entrada> iterador = entradas.values().iterator();
+        while (iterador.hasNext()) {
+            Entrada entrada = iterador.next();
+            if ((id != null && entrada.ids.contains(id)) || entrada.criterio.test(anuncio)) {
+                iterador.remove();
+                invalidacoes++;
+            }
+        }
+    }
+
+    // ========================================
+    // ESTATÍSTICAS
+    // ========================================
+
+    public synchronized long getAcertos() {
+        return acertos;
+    }
+
+    public synchronized long getFalhas() {
+        return falhas;
+    }
+
+    public synchronized long getDespejos() {
+        return despejos;
+    }
+
+    public synchronized long getInvalidacoes() {
+        return invalidacoes;
+    }
+
+    public synchronized int getTamanho() {
+        return entradas.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Cache de buscas: " + entradas.size() + "/" + capacidade + " | "
+                + acertos + " acerto(s), " + falhas + " falha(s), "
+                + despejos + " despejo(s), " + invalidacoes + " invalidação(ões)";
+    }
+}
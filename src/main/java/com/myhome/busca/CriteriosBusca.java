@@ -0,0 +1,166 @@
+package com.myhome.busca;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.myhome.model.TipoAnuncio;
+
+/**
+ * Filtros de uma busca já validados (entrada do PlanejadorBusca)
+ *
+ * Preço e localização só valem completos (mínimo e máximo, cidade e
+ * estado); tipo, tipo de anúncio e situação aceitam vários valores,
+ * e qualquer um deles atende ao filtro. As palavras-chave valem pelos
+ * seus termos (AnalisadorTexto), todos exigidos. A área no mapa
+ * (AreaGeografica) só aceita anúncios com coordenadas. Imutável.
+ */
+public final class CriteriosBusca {
+
+    private static final char SEPARADOR = '\u001F';
+
+    private final Double precoMin;
+    private final Double precoMax;
+    private final String cidade;
+    private final String estado;
+    private final List<String> tipos;
+    private final List<String> tiposAnuncio;
+    private final List<String> situacoes;
+    private final String texto;
+    private final List<String> termosTexto;
+    private final AreaGeografica area;
+
+    /**
+     * @param precoMin Preço mínimo (null sem filtro de preço)
+     * @param precoMax Preço máximo (null sem filtro de preço)
+     * @param cidade Cidade (null sem filtro de localização)
+     * @param estado Estado (null sem filtro de localização)
+     */
+    public CriteriosBusca(Double precoMin, Double precoMax, String cidade, String estado,
+            List<String> tipos, List<String> tiposAnuncio, List<String> situacoes) {
+        this(precoMin, precoMax, cidade, estado, tipos, tiposAnuncio, situacoes, "");
+    }
+
+    /**
+     * @param texto Palavras-chave do título/descrição (vazio sem filtro de texto)
+     */
+    public CriteriosBusca(Double precoMin, Double precoMax, String cidade, String estado,
+            List<String> tipos, List<String> tiposAnuncio, List<String> situacoes, String texto) {
+        this(precoMin, precoMax, cidade, estado, tipos, tiposAnuncio, situacoes, texto, null);
+    }
+
+    /**
+     * @param area Raio ou retângulo no mapa (null sem filtro de área)
+     */
+    public CriteriosBusca(Double precoMin, Double precoMax, String cidade, String estado,
+            List<String> tipos, List<String> tiposAnuncio, List<String> situacoes, String texto,
+            AreaGeografica area) {
+        boolean comPreco = precoMin != null && precoMax != null;
+        boolean comLocalizacao = cidade != null && estado != null;
+        this.precoMin = comPreco ? precoMin : null;
+        this.precoMax = comPreco ? precoMax : null;
+        this.cidade = comLocalizacao ? cidade : null;
+        this.estado = comLocalizacao ? estado : null;
+        this.tipos = Collections.unmodifiableList(tipos);
+        this.tiposAnuncio = Collections.unmodifiableList(tiposAnuncio);
+        this.situacoes = Collections.unmodifiableList(situacoes);
+        this.texto = texto != null ? texto.trim() : "";
+        this.termosTexto = Collections.unmodifiableList(AnalisadorTexto.termosDistintos(this.texto));
+        this.area = area;
+    }
+
+    public boolean temPreco() {
+        return precoMin != null;
+    }
+
+    public boolean temLocalizacao() {
+        return cidade != null;
+    }
+
+    /**
+     * Indica se há palavras-chave (consultas só com palavras vazias, como
+     * "de", não filtram)
+     */
+    public boolean temTexto() {
+        return !termosTexto.isEmpty();
+    }
+
+    public boolean temArea() {
+        return area != null;
+    }
+
+    public boolean isVazio() {
+        return !temPreco() && !temLocalizacao() && tipos.isEmpty()
+                && tiposAnuncio.isEmpty() && situacoes.isEmpty() && !temTexto() && !temArea();
+    }
+
+    /**
+     * Chave dos filtros normalizados (CacheBusca): buscas equivalentes, como
+     * "joão pessoa"/"João Pessoa" ou "Casa, Terreno"/"terreno,casa", têm a mesma chave
+     */
+    public String chave() {
+        StringBuilder chave = new StringBuilder();
+        chave.append(temPreco() ? precoMin + ".." + precoMax : "").append(SEPARADOR);
+        chave.append(temLocalizacao() ? IndiceLocalizacao.chave(estado, cidade) : "").append(SEPARADOR);
+        chave.append(normalizados(tipos, false)).append(SEPARADOR);
+        chave.append(normalizados(tiposAnuncio, true)).append(SEPARADOR);
+        chave.append(normalizados(situacoes, false)).append(SEPARADOR);
+        chave.append(String.join(",", new TreeSet<>(termosTexto))).append(SEPARADOR);
+        chave.append(temArea() ? area.chave() : "");
+        return chave.toString();
+    }
+
+    private static String normalizados(List<String> valores, boolean tiposAnuncio) {
+        Set<String> distintos = new TreeSet<>();
+        for (String valor : valores) {
+            TipoAnuncio tipo = tiposAnuncio ? TipoAnuncio.porNome(valor) : null;
+            distintos.add(tipo != null ? tipo.name() : valor.trim().toLowerCase(Locale.ROOT));
+        }
+        return String.join(",", distintos);
+    }
+
+    public Double getPrecoMin() {
+        return precoMin;
+    }
+
+    public Double getPrecoMax() {
+        return precoMax;
+    }
+
+    public String getCidade() {
+        return cidade;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    public List<String> getTipos() {
+        return tipos;
+    }
+
+    public List<String> getTiposAnuncio() {
+        return tiposAnuncio;
+    }
+
+    public List<String> getSituacoes() {
+        return situacoes;
+    }
+
+    public String getTexto() {
+        return texto;
+    }
+
+    /**
+     * Termos distintos das palavras-chave, como indexados no IndiceTexto
+     */
+    public List<String> getTermosTexto() {
+        return termosTexto;
+    }
+
+    public AreaGeografica getArea() {
+        return area;
+    }
+}
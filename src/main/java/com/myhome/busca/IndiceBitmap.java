@@ -0,0 +1,279 @@
+package com.myhome.busca;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.myhome.model.Anuncio;
+import com.myhome.persistencia.CatalogoLazy;
+import com.myhome.persistencia.ResumoAnuncio;
+
+/**
+ * Índices de bitmap dos campos com poucos valores distintos
+ *
+ * RESPONSABILIDADES:
+ * - Numerar os anúncios com ordinais densos (ordem do catálogo, depois de criação)
+ * - Manter um BitmapCompactado por valor de tipo de imóvel, tipo de anúncio
+ *   (TipoAnuncio) e situação (AnuncioState.getNome())
+ * - Combinar critérios com OU (valores de um campo) e E (entre campos)
+ *   sem tocar em nenhum anúncio; só os ordinais resultantes são resolvidos
+ * - Mover o ordinal de bitmap quando a situação do anúncio muda (IndiceCatalogo)
+ *
+ * Os valores são comparados sem diferenciar maiúsculas, como nos decorators.
+ * No catálogo preguiçoso (CatalogoLazy) a indexação usa os resumos do
+ * índice binário, e a resolução hidrata só os anúncios encontrados.
+ */
+public class IndiceBitmap implements IndiceCatalogo {
+
+    public enum Campo {
+        TIPO_IMOVEL, TIPO_ANUNCIO, SITUACAO
+    }
+
+    private static final Campo[] CAMPOS = Campo.values();
+    private static final int LIMITE_NORMALIZADOS = 1024;
+
+    // Por campo (na ordem de Campo): bitmap de cada valor
+    private final List<Map<String, BitmapCompactado>> bitmaps = new ArrayList<>(CAMPOS.length);
+
+    // Por ordinal: anúncio (null se ainda não hidratado), id e valores indexados
+    private Anuncio[] anuncios = new Anuncio[0];
+    private String[] ids = new String[0];
+    private String[][] valores = new String[CAMPOS.length][0];
+    private int totalOrdinais;
+    private int[] ordinaisLivres = new int[0];
+    private int quantidadeLivres;
+
+    private final Map<String, Integer> ordinalPorId = new HashMap<>();
+    private CatalogoLazy catalogo;
+
+    // Poucos valores distintos: cada texto é normalizado uma vez só
+    private final Map<String, String> normalizados = new HashMap<>();
+
+    public IndiceBitmap() {
+        for (Campo campo : CAMPOS) {
+            bitmaps.add(new HashMap<>());
+        }
+    }
+
+    // ========================================
+    // MANUTENÇÃO (IndiceCatalogo)
+    // ========================================
+
+    @Override
+    public synchronized void indexar(List<Anuncio> lista) {
+        for (Map<String, BitmapCompactado> porValor : bitmaps) {
+            porValor.clear();
+        }
+        ordinalPorId.clear();
+        catalogo = lista instanceof CatalogoLazy ? (CatalogoLazy) lista : null;
+        anuncios = new Anuncio[lista.size()];
+        ids = new String[lista.size()];
+        for (int c = 0; c < CAMPOS.length; c++) {
+            valores[c] = new String[lista.size()];
+        }
+        totalOrdinais = 0;
+        quantidadeLivres = 0;
+
+        for (int i = 0; i < lista.size(); i++) {
+            if (catalogo != null) {
+                ResumoAnuncio resumo = catalogo.getResumoAtual(i);
+                incluir(resumo.getId(), null, resumo.getTipo(), resumo.getTipoAnuncio(), resumo.getSituacao());
+            } else {
+                Anuncio anuncio = lista.get(i);
+                if (anuncio != null) {
+                    incluir(anuncio.getId(), anuncio, tipoImovel(anuncio), tipoAnuncio(anuncio), situacao(anuncio));
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void adicionar(Anuncio anuncio) {
+        atualizar(anuncio);
+    }
+
+    /**
+     * Move o ordinal entre bitmaps nos campos que mudaram
+     */
+    @Override
+    public synchronized void atualizar(Anuncio anuncio) {
+        String id = anuncio.getId();
+        if (id == null) {
+            return;
+        }
+        Integer existente = ordinalPorId.get(id);
+        if (existente == null) {
+            incluir(id, anuncio, tipoImovel(anuncio), tipoAnuncio(anuncio), situacao(anuncio));
+            return;
+        }
+        int ordinal = existente;
+        anuncios[ordinal] = anuncio;
+        String[] atuais = { tipoImovel(anuncio), tipoAnuncio(anuncio), situacao(anuncio) };
+        for (int c = 0; c < CAMPOS.length; c++) {
+            String valor = normalizar(atuais[c]);
+            if (!valor.equals(valores[c][ordinal])) {
+                desmarcar(c, ordinal);
+                marcar(c, ordinal, valor);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void remover(Anuncio anuncio) {
+        Integer ordinal = anuncio.getId() != null ? ordinalPorId.remove(anuncio.getId()) : null;
+        if (ordinal == null) {
+            return;
+        }
+        for (int c = 0; c < CAMPOS.length; c++) {
+            desmarcar(c, ordinal);
+        }
+        anuncios[ordinal] = null;
+        ids[ordinal] = null;
+        if (quantidadeLivres == ordinaisLivres.length) {
+            ordinaisLivres = Arrays.copyOf(ordinaisLivres, Math.max(16, quantidadeLivres * 2));
+        }
+        ordinaisLivres[quantidadeLivres++] = ordinal;
+    }
+
+    // ========================================
+    // CONSULTA
+    // ========================================
+
+    /**
+     * Ordinais cujo campo tem qualquer um dos valores (OU); nova instância,
+     * que pode ser combinada com BitmapCompactado.e/ou
+     */
+    public synchronized BitmapCompactado comValores(Campo campo, Collection<String> procurados) {
+        Map<String, BitmapCompactado> porValor = bitmaps.get(campo.ordinal());
+        BitmapCompactado resultado = new BitmapCompactado();
+        for (String procurado : procurados) {
+            BitmapCompactado bitmap = porValor.get(normalizar(procurado));
+            if (bitmap != null) {
+                resultado = BitmapCompactado.ou(resultado, bitmap);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Quantidade de anúncios com qualquer um dos valores, sem combinar bitmaps
+     * (cada anúncio tem um só valor por campo)
+     */
+    public synchronized int contar(Campo campo, Collection<String> procurados) {
+        Map<String, BitmapCompactado> porValor = bitmaps.get(campo.ordinal());
+        Set<String> contados = new HashSet<>();
+        int total = 0;
+        for (String procurado : procurados) {
+            String valor = normalizar(procurado);
+            BitmapCompactado bitmap = porValor.get(valor);
+            if (bitmap != null && contados.add(valor)) {
+                total += bitmap.cardinalidade();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Anúncios dos ordinais marcados, na ordem dos ordinais
+     */
+    public synchronized List<Anuncio> anuncios(BitmapCompactado selecao) {
+        List<Anuncio> resultado = new ArrayList<>(selecao.cardinalidade());
+        selecao.paraCada(ordinal -> {
+            Anuncio anuncio = resolver(ordinal);
+            if (anuncio != null) {
+                resultado.add(anuncio);
+            }
+        });
+        return resultado;
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private void incluir(String id, Anuncio anuncio, String tipoImovel, String tipoAnuncio, String situacao) {
+        if (id == null || ordinalPorId.containsKey(id)) {
+            return;
+        }
+        int ordinal = novoOrdinal();
+        anuncios[ordinal] = anuncio;
+        ids[ordinal] = id;
+        ordinalPorId.put(id, ordinal);
+        marcar(Campo.TIPO_IMOVEL.ordinal(), ordinal, normalizar(tipoImovel));
+        marcar(Campo.TIPO_ANUNCIO.ordinal(), ordinal, normalizar(tipoAnuncio));
+        marcar(Campo.SITUACAO.ordinal(), ordinal, normalizar(situacao));
+    }
+
+    private int novoOrdinal() {
+        if (quantidadeLivres > 0) {
+            return ordinaisLivres[--quantidadeLivres];
+        }
+        if (totalOrdinais == ids.length) {
+            int capacidade = Math.max(16, totalOrdinais * 2);
+            anuncios = Arrays.copyOf(anuncios, capacidade);
+            ids = Arrays.copyOf(ids, capacidade);
+            for (int c = 0; c < CAMPOS.length; c++) {
+                valores[c] = Arrays.copyOf(valores[c], capacidade);
+            }
+        }
+        return totalOrdinais++;
+    }
+
+    private void marcar(int campo, int ordinal, String valor) {
+        valores[campo][ordinal] = valor;
+        bitmaps.get(campo).computeIfAbsent(valor, chave -> new BitmapCompactado()).adicionar(ordinal);
+    }
+
+    private void desmarcar(int campo, int ordinal) {
+        String valor = valores[campo][ordinal];
+        BitmapCompactado bitmap = valor != null ? bitmaps.get(campo).get(valor) : null;
+        if (bitmap != null) {
+            bitmap.remover(ordinal);
+            if (bitmap.isVazio()) {
+                bitmaps.get(campo).remove(valor);
+            }
+        }
+        valores[campo][ordinal] = null;
+    }
+
+    private Anuncio resolver(int ordinal) {
+        Anuncio anuncio = anuncios[ordinal];
+        if (anuncio == null && catalogo != null && ids[ordinal] != null) {
+            anuncio = catalogo.buscarPorId(ids[ordinal]);
+            anuncios[ordinal] = anuncio;
+        }
+        return anuncio;
+    }
+
+    private static String tipoImovel(Anuncio anuncio) {
+        return anuncio.getImovel() != null ? anuncio.getImovel().getTipo() : "";
+    }
+
+    private static String tipoAnuncio(Anuncio anuncio) {
+        return anuncio.getTipoAnuncio() != null ? anuncio.getTipoAnuncio().name() : "";
+    }
+
+    private static String situacao(Anuncio anuncio) {
+        return anuncio.getState() != null ? anuncio.getState().getNome() : "";
+    }
+
+    private String normalizar(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        String normalizado = normalizados.get(valor);
+        if (normalizado == null) {
+            normalizado = valor.trim().toLowerCase(Locale.ROOT);
+            if (normalizados.size() < LIMITE_NORMALIZADOS) {
+                normalizados.put(valor, normalizado);
+            }
+        }
+        return normalizado;
+    }
+}
@@ -0,0 +1,27 @@
+package com.myhome.busca;
+
+import java.util.List;
+
+import com.myhome.model.Anuncio;
+
+/**
+ * Índice mantido ao lado do catálogo em memória (meusAnuncios)
+ *
+ * Quem altera o catálogo avisa o índice: carga completa (indexar),
+ * criação (adicionar), edição (atualizar) e remoção (remover).
+ * As implementações são seguras para uso por mais de uma thread
+ * (ex.: replicação aplicando mutações enquanto a interface busca).
+ */
+public interface IndiceCatalogo {
+
+    /**
+     * Reconstrói o índice a partir do catálogo inteiro
+     */
+    void indexar(List<Anuncio> anuncios);
+
+    void adicionar(Anuncio anuncio);
+
+    void atualizar(Anuncio anuncio);
+
+    void remover(Anuncio anuncio);
+}
@@ -0,0 +1,353 @@
+package com.myhome.busca;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Endereco;
+import com.myhome.persistencia.CatalogoLazy;
+import com.myhome.singleton.ConfigurationManager;
+
+/**
+ * Índice geográfico: grade uniforme de células sobre latitude/longitude
+ *
+ * RESPONSABILIDADES:
+ * - Guardar cada anúncio com coordenadas na célula do seu ponto (células
+ *   quadradas de busca.geo.celula.km, em graus), com as coordenadas em
+ *   arrays primitivos por slot
+ * - Responder a uma área (AreaGeografica) visitando só as células que
+ *   cruzam o retângulo envolvente e conferindo os pontos das células da borda
+ * - Estimar quantos anúncios a área tem, sem conferir pontos (PlanejadorBusca)
+ * - Mover o anúncio de célula quando as coordenadas mudam (IndiceCatalogo)
+ *
+ * Anúncios sem coordenadas (endereço não geocodificado) ficam fora do
+ * índice e de qualquer busca por área. No catálogo preguiçoso
+ * (CatalogoLazy), os resumos não têm coordenadas: o índice é montado na
+ * primeira busca por área, hidratando os anúncios.
+ */
+public class IndiceGeografico implements IndiceCatalogo {
+
+    /**
+     * Slots de uma célula, sem ordem (remoção troca com o último)
+     */
+    private static final class Celula {
+        final int linha;
+        final int coluna;
+        int[] slots = new int[4];
+        int tamanho;
+
+        Celula(int linha, int coluna) {
+            this.linha = linha;
+            this.coluna = coluna;
+        }
+
+        void adicionar(int slot) {
+            if (tamanho == slots.length) {
+                slots = Arrays.copyOf(slots, tamanho * 2);
+            }
+            slots[tamanho++] = slot;
+        }
+
+        void remover(int slot) {
+            for (int i = 0; i < tamanho; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--tamanho];
+                    return;
+                }
+            }
+        }
+    }
+
+    // Lado da célula em graus (nas duas direções)
+    private final double tamanhoCelula;
+    private final Map<Long, Celula> celulas = new HashMap<>();
+
+    // Por slot: anúncio, id, coordenadas indexadas e célula
+    private Anuncio[] anuncios = new Anuncio[0];
+    private String[] ids = new String[0];
+    private double[] latitudes = new double[0];
+    private double[] longitudes = new double[0];
+    private long[] celulaPorSlot = new long[0];
+    private int totalSlots;
+    private int[] slotsLivres = new int[0];
+    private int quantidadeLivres;
+    private int tamanho;
+
+    private final Map<String, Integer> slotPorId = new HashMap<>();
+    private List<Anuncio> pendente;
+
+    public IndiceGeografico() {
+        this(Double.parseDouble(ConfigurationManager.getInstance()
+                .getProperty("busca.geo.celula.km", "2").trim()));
+    }
+
+    /**
+     * @param celulaKm Lado de cada célula da grade, em km
+     */
+    public IndiceGeografico(double celulaKm) {
+        this.tamanhoCelula = celulaKm / AreaGeografica.KM_POR_GRAU;
+    }
+
+    // ========================================
+    // MANUTENÇÃO (IndiceCatalogo)
+    // ========================================
+
+    @Override
+    public synchronized void indexar(List<Anuncio> lista) {
+        celulas.clear();
+        slotPorId.clear();
+        int capacidade = lista.size();
+        anuncios = new Anuncio[capacidade];
+        ids = new String[capacidade];
+        latitudes = new double[capacidade];
+        longitudes = new double[capacidade];
+        celulaPorSlot = new long[capacidade];
+        totalSlots = 0;
+        quantidadeLivres = 0;
+        tamanho = 0;
+        if (lista instanceof CatalogoLazy) {
+            pendente = lista;
+            return;
+        }
+        pendente = null;
+        incluirTodos(lista);
+    }
+
+    @Override
+    public synchronized void adicionar(Anuncio anuncio) {
+        atualizar(anuncio);
+    }
+
+    /**
+     * Move o anúncio de célula se as coordenadas mudaram (sem coordenadas, sai do índice)
+     */
+    @Override
+    public synchronized void atualizar(Anuncio anuncio) {
+        String id = anuncio.getId();
+        if (pendente != null || id == null) {
+            return;
+        }
+        Integer existente = slotPorId.get(id);
+        Endereco endereco = endereco(anuncio);
+        if (endereco == null) {
+            if (existente != null) {
+                liberar(existente);
+            }
+            return;
+        }
+        if (existente == null) {
+            incluir(anuncio, endereco);
+            return;
+        }
+        int slot = existente;
+        anuncios[slot] = anuncio;
+        if (Double.compare(latitudes[slot], endereco.getLatitude()) == 0
+                && Double.compare(longitudes[slot], endereco.getLongitude()) == 0) {
+            return;
+        }
+        retirar(slot);
+        posicionar(slot, endereco.getLatitude(), endereco.getLongitude());
+    }
+
+    @Override
+    public synchronized void remover(Anuncio anuncio) {
+        Integer slot = anuncio.getId() != null && pendente == null ? slotPorId.get(anuncio.getId()) : null;
+        if (slot != null) {
+            liberar(slot);
+        }
+    }
+
+    // ========================================
+    // CONSULTA
+    // ========================================
+
+    /**
+     * Anúncios dentro da área. Células inteiras dentro da área entram sem
+     * conferir ponto a ponto; só as da borda são conferidas.
+     */
+    public synchronized List<Anuncio> buscar(AreaGeografica area) {
+        construirPendente();
+        List<Anuncio> resultado = new ArrayList<>();
+        visitar(area, celula -> {
+            double latitude = celula.linha * tamanhoCelula - 90;
+            double longitude = celula.coluna * tamanhoCelula - 180;
+            boolean inteira = area.contemRetangulo(latitude, longitude,
+                    latitude + tamanhoCelula, longitude + tamanhoCelula);
+            for (int i = 0; i < celula.tamanho; i++) {
+                int slot = celula.slots[i];
+                if (inteira || area.contem(latitudes[slot], longitudes[slot])) {
+                    resultado.add(anuncios[slot]);
+                }
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Anúncios estimados na área: os das células visitadas, na proporção
+     * em que cada célula cruza o retângulo envolvente (e π/4 no círculo)
+     */
+    public synchronized int contar(AreaGeografica area) {
+        construirPendente();
+        double[] estimados = new double[1];
+        visitar(area, celula -> {
+            double latitude = celula.linha * tamanhoCelula - 90;
+            double longitude = celula.coluna * tamanhoCelula - 180;
+            estimados[0] += celula.tamanho
+                    * sobreposicao(latitude, area.getLatitudeMin(), area.getLatitudeMax())
+                    * sobreposicao(longitude, area.getLongitudeMin(), area.getLongitudeMax());
+        });
+        return (int) Math.round(estimados[0] * area.getFracaoDoEnvolvente());
+    }
+
+    /**
+     * Pontos conferidos para responder à área: os de todas as células visitadas
+     */
+    public synchronized int contarPontos(AreaGeografica area) {
+        construirPendente();
+        int[] pontos = new int[1];
+        visitar(area, celula -> pontos[0] += celula.tamanho);
+        return pontos[0];
+    }
+
+    /**
+     * Anúncios com coordenadas no índice
+     */
+    public synchronized int getTamanho() {
+        construirPendente();
+        return tamanho;
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Células que cruzam o retângulo envolvente da área. Uma área com mais
+     * células possíveis que células ocupadas (ex.: um estado inteiro)
+     * percorre as ocupadas em vez de procurar cada posição da grade.
+     */
+    private void visitar(AreaGeografica area, Consumer<Celula> visitante) {
+        int linhaMin = linha(area.getLatitudeMin());
+        int linhaMax = linha(area.getLatitudeMax());
+        int colunaMin = coluna(area.getLongitudeMin());
+        int colunaMax = coluna(area.getLongitudeMax());
+        double possiveis = ((double) linhaMax - linhaMin + 1) * ((double) colunaMax - colunaMin + 1);
+        if (possiveis > celulas.size()) {
+            for (Celula celula : celulas.values()) {
+                if (celula.linha >= linhaMin && celula.linha <= linhaMax
+                        && celula.coluna >= colunaMin && celula.coluna <= colunaMax) {
+                    visitante.accept(celula);
+                }
+            }
+            return;
+        }
+        for (int linha = linhaMin; linha <= linhaMax; linha++) {
+            for (int coluna = colunaMin; coluna <= colunaMax; coluna++) {
+                Celula celula = celulas.get(chave(linha, coluna));
+                if (celula != null) {
+                    visitante.accept(celula);
+                }
+            }
+        }
+    }
+
+    private void incluirTodos(List<Anuncio> lista) {
+        for (int i = 0; i < lista.size(); i++) {
+            Anuncio anuncio = lista.get(i);
+            Endereco endereco = anuncio != null ? endereco(anuncio) : null;
+            if (endereco != null && anuncio.getId() != null && !slotPorId.containsKey(anuncio.getId())) {
+                incluir(anuncio, endereco);
+            }
+        }
+    }
+
+    private void construirPendente() {
+        if (pendente != null) {
+            List<Anuncio> lista = pendente;
+            pendente = null;
+            incluirTodos(lista);
+        }
+    }
+
+    private void incluir(Anuncio anuncio, Endereco endereco) {
+        int slot;
+        if (quantidadeLivres > 0) {
+            slot = slotsLivres[--quantidadeLivres];
+        } else {
+            if (totalSlots == ids.length) {
+                int capacidade = Math.max(16, totalSlots * 2);
+                anuncios = Arrays.copyOf(anuncios, capacidade);
+                ids = Arrays.copyOf(ids, capacidade);
+                latitudes = Arrays.copyOf(latitudes, capacidade);
+                longitudes = Arrays.copyOf(longitudes, capacidade);
+                celulaPorSlot = Arrays.copyOf(celulaPorSlot, capacidade);
+            }
+            slot = totalSlots++;
+        }
+        anuncios[slot] = anuncio;
+        ids[slot] = anuncio.getId();
+        slotPorId.put(anuncio.getId(), slot);
+        tamanho++;
+        posicionar(slot, endereco.getLatitude(), endereco.getLongitude());
+    }
+
+    private void posicionar(int slot, double latitude, double longitude) {
+        latitudes[slot] = latitude;
+        longitudes[slot] = longitude;
+        int linha = linha(latitude);
+        int coluna = coluna(longitude);
+        long chave = chave(linha, coluna);
+        celulaPorSlot[slot] = chave;
+        celulas.computeIfAbsent(chave, c -> new Celula(linha, coluna)).adicionar(slot);
+    }
+
+    private void retirar(int slot) {
+        Celula celula = celulas.get(celulaPorSlot[slot]);
+        celula.remover(slot);
+        if (celula.tamanho == 0) {
+            celulas.remove(celulaPorSlot[slot]);
+        }
+    }
+
+    private void liberar(int slot) {
+        retirar(slot);
+        slotPorId.remove(ids[slot]);
+        anuncios[slot] = null;
+        ids[slot] = null;
+        tamanho--;
+        if (quantidadeLivres == slotsLivres.length) {
+            slotsLivres = Arrays.copyOf(slotsLivres, Math.max(16, quantidadeLivres * 2));
+        }
+        slotsLivres[quantidadeLivres++] = slot;
+    }
+
+    private int linha(double latitude) {
+        return (int) Math.floor((latitude + 90) / tamanhoCelula);
+    }
+
+    private int coluna(double longitude) {
+        return (int) Math.floor((longitude + 180) / tamanhoCelula);
+    }
+
+    /**
+     * Fração de [inicio, inicio + tamanhoCelula) dentro de [minimo, maximo]
+     */
+    private double sobreposicao(double inicio, double minimo, double maximo) {
+        double dentro = Math.min(inicio + tamanhoCelula, maximo) - Math.max(inicio, minimo);
+        return Math.max(0, Math.min(1, dentro / tamanhoCelula));
+    }
+
+    private static long chave(int linha, int coluna) {
+        return ((long) linha << 32) | (coluna & 0xFFFFFFFFL);
+    }
+
+    private static Endereco endereco(Anuncio anuncio) {
+        Endereco endereco = anuncio.getImovel() != null ? anuncio.getImovel().getEndereco() : null;
+        return endereco != null && endereco.temCoordenadas() ? endereco : null;
+    }
+}
@@ -0,0 +1,193 @@
+package com.myhome.busca;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Endereco;
+import com.myhome.persistencia.ArmazemParticionado;
+import com.myhome.persistencia.CatalogoLazy;
+import com.myhome.persistencia.ResumoAnuncio;
+
+/**
+ * Índice de localização: "estado|cidade" normalizado -> ids dos anúncios
+ *
+ * RESPONSABILIDADES:
+ * - Normalizar estado e cidade sem acentos nem diferença de maiúsculas,
+ *   como nas partições do ArmazemParticionado ("João Pessoa" = "joao pessoa")
+ * - Entregar os anúncios de uma região em O(resultados), na ordem de inclusão
+ * - Acompanhar criações, edições e remoções do catálogo (IndiceCatalogo)
+ *
+ * No catálogo preguiçoso (CatalogoLazy) a indexação usa os resumos do
+ * índice binário, e a busca hidrata só os anúncios encontrados.
+ */
+public class IndiceLocalizacao implements IndiceCatalogo {
+
+    /**
+     * Nomes já normalizados: o catálogo repete poucas cidades e estados,
+     * então a normalização (Normalizer + regex) é feita uma vez por nome
+     */
+    private static final int LIMITE_CACHE = 4096;
+    private static final Map<String, String> cidadesNormalizadas = new ConcurrentHashMap<>();
+    private static final Map<String, String> estadosNormalizados = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<String>> idsPorRegiao = new HashMap<>();
+    private final Map<String, String> regiaoPorId = new HashMap<>();
+    private final Map<String, Anuncio> porId = new HashMap<>();
+    private CatalogoLazy catalogo;
+
+    // ========================================
+    // NORMALIZAÇÃO
+    // ========================================
+
+    public static String chave(String estado, String cidade) {
+        return normalizarEstado(estado) + "|" + normalizarCidade(cidade);
+    }
+
+    public static String normalizarCidade(String cidade) {
+        return normalizar(cidadesNormalizadas, cidade, ArmazemParticionado::nomeCidade);
+    }
+
+    public static String normalizarEstado(String estado) {
+        return normalizar(estadosNormalizados, estado, ArmazemParticionado::nomeEstado);
+    }
+
+    private static String normalizar(Map<String, String> cache, String texto, UnaryOperator<String> normalizacao) {
+        if (texto == null) {
+            return normalizacao.apply(null);
+        }
+        String normalizado = cache.get(texto);
+        if (normalizado == null) {
+            normalizado = normalizacao.apply(texto);
+            if (cache.size() < LIMITE_CACHE) {
+                cache.put(texto, normalizado);
+            }
+        }
+        return normalizado;
+    }
+
+    // ========================================
+    // MANUTENÇÃO (IndiceCatalogo)
+    // ========================================
+
+    @Override
+    public synchronized void indexar(List<Anuncio> anuncios) {
+        idsPorRegiao.clear();
+        regiaoPorId.clear();
+        porId.clear();
+        catalogo = anuncios instanceof CatalogoLazy ? (CatalogoLazy) anuncios : null;
+
+        if (catalogo != null) {
+            for (int i = 0; i < catalogo.size(); i++) {
+                ResumoAnuncio resumo = catalogo.getResumoAtual(i);
+                incluir(resumo.getId(), chave(resumo.getEstado(), resumo.getCidade()));
+            }
+            return;
+        }
+        for (Anuncio anuncio : anuncios) {
+            if (anuncio != null && anuncio.getId() != null) {
+                porId.put(anuncio.getId(), anuncio);
+                incluir(anuncio.getId(), chave(anuncio));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void adicionar(Anuncio anuncio) {
+        atualizar(anuncio);
+    }
+
+    /**
+     * Reposiciona o anúncio se a cidade ou o estado mudaram
+     */
+    @Override
+    public synchronized void atualizar(Anuncio anuncio) {
+        String id = anuncio.getId();
+        if (id == null) {
+            return;
+        }
+        porId.put(id, anuncio);
+        String nova = chave(anuncio);
+        String atual = regiaoPorId.get(id);
+        if (nova.equals(atual)) {
+            return;
+        }
+        excluir(id);
+        incluir(id, nova);
+    }
+
+    @Override
+    public synchronized void remover(Anuncio anuncio) {
+        String id = anuncio.getId();
+        if (id != null) {
+            excluir(id);
+            porId.remove(id);
+        }
+    }
+
+    // ========================================
+    // CONSULTA
+    // ========================================
+
+    /**
+     * Anúncios da cidade/estado, sem percorrer o catálogo
+     */
+    public synchronized List<Anuncio> buscar(String estado, String cidade) {
+        Set<String> ids = idsPorRegiao.get(chave(estado, cidade));
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        List<Anuncio> resultado = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Anuncio anuncio = porId.get(id);
+            if (anuncio == null && catalogo != null) {
+                anuncio = catalogo.buscarPorId(id);
+            }
+            if (anuncio != null) {
+                resultado.add(anuncio);
+            }
+        }
+        return resultado;
+    }
+
+    public synchronized int contar(String estado, String cidade) {
+        Set<String> ids = idsPorRegiao.get(chave(estado, cidade));
+        return ids != null ? ids.size() : 0;
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private static String chave(Anuncio anuncio) {
+        Endereco endereco = anuncio.getImovel() != null ? anuncio.getImovel().getEndereco() : null;
+        return endereco != null ? chave(endereco.getEstado(), endereco.getCidade()) : chave(null, null);
+    }
+
+    private void incluir(String id, String regiao) {
+        if (id == null) {
+            return;
+        }
+        idsPorRegiao.computeIfAbsent(regiao, chave -> new LinkedHashSet<>()).add(id);
+        regiaoPorId.put(id, regiao);
+    }
+
+    private void excluir(String id) {
+        String regiao = regiaoPorId.remove(id);
+        if (regiao == null) {
+            return;
+        }
+        Set<String> ids = idsPorRegiao.get(regiao);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            idsPorRegiao.remove(regiao);
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.myhome.busca;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import com.myhome.model.Anuncio;
+import com.myhome.persistencia.CatalogoLazy;
+import com.myhome.persistencia.ResumoAnuncio;
+
+/**
+ * Índice de preços: arrays primitivos ordenados para buscas por faixa
+ *
+ * RESPONSABILIDADES:
+ * - Manter os preços ordenados em um double[] com um int[] paralelo de
+ *   posições (slots) que apontam para os anúncios, sem objetos por entrada
+ * - Responder a uma faixa [mínimo, máximo] com duas buscas binárias:
+ *   O(log n + resultados), já em ordem crescente de preço
+ * - Reposicionar o anúncio quando o preço muda (IndiceCatalogo)
+ *
+ * Preços iguais ficam na ordem dos slots (em geral, a ordem de inclusão).
+ * No catálogo preguiçoso (CatalogoLazy) a indexação usa os resumos do
+ * índice binário, e a busca hidrata só os anúncios encontrados.
+ */
+public class IndicePreco implements IndiceCatalogo {
+
+    // Ordenados por (preço, slot)
+    private double[] precos = new double[0];
+    private int[] slots = new int[0];
+    private int tamanho;
+
+    // Por slot: anúncio (null se ainda não hidratado), id e preço indexado
+    private Anuncio[] anuncios = new Anuncio[0];
+    private String[] ids = new String[0];
+    private double[] precoPorSlot = new double[0];
+    private int totalSlots;
+    private int[] slotsLivres = new int[0];
+    private int quantidadeLivres;
+
+    private final Map<String, Integer> slotPorId = new HashMap<>();
+    private CatalogoLazy catalogo;
+
+    // ========================================
+    // MANUTENÇÃO (IndiceCatalogo)
+    // ========================================
+
+    @Override
+    public synchronized void indexar(List<Anuncio> lista) {
+        slotPorId.clear();
+        catalogo = lista instanceof CatalogoLazy ? (CatalogoLazy) lista : null;
+        int capacidade = lista.size();
+        anuncios = new Anuncio[capacidade];
+        ids = new String[capacidade];
+        precoPorSlot = new double[capacidade];
+        precos = new double[capacidade];
+        slots = new int[capacidade];
+        totalSlots = 0;
+        quantidadeLivres = 0;
+
+        for (int i = 0; i < capacidade; i++) {
+            String id;
+            double preco;
+            Anuncio anuncio = null;
+            if (catalogo != null) {
+                ResumoAnuncio resumo = catalogo.getResumoAtual(i);
+                id = resumo.getId();
+                preco = resumo.getPreco();
+            } else {
+                anuncio = lista.get(i);
+                if (anuncio == null) {
+                    continue;
+                }
+                id = anuncio.getId();
+                preco = anuncio.getPreco();
+            }
+            if (id == null || slotPorId.containsKey(id)) {
+                continue;
+            }
+            int slot = totalSlots++;
+            anuncios[slot] = anuncio;
+            ids[slot] = id;
+            precoPorSlot[slot] = preco;
+            slotPorId.put(id, slot);
+            precos[slot] = preco;
+            slots[slot] = slot;
+        }
+        tamanho = totalSlots;
+        ordenar();
+    }
+
+    @Override
+    public synchronized void adicionar(Anuncio anuncio) {
+        atualizar(anuncio);
+    }
+
+    /**
+     * Move o anúncio para a nova posição se o preço mudou
+     */
+    @Override
+    public synchronized void atualizar(Anuncio anuncio) {
+        String id = anuncio.getId();
+        if (id == null) {
+            return;
+        }
+        Integer existente = slotPorId.get(id);
+        if (existente == null) {
+            int slot = novoSlot(id, anuncio);
+            precoPorSlot[slot] = anuncio.getPreco();
+            inserir(anuncio.getPreco(), slot);
+            return;
+        }
+        int slot = existente;
+        anuncios[slot] = anuncio;
+        double preco = anuncio.getPreco();
+        if (Double.compare(preco, precoPorSlot[slot]) == 0) {
+            return;
+        }
+        excluir(precoPorSlot[slot], slot);
+        precoPorSlot[slot] = preco;
+        inserir(preco, slot);
+    }
+
+    @Override
+    public synchronized void remover(Anuncio anuncio) {
+        Integer slot = anuncio.getId() != null ? slotPorId.remove(anuncio.getId()) : null;
+        if (slot == null) {
+            return;
+        }
+        excluir(precoPorSlot[slot], slot);
+        anuncios[slot] = null;
+        ids[slot] = null;
+        if (quantidadeLivres == slotsLivres.length) {
+            slotsLivres = Arrays.copyOf(slotsLivres, Math.max(16, quantidadeLivres * 2));
+        }
+        slotsLivres[quantidadeLivres++] = slot;
+    }
+
+    // ========================================
+    // CONSULTA
+    // ========================================
+
+    /**
+     * Anúncios com preço entre mínimo e máximo (inclusive), em ordem de preço
+     */
+    public synchronized List<Anuncio> buscar(double minimo, double maximo) {
+        int inicio = primeiroMaiorOuIgual(minimo);
+        int fim = primeiroMaior(maximo);
+        List<Anuncio> resultado = new ArrayList<>(Math.max(0, fim - inicio));
+        for (int i = inicio; i < fim; i++) {
+            Anuncio anuncio = resolver(slots[i]);
+            if (anuncio != null) {
+                resultado.add(anuncio);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Mesma faixa de buscar(), mas sem resolver os anúncios: a lista guarda
+     * só os slots da faixa e resolve (ou hidrata) cada anúncio ao ser lida.
+     * Quem lê apenas o começo, como a primeira página ordenada por preço,
+     * paga pelos anúncios lidos, não pela faixa inteira. Um anúncio removido
+     * depois da chamada é lido como null.
+     */
+    public synchronized List<Anuncio> percorrer(double minimo, double maximo) {
+        int inicio = primeiroMaiorOuIgual(minimo);
+        int fim = Math.max(inicio, primeiroMaior(maximo));
+        int[] slotsDaFaixa = Arrays.copyOfRange(slots, inicio, fim);
+        String[] idsDaFaixa = new String[slotsDaFaixa.length];
+        for (int i = 0; i < slotsDaFaixa.length; i++) {
+            idsDaFaixa[i] = ids[slotsDaFaixa[i]];
+        }
+        return new Faixa(slotsDaFaixa, idsDaFaixa);
+    }
+
+    /**
+     * Slots de uma faixa, resolvidos sob demanda
+     */
+    private final class Faixa extends AbstractList<Anuncio> implements RandomAccess {
+        private final int[] slotsDaFaixa;
+        // Ids no momento da chamada: um slot reaproveitado não troca o anúncio
+        private final String[] idsDaFaixa;
+
+        Faixa(int[] slotsDaFaixa, String[] idsDaFaixa) {
+            this.slotsDaFaixa = slotsDaFaixa;
+            this.idsDaFaixa = idsDaFaixa;
+        }
+
+        @Override
+        public Anuncio get(int indice) {
+            int slot = slotsDaFaixa[indice];
+            synchronized (IndicePreco.this) {
+                String id = idsDaFaixa[indice];
+                return id != null && id.equals(ids[slot]) ? resolver(slot) : null;
+            }
+        }
+
+        @Override
+        public int size() {
+            return slotsDaFaixa.length;
+        }
+    }
+
+    /**
+     * Quantidade de anúncios na faixa, sem montar nenhum (O(log n))
+     */
+    public synchronized int contar(double minimo, double maximo) {
+        return Math.max(0, primeiroMaior(maximo) - primeiroMaiorOuIgual(minimo));
+    }
+
+    public synchronized int getTamanho() {
+        return tamanho;
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private Anuncio resolver(int slot) {
+        Anuncio anuncio = anuncios[slot];
+        if (anuncio == null && catalogo != null) {
+            anuncio = catalogo.buscarPorId(ids[slot]);
+            anuncios[slot] = anuncio;
+        }
+        return anuncio;
+    }
+
+    private int novoSlot(String id, Anuncio anuncio) {
+        int slot;
+        if (quantidadeLivres > 0) {
+            slot = slotsLivres[--quantidadeLivres];
+        } else {
+            if (totalSlots == ids.length) {
+                int capacidade = Math.max(16, totalSlots * 2);
+                anuncios = Arrays.copyOf(anuncios, capacidade);
+                ids = Arrays.copyOf(ids, capacidade);
+                precoPorSlot = Arrays.copyOf(precoPorSlot, capacidade);
+            }
+            slot = totalSlots++;
+        }
+        anuncios[slot] = anuncio;
+        ids[slot] = id;
+        slotPorId.put(id, slot);
+        return slot;
+    }
+
+    private void inserir(double preco, int slot) {
+        if (tamanho == precos.length) {
+            int capacidade = Math.max(16, tamanho * 2);
+            precos = Arrays.copyOf(precos, capacidade);
+            slots = Arrays.copyOf(slots, capacidade);
+        }
+        int posicao = posicao(preco, slot);
+        System.arraycopy(precos, posicao, precos, posicao + 1, tamanho - posicao);
+        System.arraycopy(slots, posicao, slots, posicao + 1, tamanho - posicao);
+        precos[posicao] = preco;
+        slots[posicao] = slot;
+        tamanho++;
+    }
+
+    private void excluir(double preco, int slot) {
+        int posicao = posicao(preco, slot);
+        if (posicao >= tamanho || slots[posicao] != slot) {
+            return;
+        }
+        System.arraycopy(precos, posicao + 1, precos, posicao, tamanho - posicao - 1);
+        System.arraycopy(slots, posicao + 1, slots, posicao, tamanho - posicao - 1);
+        tamanho--;
+    }
+
+    /**
+     * Primeira posição com (preço, slot) maior ou igual ao par informado
+     */
+    private int posicao(double preco, int slot) {
+        int baixo = 0;
+        int alto = tamanho;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (compara(precos[meio], slots[meio], preco, slot) < 0) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private int primeiroMaiorOuIgual(double preco) {
+        int baixo = 0;
+        int alto = tamanho;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (Double.compare(precos[meio], preco) < 0) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private int primeiroMaior(double preco) {
+        int baixo = 0;
+        int alto = tamanho;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (Double.compare(precos[meio], preco) <= 0) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    private static int compara(double precoA, int slotA, double precoB, int slotB) {
+        int porPreco = Double.compare(precoA, precoB);
+        return porPreco != 0 ? porPreco : Integer.compare(slotA, slotB);
+    }
+
+    /**
+     * Heapsort dos pares (preço, slot) nos dois arrays paralelos,
+     * sem criar objetos
+     */
+    private void ordenar() {
+        for (int i = tamanho / 2 - 1; i >= 0; i--) {
+            descer(i, tamanho);
+        }
+        for (int fim = tamanho - 1; fim > 0; fim--) {
+            trocar(0, fim);
+            descer(0, fim);
+        }
+    }
+
+    private void descer(int raiz, int limite) {
+        while (true) {
+            int maior = raiz;
+            int esquerda = 2 * raiz + 1;
+            int direita = esquerda + 1;
+            if (esquerda < limite && compara(precos[esquerda], slots[esquerda], precos[maior], slots[maior]) > 0) {
+                maior = esquerda;
+            }
+            if (direita < limite && compara(precos[direita], slots[direita], precos[maior], slots[maior]) > 0) {
+                maior = direita;
+            }
+            if (maior == raiz) {
+                return;
+            }
+            trocar(raiz, maior);
+            raiz = maior;
+        }
+    }
+
+    private void trocar(int i, int j) {
+        double preco = precos[i];
+        precos[i] = precos[j];
+        precos[j] = preco;
+        int slot = slots[i];
+        slots[i] = slots[j];
+        slots[j] = slot;
+    }
+}
@@ -0,0 +1,419 @@
+package com.myhome.busca;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.myhome.model.Anuncio;
+import com.myhome.persistencia.CatalogoLazy;
+
+/**
+ * Índice invertido de título e descrição, com relevância BM25
+ *
+ * RESPONSABILIDADES:
+ * - Guardar, por termo (AnalisadorTexto), a lista dos documentos que o
+ *   contêm e quantas vezes, comprimida: diferença entre documentos
+ *   consecutivos e frequência em varint (1 byte para valores até 127)
+ * - Responder a uma consulta com os anúncios que têm todos os termos,
+ *   cruzando as listas a partir da mais curta
+ * - Pontuar cada anúncio encontrado com BM25 (k1 = 1.2, b = 0.75)
+ * - Acompanhar as alterações do catálogo (IndiceCatalogo)
+ *
+ * As listas só crescem no fim: um anúncio alterado ou removido vira um
+ * documento morto, ignorado nas consultas, e o texto alterado entra como
+ * documento novo. Quando os mortos passam dos vivos, o índice é refeito.
+ * Até lá, a frequência de documentos de cada termo (usada no BM25) conta
+ * também os mortos. Mudanças de preço ou de estado não alteram o texto e
+ * não geram documento novo.
+ *
+ * No catálogo preguiçoso (CatalogoLazy), o índice é montado na primeira
+ * consulta, hidratando os anúncios: só quem busca por palavras paga a carga.
+ */
+public class IndiceTexto implements IndiceCatalogo {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Documentos mortos tolerados antes de refazer o índice (além dos vivos)
+    private static final int MORTOS_MINIMO_COMPACTAR = 1024;
+
+    /**
+     * Lista de ocorrências de um termo: pares (doc - doc anterior, frequência) em varint
+     */
+    private static final class Termo {
+        byte[] ocorrencias = new byte[8];
+        int bytes;
+        int ultimoDocumento = -1;
+        int documentos;
+
+        void adicionar(int documento, int frequencia) {
+            escrever(documento - ultimoDocumento);
+            escrever(frequencia);
+            ultimoDocumento = documento;
+            documentos++;
+        }
+
+        private void escrever(int valor) {
+            if (bytes + 5 > ocorrencias.length) {
+                ocorrencias = Arrays.copyOf(ocorrencias, Math.max(bytes + 5, ocorrencias.length * 2));
+            }
+            while ((valor & ~0x7F) != 0) {
+                ocorrencias[bytes++] = (byte) ((valor & 0x7F) | 0x80);
+                valor >>>= 7;
+            }
+            ocorrencias[bytes++] = (byte) valor;
+        }
+    }
+
+    /**
+     * Resultado de uma consulta: anúncios com todos os termos, na ordem do
+     * índice, e a relevância BM25 de cada um. Imutável.
+     */
+    public static final class Resultado {
+
+        private final List<Anuncio> anuncios;
+        private final Map<String, Double> relevancia;
+
+        private Resultado(List<Anuncio> anuncios, Map<String, Double> relevancia) {
+            this.anuncios = Collections.unmodifiableList(anuncios);
+            this.relevancia = relevancia;
+        }
+
+        public List<Anuncio> getAnuncios() {
+            return anuncios;
+        }
+
+        public boolean contem(Anuncio anuncio) {
+            return anuncio.getId() != null && relevancia.containsKey(anuncio.getId());
+        }
+
+        /**
+         * Relevância BM25 do anúncio (0 se ele não está no resultado)
+         */
+        public double relevancia(Anuncio anuncio) {
+            Double valor = anuncio.getId() != null ? relevancia.get(anuncio.getId()) : null;
+            return valor != null ? valor : 0;
+        }
+    }
+
+    private final Map<String, Termo> termos = new HashMap<>();
+
+    // Por documento: anúncio, id, termos no texto e assinatura do texto indexado
+    private Anuncio[] anuncios = new Anuncio[0];
+    private String[] ids = new String[0];
+    private int[] comprimentos = new int[0];
+    private long[] assinaturas = new long[0];
+    private final BitSet mortos = new BitSet();
+    private int totalDocumentos;
+    private int vivos;
+    private long comprimentoTotal;
+
+    private final Map<String, Integer> documentoPorId = new HashMap<>();
+    private List<Anuncio> pendente;
+
+    // ========================================
+    // MANUTENÇÃO (IndiceCatalogo)
+    // ========================================
+
+    @Override
+    public synchronized void indexar(List<Anuncio> lista) {
+        limpar(lista.size());
+        if (lista instanceof CatalogoLazy) {
+            pendente = lista;
+            return;
+        }
+        pendente = null;
+        incluirTodos(lista);
+    }
+
+    @Override
+    public synchronized void adicionar(Anuncio anuncio) {
+        atualizar(anuncio);
+    }
+
+    @Override
+    public synchronized void atualizar(Anuncio anuncio) {
+        String id = anuncio.getId();
+        if (pendente != null || id == null) {
+            return;
+        }
+        Integer documento = documentoPorId.get(id);
+        if (documento != null) {
+            if (assinaturas[documento] == assinatura(anuncio)) {
+                anuncios[documento] = anuncio;
+                return;
+            }
+            excluir(documento);
+        }
+        incluir(anuncio);
+        compactarSeNecessario();
+    }
+
+    @Override
+    public synchronized void remover(Anuncio anuncio) {
+        Integer documento = anuncio.getId() != null && pendente == null ? documentoPorId.get(anuncio.getId()) : null;
+        if (documento != null) {
+            excluir(documento);
+            compactarSeNecessario();
+        }
+    }
+
+    // ========================================
+    // CONSULTA
+    // ========================================
+
+    /**
+     * Anúncios com todos os termos (AnalisadorTexto.termosDistintos da consulta)
+     */
+    public synchronized Resultado consultar(List<String> consulta) {
+        construirPendente();
+        List<Termo> encontrados = new ArrayList<>();
+        for (String termo : consulta) {
+            Termo encontrado = termos.get(termo);
+            if (encontrado == null) {
+                return new Resultado(new ArrayList<>(), new HashMap<>());
+            }
+            encontrados.add(encontrado);
+        }
+        if (encontrados.isEmpty() || vivos == 0) {
+            return new Resultado(new ArrayList<>(), new HashMap<>());
+        }
+        encontrados.sort(Comparator.comparingInt(termo -> termo.documentos));
+
+        // Candidatos: documentos vivos do termo mais raro; os demais termos só cruzam
+        double mediaComprimento = (double) comprimentoTotal / vivos;
+        Termo primeiro = encontrados.get(0);
+        int[] documentos = new int[primeiro.documentos];
+        double[] pontuacoes = new double[primeiro.documentos];
+        int quantidade = 0;
+        double idf = idf(primeiro);
+        int posicao = 0;
+        int documento = -1;
+        int[] leitura = new int[1];
+        while (posicao < primeiro.bytes) {
+            leitura[0] = posicao;
+            documento += ler(primeiro.ocorrencias, leitura);
+            int frequencia = ler(primeiro.ocorrencias, leitura);
+            posicao = leitura[0];
+            if (!mortos.get(documento)) {
+                documentos[quantidade] = documento;
+                pontuacoes[quantidade++] = idf * peso(frequencia, comprimentos[documento], mediaComprimento);
+            }
+        }
+
+        for (int t = 1; t < encontrados.size() && quantidade > 0; t++) {
+            Termo termo = encontrados.get(t);
+            idf = idf(termo);
+            int mantidos = 0;
+            int candidato = 0;
+            posicao = 0;
+            documento = -1;
+            while (posicao < termo.bytes && candidato < quantidade) {
+                leitura[0] = posicao;
+                documento += ler(termo.ocorrencias, leitura);
+                int frequencia = ler(termo.ocorrencias, leitura);
+                posicao = leitura[0];
+                while (candidato < quantidade && documentos[candidato] < documento) {
+                    candidato++;
+                }
+                if (candidato < quantidade && documentos[candidato] == documento) {
+                    documentos[mantidos] = documento;
+                    pontuacoes[mantidos++] = pontuacoes[candidato++]
+                            + idf * peso(frequencia, comprimentos[documento], mediaComprimento);
+                }
+            }
+            quantidade = mantidos;
+        }
+
+        List<Anuncio> resultado = new ArrayList<>(quantidade);
+        Map<String, Double> relevancia = new HashMap<>(Math.max(16, quantidade * 4 / 3 + 1));
+        for (int i = 0; i < quantidade; i++) {
+            resultado.add(anuncios[documentos[i]]);
+            relevancia.put(ids[documentos[i]], pontuacoes[i]);
+        }
+        return new Resultado(resultado, relevancia);
+    }
+
+    /**
+     * Máximo de anúncios com todos os termos (documentos do termo mais
+     * raro), sem percorrer nenhuma lista
+     */
+    public synchronized int contar(List<String> consulta) {
+        construirPendente();
+        int menor = consulta.isEmpty() ? 0 : Integer.MAX_VALUE;
+        for (String termo : consulta) {
+            Termo encontrado = termos.get(termo);
+            menor = Math.min(menor, encontrado != null ? Math.min(encontrado.documentos, vivos) : 0);
+        }
+        return menor;
+    }
+
+    /**
+     * Entradas lidas para responder à consulta: soma dos documentos de cada termo
+     */
+    public synchronized long somarDocumentos(List<String> consulta) {
+        construirPendente();
+        long soma = 0;
+        for (String termo : consulta) {
+            Termo encontrado = termos.get(termo);
+            soma += encontrado != null ? encontrado.documentos : 0;
+        }
+        return soma;
+    }
+
+    public synchronized int getTamanho() {
+        construirPendente();
+        return vivos;
+    }
+
+    /**
+     * Relevância de um anúncio sem as estatísticas do índice (busca sem
+     * IndicesBusca): BM25 com todos os termos igualmente raros e sem
+     * normalizar pelo comprimento. 0 se falta algum termo.
+     */
+    public static double relevancia(Anuncio anuncio, List<String> consulta) {
+        List<String> texto = termosDoAnuncio(anuncio);
+        double pontuacao = 0;
+        for (String termo : consulta) {
+            int frequencia = Collections.frequency(texto, termo);
+            if (frequencia == 0) {
+                return 0;
+            }
+            pontuacao += frequencia * (K1 + 1) / (frequencia + K1);
+        }
+        return pontuacao;
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private void limpar(int capacidade) {
+        termos.clear();
+        documentoPorId.clear();
+        mortos.clear();
+        anuncios = new Anuncio[capacidade];
+        ids = new String[capacidade];
+        comprimentos = new int[capacidade];
+        assinaturas = new long[capacidade];
+        totalDocumentos = 0;
+        vivos = 0;
+        comprimentoTotal = 0;
+    }
+
+    private void incluirTodos(List<Anuncio> lista) {
+        for (int i = 0; i < lista.size(); i++) {
+            Anuncio anuncio = lista.get(i);
+            if (anuncio != null && anuncio.getId() != null && !documentoPorId.containsKey(anuncio.getId())) {
+                incluir(anuncio);
+            }
+        }
+    }
+
+    private void construirPendente() {
+        if (pendente != null) {
+            List<Anuncio> lista = pendente;
+            pendente = null;
+            incluirTodos(lista);
+        }
+    }
+
+    private void incluir(Anuncio anuncio) {
+        if (totalDocumentos == ids.length) {
+            int capacidade = Math.max(16, totalDocumentos * 2);
+            anuncios = Arrays.copyOf(anuncios, capacidade);
+            ids = Arrays.copyOf(ids, capacidade);
+            comprimentos = Arrays.copyOf(comprimentos, capacidade);
+            assinaturas = Arrays.copyOf(assinaturas, capacidade);
+        }
+        int documento = totalDocumentos++;
+        List<String> texto = termosDoAnuncio(anuncio);
+        anuncios[documento] = anuncio;
+        ids[documento] = anuncio.getId();
+        comprimentos[documento] = texto.size();
+        assinaturas[documento] = assinatura(anuncio);
+        documentoPorId.put(anuncio.getId(), documento);
+        vivos++;
+        comprimentoTotal += texto.size();
+
+        // Termos iguais ficam juntos: cada sequência é uma ocorrência com frequência
+        Collections.sort(texto);
+        for (int i = 0; i < texto.size(); ) {
+            int fim = i + 1;
+            while (fim < texto.size() && texto.get(fim).equals(texto.get(i))) {
+                fim++;
+            }
+            termos.computeIfAbsent(texto.get(i), chave -> new Termo()).adicionar(documento, fim - i);
+            i = fim;
+        }
+    }
+
+    private void excluir(int documento) {
+        mortos.set(documento);
+        vivos--;
+        comprimentoTotal -= comprimentos[documento];
+        documentoPorId.remove(ids[documento]);
+        anuncios[documento] = null;
+        ids[documento] = null;
+    }
+
+    /**
+     * Refaz o índice só com os vivos quando os mortos passam deles
+     */
+    private void compactarSeNecessario() {
+        int quantidadeMortos = totalDocumentos - vivos;
+        if (quantidadeMortos < MORTOS_MINIMO_COMPACTAR || quantidadeMortos <= vivos) {
+            return;
+        }
+        List<Anuncio> vivosNaOrdem = new ArrayList<>(vivos);
+        for (int documento = 0; documento < totalDocumentos; documento++) {
+            if (!mortos.get(documento)) {
+                vivosNaOrdem.add(anuncios[documento]);
+            }
+        }
+        limpar(vivosNaOrdem.size());
+        incluirTodos(vivosNaOrdem);
+    }
+
+    private double idf(Termo termo) {
+        double documentos = Math.min(termo.documentos, vivos);
+        return Math.log(1 + (vivos - documentos + 0.5) / (documentos + 0.5));
+    }
+
+    private static double peso(int frequencia, int comprimento, double mediaComprimento) {
+        return frequencia * (K1 + 1) / (frequencia + K1 * (1 - B + B * comprimento / mediaComprimento));
+    }
+
+    /**
+     * Lê um varint a partir de posicao[0], avançando a posição
+     */
+    private static int ler(byte[] dados, int[] posicao) {
+        int valor = 0;
+        int deslocamento = 0;
+        byte b;
+        do {
+            b = dados[posicao[0]++];
+            valor |= (b & 0x7F) << deslocamento;
+            deslocamento += 7;
+        } while ((b & 0x80) != 0);
+        return valor;
+    }
+
+    private static List<String> termosDoAnuncio(Anuncio anuncio) {
+        List<String> texto = AnalisadorTexto.termos(anuncio.getTitulo());
+        texto.addAll(AnalisadorTexto.termos(anuncio.getDescricao()));
+        return texto;
+    }
+
+    // Muda quando o título ou a descrição mudam
+    private static long assinatura(Anuncio anuncio) {
+        String titulo = anuncio.getTitulo() != null ? anuncio.getTitulo() : "";
+        String descricao = anuncio.getDescricao() != null ? anuncio.getDescricao() : "";
+        return ((long) titulo.hashCode() << 32) ^ (descricao.hashCode() & 0xFFFFFFFFL) ^ titulo.length();
+    }
+}
@@ -0,0 +1,107 @@
+package com.myhome.busca;
+
+import java.util.List;
+
+import com.myhome.model.Anuncio;
+
+/**
+ * COMPOSITE - Conjunto dos índices de busca de um catálogo
+ *
+ * RESPONSABILIDADES:
+ * - Repassar cada alteração do catálogo a todos os índices
+ * - Lembrar qual lista foi indexada, para que a busca só use os índices
+ *   quando filtrar exatamente essa lista
+ * - Fornecer as contagens usadas como estatísticas pelo PlanejadorBusca
+ * - Invalidar o cache de resultados (CacheBusca) junto com os índices
+ */
+public class IndicesBusca implements IndiceCatalogo {
+
+    private final IndiceLocalizacao localizacao = new IndiceLocalizacao();
+    private final IndicePreco preco = new IndicePreco();
+    private final IndiceBitmap categorias = new IndiceBitmap();
+    private final IndiceTexto texto = new IndiceTexto();
+    private final IndiceGeografico geografico = new IndiceGeografico();
+    private final CacheBusca cache = new CacheBusca();
+    private final IndiceCatalogo[] indices = { localizacao, preco, categorias, texto, geografico, cache };
+
+    private volatile List<Anuncio> catalogo;
+
+    @Override
+    public void indexar(List<Anuncio> anuncios) {
+        for (IndiceCatalogo indice : indices) {
+            indice.indexar(anuncios);
+        }
+        catalogo = anuncios;
+    }
+
+    @Override
+    public void adicionar(Anuncio anuncio) {
+        for (IndiceCatalogo indice : indices) {
+            indice.adicionar(anuncio);
+        }
+    }
+
+    @Override
+    public void atualizar(Anuncio anuncio) {
+        for (IndiceCatalogo indice : indices) {
+            indice.atualizar(anuncio);
+        }
+    }
+
+    @Override
+    public void remover(Anuncio anuncio) {
+        for (IndiceCatalogo indice : indices) {
+            indice.remover(anuncio);
+        }
+    }
+
+    /**
+     * Indica se os índices refletem esta lista
+     */
+    public boolean cobre(List<Anuncio> anuncios) {
+        return anuncios != null && anuncios == catalogo;
+    }
+
+    /**
+     * Anúncios indexados (base das estatísticas do PlanejadorBusca)
+     */
+    public int getTamanho() {
+        return preco.getTamanho();
+    }
+
+    public IndiceLocalizacao getLocalizacao() {
+        return localizacao;
+    }
+
+    public IndicePreco getPreco() {
+        return preco;
+    }
+
+    /**
+     * Resultados recentes das buscas neste catálogo
+     */
+    public CacheBusca getCache() {
+        return cache;
+    }
+
+    /**
+     * Bitmaps de tipo de imóvel, tipo de anúncio e situação
+     */
+    public IndiceBitmap getCategorias() {
+        return categorias;
+    }
+
+    /**
+     * Índice invertido de título e descrição (busca por palavras)
+     */
+    public IndiceTexto getTexto() {
+        return texto;
+    }
+
+    /**
+     * Grade de coordenadas dos endereços (busca por raio ou retângulo)
+     */
+    public IndiceGeografico getGeografico() {
+        return geografico;
+    }
+}
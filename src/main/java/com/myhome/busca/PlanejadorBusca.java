@@ -0,0 +1,361 @@
+package com.myhome.busca;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.myhome.busca.PlanoBusca.Acesso;
+import com.myhome.busca.PlanoBusca.Etapa;
+import com.myhome.busca.PlanoBusca.Filtro;
+import com.myhome.decorator.Ordenacao;
+import com.myhome.model.Anuncio;
+import com.myhome.model.TipoAnuncio;
+import com.myhome.persistencia.CatalogoLazy;
+
+/**
+ * Planejador de buscas baseado em custo
+ *
+ * RESPONSABILIDADES:
+ * - Estimar a seletividade de cada filtro com as contagens mantidas pelos
+ *   índices (IndicesBusca): faixa de preço, cidade/estado, bitmaps por valor,
+ *   documentos por termo do índice de texto e anúncios nas células da grade
+ *   geográfica
+ * - Comparar os caminhos de acesso possíveis (varredura, resumos do catálogo
+ *   preguiçoso ou um dos índices) pelo custo estimado da busca inteira
+ * - Ordenar os filtros restantes para que os mais seletivos e baratos
+ *   descartem candidatos antes dos demais
+ *
+ * O custo é medido em "avaliações de filtro simples" (comparar um preço):
+ * as constantes abaixo dão o peso relativo de cada operação. Os filtros
+ * são ordenados por custo / (1 - seletividade), a ordem ótima para filtros
+ * independentes combinados com E.
+ *
+ * Sem índices, as seletividades vêm de estimativas padrão: fração fixa para
+ * faixa de preço, localização, palavras-chave e área no mapa, e um valor sobre os valores possíveis
+ * para tipo, tipo de anúncio e situação.
+ *
+ * Numa busca paginada (ordenação e limite k), os resultados passam por um
+ * heap limitado, a log2(k) comparações cada. Ordenada por preço, o índice
+ * de preço já entrega os candidatos na ordem: a busca para ao completar a
+ * página, e só a fração (k + 1) / resultados dos candidatos é percorrida.
+ */
+public class PlanejadorBusca {
+
+    // Custos relativos, por anúncio
+    private static final double CUSTO_PERCORRER = 0.5;
+    private static final double CUSTO_RESOLVER = 1.0;
+    private static final double CUSTO_HIDRATAR = 20.0;
+    private static final double CUSTO_RESUMO = 1.0;
+    private static final double CUSTO_BITMAP = 0.02;
+    private static final double CUSTO_VALOR_ADICIONAL = 0.5;
+    private static final double CUSTO_HEAP = 1.0;     // por nível do heap
+    private static final double CUSTO_OCORRENCIA = 0.1;  // entrada lida do índice de texto
+    private static final double CUSTO_ANALISAR_TEXTO = 30.0;  // quebrar título e descrição em termos
+    private static final double CUSTO_PONTO = 0.5;    // ponto conferido numa célula da grade
+    private static final double CUSTO_DISTANCIA = 3.0;  // distância sobre a esfera (raio)
+
+    // Estimativas sem índices
+    private static final double SELETIVIDADE_PRECO = 1.0 / 3;
+    private static final double SELETIVIDADE_LOCALIZACAO = 0.05;
+    private static final double SELETIVIDADE_TEXTO = 0.01;
+    private static final double SELETIVIDADE_AREA = 0.01;
+    private static final int TIPOS_IMOVEL = 4;        // Casa, Apartamento, Terreno, Sala Comercial
+    private static final int SITUACOES = 5;           // Rascunho, Moderação, Ativo, Vendido, Suspenso
+
+    private static final Set<Filtro> CATEGORIAS = EnumSet.of(Filtro.TIPO_IMOVEL, Filtro.TIPO_ANUNCIO, Filtro.SITUACAO);
+
+    private final IndicesBusca indices;
+
+    /**
+     * @param indices Índices do catálogo (null para usar só as estimativas padrão)
+     */
+    public PlanejadorBusca(IndicesBusca indices) {
+        this.indices = indices;
+    }
+
+    public PlanoBusca planejar(List<Anuncio> anuncios, CriteriosBusca criterios) {
+        return planejar(anuncios, criterios, null, 0);
+    }
+
+    /**
+     * @param ordenacao Ordenação da página (null para a busca completa)
+     * @param limite Anúncios por página
+     */
+    public PlanoBusca planejar(List<Anuncio> anuncios, CriteriosBusca criterios, Ordenacao ordenacao, int limite) {
+        boolean paginada = ordenacao != null && limite > 0;
+        int total = anuncios.size();
+        boolean comEstatisticas = indices != null && indices.getTamanho() > 0;
+        boolean indexado = indices != null && indices.cobre(anuncios);
+        boolean preguicoso = anuncios instanceof CatalogoLazy;
+        double custoResolver = preguicoso ? CUSTO_HIDRATAR : CUSTO_RESOLVER;
+
+        Map<Filtro, Double> seletividades = seletividades(criterios, comEstatisticas);
+        // Resumos do catálogo preguiçoso não têm título, descrição nem coordenadas
+        Set<Filtro> nosResumos = EnumSet.noneOf(Filtro.class);
+        for (Filtro filtro : seletividades.keySet()) {
+            if (filtro != Filtro.TEXTO && filtro != Filtro.AREA) {
+                nosResumos.add(filtro);
+            }
+        }
+
+        // Caminhos de acesso possíveis: candidatos estimados, custo e filtros garantidos
+        Map<Acesso, Double> candidatos = new EnumMap<>(Acesso.class);
+        Map<Acesso, Double> custosAcesso = new EnumMap<>(Acesso.class);
+        Map<Acesso, Set<Filtro>> garantidos = new EnumMap<>(Acesso.class);
+
+        if (preguicoso && !nosResumos.isEmpty()) {
+            double estimados = total * produto(seletividades, nosResumos);
+            candidatos.put(Acesso.RESUMOS, estimados);
+            custosAcesso.put(Acesso.RESUMOS, total * CUSTO_RESUMO + estimados * CUSTO_HIDRATAR);
+            garantidos.put(Acesso.RESUMOS, nosResumos);
+        } else {
+            candidatos.put(Acesso.VARREDURA, (double) total);
+            custosAcesso.put(Acesso.VARREDURA, total * (CUSTO_PERCORRER + (preguicoso ? CUSTO_HIDRATAR : 0)));
+            garantidos.put(Acesso.VARREDURA, EnumSet.noneOf(Filtro.class));
+        }
+
+        // Em ordem de preço, o índice serve mesmo sem filtro de preço (faixa inteira)
+        boolean ordemDoIndice = indexado && paginada && ordenacao == Ordenacao.PRECO;
+        if (indexado && (criterios.temPreco() || ordemDoIndice)) {
+            double estimados = criterios.temPreco()
+                    ? indices.getPreco().contar(criterios.getPrecoMin(), criterios.getPrecoMax())
+                    : indices.getPreco().getTamanho();
+            candidatos.put(Acesso.INDICE_PRECO, estimados);
+            custosAcesso.put(Acesso.INDICE_PRECO, log2(total) + estimados * custoResolver);
+            garantidos.put(Acesso.INDICE_PRECO, EnumSet.of(Filtro.PRECO));
+        }
+        if (indexado && criterios.temLocalizacao()) {
+            double estimados = indices.getLocalizacao().contar(criterios.getEstado(), criterios.getCidade());
+            candidatos.put(Acesso.INDICE_LOCALIZACAO, estimados);
+            custosAcesso.put(Acesso.INDICE_LOCALIZACAO, 1 + estimados * custoResolver);
+            garantidos.put(Acesso.INDICE_LOCALIZACAO, EnumSet.of(Filtro.LOCALIZACAO));
+        }
+        Set<Filtro> categorias = EnumSet.noneOf(Filtro.class);
+        for (Filtro filtro : seletividades.keySet()) {
+            if (CATEGORIAS.contains(filtro)) {
+                categorias.add(filtro);
+            }
+        }
+        if (indexado && !categorias.isEmpty()) {
+            // Operações de bitmap proporcionais aos anúncios marcados em cada campo
+            double marcados = 0;
+            for (Filtro filtro : categorias) {
+                marcados += seletividades.get(filtro) * total;
+            }
+            double estimados = total * produto(seletividades, categorias);
+            candidatos.put(Acesso.INDICE_CATEGORIAS, estimados);
+            custosAcesso.put(Acesso.INDICE_CATEGORIAS, marcados * CUSTO_BITMAP + estimados * custoResolver);
+            garantidos.put(Acesso.INDICE_CATEGORIAS, categorias);
+        }
+
+        if (indexado && criterios.temTexto()) {
+            // O índice guarda os anúncios encontrados: nada a hidratar
+            IndiceTexto texto = indices.getTexto();
+            double estimados = texto.contar(criterios.getTermosTexto());
+            candidatos.put(Acesso.INDICE_TEXTO, estimados);
+            custosAcesso.put(Acesso.INDICE_TEXTO,
+                    texto.somarDocumentos(criterios.getTermosTexto()) * CUSTO_OCORRENCIA + estimados * CUSTO_RESOLVER);
+            garantidos.put(Acesso.INDICE_TEXTO, EnumSet.of(Filtro.TEXTO));
+        }
+
+        if (indexado && criterios.temArea()) {
+            // Só as células que cruzam a área são lidas; os pontos delas são conferidos
+            IndiceGeografico geografico = indices.getGeografico();
+            double estimados = geografico.contar(criterios.getArea());
+            candidatos.put(Acesso.INDICE_GEOGRAFICO, estimados);
+            custosAcesso.put(Acesso.INDICE_GEOGRAFICO,
+                    geografico.contarPontos(criterios.getArea()) * CUSTO_PONTO + estimados * CUSTO_RESOLVER);
+            garantidos.put(Acesso.INDICE_GEOGRAFICO, EnumSet.of(Filtro.AREA));
+        }
+
+        // Custo total de cada caminho: acesso + filtros na melhor ordem
+        Map<Acesso, Double> custos = new EnumMap<>(Acesso.class);
+        Acesso escolhido = null;
+        List<Etapa> melhoresEtapas = null;
+        for (Map.Entry<Acesso, Double> acesso : custosAcesso.entrySet()) {
+            List<Etapa> etapas = ordenar(criterios, seletividades, garantidos.get(acesso.getKey()),
+                    candidatos.get(acesso.getKey()), indexado);
+            double custo = acesso.getValue() + custoFiltros(criterios, etapas, indexado);
+            if (paginada) {
+                double resultados = resultados(etapas, candidatos.get(acesso.getKey()));
+                custo += resultados * CUSTO_HEAP * log2(limite + 1);
+                if (ordemDoIndice && acesso.getKey() == Acesso.INDICE_PRECO) {
+                    // Só a busca binária é fixa; o resto para ao completar a página
+                    double fixo = log2(total);
+                    custo = fixo + (custo - fixo) * fracaoPercorrida(resultados, limite);
+                }
+            }
+            custos.put(acesso.getKey(), custo);
+            if (escolhido == null || custo < custos.get(escolhido)) {
+                escolhido = acesso.getKey();
+                melhoresEtapas = etapas;
+            }
+        }
+        return new PlanoBusca(criterios, total, comEstatisticas, escolhido, candidatos.get(escolhido),
+                custos.get(escolhido), custos, melhoresEtapas, paginada ? ordenacao : null, limite,
+                ordemDoIndice && escolhido == Acesso.INDICE_PRECO);
+    }
+
+    // ========================================
+    // ESTATÍSTICAS
+    // ========================================
+
+    /**
+     * Fração do catálogo que passa em cada filtro informado
+     */
+    private Map<Filtro, Double> seletividades(CriteriosBusca criterios, boolean comEstatisticas) {
+        Map<Filtro, Double> seletividades = new EnumMap<>(Filtro.class);
+        double tamanho = comEstatisticas ? indices.getTamanho() : 0;
+        IndiceBitmap categorias = comEstatisticas ? indices.getCategorias() : null;
+
+        if (criterios.temPreco()) {
+            seletividades.put(Filtro.PRECO, comEstatisticas
+                    ? indices.getPreco().contar(criterios.getPrecoMin(), criterios.getPrecoMax()) / tamanho
+                    : SELETIVIDADE_PRECO);
+        }
+        if (criterios.temLocalizacao()) {
+            seletividades.put(Filtro.LOCALIZACAO, comEstatisticas
+                    ? indices.getLocalizacao().contar(criterios.getEstado(), criterios.getCidade()) / tamanho
+                    : SELETIVIDADE_LOCALIZACAO);
+        }
+        if (!criterios.getTipos().isEmpty()) {
+            seletividades.put(Filtro.TIPO_IMOVEL, comEstatisticas
+                    ? categorias.contar(IndiceBitmap.Campo.TIPO_IMOVEL, criterios.getTipos()) / tamanho
+                    : fracao(criterios.getTipos().size(), TIPOS_IMOVEL));
+        }
+        if (!criterios.getTiposAnuncio().isEmpty()) {
+            seletividades.put(Filtro.TIPO_ANUNCIO, comEstatisticas
+                    ? categorias.contar(IndiceBitmap.Campo.TIPO_ANUNCIO, criterios.getTiposAnuncio()) / tamanho
+                    : fracao(criterios.getTiposAnuncio().size(), TipoAnuncio.values().length));
+        }
+        if (!criterios.getSituacoes().isEmpty()) {
+            seletividades.put(Filtro.SITUACAO, comEstatisticas
+                    ? categorias.contar(IndiceBitmap.Campo.SITUACAO, criterios.getSituacoes()) / tamanho
+                    : fracao(criterios.getSituacoes().size(), SITUACOES));
+        }
+        if (criterios.temTexto()) {
+            // Limite superior: o termo mais raro (os demais só restringem)
+            seletividades.put(Filtro.TEXTO, comEstatisticas
+                    ? indices.getTexto().contar(criterios.getTermosTexto()) / tamanho
+                    : SELETIVIDADE_TEXTO);
+        }
+        if (criterios.temArea()) {
+            seletividades.put(Filtro.AREA, comEstatisticas
+                    ? indices.getGeografico().contar(criterios.getArea()) / tamanho
+                    : SELETIVIDADE_AREA);
+        }
+        for (Map.Entry<Filtro, Double> seletividade : seletividades.entrySet()) {
+            seletividade.setValue(Math.min(1.0, seletividade.getValue()));
+        }
+        return seletividades;
+    }
+
+    // ========================================
+    // ORDEM DOS FILTROS
+    // ========================================
+
+    /**
+     * Filtros não garantidos pelo acesso por custo / (1 - seletividade);
+     * os garantidos ficam por último, como verificação, do mais barato ao mais caro
+     */
+    private List<Etapa> ordenar(CriteriosBusca criterios, Map<Filtro, Double> seletividades,
+            Set<Filtro> garantidos, double candidatos, boolean indexado) {
+        List<Filtro> restantes = new ArrayList<>();
+        List<Filtro> verificacoes = new ArrayList<>();
+        for (Filtro filtro : seletividades.keySet()) {
+            (garantidos.contains(filtro) ? verificacoes : restantes).add(filtro);
+        }
+        restantes.sort(Comparator.comparingDouble(
+                filtro -> prioridade(criterios, filtro, seletividades.get(filtro), indexado)));
+        verificacoes.sort(Comparator.comparingDouble(filtro -> custo(criterios, filtro, indexado)));
+
+        List<Etapa> etapas = new ArrayList<>();
+        double entrada = candidatos;
+        for (Filtro filtro : restantes) {
+            double seletividade = seletividades.get(filtro);
+            etapas.add(new Etapa(filtro, seletividade, entrada, false));
+            entrada *= seletividade;
+        }
+        for (Filtro filtro : verificacoes) {
+            etapas.add(new Etapa(filtro, 1.0, entrada, true));
+        }
+        return etapas;
+    }
+
+    private double prioridade(CriteriosBusca criterios, Filtro filtro, double seletividade, boolean indexado) {
+        return seletividade >= 1.0 ? Double.MAX_VALUE : custo(criterios, filtro, indexado) / (1 - seletividade);
+    }
+
+    private double custoFiltros(CriteriosBusca criterios, List<Etapa> etapas, boolean indexado) {
+        double custo = 0;
+        for (Etapa etapa : etapas) {
+            custo += etapa.getEntrada() * custo(criterios, etapa.getFiltro(), indexado);
+        }
+        return custo;
+    }
+
+    /**
+     * Custo de avaliar o filtro em um anúncio; cada valor a mais na lista
+     * (ex.: "Casa, Terreno") é mais uma comparação. As palavras-chave,
+     * com o índice de texto, são uma consulta ao resultado já calculado;
+     * sem ele, cada anúncio tem o título e a descrição analisados.
+     */
+    private static double custo(CriteriosBusca criterios, Filtro filtro, boolean indexado) {
+        switch (filtro) {
+            case PRECO:
+                return 1.0;
+            case LOCALIZACAO:
+                return 4.0;     // normalização de cidade e estado
+            case TIPO_IMOVEL:
+                return 1.5 + (criterios.getTipos().size() - 1) * CUSTO_VALOR_ADICIONAL;
+            case TIPO_ANUNCIO:
+                return 1.0 + (criterios.getTiposAnuncio().size() - 1) * CUSTO_VALOR_ADICIONAL;
+            case TEXTO:
+                return indexado ? 1.0 : CUSTO_ANALISAR_TEXTO;
+            case AREA:
+                return criterios.getArea().isCirculo() ? CUSTO_DISTANCIA : 1.0;
+            default:
+                return 1.5 + (criterios.getSituacoes().size() - 1) * CUSTO_VALOR_ADICIONAL;
+        }
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private static double resultados(List<Etapa> etapas, double candidatos) {
+        if (etapas.isEmpty()) {
+            return candidatos;
+        }
+        Etapa ultima = etapas.get(etapas.size() - 1);
+        return ultima.getEntrada() * ultima.getSeletividade();
+    }
+
+    /**
+     * Fração dos candidatos lida até completar a página (mais um, para saber
+     * se há página seguinte), supondo os resultados espalhados pela faixa
+     */
+    private static double fracaoPercorrida(double resultados, int limite) {
+        return resultados <= 0 ? 1.0 : Math.min(1.0, (limite + 1) / resultados);
+    }
+
+    private static double produto(Map<Filtro, Double> seletividades, Set<Filtro> filtros) {
+        double produto = 1.0;
+        for (Filtro filtro : filtros) {
+            produto *= seletividades.get(filtro);
+        }
+        return produto;
+    }
+
+    private static double fracao(int valores, int possiveis) {
+        return (double) valores / possiveis;
+    }
+
+    private static double log2(int n) {
+        return Math.log(Math.max(2, n)) / Math.log(2);
+    }
+}
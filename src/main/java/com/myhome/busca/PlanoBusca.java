@@ -0,0 +1,256 @@
+package com.myhome.busca;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.myhome.decorator.Ordenacao;
+
+/**
+ * Plano escolhido pelo PlanejadorBusca para uma busca
+ *
+ * RESPONSABILIDADES:
+ * - Informar o caminho de acesso (varredura ou um dos índices) que fornece
+ *   os candidatos
+ * - Informar a ordem em que os filtros restantes são avaliados
+ * - Descrever o plano, com estimativas e custos, em explain()
+ *
+ * Os filtros já garantidos pelo caminho de acesso continuam na cadeia,
+ * por último, só como verificação. Numa busca paginada, o plano também
+ * informa a ordenação, o limite e se o acesso já entrega os candidatos
+ * nessa ordem (isOrdenadoPeloAcesso).
+ */
+public final class PlanoBusca {
+
+    public enum Acesso {
+        VARREDURA("varredura da lista"),
+        RESUMOS("resumos do catálogo preguiçoso"),
+        INDICE_PRECO("índice de preço"),
+        INDICE_LOCALIZACAO("índice de localização"),
+        INDICE_CATEGORIAS("bitmaps de tipo/tipo de anúncio/situação"),
+        INDICE_TEXTO("índice de texto"),
+        INDICE_GEOGRAFICO("índice geográfico (grade)");
+
+        private final String descricao;
+
+        Acesso(String descricao) {
+            this.descricao = descricao;
+        }
+
+        public String getDescricao() {
+            return descricao;
+        }
+    }
+
+    public enum Filtro {
+        PRECO("preço"),
+        LOCALIZACAO("localização"),
+        TIPO_IMOVEL("tipo de imóvel"),
+        TIPO_ANUNCIO("tipo de anúncio"),
+        SITUACAO("situação"),
+        TEXTO("palavras-chave"),
+        AREA("área no mapa");
+
+        private final String descricao;
+
+        Filtro(String descricao) {
+            this.descricao = descricao;
+        }
+
+        public String getDescricao() {
+            return descricao;
+        }
+    }
+
+    /**
+     * Um filtro na ordem de avaliação, com a estimativa de quantos anúncios
+     * chegam até ele e a fração que passa
+     */
+    public static final class Etapa {
+
+        private final Filtro filtro;
+        private final double seletividade;
+        private final double entrada;
+        private final boolean coberto;
+
+        Etapa(Filtro filtro, double seletividade, double entrada, boolean coberto) {
+            this.filtro = filtro;
+            this.seletividade = seletividade;
+            this.entrada = entrada;
+            this.coberto = coberto;
+        }
+
+        public Filtro getFiltro() {
+            return filtro;
+        }
+
+        public double getSeletividade() {
+            return seletividade;
+        }
+
+        public double getEntrada() {
+            return entrada;
+        }
+
+        /**
+         * Indica se o caminho de acesso já garante este filtro
+         */
+        public boolean isCoberto() {
+            return coberto;
+        }
+    }
+
+    private final CriteriosBusca criterios;
+    private final int total;
+    private final boolean estatisticasDosIndices;
+    private final Acesso acesso;
+    private final double candidatos;
+    private final double custo;
+    private final Map<Acesso, Double> alternativas;
+    private final List<Etapa> etapas;
+    private final Ordenacao ordenacao;
+    private final int limite;
+    private final boolean ordenadoPeloAcesso;
+
+    PlanoBusca(CriteriosBusca criterios, int total, boolean estatisticasDosIndices, Acesso acesso,
+            double candidatos, double custo, Map<Acesso, Double> alternativas, List<Etapa> etapas,
+            Ordenacao ordenacao, int limite, boolean ordenadoPeloAcesso) {
+        this.criterios = criterios;
+        this.total = total;
+        this.estatisticasDosIndices = estatisticasDosIndices;
+        this.acesso = acesso;
+        this.candidatos = candidatos;
+        this.custo = custo;
+        this.alternativas = Collections.unmodifiableMap(new EnumMap<>(alternativas));
+        this.etapas = Collections.unmodifiableList(new ArrayList<>(etapas));
+        this.ordenacao = ordenacao;
+        this.limite = limite;
+        this.ordenadoPeloAcesso = ordenadoPeloAcesso;
+    }
+
+    public CriteriosBusca getCriterios() {
+        return criterios;
+    }
+
+    public Acesso getAcesso() {
+        return acesso;
+    }
+
+    /**
+     * Filtros na ordem de avaliação (o primeiro é o mais interno da cadeia)
+     */
+    public List<Etapa> getEtapas() {
+        return etapas;
+    }
+
+    public double getCandidatosEstimados() {
+        return candidatos;
+    }
+
+    public double getResultadosEstimados() {
+        if (etapas.isEmpty()) {
+            return candidatos;
+        }
+        Etapa ultima = etapas.get(etapas.size() - 1);
+        return ultima.getEntrada() * ultima.getSeletividade();
+    }
+
+    public double getCusto() {
+        return custo;
+    }
+
+    /**
+     * Ordenação da busca paginada (null na busca completa)
+     */
+    public Ordenacao getOrdenacao() {
+        return ordenacao;
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    /**
+     * Indica se o caminho de acesso entrega os candidatos já na ordenação
+     * pedida, permitindo parar ao completar a página
+     */
+    public boolean isOrdenadoPeloAcesso() {
+        return ordenadoPeloAcesso;
+    }
+
+    /**
+     * Custos estimados dos caminhos de acesso considerados, inclusive o escolhido
+     */
+    public Map<Acesso, Double> getAlternativas() {
+        return alternativas;
+    }
+
+    /**
+     * Descrição do plano: acesso escolhido e descartados, filtros na ordem
+     * de avaliação com a seletividade estimada e o total esperado
+     */
+    public String explain() {
+        StringBuilder texto = new StringBuilder();
+        texto.append("PLANO DE BUSCA (").append(total).append(" anúncios, estatísticas ")
+                .append(estatisticasDosIndices ? "dos índices" : "padrão").append(")\n");
+        texto.append(String.format(Locale.ROOT, "  Acesso: %s  ~%.0f candidatos  custo %.0f%n",
+                acesso.getDescricao(), candidatos, custo));
+        for (Map.Entry<Acesso, Double> alternativa : alternativas.entrySet()) {
+            if (alternativa.getKey() != acesso) {
+                texto.append(String.format(Locale.ROOT, "  Descartado: %s  custo %.0f%n",
+                        alternativa.getKey().getDescricao(), alternativa.getValue()));
+            }
+        }
+        if (etapas.isEmpty()) {
+            texto.append("  Filtros: nenhum\n");
+        } else {
+            texto.append("  Filtros, na ordem de avaliação:\n");
+        }
+        for (int i = 0; i < etapas.size(); i++) {
+            Etapa etapa = etapas.get(i);
+            texto.append(String.format(Locale.ROOT, "    %d. %s %s  ", i + 1,
+                    etapa.getFiltro().getDescricao(), valores(etapa.getFiltro())));
+            if (etapa.isCoberto()) {
+                texto.append("verificação (garantido pelo acesso)\n");
+            } else {
+                texto.append(String.format(Locale.ROOT, "seletividade %.1f%%  ~%.0f -> ~%.0f%n",
+                        etapa.getSeletividade() * 100, etapa.getEntrada(),
+                        etapa.getEntrada() * etapa.getSeletividade()));
+            }
+        }
+        if (ordenacao != null) {
+            texto.append(String.format(Locale.ROOT, "  Ordenação: %s, %d por página (%s)%n",
+                    ordenacao.getDescricao(), limite, ordenadoPeloAcesso
+                            ? "na ordem do acesso, para ao completar a página" : "heap limitado"));
+        }
+        texto.append(String.format(Locale.ROOT, "  Resultados estimados: ~%.0f", getResultadosEstimados()));
+        return texto.toString();
+    }
+
+    @Override
+    public String toString() {
+        return explain();
+    }
+
+    private String valores(Filtro filtro) {
+        switch (filtro) {
+            case PRECO:
+                return "[" + criterios.getPrecoMin() + " - " + criterios.getPrecoMax() + "]";
+            case LOCALIZACAO:
+                return "[" + criterios.getCidade() + "/" + criterios.getEstado() + "]";
+            case TIPO_IMOVEL:
+                return criterios.getTipos().toString();
+            case TIPO_ANUNCIO:
+                return criterios.getTiposAnuncio().toString();
+            case TEXTO:
+                return criterios.getTermosTexto().toString();
+            case AREA:
+                return "[" + criterios.getArea() + "]";
+            default:
+                return criterios.getSituacoes().toString();
+        }
+    }
+}
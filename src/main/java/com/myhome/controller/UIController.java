@@ -1,5 +1,7 @@
 package com.myhome.controller;
 
+import com.myhome.decorator.Ordenacao;
+import com.myhome.decorator.PaginaBusca;
 import com.myhome.model.*;
 import com.myhome.service.MenuService;
 import com.myhome.service.ValidadorService;
@@ -123,7 +125,7 @@ public class UIController {
     
     /**
      * Coleta filtros de busca e retorna como String[] para ser processado pelo Facade.
-     * Retorna: [precoMin, precoMax, cidade, estado, tipo]
+     * Retorna: [precoMin, precoMax, cidade, estado, tipo, tipoAnuncio, situacao, texto]
      */
     public String[] coletarFiltrosBusca() {
         String precoMin = "";
@@ -131,6 +133,9 @@ public class UIController {
         String cidade = "";
         String estado = "";
         String tipo = "";
+        String tipoAnuncio = "";
+        String situacao = "";
+        String texto = "";
         
         exibirPasso("FILTROS DE BUSCA");
         exibirInfo("(Pressione Enter para pular um filtro)\n");
@@ -157,11 +162,73 @@ public class UIController {
         
         // Filtro 3: Tipo de Imóvel
         if (lerConfirmacao("\n🏘️  Filtrar por tipo de imóvel? (S/N): ")) {
-            exibirInfo("Tipos: Casa, Apartamento, Terreno, Sala Comercial");
+            exibirInfo("Tipos: Casa, Apartamento, Terreno, Sala Comercial (separe vários por vírgula)");
             tipo = lerTexto("   Tipo: ").trim();
         }
         
-        return new String[]{precoMin, precoMax, cidade, estado, tipo};
+        // Filtro 4: Tipo de Anúncio
+        if (lerConfirmacao("\n📋 Filtrar por tipo de anúncio? (S/N): ")) {
+            exibirInfo("Tipos: Venda, Aluguel, Temporada (separe vários por vírgula)");
+            tipoAnuncio = lerTexto("   Tipo de anúncio: ").trim();
+        }
+        
+        // Filtro 5: Situação
+        if (lerConfirmacao("\n🔖 Filtrar por situação? (S/N): ")) {
+            exibirInfo("Situações: Rascunho, Moderação, Ativo, Vendido, Suspenso (separe várias por vírgula)");
+            situacao = lerTexto("   Situação: ").trim();
+        }
+        
+        // Filtro 6: Palavras-chave no título e na descrição
+        if (lerConfirmacao("\n🔎 Buscar por palavras-chave? (S/N): ")) {
+            exibirInfo("Ex.: piscina, vista mar (todas as palavras precisam aparecer)");
+            texto = lerTexto("   Palavras-chave: ").trim();
+        }
+        
+        return new String[]{precoMin, precoMax, cidade, estado, tipo, tipoAnuncio, situacao, texto};
+    }
+    
+    /**
+     * Coleta o filtro de proximidade: endereço de referência e raio.
+     * Retorna: [rua, numero, cidade, estado, raioKm], ou null para pular o filtro
+     */
+    public String[] coletarAreaBusca() {
+        // Filtro 7: Proximidade (raio no mapa em torno de um endereço)
+        if (!lerConfirmacao("\n🗺️  Buscar perto de um endereço? (S/N): ")) {
+            return null;
+        }
+        exibirInfo("Endereço de referência (rua e número podem ficar em branco)");
+        String rua = lerTexto("   Rua: ").trim();
+        String numero = lerTexto("   Número: ").trim();
+        String cidade = lerTexto("   Cidade: ").trim();
+        String estado = lerTexto("   Estado (ex: PB): ").trim().toUpperCase();
+        double raio = lerDecimal("   Raio (km): ");
+        if (cidade.isEmpty() || estado.isEmpty() || !(raio > 0)) {
+            exibirErro("Endereço ou raio inválido, pulando filtro.");
+            return null;
+        }
+        return new String[]{rua, numero, cidade, estado, String.valueOf(raio)};
+    }
+    
+    /**
+     * Coleta a ordenação dos resultados (Enter: a ordenação padrão).
+     */
+    public Ordenacao coletarOrdenacao(Ordenacao padrao) {
+        Ordenacao[] ordenacoes = Ordenacao.values();
+        System.out.println("\n↕️  Ordenar resultados por:");
+        for (int i = 0; i < ordenacoes.length; i++) {
+            System.out.println("   " + (i + 1) + ". " + ordenacoes[i].getDescricao());
+        }
+        String escolha = lerTexto("   Ordenação [" + (padrao.ordinal() + 1) + "]: ").trim();
+        try {
+            int opcao = escolha.isEmpty() ? padrao.ordinal() + 1 : Integer.parseInt(escolha);
+            if (opcao >= 1 && opcao <= ordenacoes.length) {
+                return ordenacoes[opcao - 1];
+            }
+        } catch (NumberFormatException e) {
+            // Opção inválida: mantém a ordenação padrão
+        }
+        exibirErro("Ordenação inválida, usando " + padrao.getDescricao() + ".");
+        return padrao;
     }
     
     // ================================================================
@@ -245,6 +312,29 @@ public class UIController {
         exibirListaAnuncios(resultados, "RESULTADOS DA BUSCA");
     }
     
+    /**
+     * Exibe uma página do resultado de busca, numerada a partir de primeiroNumero.
+     */
+    public void exibirPaginaBusca(PaginaBusca pagina, Ordenacao ordenacao, int primeiroNumero) {
+        if (primeiroNumero == 1) {
+            exibirCabecalho("RESULTADOS DA BUSCA");
+            if (pagina.getItens().isEmpty()) {
+                exibirErro("Nenhum anúncio encontrado.");
+                return;
+            }
+            System.out.println("✅ Ordenados por: " + ordenacao.getDescricao() + "\n");
+        }
+        
+        List<Anuncio> itens = pagina.getItens();
+        for (int i = 0; i < itens.size(); i++) {
+            exibirAnuncio(itens.get(i), primeiroNumero + i);
+        }
+        
+        if (!pagina.temProxima()) {
+            System.out.println("✅ " + (primeiroNumero + itens.size() - 1) + " anúncio(s) encontrado(s).");
+        }
+    }
+    
     /**
      * Exibe lista de "Anúncios".
      */
@@ -6,4 +6,10 @@ import com.myhome.model.Anuncio;
 
 public interface BuscaFiltro {
     List<Anuncio> buscar();
+
+    // Uma página dos resultados na ordenação pedida, a partir do cursor
+    // (null para a primeira); os k primeiros saem de um heap limitado
+    default PaginaBusca buscarPagina(Ordenacao ordenacao, int limite, CursorBusca cursor) {
+        return PaginaBusca.selecionar(buscar(), anuncio -> true, ordenacao, limite, cursor, false);
+    }
 }
@@ -6,13 +6,25 @@ import com.myhome.model.Anuncio;
 
 public class BuscaPadrao implements BuscaFiltro {
     List<Anuncio> anuncios;
+    // Ordenação em que a lista já está (ex.: candidatos do índice de preço), ou null
+    Ordenacao ordem;
 
     public BuscaPadrao(List<Anuncio> anuncios) {
+        this(anuncios, null);
+    }
+
+    public BuscaPadrao(List<Anuncio> anuncios, Ordenacao ordem) {
         this.anuncios = anuncios;
+        this.ordem = ordem;
     }
 
     @Override
     public List<Anuncio> buscar() {
         return anuncios;
     };
+
+    @Override
+    public PaginaBusca buscarPagina(Ordenacao ordenacao, int limite, CursorBusca cursor) {
+        return PaginaBusca.selecionar(anuncios, anuncio -> true, ordenacao, limite, cursor, ordenacao == ordem);
+    }
 }
@@ -0,0 +1,205 @@
+package com.myhome.decorator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+import com.myhome.model.Anuncio;
+
+/**
+ * Avalia a cadeia de filtros envolvida em blocos paralelos (ForkJoinPool)
+ *
+ * RESPONSABILIDADES:
+ * - Dividir a lista de origem da cadeia ao meio até blocos de tamanho
+ *   fixo; cada bloco é filtrado por uma thread do pool com o critério
+ *   único da cadeia (FiltroBaseDecorator)
+ * - Juntar os blocos na ordem da origem: o resultado é o mesmo da
+ *   busca sequencial
+ * - Montar páginas ordenadas (buscarPagina) com um heap limitado por
+ *   bloco, combinando os melhores de cada um
+ *
+ * Origens menores que o limiar, que não têm acesso direto por posição
+ * (RandomAccess) ou que já estão na ordem da página são avaliadas pela
+ * própria cadeia, na thread de quem chamou.
+ */
+public class BuscaParalelaDecorator implements BuscaFiltro {
+
+    // Menor bloco entregue a uma thread: abaixo disso, dividir custa mais que filtrar
+    private static final int BLOCO_MINIMO = 4096;
+    // Blocos por thread, para equilibrar blocos com mais ou menos resultados
+    private static final int BLOCOS_POR_THREAD = 4;
+
+    private BuscaFiltro wrappee;
+    private ForkJoinPool pool;
+    private int limiar;
+
+    /**
+     * @param pool Pool que avalia os blocos (o paralelismo da busca)
+     * @param limiar Menor origem avaliada em paralelo
+     */
+    public BuscaParalelaDecorator(BuscaFiltro wrappee, ForkJoinPool pool, int limiar) {
+        this.wrappee = wrappee;
+        this.pool = pool;
+        this.limiar = limiar;
+    }
+
+    @Override
+    public List<Anuncio> buscar() {
+        List<Anuncio> origem = origemParalela(null);
+        if (origem == null) {
+            return wrappee.buscar();
+        }
+        Predicate<Anuncio> criterio = FiltroBaseDecorator.criterioDaCadeia(wrappee);
+        int bloco = bloco(origem.size());
+
+        int quantidade = (origem.size() + bloco - 1) / bloco;
+        List<List<Anuncio>> partes = new ArrayList<>(Collections.nCopies(quantidade, null));
+        pool.invoke(new Filtrar(origem, criterio, bloco, partes, 0, quantidade));
+
+        int total = 0;
+        for (List<Anuncio> parte : partes) {
+            total += parte.size();
+        }
+        List<Anuncio> anunciosFiltrados = new ArrayList<>(total);
+        for (List<Anuncio> parte : partes) {
+            anunciosFiltrados.addAll(parte);
+        }
+        return anunciosFiltrados;
+    }
+
+    @Override
+    public PaginaBusca buscarPagina(Ordenacao ordenacao, int limite, CursorBusca cursor) {
+        List<Anuncio> origem = origemParalela(ordenacao);
+        if (origem == null) {
+            return wrappee.buscarPagina(ordenacao, limite, cursor);
+        }
+        Predicate<Anuncio> criterio = FiltroBaseDecorator.criterioDaCadeia(wrappee);
+        ToDoubleFunction<Anuncio> chaves = FiltroBaseDecorator.chaveDaCadeia(wrappee, ordenacao);
+        return pool.invoke(new Selecionar(origem, criterio, ordenacao, chaves, limite, cursor,
+                bloco(origem.size()), 0, origem.size()));
+    }
+
+    /**
+     * Cadeia avaliada em paralelo (para o critério e a relevância do CacheBuscaDecorator)
+     */
+    BuscaFiltro getCadeia() {
+        return wrappee;
+    }
+
+    /**
+     * Lista de origem da cadeia, se vale avaliá-la em paralelo (senão null)
+     *
+     * @param ordenacao Ordenação da página (null na busca completa)
+     */
+    private List<Anuncio> origemParalela(Ordenacao ordenacao) {
+        BuscaFiltro origem = FiltroBaseDecorator.origemDaCadeia(wrappee);
+        if (origem == wrappee || !(origem instanceof BuscaPadrao)) {
+            return null;
+        }
+        BuscaPadrao padrao = (BuscaPadrao) origem;
+        boolean ordenada = ordenacao != null && ordenacao == padrao.ordem;
+        List<Anuncio> anuncios = padrao.anuncios;
+        return !ordenada && anuncios instanceof RandomAccess && anuncios.size() >= limiar ? anuncios : null;
+    }
+
+    private int bloco(int tamanho) {
+        int blocos = pool.getParallelism() * BLOCOS_POR_THREAD;
+        return Math.max(BLOCO_MINIMO, (tamanho + blocos - 1) / blocos);
+    }
+
+    /**
+     * Filtra os blocos [de, ate) da origem, cada um na sua posição de partes
+     */
+    private static class Filtrar extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Anuncio> origem;
+        private final Predicate<Anuncio> criterio;
+        private final int bloco;
+        private final List<List<Anuncio>> partes;
+        private final int de;
+        private final int ate;
+
+        Filtrar(List<Anuncio> origem, Predicate<Anuncio> criterio, int bloco, List<List<Anuncio>> partes,
+                int de, int ate) {
+            this.origem = origem;
+            this.criterio = criterio;
+            this.bloco = bloco;
+            this.partes = partes;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected void compute() {
+            if (ate - de == 1) {
+                int inicio = de * bloco;
+                int fim = Math.min(origem.size(), inicio + bloco);
+                List<Anuncio> aceitos = new ArrayList<>();
+                for (int i = inicio; i < fim; i++) {
+                    Anuncio anuncio = origem.get(i);
+                    if (criterio.test(anuncio)) {
+                        aceitos.add(anuncio);
+                    }
+                }
+                partes.set(de, aceitos);
+                return;
+            }
+            int meio = (de + ate) >>> 1;
+            invokeAll(new Filtrar(origem, criterio, bloco, partes, de, meio),
+                    new Filtrar(origem, criterio, bloco, partes, meio, ate));
+        }
+    }
+
+    /**
+     * Página das posições [de, ate) da origem
+     */
+    private static class Selecionar extends RecursiveTask<PaginaBusca> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Anuncio> origem;
+        private final Predicate<Anuncio> criterio;
+        private final Ordenacao ordenacao;
+        private final ToDoubleFunction<Anuncio> chaves;
+        private final int limite;
+        private final CursorBusca cursor;
+        private final int bloco;
+        private final int de;
+        private final int ate;
+
+        Selecionar(List<Anuncio> origem, Predicate<Anuncio> criterio, Ordenacao ordenacao,
+                ToDoubleFunction<Anuncio> chaves, int limite, CursorBusca cursor, int bloco, int de, int ate) {
+            this.origem = origem;
+            this.criterio = criterio;
+            this.ordenacao = ordenacao;
+            this.chaves = chaves;
+            this.limite = limite;
+            this.cursor = cursor;
+            this.bloco = bloco;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected PaginaBusca compute() {
+            if (ate - de <= bloco) {
+                return PaginaBusca.selecionar(origem.subList(de, ate), criterio, ordenacao, chaves, limite,
+                        cursor, false);
+            }
+            int meio = (de + ate) >>> 1;
+            Selecionar primeira = new Selecionar(origem, criterio, ordenacao, chaves, limite, cursor, bloco, de, meio);
+            Selecionar segunda = new Selecionar(origem, criterio, ordenacao, chaves, limite, cursor, bloco, meio, ate);
+            primeira.fork();
+            PaginaBusca paginaSegunda = segunda.compute();
+            return PaginaBusca.combinar(primeira.join(), paginaSegunda, ordenacao, chaves, limite);
+        }
+    }
+}
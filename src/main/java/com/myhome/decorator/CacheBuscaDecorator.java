@@ -0,0 +1,40 @@
+package com.myhome.decorator;
+
+import java.util.List;
+
+import com.myhome.busca.CacheBusca;
+import com.myhome.model.Anuncio;
+
+// Guarda no CacheBusca o resultado da cadeia envolvida, com o critério
+// da cadeia para que o cache saiba quais alterações afetam a busca
+public class CacheBuscaDecorator implements BuscaFiltro {
+    private BuscaFiltro wrappee;
+    private CacheBusca cache;
+    private String chave;
+    private long geracao;
+    // Resultado já calculado: as páginas seguintes não refazem a busca
+    private List<Anuncio> resultado;
+
+    public CacheBuscaDecorator(BuscaFiltro wrappee, CacheBusca cache, String chave, long geracao) {
+        this.wrappee = wrappee;
+        this.cache = cache;
+        this.chave = chave;
+        this.geracao = geracao;
+    }
+
+    @Override
+    public List<Anuncio> buscar() {
+        if (resultado == null) {
+            resultado = wrappee.buscar();
+            BuscaFiltro cadeia = wrappee;
+            cache.guardar(chave, geracao, resultado, anuncio -> FiltroBaseDecorator.aceitaCadeia(cadeia, anuncio));
+        }
+        return resultado;
+    }
+
+    @Override
+    public PaginaBusca buscarPagina(Ordenacao ordenacao, int limite, CursorBusca cursor) {
+        return PaginaBusca.selecionar(buscar(), anuncio -> true, ordenacao,
+                FiltroBaseDecorator.chaveDaCadeia(wrappee, ordenacao), limite, cursor, false);
+    }
+}
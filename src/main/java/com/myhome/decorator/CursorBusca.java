@@ -0,0 +1,42 @@
+package com.myhome.decorator;
+
+import com.myhome.model.Anuncio;
+
+/**
+ * Posição após o último anúncio de uma página (paginação por chave)
+ *
+ * Guarda a chave e o id do último anúncio entregue, não um deslocamento:
+ * a página seguinte começa logo depois dele mesmo que anúncios tenham
+ * sido criados ou removidos entre uma página e outra. Imutável.
+ */
+public final class CursorBusca {
+
+    private final Ordenacao ordenacao;
+    private final double chave;
+    private final String id;
+
+    private CursorBusca(Ordenacao ordenacao, double chave, String id) {
+        this.ordenacao = ordenacao;
+        this.chave = chave;
+        this.id = id;
+    }
+
+    static CursorBusca depoisDe(Ordenacao ordenacao, double chave, Anuncio ultimo) {
+        return new CursorBusca(ordenacao, chave, ultimo.getId());
+    }
+
+    public Ordenacao getOrdenacao() {
+        return ordenacao;
+    }
+
+    double getChave() {
+        return chave;
+    }
+
+    /**
+     * Indica se o anúncio com esta chave e id vem depois do cursor
+     */
+    boolean antecede(double outraChave, String outroId) {
+        return Ordenacao.comparar(chave, id, outraChave, outroId) < 0;
+    }
+}
@@ -0,0 +1,19 @@
+package com.myhome.decorator;
+
+import com.myhome.busca.AreaGeografica;
+import com.myhome.model.Anuncio;
+
+public class FiltroAreaDecorator extends FiltroBaseDecorator {
+    // Raio ou retângulo no mapa; anúncios sem coordenadas nunca estão na área
+    private AreaGeografica area;
+
+    public FiltroAreaDecorator(BuscaFiltro wrappee, AreaGeografica area) {
+        super(wrappee);
+        this.area = area;
+    }
+
+    @Override
+    protected boolean aceita(Anuncio anuncio) {
+        return anuncio.getImovel() != null && area.contem(anuncio.getImovel().getEndereco());
+    }
+}
@@ -1,9 +1,167 @@
 package com.myhome.decorator;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+import com.myhome.model.Anuncio;
+
 public abstract class FiltroBaseDecorator implements BuscaFiltro {
+    // Se a classe herda buscar() daqui (filtra só por aceita) e pode ser fundida na passada única
+    private static final ClassValue<Boolean> FUNDIVEL = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> classe) {
+            try {
+                return classe.getMethod("buscar").getDeclaringClass() == FiltroBaseDecorator.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
     protected BuscaFiltro wrappee;
 
     public FiltroBaseDecorator(BuscaFiltro buscaFiltro) {
         this.wrappee = buscaFiltro;
     }
+
+    // Critério deste filtro para um único anúncio. Decorators que filtram
+    // sobrescrevendo buscar() não precisam implementá-lo: aceitar tudo só faz
+    // o cache invalidar a busca em mais alterações do que o necessário
+    protected boolean aceita(Anuncio anuncio) {
+        return true;
+    }
+
+    // Critério para a invalidação do cache: se um anúncio novo ou alterado pode
+    // entrar no resultado. Filtros que respondem por um retrato tirado na busca
+    // (ex.: o resultado do IndiceTexto) avaliam aqui o anúncio como ele está agora
+    protected boolean aceitaAtual(Anuncio anuncio) {
+        return aceita(anuncio);
+    }
+
+    // Funde este filtro e os filtros logo abaixo dele em um único critério: uma
+    // passada sobre a origem e uma única lista de resultado, em vez de uma por filtro.
+    // A fusão para no primeiro decorator que sobrescreve buscar(), chamado como origem
+    @Override
+    public List<Anuncio> buscar() {
+        BuscaFiltro origem = origemDaCadeia(wrappee);
+        Predicate<Anuncio> criterio = criterioAte(this, origem);
+
+        List<Anuncio> anunciosFiltrados = new ArrayList<>();
+        for (Anuncio anuncio : origem.buscar()) {
+            if (criterio.test(anuncio)) {
+                anunciosFiltrados.add(anuncio);
+            }
+        }
+        return anunciosFiltrados;
+    }
+
+    // Mesma passada única, entregando os aceitos a um heap limitado; se a origem
+    // já está na ordem pedida, para assim que nenhum anúncio restante cabe na página
+    @Override
+    public PaginaBusca buscarPagina(Ordenacao ordenacao, int limite, CursorBusca cursor) {
+        BuscaFiltro origem = origemDaCadeia(wrappee);
+        Predicate<Anuncio> criterio = criterioAte(this, origem);
+        if (origem instanceof BuscaPadrao) {
+            BuscaPadrao padrao = (BuscaPadrao) origem;
+            return PaginaBusca.selecionar(padrao.anuncios, criterio, ordenacao, chaveDaCadeia(this, ordenacao),
+                    limite, cursor, ordenacao == padrao.ordem);
+        }
+        return PaginaBusca.selecionar(origem.buscar(), criterio, ordenacao, chaveDaCadeia(this, ordenacao),
+                limite, cursor, false);
+    }
+
+    // Chave da ordenação; a relevância vem do filtro de texto da cadeia, se houver
+    static ToDoubleFunction<Anuncio> chaveDaCadeia(BuscaFiltro cadeia, Ordenacao ordenacao) {
+        if (ordenacao == Ordenacao.RELEVANCIA) {
+            for (BuscaFiltro busca = semParalelismo(cadeia); busca instanceof FiltroBaseDecorator;
+                    busca = ((FiltroBaseDecorator) busca).wrappee) {
+                if (busca instanceof FiltroTextoDecorator) {
+                    FiltroTextoDecorator texto = (FiltroTextoDecorator) busca;
+                    return anuncio -> -texto.relevancia(anuncio);
+                }
+            }
+        }
+        return ordenacao::chave;
+    }
+
+    // Critério único com os filtros fundíveis do topo da cadeia, até origemDaCadeia
+    static Predicate<Anuncio> criterioDaCadeia(BuscaFiltro cadeia) {
+        return criterioAte(cadeia, origemDaCadeia(cadeia));
+    }
+
+    // Primeira busca da cadeia que não é um filtro fundível: a origem da passada única
+    static BuscaFiltro origemDaCadeia(BuscaFiltro cadeia) {
+        BuscaFiltro origem = cadeia;
+        while (fundivel(origem)) {
+            origem = ((FiltroBaseDecorator) origem).wrappee;
+        }
+        return origem;
+    }
+
+    // A cadeia de filtros avaliada por um BuscaParalelaDecorator (que não filtra por si)
+    static BuscaFiltro semParalelismo(BuscaFiltro cadeia) {
+        return cadeia instanceof BuscaParalelaDecorator ? ((BuscaParalelaDecorator) cadeia).getCadeia() : cadeia;
+    }
+
+    static boolean fundivel(BuscaFiltro busca) {
+        return busca instanceof FiltroBaseDecorator && FUNDIVEL.get(busca.getClass());
+    }
+
+    // Se o anúncio passa (ou passaria, se acabou de mudar) em todos os filtros da cadeia, sem consultar a origem
+    public static boolean aceitaCadeia(BuscaFiltro busca, Anuncio anuncio) {
+        busca = semParalelismo(busca);
+        while (busca instanceof FiltroBaseDecorator) {
+            FiltroBaseDecorator filtro = (FiltroBaseDecorator) busca;
+            if (!filtro.aceitaAtual(anuncio)) {
+                return false;
+            }
+            busca = filtro.wrappee;
+        }
+        return true;
+    }
+
+    // Valores de um filtro com mais de uma opção, separados por vírgula ("Casa, Apartamento")
+    public static List<String> valores(String texto) {
+        List<String> valores = new ArrayList<>();
+        for (String valor : texto.split(",")) {
+            if (!valor.trim().isEmpty()) {
+                valores.add(valor.trim());
+            }
+        }
+        return valores;
+    }
+
+    protected static boolean contemIgnorandoCaixa(List<String> valores, String valor) {
+        for (String aceito : valores) {
+            if (aceito.equalsIgnoreCase(valor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Filtros de inicio até origem (exclusive), na ordem original: do mais interno ao mais externo
+    private static Predicate<Anuncio> criterioAte(BuscaFiltro inicio, BuscaFiltro origem) {
+        List<FiltroBaseDecorator> filtros = new ArrayList<>();
+        for (BuscaFiltro busca = inicio; busca != origem; busca = ((FiltroBaseDecorator) busca).wrappee) {
+            filtros.add((FiltroBaseDecorator) busca);
+        }
+
+        FiltroBaseDecorator[] criterios = new FiltroBaseDecorator[filtros.size()];
+        for (int i = 0; i < criterios.length; i++) {
+            criterios[i] = filtros.get(criterios.length - 1 - i);
+        }
+        return anuncio -> aceitaTodos(criterios, anuncio);
+    }
+
+    private static boolean aceitaTodos(FiltroBaseDecorator[] criterios, Anuncio anuncio) {
+        for (FiltroBaseDecorator criterio : criterios) {
+            if (!criterio.aceita(anuncio)) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -1,29 +1,24 @@
 package com.myhome.decorator;
 
-import java.util.ArrayList;
-import java.util.List;
-
+import com.myhome.busca.IndiceLocalizacao;
 import com.myhome.model.Anuncio;
+import com.myhome.model.Endereco;
 
 public class FiltroLocalizacaoDecorator extends FiltroBaseDecorator {
+    // Normalizados como no IndiceLocalizacao (sem acentos nem maiúsculas)
     private String cidade;
     private String estado;
 
     public FiltroLocalizacaoDecorator(BuscaFiltro wrappee, String cidade, String estado) {
         super(wrappee);
-        this.cidade = cidade;
-        this.estado = estado;
+        this.cidade = IndiceLocalizacao.normalizarCidade(cidade);
+        this.estado = IndiceLocalizacao.normalizarEstado(estado);
     }
 
     @Override
-    public List<Anuncio> buscar() {
-        List<Anuncio> anunciosFiltrados = new ArrayList<>();
-        for (Anuncio anuncio : this.wrappee.buscar()) {
-            if (anuncio.getImovel().getEndereco().getCidade().equalsIgnoreCase(cidade) && anuncio.getImovel().getEndereco().getEstado().equalsIgnoreCase(estado)) {
-                anunciosFiltrados.add(anuncio);
-            }
-        }
-
-        return anunciosFiltrados;
+    protected boolean aceita(Anuncio anuncio) {
+        Endereco endereco = anuncio.getImovel().getEndereco();
+        return IndiceLocalizacao.normalizarCidade(endereco.getCidade()).equals(cidade)
+                && IndiceLocalizacao.normalizarEstado(endereco.getEstado()).equals(estado);
     }
-}
\ No newline at end of file
+}
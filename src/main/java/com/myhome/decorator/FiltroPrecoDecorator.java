@@ -1,8 +1,5 @@
 package com.myhome.decorator;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import com.myhome.model.Anuncio;
 
 public class FiltroPrecoDecorator extends FiltroBaseDecorator {
@@ -16,14 +13,8 @@ public class FiltroPrecoDecorator extends FiltroBaseDecorator {
     }
 
     @Override
-    public List<Anuncio> buscar() {
-        List<Anuncio> anunciosFiltrados = new ArrayList<>();
-        for (Anuncio anuncio : this.wrappee.buscar()) {
-            if (anuncio.getPreco() >= precoMinimo && anuncio.getPreco() <= precoMaximo) {
-                anunciosFiltrados.add(anuncio);
-            }
-        }
-
-        return anunciosFiltrados;
+    protected boolean aceita(Anuncio anuncio) {
+        double preco = anuncio.getPreco();
+        return preco >= precoMinimo && preco <= precoMaximo;
     }
 }
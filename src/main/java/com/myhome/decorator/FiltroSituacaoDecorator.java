@@ -0,0 +1,20 @@
+package com.myhome.decorator;
+
+import java.util.List;
+
+import com.myhome.model.Anuncio;
+
+public class FiltroSituacaoDecorator extends FiltroBaseDecorator {
+    // Um ou mais estados (State Pattern) separados por vírgula ("Ativo, Moderação")
+    private List<String> situacoes;
+
+    public FiltroSituacaoDecorator(BuscaFiltro wrappee, String situacao) {
+        super(wrappee);
+        this.situacoes = valores(situacao);
+    }
+
+    @Override
+    protected boolean aceita(Anuncio anuncio) {
+        return contemIgnorandoCaixa(situacoes, anuncio.getState().getNome());
+    }
+}
@@ -0,0 +1,44 @@
+package com.myhome.decorator;
+
+import java.util.List;
+
+import com.myhome.busca.AnalisadorTexto;
+import com.myhome.busca.IndiceTexto;
+import com.myhome.model.Anuncio;
+
+public class FiltroTextoDecorator extends FiltroBaseDecorator {
+    // Termos da consulta (AnalisadorTexto): o anúncio precisa ter todos no título ou na descrição
+    private List<String> termos;
+    // Consulta já respondida pelo IndiceTexto (null: analisa o texto de cada anúncio)
+    private IndiceTexto.Resultado resultado;
+
+    public FiltroTextoDecorator(BuscaFiltro wrappee, String consulta) {
+        this(wrappee, consulta, null);
+    }
+
+    public FiltroTextoDecorator(BuscaFiltro wrappee, String consulta, IndiceTexto.Resultado resultado) {
+        super(wrappee);
+        this.termos = AnalisadorTexto.termosDistintos(consulta);
+        this.resultado = resultado;
+    }
+
+    @Override
+    protected boolean aceita(Anuncio anuncio) {
+        if (termos.isEmpty()) {
+            return true;
+        }
+        return resultado != null ? resultado.contem(anuncio) : IndiceTexto.relevancia(anuncio, termos) > 0;
+    }
+
+    // O resultado do índice não conhece anúncios criados ou editados depois da
+    // busca: para a invalidação do cache, analisa o texto atual do anúncio
+    @Override
+    protected boolean aceitaAtual(Anuncio anuncio) {
+        return termos.isEmpty() || IndiceTexto.relevancia(anuncio, termos) > 0;
+    }
+
+    // Relevância BM25 do anúncio para a consulta (Ordenacao.RELEVANCIA)
+    public double relevancia(Anuncio anuncio) {
+        return resultado != null ? resultado.relevancia(anuncio) : IndiceTexto.relevancia(anuncio, termos);
+    }
+}
@@ -0,0 +1,22 @@
+package com.myhome.decorator;
+
+import java.util.List;
+
+import com.myhome.model.Anuncio;
+
+public class FiltroTipoAnuncioDecorator extends FiltroBaseDecorator {
+    // Um ou mais tipos separados por vírgula ("Venda, Aluguel")
+    private List<String> tiposAnuncio;
+
+    public FiltroTipoAnuncioDecorator(BuscaFiltro wrappee, String tipoAnuncio) {
+        super(wrappee);
+        this.tiposAnuncio = valores(tipoAnuncio);
+    }
+
+    @Override
+    protected boolean aceita(Anuncio anuncio) {
+        return anuncio.getTipoAnuncio() != null
+                && (contemIgnorandoCaixa(tiposAnuncio, anuncio.getTipoAnuncio().name())
+                        || contemIgnorandoCaixa(tiposAnuncio, anuncio.getTipoAnuncio().getDescricao()));
+    }
+}
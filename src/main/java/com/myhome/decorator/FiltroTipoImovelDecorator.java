@@ -1,28 +1,21 @@
 package com.myhome.decorator;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import com.myhome.model.Anuncio;
 
 public class FiltroTipoImovelDecorator extends FiltroBaseDecorator {
-    private String tipoImovel;
+    // Um ou mais tipos separados por vírgula ("Casa, Apartamento")
+    private List<String> tiposImovel;
 
     public FiltroTipoImovelDecorator(BuscaFiltro wrappee, String tipoImovel) {
         super(wrappee);
-        this.tipoImovel = tipoImovel;
+        this.tiposImovel = valores(tipoImovel);
     }
 
     @Override
-    public List<Anuncio> buscar() {
-        List<Anuncio> anunciosFiltrados = new ArrayList<>();
-        for (Anuncio anuncio : this.wrappee.buscar()) {
-            if (anuncio.getImovel().getTipo().equalsIgnoreCase(tipoImovel)) {
-                anunciosFiltrados.add(anuncio);
-            }
-        }
-
-        return anunciosFiltrados;
+    protected boolean aceita(Anuncio anuncio) {
+        return contemIgnorandoCaixa(tiposImovel, anuncio.getImovel().getTipo());
     }
 
 }
@@ -0,0 +1,106 @@
+package com.myhome.decorator;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Imovel;
+
+/**
+ * Ordenações dos resultados de busca (BuscaFiltro.buscarPagina)
+ *
+ * Cada ordenação reduz o anúncio a uma chave numérica: a menor chave vem
+ * primeiro, e o id desempata, formando uma ordem total, necessária para
+ * que o cursor (CursorBusca) retome a página seguinte sem repetir nem
+ * pular anúncios. Anúncios sem o valor (área zero, nunca publicados)
+ * ficam no fim.
+ *
+ * RELEVANCIA depende das palavras buscadas: a chave vem do
+ * FiltroTextoDecorator da cadeia (maior relevância BM25 primeiro). Sem
+ * palavras na busca, todos empatam e a ordem é a dos ids.
+ */
+public enum Ordenacao {
+
+    PRECO("Menor preço") {
+        @Override
+        public double chave(Anuncio anuncio) {
+            return anuncio.getPreco();
+        }
+    },
+
+    AREA("Maior área") {
+        @Override
+        public double chave(Anuncio anuncio) {
+            double area = area(anuncio);
+            return area > 0 ? -area : Double.POSITIVE_INFINITY;
+        }
+    },
+
+    PRECO_M2("Menor preço por m²") {
+        @Override
+        public double chave(Anuncio anuncio) {
+            double area = area(anuncio);
+            return area > 0 ? anuncio.getPreco() / area : Double.POSITIVE_INFINITY;
+        }
+    },
+
+    MAIS_RECENTE("Publicação mais recente") {
+        @Override
+        public double chave(Anuncio anuncio) {
+            return anuncio.getDataPublicacao() != null
+                    ? -anuncio.getDataPublicacao().getTime() : Double.POSITIVE_INFINITY;
+        }
+    },
+
+    RELEVANCIA("Relevância (palavras-chave)") {
+        @Override
+        public double chave(Anuncio anuncio) {
+            return 0;
+        }
+    };
+
+    private final String descricao;
+
+    Ordenacao(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+
+    /**
+     * Posição do anúncio nesta ordenação (menor primeiro)
+     */
+    public abstract double chave(Anuncio anuncio);
+
+    /**
+     * Ordem total: chave, depois id (numérico quando os dois são números)
+     */
+    public static int comparar(double chaveA, String idA, double chaveB, String idB) {
+        int porChave = Double.compare(chaveA, chaveB);
+        if (porChave != 0) {
+            return porChave;
+        }
+        String a = idA != null ? idA : "";
+        String b = idB != null ? idB : "";
+        if (a.length() != b.length() && numerico(a) && numerico(b)) {
+            return Integer.compare(a.length(), b.length());
+        }
+        return a.compareTo(b);
+    }
+
+    private static boolean numerico(String id) {
+        if (id.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (!Character.isDigit(id.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double area(Anuncio anuncio) {
+        Imovel imovel = anuncio.getImovel();
+        return imovel != null ? imovel.getArea() : 0;
+    }
+}
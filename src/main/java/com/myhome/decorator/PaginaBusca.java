@@ -0,0 +1,131 @@
+package com.myhome.decorator;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+import com.myhome.model.Anuncio;
+
+/**
+ * Uma página de resultados ordenados, com o cursor da página seguinte
+ *
+ * RESPONSABILIDADES:
+ * - Selecionar os k primeiros anúncios aceitos com um heap limitado
+ *   (SelecaoTopK): O(m log k) para m aceitos, sem ordenar todos
+ * - Parar de percorrer a origem quando ela já está na ordem pedida e
+ *   nenhum anúncio restante pode entrar na página: o custo passa a
+ *   depender de k, não do total de resultados
+ */
+public final class PaginaBusca {
+
+    private final List<Anuncio> itens;
+    private final CursorBusca proximo;
+
+    private PaginaBusca(List<Anuncio> itens, CursorBusca proximo) {
+        this.itens = Collections.unmodifiableList(itens);
+        this.proximo = proximo;
+    }
+
+    public List<Anuncio> getItens() {
+        return itens;
+    }
+
+    /**
+     * Cursor para buscarPagina(..., proximo); null na última página
+     */
+    public CursorBusca getProximo() {
+        return proximo;
+    }
+
+    public boolean temProxima() {
+        return proximo != null;
+    }
+
+    static PaginaBusca selecionar(List<Anuncio> origem, Predicate<Anuncio> criterio, Ordenacao ordenacao,
+            int limite, CursorBusca depois, boolean ordemDaOrigem) {
+        return selecionar(origem, criterio, ordenacao, ordenacao::chave, limite, depois, ordemDaOrigem);
+    }
+
+    /**
+     * @param origem Anúncios candidatos (itens null são ignorados)
+     * @param criterio Filtros que o anúncio precisa aceitar
+     * @param chaves Chave de cada anúncio na ordenação (ver FiltroBaseDecorator.chaveDaCadeia)
+     * @param ordemDaOrigem Se a origem já está em ordem crescente de chave
+     * @param depois Cursor da página anterior (null para a primeira)
+     */
+    static PaginaBusca selecionar(List<Anuncio> origem, Predicate<Anuncio> criterio, Ordenacao ordenacao,
+            ToDoubleFunction<Anuncio> chaves, int limite, CursorBusca depois, boolean ordemDaOrigem) {
+        if (depois != null && depois.getOrdenacao() != ordenacao) {
+            throw new IllegalArgumentException("Cursor de outra ordenação: " + depois.getOrdenacao());
+        }
+        limite = Math.max(1, limite);
+        // Um a mais que o limite: indica se existe página seguinte
+        SelecaoTopK selecao = new SelecaoTopK(limite + 1);
+
+        int inicio = ordemDaOrigem && depois != null && origem instanceof RandomAccess
+                ? primeiroComChave(origem, chaves, depois.getChave()) : 0;
+        for (int i = inicio; i < origem.size(); i++) {
+            Anuncio anuncio = origem.get(i);
+            if (anuncio == null) {
+                continue;
+            }
+            double chave = chaves.applyAsDouble(anuncio);
+            if (ordemDaOrigem && selecao.isCheia() && chave > selecao.getPiorChave()) {
+                break;
+            }
+            if ((depois == null || depois.antecede(chave, anuncio.getId())) && criterio.test(anuncio)) {
+                selecao.oferecer(anuncio, chave);
+            }
+        }
+
+        return deOrdenados(selecao.ordenados(), ordenacao, chaves, limite, false);
+    }
+
+    /**
+     * Junta as páginas de partes distintas da mesma origem (mesma ordenação,
+     * limite e cursor) na página da origem inteira
+     */
+    static PaginaBusca combinar(PaginaBusca primeira, PaginaBusca segunda, Ordenacao ordenacao,
+            ToDoubleFunction<Anuncio> chaves, int limite) {
+        limite = Math.max(1, limite);
+        SelecaoTopK selecao = new SelecaoTopK(limite + 1);
+        for (PaginaBusca pagina : new PaginaBusca[]{primeira, segunda}) {
+            for (Anuncio anuncio : pagina.itens) {
+                selecao.oferecer(anuncio, chaves.applyAsDouble(anuncio));
+            }
+        }
+        // Uma parte com página seguinte já tem mais que limite resultados
+        return deOrdenados(selecao.ordenados(), ordenacao, chaves, limite,
+                primeira.temProxima() || segunda.temProxima());
+    }
+
+    private static PaginaBusca deOrdenados(List<Anuncio> ordenados, Ordenacao ordenacao,
+            ToDoubleFunction<Anuncio> chaves, int limite, boolean haMais) {
+        if (ordenados.size() <= limite && !(haMais && ordenados.size() == limite)) {
+            return new PaginaBusca(ordenados, null);
+        }
+        List<Anuncio> pagina = ordenados.subList(0, limite);
+        Anuncio ultimo = pagina.get(limite - 1);
+        return new PaginaBusca(pagina, CursorBusca.depoisDe(ordenacao, chaves.applyAsDouble(ultimo), ultimo));
+    }
+
+    /**
+     * Busca binária pela primeira posição com chave maior ou igual
+     */
+    private static int primeiroComChave(List<Anuncio> origem, ToDoubleFunction<Anuncio> chaves, double chave) {
+        int baixo = 0;
+        int alto = origem.size();
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            Anuncio anuncio = origem.get(meio);
+            if (anuncio != null && chaves.applyAsDouble(anuncio) < chave) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+}
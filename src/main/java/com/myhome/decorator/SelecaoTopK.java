@@ -0,0 +1,107 @@
+package com.myhome.decorator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.myhome.model.Anuncio;
+
+/**
+ * Os k menores anúncios (chave, id) vistos até agora
+ *
+ * Heap de máximo limitado a k em arrays paralelos: o pior dos guardados
+ * fica na raiz e é trocado quando chega um melhor. Só os k guardados são
+ * ordenados no fim (O(k log k)).
+ */
+final class SelecaoTopK {
+
+    private final Anuncio[] anuncios;
+    private final double[] chaves;
+    private int tamanho;
+
+    SelecaoTopK(int capacidade) {
+        this.anuncios = new Anuncio[capacidade];
+        this.chaves = new double[capacidade];
+    }
+
+    boolean isCheia() {
+        return tamanho == anuncios.length;
+    }
+
+    /**
+     * Maior chave guardada (válida com a seleção cheia)
+     */
+    double getPiorChave() {
+        return chaves[0];
+    }
+
+    void oferecer(Anuncio anuncio, double chave) {
+        if (tamanho < anuncios.length) {
+            anuncios[tamanho] = anuncio;
+            chaves[tamanho] = chave;
+            subir(tamanho++);
+        } else if (compara(chave, anuncio, 0) < 0) {
+            anuncios[0] = anuncio;
+            chaves[0] = chave;
+            descer(0, tamanho);
+        }
+    }
+
+    /**
+     * Os guardados em ordem crescente; esvazia a seleção
+     */
+    List<Anuncio> ordenados() {
+        for (int fim = tamanho - 1; fim > 0; fim--) {
+            trocar(0, fim);
+            descer(0, fim);
+        }
+        List<Anuncio> resultado = new ArrayList<>(tamanho);
+        for (int i = 0; i < tamanho; i++) {
+            resultado.add(anuncios[i]);
+        }
+        tamanho = 0;
+        return resultado;
+    }
+
+    private void subir(int i) {
+        while (i > 0) {
+            int pai = (i - 1) / 2;
+            if (compara(chaves[i], anuncios[i], pai) <= 0) {
+                return;
+            }
+            trocar(i, pai);
+            i = pai;
+        }
+    }
+
+    private void descer(int raiz, int limite) {
+        while (true) {
+            int maior = raiz;
+            int esquerda = 2 * raiz + 1;
+            int direita = esquerda + 1;
+            if (esquerda < limite && compara(chaves[esquerda], anuncios[esquerda], maior) > 0) {
+                maior = esquerda;
+            }
+            if (direita < limite && compara(chaves[direita], anuncios[direita], maior) > 0) {
+                maior = direita;
+            }
+            if (maior == raiz) {
+                return;
+            }
+            trocar(raiz, maior);
+            raiz = maior;
+        }
+    }
+
+    private int compara(double chave, Anuncio anuncio, int posicao) {
+        return Ordenacao.comparar(chave, anuncio.getId(), chaves[posicao], anuncios[posicao].getId());
+    }
+
+    private void trocar(int i, int j) {
+        Anuncio anuncio = anuncios[i];
+        anuncios[i] = anuncios[j];
+        anuncios[j] = anuncio;
+        double chave = chaves[i];
+        chaves[i] = chaves[j];
+        chaves[j] = chave;
+    }
+}
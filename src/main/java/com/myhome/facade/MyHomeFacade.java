@@ -1,21 +1,35 @@
 package com.myhome.facade;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
+import com.myhome.busca.AreaGeografica;
+import com.myhome.busca.CriteriosBusca;
+import com.myhome.busca.IndicesBusca;
+import com.myhome.busca.PlanoBusca;
 import com.myhome.controller.UIController;
 import com.myhome.decorator.BuscaFiltro;
+import com.myhome.decorator.Ordenacao;
+import com.myhome.decorator.PaginaBusca;
 import com.myhome.model.Anuncio;
+import com.myhome.model.Endereco;
 import com.myhome.model.Imovel;
 import com.myhome.model.Usuario;
+import com.myhome.persistencia.CatalogoLazy;
+import com.myhome.persistencia.LiderReplicacao;
+import com.myhome.persistencia.SeguidorReplicacao;
 import com.myhome.prototype.PrototypeRegistry;
 import com.myhome.service.AnuncioService;
 import com.myhome.service.AnuncioManagementService;
 import com.myhome.service.CSVDataLoader;
+import com.myhome.service.CarregamentoInicial;
 import com.myhome.service.EmailService;
+import com.myhome.service.GeocodificacaoService;
 import com.myhome.service.ImovelService;
 import com.myhome.service.MenuService;
 import com.myhome.service.NotificationConfigService;
@@ -27,6 +41,7 @@ import com.myhome.service.SMSService;
 import com.myhome.service.UsuarioService;
 import com.myhome.service.ValidadorService;
 import com.myhome.service.WhatsAppService;
+import com.myhome.singleton.ConfigurationManager;
 import com.myhome.strategy.EmailNotificacao;
 
 // RF08 - Facade: orquestra todos os subsistemas do MyHome
@@ -42,8 +57,13 @@ public class MyHomeFacade {
     private final SystemInfoService systemInfoService;
     private final PatternsService patternsService;
     private final CSVDataLoader csvDataLoader;
+    private final GeocodificacaoService geocodificacaoService;
 
     private List<Anuncio> meusAnuncios;
+    // Índices de busca mantidos junto com meusAnuncios
+    private final IndicesBusca indicesBusca = new IndicesBusca();
+    private LiderReplicacao liderReplicacao;
+    private SeguidorReplicacao seguidorReplicacao;
     private List<Usuario> usuariosRegistrados;
     private int contadorAnuncios;
     // RF05 - Strategy: Usuário com canal de notificação configurável
@@ -54,7 +74,10 @@ public class MyHomeFacade {
         this.uiController = new UIController(menuService, validadorService);
         this.usuarioService = new UsuarioService();
         this.persistenciaService = new PersistenciaService();
+        // Garante as gravações pendentes mesmo em System.exit()
+        Runtime.getRuntime().addShutdownHook(new Thread(persistenciaService::close, "myhome-persistencia-flush"));
         this.csvDataLoader = new CSVDataLoader();
+        this.geocodificacaoService = new GeocodificacaoService();
         this.imovelService = new ImovelService(menuService, validadorService);
         this.anuncioService = new AnuncioService(menuService, validadorService, usuarioService);
         this.systemInfoService = new SystemInfoService(uiController);
@@ -70,11 +93,23 @@ public class MyHomeFacade {
         Scanner scanner = uiController.getScanner();
         boolean continuar = true;
         
+        // Usuários e anúncios lidos em paralelo; anunciantes ligados ao final
+        CarregamentoInicial carregamento = new CarregamentoInicial(persistenciaService, anuncioService);
+        String papelReplicacao = ConfigurationManager.getInstance()
+                .getProperty("replicacao.papel", "nenhum").trim();
+        if ("seguidor".equalsIgnoreCase(papelReplicacao)) {
+            // Instância seguidora: catálogo recebido do líder, não de data/
+            usuariosRegistrados = persistenciaService.carregarUsuarios();
+            meusAnuncios = seguirLider();
+        } else {
+            carregamento.carregar();
+            usuariosRegistrados = carregamento.getUsuarios();
+            meusAnuncios = carregamento.getAnuncios();
+        }
+        
         // E1 - Carregar seed data do CSV se JSON estiver vazio
-        meusAnuncios = persistenciaService.carregarAnuncios();
-        usuariosRegistrados = persistenciaService.carregarUsuarios();
         
-        if (meusAnuncios.isEmpty()) {
+        if (seguidorReplicacao == null && meusAnuncios.isEmpty()) {
             // Primeira execução - carregar seed data do CSV
             Map<String, Object> dadosCSV = csvDataLoader.carregarDadosIniciais();
             
@@ -95,8 +130,26 @@ public class MyHomeFacade {
         
         contadorAnuncios = meusAnuncios.size();
         
-        if (contadorAnuncios > 0) {
-            anexarObserversAosAnuncios();
+        // Na seguidora, a replicação reindexa a cada snapshot recebido
+        if (seguidorReplicacao == null) {
+            indicesBusca.indexar(meusAnuncios);
+        }
+        persistenciaService.setIndices(indicesBusca);
+        
+        // Coordenadas para a busca por mapa, em segundo plano (só os anúncios sem elas);
+        // o catálogo preguiçoso não é hidratado para isso
+        if (seguidorReplicacao == null && !(meusAnuncios instanceof CatalogoLazy)) {
+            geocodificacaoService.geocodificarEmSegundoPlano(new ArrayList<>(meusAnuncios), this::coordenadasObtidas);
+        }
+        
+        if ("lider".equalsIgnoreCase(papelReplicacao)) {
+            liderarReplicacao();
+        }
+        
+        // Seguidores não notificam: as mudanças já foram notificadas no líder
+        if (contadorAnuncios > 0 && seguidorReplicacao == null) {
+            carregamento.anexarObservers(meusAnuncios);
+            carregamento.exibirTempos();
             uiController.exibirInfo(contadorAnuncios + " anúncio(s) carregado(s)!");
             uiController.exibirSucesso("Observers attachados para monitoramento de mudanças");
         }
@@ -112,13 +165,17 @@ public class MyHomeFacade {
                 
                 switch (opcao) {
                     case 1:
-                        menuCriarAnuncio(scanner);
+                        if (!somenteLeitura()) {
+                            menuCriarAnuncio(scanner);
+                        }
                         break;
                     case 2:
                         executarBusca(uiController);
                         break;
                     case 3:
-                        exibirMeusAnuncios(uiController);
+                        if (!somenteLeitura()) {
+                            exibirMeusAnuncios(uiController);
+                        }
                         break;
                     case 4:
                         exibirConfiguracoes();
@@ -128,6 +185,9 @@ public class MyHomeFacade {
                         break;
                     case 0:
                         continuar = false;
+                        encerrarReplicacao();
+                        gravarCoordenadas();
+                        persistenciaService.flush();
                         uiController.exibirMensagemDespedida();
                         break;
                     default:
@@ -150,6 +210,58 @@ public class MyHomeFacade {
         uiController.fechar();
     }
     
+    // ===================================================================
+    // REPLICAÇÃO (líder publica o journal; seguidores mantêm uma cópia)
+    // ===================================================================
+    
+    private void liderarReplicacao() {
+        liderReplicacao = LiderReplicacao.daConfiguracao(
+                persistenciaService.getSequenciaJournal(), () -> meusAnuncios);
+        persistenciaService.adicionarOuvinteJournal(liderReplicacao);
+        try {
+            liderReplicacao.iniciar();
+        } catch (IOException e) {
+            persistenciaService.removerOuvinteJournal(liderReplicacao);
+            liderReplicacao = null;
+            uiController.exibirErro("Replicação desativada: " + e.getMessage());
+        }
+    }
+    
+    private List<Anuncio> seguirLider() {
+        // A interface percorre o catálogo enquanto a replicação o altera
+        List<Anuncio> anuncios = new CopyOnWriteArrayList<>();
+        seguidorReplicacao = SeguidorReplicacao.daConfiguracao(anuncios);
+        seguidorReplicacao.setIndices(indicesBusca);
+        seguidorReplicacao.iniciar();
+        try {
+            long espera = Long.parseLong(ConfigurationManager.getInstance()
+                    .getProperty("replicacao.espera.inicial.ms", "10000").trim());
+            if (!seguidorReplicacao.aguardarSincronizacao(espera)) {
+                uiController.exibirErro("Líder da replicação indisponível; o catálogo será recebido ao conectar");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return anuncios;
+    }
+    
+    private boolean somenteLeitura() {
+        if (seguidorReplicacao == null) {
+            return false;
+        }
+        uiController.exibirErro("Instância seguidora (somente leitura): crie e altere anúncios na instância líder.");
+        return true;
+    }
+    
+    private void encerrarReplicacao() {
+        if (liderReplicacao != null) {
+            liderReplicacao.close();
+        }
+        if (seguidorReplicacao != null) {
+            seguidorReplicacao.close();
+        }
+    }
+    
     // RF03 - Factory Method: Criar diferentes tipos de anúncio
     private void menuCriarAnuncio(Scanner scanner) {
         boolean voltar = false;
@@ -184,16 +296,56 @@ public class MyHomeFacade {
     // RF06 - Decorator: Busca com filtros dinâmicos
     public void executarBusca(UIController uiController) {
         String[] filtros = uiController.coletarFiltrosBusca();
-        String precoMin = filtros[0];
-        String precoMax = filtros[1];
-        String cidade = filtros[2];
-        String estado = filtros[3];
-        String tipo = filtros[4];
-        
-        SearchFilterService searchService = new SearchFilterService(uiController);
-        BuscaFiltro busca = searchService.aplicarFiltros(meusAnuncios, precoMin, precoMax, cidade, estado, tipo);
-        List<Anuncio> resultados = searchService.executar(busca);
-        uiController.exibirResultadoBusca(resultados);
+        String texto = filtros[7];
+        AreaGeografica area = coletarArea(uiController);
+        
+        // Com palavras-chave, os mais relevantes vêm primeiro por padrão
+        Ordenacao ordenacao = uiController.coletarOrdenacao(
+                texto.isEmpty() ? Ordenacao.PRECO : Ordenacao.RELEVANCIA);
+        int limite = Math.max(1, Integer.parseInt(ConfigurationManager.getInstance()
+                .getProperty("busca.pagina.tamanho", "10").trim()));
+        
+        SearchFilterService searchService = new SearchFilterService(uiController, indicesBusca);
+        CriteriosBusca criterios = searchService.criterios(filtros, area);
+        PlanoBusca plano = searchService.planejar(meusAnuncios, criterios, ordenacao, limite);
+        boolean explicar = Boolean.parseBoolean(
+                ConfigurationManager.getInstance().getProperty("busca.explicar", "false").trim());
+        if (explicar) {
+            System.out.println(plano.explain() + "\n");
+        }
+        BuscaFiltro busca = searchService.montarBusca(meusAnuncios, plano);
+        
+        // Uma página por vez: o cursor retoma a busca depois do último exibido
+        PaginaBusca pagina = searchService.executarPagina(busca, ordenacao, limite, null);
+        int exibidos = 0;
+        while (true) {
+            uiController.exibirPaginaBusca(pagina, ordenacao, exibidos + 1);
+            exibidos += pagina.getItens().size();
+            if (!pagina.temProxima() || !uiController.lerConfirmacao("Ver mais resultados? (S/N): ")) {
+                break;
+            }
+            pagina = searchService.executarPagina(busca, ordenacao, limite, pagina.getProximo());
+        }
+        if (explicar) {
+            System.out.println("\n" + indicesBusca.getCache());
+        }
+    }
+    
+    /**
+     * Raio em torno do endereço de referência, geocodificado (null sem filtro de proximidade)
+     */
+    private AreaGeografica coletarArea(UIController uiController) {
+        String[] referencia = uiController.coletarAreaBusca();
+        if (referencia == null) {
+            return null;
+        }
+        Endereco endereco = new Endereco(referencia[0], referencia[1], referencia[2], referencia[3]);
+        if (!geocodificacaoService.localizar(endereco)) {
+            uiController.exibirErro("Endereço de referência não localizado, filtro de proximidade ignorado.");
+            return null;
+        }
+        return AreaGeografica.raio(endereco.getLatitude(), endereco.getLongitude(),
+                Double.parseDouble(referencia[4]));
     }
     
     // RF01 - Factory: Visualizar anúncios
@@ -223,9 +375,10 @@ public class MyHomeFacade {
                 return;
             }
             
+            localizar(anuncio);
             meusAnuncios.add(anuncio);
             contadorAnuncios++;
-            persistenciaService.salvarAnuncios(meusAnuncios);
+            persistenciaService.registrarCriacao(anuncio, meusAnuncios);
             exibirResultadoAnuncio(anuncio);
             
         } catch (Exception e) {
@@ -233,6 +386,36 @@ public class MyHomeFacade {
         }
     }
     
+    /**
+     * Anúncio carregado que recebeu coordenadas em segundo plano: passa a
+     * aparecer nas buscas por mapa (e deixa de servir buscas guardadas no cache)
+     */
+    private void coordenadasObtidas(Anuncio anuncio) {
+        indicesBusca.getGeografico().atualizar(anuncio);
+        indicesBusca.getCache().atualizar(anuncio);
+    }
+    
+    /**
+     * No encerramento: para a geocodificação em segundo plano e grava as
+     * coordenadas obtidas (setCoordenadas deixa o anúncio modificado)
+     */
+    private void gravarCoordenadas() {
+        geocodificacaoService.interromper();
+        if (geocodificacaoService.getGeocodificadosEmSegundoPlano() > 0) {
+            persistenciaService.salvarAnuncios(meusAnuncios);
+        }
+    }
+    
+    /**
+     * Coordenadas do endereço do novo anúncio (busca por mapa), antes de gravá-lo e indexá-lo
+     */
+    private void localizar(Anuncio anuncio) {
+        Endereco endereco = anuncio.getImovel().getEndereco();
+        if (endereco != null && !endereco.temCoordenadas()) {
+            geocodificacaoService.localizar(endereco);
+        }
+    }
+    
     // RF02 - Prototype: Clonar imóvel pré-configurado
     public void criarAnuncioDePrototipo(Scanner scanner) {
         menuService.exibirCabecalhoCriarAnuncioPrototipo();
@@ -284,9 +467,10 @@ public class MyHomeFacade {
                 return;
             }
             
+            localizar(anuncio);
             meusAnuncios.add(anuncio);
             contadorAnuncios++;
-            persistenciaService.salvarAnuncios(meusAnuncios);
+            persistenciaService.registrarCriacao(anuncio, meusAnuncios);
             exibirResultadoAnuncio(anuncio);
             
         } catch (NumberFormatException e) {
@@ -366,11 +550,6 @@ public class MyHomeFacade {
         gerenciarAnuncioEspecifico(scanner, anuncioSelecionado);
         return false;
     }
-    // RF04 - Observer: Re-anexar observers aos anúncios carregados
-    private void anexarObserversAosAnuncios() {
-        anuncioService.anexarObserversEmLote(meusAnuncios);
-    }
-    
     // RF04 - State: Gerenciar transições de estado do anúncio
     private void gerenciarAnuncioEspecifico(Scanner scanner, Anuncio anuncio) {
         AnuncioManagementService managementService = new AnuncioManagementService(
@@ -2,6 +2,7 @@ package com.myhome.factory;
 
 import com.myhome.model.Anuncio;
 import com.myhome.model.Imovel;
+import com.myhome.model.TipoAnuncio;
 import com.myhome.model.Usuario;
 
 // RF01 - Factory concreta que cria anúncios de ALUGUEL
@@ -31,6 +32,7 @@ public class AluguelFactory implements AnuncioFactory {
         anuncio.setPreco(preco);
         anuncio.setImovel(imovel);
         anuncio.setAnunciante(anunciante);
+        anuncio.setTipoAnuncio(TipoAnuncio.ALUGUEL);
         
         if (descricao != null && !descricao.trim().isEmpty()) {
             anuncio.setDescricao(descricao);
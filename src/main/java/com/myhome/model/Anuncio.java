@@ -31,6 +31,7 @@ public class Anuncio {
     private String descricao;
     private Imovel imovel;
     private Usuario anunciante;
+    private TipoAnuncio tipoAnuncio;
     private List<String> fotos;
     private Date dataCriacao;
     private Date dataPublicacao;
@@ -47,6 +48,19 @@ public class Anuncio {
      */
     private List<AnuncioObserver> observers = new ArrayList<>();
 
+    /**
+     * Controle de alterações para salvamento incremental: cada alteração
+     * incrementa a versão; o anúncio fica modificado até a persistência
+     * registrar a versão gravada em marcarComoSalvo(). Alterações no imóvel
+     * e no endereço entram na versão (getVersao). Voláteis porque a
+     * gravação em segundo plano (GravadorAssincrono) lê e marca as versões
+     * enquanto a thread da interface altera o anúncio; só essa thread
+     * incrementa a versão, e a gravadora só escreve as versões salvas.
+     */
+    private volatile int versao;
+    private volatile int versaoSalva = -1;
+    private volatile int versaoAnuncianteSalva;
+
     // ========================================
     // CONSTRUTOR
     // ========================================
@@ -91,6 +105,7 @@ public class Anuncio {
                 this.estado = new RascunhoState(this);
                 System.out.println("⚠️  Estado desconhecido '" + estadoNome + "'. Restaurando para Rascunho.");
         }
+        this.versao++;
     }
 
     /**
@@ -99,6 +114,7 @@ public class Anuncio {
     public void setState(AnuncioState novoEstado) {
         AnuncioState estadoAnterior = this.estado;
         this.estado = novoEstado;
+        this.versao++;
         notificarObservers(estadoAnterior, novoEstado);
     }
     /**
@@ -137,6 +153,7 @@ public class Anuncio {
 
     public void setId(String id) {
         this.id = id;
+        this.versao++;
     }
 
     public String getTitulo() {
@@ -145,6 +162,7 @@ public class Anuncio {
 
     public void setTitulo(String titulo) {
         this.titulo = titulo;
+        this.versao++;
     }
 
     public double getPreco() {
@@ -153,6 +171,7 @@ public class Anuncio {
 
     public void setPreco(double preco) {
         this.preco = preco;
+        this.versao++;
     }
 
     public String getDescricao() {
@@ -161,6 +180,7 @@ public class Anuncio {
 
     public void setDescricao(String descricao) {
         this.descricao = descricao;
+        this.versao++;
     }
 
     public Imovel getImovel() {
@@ -168,7 +188,10 @@ public class Anuncio {
     }
 
     public void setImovel(Imovel imovel) {
+        // Soma a versão do imóvel substituído: getVersao() nunca volta a um valor já gravado
+        int anterior = this.imovel != null ? this.imovel.getVersao() : 0;
         this.imovel = imovel;
+        this.versao += 1 + anterior;
     }
 
     public Usuario getAnunciante() {
@@ -177,6 +200,20 @@ public class Anuncio {
 
     public void setAnunciante(Usuario anunciante) {
         this.anunciante = anunciante;
+        this.versao++;
+    }
+
+    /**
+     * Venda, aluguel ou temporada (definido pela AnuncioFactory);
+     * null em anúncios gravados antes de o tipo ser registrado
+     */
+    public TipoAnuncio getTipoAnuncio() {
+        return tipoAnuncio;
+    }
+
+    public void setTipoAnuncio(TipoAnuncio tipoAnuncio) {
+        this.tipoAnuncio = tipoAnuncio;
+        this.versao++;
     }
 
     public List<String> getFotos() {
@@ -185,6 +222,7 @@ public class Anuncio {
 
     public void setFotos(List<String> fotos) {
         this.fotos = new ArrayList<>(fotos);
+        this.versao++;
     }
 
     public Date getDataCriacao() {
@@ -197,12 +235,51 @@ public class Anuncio {
 
     public void setDataPublicacao(Date dataPublicacao) {
         this.dataPublicacao = dataPublicacao;
+        this.versao++;
     }
 
     public int getQuantidadeFotos() {
         return this.fotos.size();
     }
 
+    // ========================================
+    // CONTROLE DE ALTERAÇÕES
+    // ========================================
+
+    /**
+     * true se o anúncio, o imóvel, o endereço ou o anunciante embutido em
+     * seu registro mudou desde a última gravação
+     */
+    public boolean isModificado() {
+        return getVersao() != versaoSalva
+            || (anunciante != null && anunciante.getVersao() != versaoAnuncianteSalva);
+    }
+
+    /**
+     * Chamado pela persistência após gravar (ou carregar) o anúncio
+     */
+    public void marcarComoSalvo() {
+        marcarComoSalvo(getVersao(), anunciante != null ? anunciante.getVersao() : 0);
+    }
+
+    /**
+     * Registra as versões lidas antes de uma gravação em segundo plano;
+     * alterações feitas durante a gravação mantêm o anúncio modificado
+     */
+    public void marcarComoSalvo(int versaoGravada, int versaoAnuncianteGravada) {
+        this.versaoSalva = versaoGravada;
+        this.versaoAnuncianteSalva = versaoAnuncianteGravada;
+    }
+
+    /**
+     * Versão do anúncio somada à do imóvel (e endereço): muda a cada alteração de qualquer um deles
+     */
+    public int getVersao() {
+        int propria = versao;
+        Imovel atual = imovel;
+        return propria + (atual != null ? atual.getVersao() : 0);
+    }
+
     // ========================================
     // MÉTODOS AUXILIARES
     // ========================================
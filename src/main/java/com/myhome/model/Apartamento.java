@@ -45,6 +45,7 @@ public class Apartamento extends Imovel {
     
     public void setQuartos(int quartos) {
         this.quartos = quartos;
+        modificado();
     }
     
     public int getBanheiros() {
@@ -53,6 +54,7 @@ public class Apartamento extends Imovel {
     
     public void setBanheiros(int banheiros) {
         this.banheiros = banheiros;
+        modificado();
     }
     
     public int getAndar() {
@@ -61,6 +63,7 @@ public class Apartamento extends Imovel {
     
     public void setAndar(int andar) {
         this.andar = andar;
+        modificado();
     }
     
     public boolean isTemElevador() {
@@ -69,6 +72,7 @@ public class Apartamento extends Imovel {
     
     public void setTemElevador(boolean temElevador) {
         this.temElevador = temElevador;
+        modificado();
     }
     
     public int getVagas() {
@@ -77,6 +81,7 @@ public class Apartamento extends Imovel {
     
     public void setVagas(int vagas) {
         this.vagas = vagas;
+        modificado();
     }
     
     @Override
@@ -49,6 +49,7 @@ public class Casa extends Imovel {
     
     public void setQuartos(int quartos) {
         this.quartos = quartos;
+        modificado();
     }
     
     public int getBanheiros() {
@@ -57,6 +58,7 @@ public class Casa extends Imovel {
     
     public void setBanheiros(int banheiros) {
         this.banheiros = banheiros;
+        modificado();
     }
     
     public boolean isTemQuintal() {
@@ -65,6 +67,7 @@ public class Casa extends Imovel {
     
     public void setTemQuintal(boolean temQuintal) {
         this.temQuintal = temQuintal;
+        modificado();
     }
     
     public boolean isTemGaragem() {
@@ -73,6 +76,7 @@ public class Casa extends Imovel {
     
     public void setTemGaragem(boolean temGaragem) {
         this.temGaragem = temGaragem;
+        modificado();
     }
     
     public int getVagas() {
@@ -81,6 +85,7 @@ public class Casa extends Imovel {
     
     public void setVagas(int vagas) {
         this.vagas = vagas;
+        modificado();
     }
     
     @Override
@@ -5,6 +5,11 @@ public class Endereco {
     private String numero;
     private String cidade;
     private String estado;
+    // Coordenadas em graus (NaN enquanto o endereço não foi geocodificado)
+    private double latitude = Double.NaN;
+    private double longitude = Double.NaN;
+    // Controle de alterações, somado à versão do imóvel (Imovel.getVersao)
+    private volatile int versao;
 
     public Endereco(String rua, String numero, String cidade, String estado) {
         this.rua = rua;
@@ -15,6 +20,8 @@ public class Endereco {
 
     public Endereco clone() {
         Endereco enderecoClone = new Endereco(this.rua, this.numero, this.cidade, this.estado);
+        enderecoClone.latitude = this.latitude;
+        enderecoClone.longitude = this.longitude;
         return enderecoClone;
     }
 
@@ -34,6 +41,28 @@ public class Endereco {
         return numero;
     }
 
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public boolean temCoordenadas() {
+        return !Double.isNaN(latitude) && !Double.isNaN(longitude);
+    }
+
+    public void setCoordenadas(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+        versao++;
+    }
+
+    public int getVersao() {
+        return versao;
+    }
+
     @Override
     public String toString() {
         return String.format("%s, %s - %s/%s", rua, numero, cidade, estado);
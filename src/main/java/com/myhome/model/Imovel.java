@@ -12,6 +12,13 @@ public abstract class Imovel implements ImovelPrototype {
     protected Endereco endereco;
     protected String descricao;
     protected Map<String, Object> caracteristicas;
+
+    /**
+     * Controle de alterações (Anuncio.isModificado): cada setter incrementa.
+     * Volátil porque a gravação em segundo plano lê a versão enquanto a
+     * thread da interface edita o imóvel.
+     */
+    private volatile int versao;
     
     protected Imovel() {
         this.caracteristicas = new HashMap<>();
@@ -34,6 +41,7 @@ public abstract class Imovel implements ImovelPrototype {
     
     public void adicionarCaracteristica(String chave, Object valor) {
         this.caracteristicas.put(chave, valor);
+        modificado();
     }
     
     public Object getCaracteristica(String chave) {
@@ -50,6 +58,7 @@ public abstract class Imovel implements ImovelPrototype {
     
     public void setId(Long id) {
         this.id = id;
+        modificado();
     }
     
     public double getArea() {
@@ -58,6 +67,7 @@ public abstract class Imovel implements ImovelPrototype {
     
     public void setArea(double area) {
         this.area = area;
+        modificado();
     }
     
     public Endereco getEndereco() {
@@ -65,7 +75,10 @@ public abstract class Imovel implements ImovelPrototype {
     }
     
     public void setEndereco(Endereco endereco) {
+        // Soma a versão do endereço substituído: getVersao() nunca volta a um valor já gravado
+        int anterior = this.endereco != null ? this.endereco.getVersao() : 0;
         this.endereco = endereco;
+        versao += 1 + anterior;
     }
     
     public String getDescricao() {
@@ -74,6 +87,23 @@ public abstract class Imovel implements ImovelPrototype {
     
     public void setDescricao(String descricao) {
         this.descricao = descricao;
+        modificado();
+    }
+    
+    /**
+     * Versão do imóvel somada à do endereço: cresce a cada alteração de qualquer um dos dois
+     */
+    public int getVersao() {
+        int propria = versao;
+        Endereco atual = endereco;
+        return propria + (atual != null ? atual.getVersao() : 0);
+    }
+
+    /**
+     * Registra uma alteração em campo persistido (chamado pelos setters das subclasses)
+     */
+    protected void modificado() {
+        versao++;
     }
     
     public Map<String, Object> getCaracteristicas() {
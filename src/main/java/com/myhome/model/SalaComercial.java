@@ -43,6 +43,7 @@ public class SalaComercial extends Imovel {
     
     public void setAndar(int andar) {
         this.andar = andar;
+        modificado();
     }
     
     public boolean isTemBanheiro() {
@@ -51,6 +52,7 @@ public class SalaComercial extends Imovel {
     
     public void setTemBanheiro(boolean temBanheiro) {
         this.temBanheiro = temBanheiro;
+        modificado();
     }
     
     public int getCapacidadePessoas() {
@@ -59,6 +61,7 @@ public class SalaComercial extends Imovel {
     
     public void setCapacidadePessoas(int capacidadePessoas) {
         this.capacidadePessoas = capacidadePessoas;
+        modificado();
     }
     
     public int getVagasEstacionamento() {
@@ -67,6 +70,7 @@ public class SalaComercial extends Imovel {
     
     public void setVagasEstacionamento(int vagasEstacionamento) {
         this.vagasEstacionamento = vagasEstacionamento;
+        modificado();
     }
     
     @Override
@@ -41,6 +41,7 @@ public class Terreno extends Imovel {
     
     public void setAreaTerreno(double areaTerreno) {
         this.areaTerreno = areaTerreno;
+        modificado();
     }
     
     public String getZoneamento() {
@@ -49,6 +50,7 @@ public class Terreno extends Imovel {
     
     public void setZoneamento(String zoneamento) {
         this.zoneamento = zoneamento;
+        modificado();
     }
     
     public String getTopografia() {
@@ -57,6 +59,7 @@ public class Terreno extends Imovel {
     
     public void setTopografia(String topografia) {
         this.topografia = topografia;
+        modificado();
     }
     
     @Override
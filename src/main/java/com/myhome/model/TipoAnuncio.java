@@ -36,6 +36,25 @@ public enum TipoAnuncio {
         return descricao;
     }
     
+    /**
+     * Tipo pelo nome da constante ou pela descrição, sem diferenciar
+     * maiúsculas ("VENDA", "Venda", "venda")
+     * 
+     * @return null se o texto não corresponder a nenhum tipo
+     */
+    public static TipoAnuncio porNome(String nome) {
+        if (nome == null) {
+            return null;
+        }
+        String procurado = nome.trim();
+        for (TipoAnuncio tipo : values()) {
+            if (tipo.name().equalsIgnoreCase(procurado) || tipo.descricao.equalsIgnoreCase(procurado)) {
+                return tipo;
+            }
+        }
+        return null;
+    }
+    
     @Override
     public String toString() {
         return descricao;
@@ -41,6 +41,15 @@ public class Usuario {
      */
     private NotificacaoStrategy canalNotificacao;
 
+    /**
+     * Controle de alterações para salvamento incremental.
+     * Cada setter de campo persistido incrementa a versão; a persistência
+     * guarda a versão gravada em marcarComoSalvo(). Voláteis: a gravação
+     * em segundo plano lê e marca as versões fora da thread da interface.
+     */
+    private volatile int versao;
+    private volatile int versaoSalva = -1;
+
     // ========================================
     // ENUM - TIPO DE USUÁRIO
     // ========================================
@@ -133,6 +142,7 @@ public class Usuario {
 
     public void setId(String id) {
         this.id = id;
+        versao++;
     }
 
     public String getNome() {
@@ -141,6 +151,7 @@ public class Usuario {
 
     public void setNome(String nome) {
         this.nome = nome;
+        versao++;
     }
 
     public String getEmail() {
@@ -149,6 +160,7 @@ public class Usuario {
 
     public void setEmail(String email) {
         this.email = email;
+        versao++;
     }
 
     public String getTelefone() {
@@ -157,6 +169,7 @@ public class Usuario {
 
     public void setTelefone(String telefone) {
         this.telefone = telefone;
+        versao++;
     }
 
     public String getSenha() {
@@ -165,6 +178,7 @@ public class Usuario {
 
     public void setSenha(String senha) {
         this.senha = senha;
+        versao++;
     }
 
     public TipoUsuario getTipo() {
@@ -173,6 +187,40 @@ public class Usuario {
 
     public void setTipo(TipoUsuario tipo) {
         this.tipo = tipo;
+        versao++;
+    }
+
+    // ========================================
+    // CONTROLE DE ALTERAÇÕES
+    // ========================================
+
+    /**
+     * true se o usuário nunca foi gravado ou mudou desde a última gravação
+     */
+    public boolean isModificado() {
+        return versao != versaoSalva;
+    }
+
+    /**
+     * Chamado pela persistência após gravar (ou carregar) o usuário
+     */
+    public void marcarComoSalvo() {
+        marcarComoSalvo(versao);
+    }
+
+    /**
+     * Registra a versão lida antes de uma gravação em segundo plano
+     */
+    public void marcarComoSalvo(int versaoGravada) {
+        versaoSalva = versaoGravada;
+    }
+
+    /**
+     * Contador de alterações; permite que um anúncio detecte mudanças
+     * no anunciante embutido em seu registro
+     */
+    public int getVersao() {
+        return versao;
     }
 
     // ========================================
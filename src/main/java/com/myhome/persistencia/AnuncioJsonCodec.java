@@ -0,0 +1,394 @@
+package com.myhome.persistencia;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Apartamento;
+import com.myhome.model.Casa;
+import com.myhome.model.Endereco;
+import com.myhome.model.Imovel;
+import com.myhome.model.SalaComercial;
+import com.myhome.model.Terreno;
+import com.myhome.model.TipoAnuncio;
+import com.myhome.model.Usuario;
+
+/**
+ * Codificação de anúncios e usuários no layout JSON de data/
+ *
+ * RESPONSABILIDADES:
+ * - Definir, em um único lugar, as chaves e o aninhamento de
+ *   anuncios.json e usuarios.json
+ * - Escrever registro a registro em um JsonWriter (streaming)
+ * - Montar Anuncio/Imovel/Usuario direto dos tokens de um JsonReader
+ *   (anunciantes compartilhados por email via RegistroAnunciantes)
+ */
+public class AnuncioJsonCodec {
+
+    /**
+     * Escreve o documento {"anuncios": [...]} completo no destino
+     */
+    public void escreverAnuncios(Writer destino, Iterable<Anuncio> anuncios) throws IOException {
+        JsonWriter json = new JsonWriter(destino);
+        json.beginObject().name("anuncios").beginArray();
+        for (Anuncio anuncio : anuncios) {
+            escreverAnuncio(json, anuncio);
+        }
+        json.endArray().endObject();
+        json.flush();
+    }
+
+    /**
+     * Escreve um único anúncio como objeto JSON
+     */
+    public void escreverAnuncio(JsonWriter json, Anuncio anuncio) throws IOException {
+        Imovel imovel = anuncio.getImovel();
+        Usuario anunciante = anuncio.getAnunciante();
+
+        json.beginObject();
+        if (anuncio.getId() != null) {
+            json.name("id").value(anuncio.getId());
+        }
+        json.name("titulo").value(texto(anuncio.getTitulo()));
+        json.name("preco").value(anuncio.getPreco());
+        json.name("descricao").value(texto(anuncio.getDescricao()));
+        json.name("estado").value(texto(anuncio.getState().getNome()));
+        if (anuncio.getTipoAnuncio() != null) {
+            json.name("tipoAnuncio").value(anuncio.getTipoAnuncio().name());
+        }
+        if (anuncio.getDataPublicacao() != null) {
+            json.name("dataPublicacao").value(anuncio.getDataPublicacao().getTime());
+        }
+
+        // Imovel
+        json.name("imovel").beginObject();
+        json.name("tipo").value(imovel.getTipo());
+        json.name("area").value(imovel.getArea());
+
+        // Endereco como objeto estruturado
+        Endereco endereco = imovel.getEndereco();
+        json.name("endereco").beginObject();
+        json.name("rua").value(texto(endereco.getRua()));
+        json.name("numero").value(texto(endereco.getNumero()));
+        json.name("cidade").value(texto(endereco.getCidade()));
+        json.name("estado").value(texto(endereco.getEstado()));
+        if (endereco.temCoordenadas()) {
+            json.name("latitude").value(endereco.getLatitude());
+            json.name("longitude").value(endereco.getLongitude());
+        }
+        json.endObject();
+
+        // Adiciona atributos específicos por tipo
+        if (imovel instanceof Casa) {
+            Casa casa = (Casa) imovel;
+            json.name("quartos").value(casa.getQuartos());
+            json.name("banheiros").value(casa.getBanheiros());
+            json.name("temQuintal").value(casa.isTemQuintal());
+            json.name("temGaragem").value(casa.isTemGaragem());
+        } else if (imovel instanceof Apartamento) {
+            Apartamento apt = (Apartamento) imovel;
+            json.name("quartos").value(apt.getQuartos());
+            json.name("banheiros").value(apt.getBanheiros());
+            json.name("andar").value(apt.getAndar());
+            json.name("vagas").value(apt.getVagas());
+        } else if (imovel instanceof Terreno) {
+            Terreno terreno = (Terreno) imovel;
+            json.name("zoneamento").value(texto(terreno.getZoneamento()));
+        } else if (imovel instanceof SalaComercial) {
+            SalaComercial sala = (SalaComercial) imovel;
+            json.name("andar").value(sala.getAndar());
+            json.name("temBanheiro").value(sala.isTemBanheiro());
+            json.name("vagas").value(sala.getVagasEstacionamento());
+        }
+        json.endObject();
+
+        // Anunciante
+        json.name("anunciante").beginObject();
+        json.name("nome").value(texto(anunciante.getNome()));
+        json.name("email").value(texto(anunciante.getEmail()));
+        json.name("telefone").value(texto(anunciante.getTelefone()));
+        json.endObject();
+
+        json.endObject();
+    }
+
+    /**
+     * Escreve o documento {"usuarios": [...]} completo no destino
+     */
+    public void escreverUsuarios(Writer destino, Iterable<Usuario> usuarios) throws IOException {
+        JsonWriter json = new JsonWriter(destino);
+        json.beginObject().name("usuarios").beginArray();
+        for (Usuario usuario : usuarios) {
+            json.beginObject();
+            json.name("nome").value(texto(usuario.getNome()));
+            json.name("email").value(texto(usuario.getEmail()));
+            json.name("telefone").value(texto(usuario.getTelefone()));
+            json.name("tipo").value(String.valueOf(usuario.getTipo()));
+            json.endObject();
+        }
+        json.endArray().endObject();
+        destino.write('\n');
+        json.flush();
+    }
+
+    // ========================================
+    // LEITURA
+    // ========================================
+
+    /**
+     * Lê o documento {"anuncios": [...]} em uma única passada, entregando
+     * cada anúncio ao destino assim que ele é montado
+     */
+    public void lerAnuncios(Reader origem, Consumer<Anuncio> destino) throws IOException {
+        JsonReader json = new JsonReader(origem);
+        json.beginObject();
+        while (json.hasNext()) {
+            if (!json.nextName().equals("anuncios")) {
+                json.skipValue();
+                continue;
+            }
+            json.beginArray();
+            while (json.hasNext()) {
+                Anuncio anuncio = lerAnuncio(json);
+                if (anuncio != null) {
+                    destino.accept(anuncio);
+                }
+            }
+            json.endArray();
+        }
+        json.endObject();
+    }
+
+    /**
+     * Lê um único objeto de anúncio. Retorna null se o tipo de imóvel for desconhecido.
+     */
+    public Anuncio lerAnuncio(JsonReader json) throws IOException {
+        String id = null;
+        String titulo = "";
+        double preco = 0.0;
+        String descricao = "";
+        String estadoNome = "";
+        TipoAnuncio tipoAnuncio = null;
+        Long dataPublicacao = null;
+        Imovel imovel = null;
+        Usuario anunciante = null;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "id":         id = json.nextString(); break;
+                case "titulo":     titulo = lerTexto(json); break;
+                case "preco":      preco = json.nextDouble(); break;
+                case "descricao":  descricao = lerTexto(json); break;
+                case "estado":     estadoNome = lerTexto(json); break;
+                case "tipoAnuncio": tipoAnuncio = TipoAnuncio.porNome(lerTexto(json)); break;
+                case "dataPublicacao": dataPublicacao = json.nextLong(); break;
+                case "imovel":     imovel = lerImovel(json); break;
+                case "anunciante": anunciante = lerAnunciante(json); break;
+                default:           json.skipValue();
+            }
+        }
+        json.endObject();
+
+        if (imovel == null) {
+            System.err.println("❌ Tipo de imóvel inválido no anúncio: " + titulo);
+            return null;
+        }
+
+        Anuncio anuncio = new Anuncio();
+        anuncio.setId(id);
+        anuncio.setTitulo(titulo);
+        anuncio.setPreco(preco);
+        anuncio.setDescricao(descricao);
+        anuncio.setImovel(imovel);
+        anuncio.setAnunciante(anunciante != null ? anunciante : new Usuario());
+        anuncio.setTipoAnuncio(tipoAnuncio);
+        if (dataPublicacao != null) {
+            anuncio.setDataPublicacao(new Date(dataPublicacao));
+        }
+
+        // Restaurar estado salvo no JSON
+        if (!estadoNome.isEmpty()) {
+            anuncio.restaurarEstado(estadoNome);
+        }
+        return anuncio;
+    }
+
+    /**
+     * Lê o documento {"usuarios": [...]} em uma única passada
+     */
+    public List<Usuario> lerUsuarios(Reader origem) throws IOException {
+        List<Usuario> usuarios = new ArrayList<>();
+        JsonReader json = new JsonReader(origem);
+        json.beginObject();
+        while (json.hasNext()) {
+            if (!json.nextName().equals("usuarios")) {
+                json.skipValue();
+                continue;
+            }
+            json.beginArray();
+            while (json.hasNext()) {
+                usuarios.add(lerUsuario(json));
+            }
+            json.endArray();
+        }
+        json.endObject();
+        return usuarios;
+    }
+
+    private Usuario lerUsuario(JsonReader json) throws IOException {
+        Usuario usuario = new Usuario();
+        usuario.setTipo(Usuario.TipoUsuario.PROPRIETARIO);
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "nome":     usuario.setNome(lerTexto(json)); break;
+                case "email":    usuario.setEmail(lerTexto(json)); break;
+                case "telefone": usuario.setTelefone(lerTexto(json)); break;
+                case "tipo":     usuario.setTipo(lerTipoUsuario(lerTexto(json))); break;
+                default:         json.skipValue();
+            }
+        }
+        json.endObject();
+
+        usuario.setCanalNotificacao(RegistroAnunciantes.getInstance().getCanalPadrao());
+        return usuario;
+    }
+
+    private Usuario lerAnunciante(JsonReader json) throws IOException {
+        String nome = "";
+        String email = "";
+        String telefone = "";
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "nome":     nome = lerTexto(json); break;
+                case "email":    email = lerTexto(json); break;
+                case "telefone": telefone = lerTexto(json); break;
+                default:         json.skipValue();
+            }
+        }
+        json.endObject();
+
+        // Uma instância por email; RF05 - canal padrão de email compartilhado
+        return RegistroAnunciantes.getInstance().anunciante(nome, email, telefone);
+    }
+
+    /**
+     * Lê o objeto "imovel" (com "endereco" aninhado) e cria a subclasse correta
+     */
+    private Imovel lerImovel(JsonReader json) throws IOException {
+        String tipo = "";
+        double area = 0.0;
+        String rua = "", numero = "", cidade = "", estado = "";
+        double latitude = Double.NaN, longitude = Double.NaN;
+        int quartos = 0, banheiros = 0, andar = 0, vagas = 0;
+        boolean temQuintal = false, temGaragem = false, temBanheiro = false;
+        String zoneamento = "";
+
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "tipo":        tipo = lerTexto(json); break;
+                case "area":        area = json.nextDouble(); break;
+                case "quartos":     quartos = json.nextInt(); break;
+                case "banheiros":   banheiros = json.nextInt(); break;
+                case "andar":       andar = json.nextInt(); break;
+                case "vagas":       vagas = json.nextInt(); break;
+                case "temQuintal":  temQuintal = json.nextBoolean(); break;
+                case "temGaragem":  temGaragem = json.nextBoolean(); break;
+                case "temBanheiro": temBanheiro = json.nextBoolean(); break;
+                case "zoneamento":  zoneamento = lerTexto(json); break;
+                case "endereco":
+                    json.beginObject();
+                    while (json.hasNext()) {
+                        switch (json.nextName()) {
+                            case "rua":    rua = lerTexto(json); break;
+                            case "numero": numero = lerTexto(json); break;
+                            case "cidade": cidade = lerTexto(json); break;
+                            case "estado": estado = lerTexto(json); break;
+                            case "latitude":  latitude = json.nextDouble(); break;
+                            case "longitude": longitude = json.nextDouble(); break;
+                            default:       json.skipValue();
+                        }
+                    }
+                    json.endObject();
+                    break;
+                default:
+                    json.skipValue();
+            }
+        }
+        json.endObject();
+
+        Endereco endereco = new Endereco(rua, numero, cidade, estado);
+        endereco.setCoordenadas(latitude, longitude);
+
+        switch (tipo) {
+            case "Casa":
+                Casa casa = new Casa();
+                casa.setArea(area);
+                casa.setEndereco(endereco);
+                casa.setQuartos(quartos);
+                casa.setBanheiros(banheiros);
+                casa.setTemQuintal(temQuintal);
+                casa.setTemGaragem(temGaragem);
+                return casa;
+
+            case "Apartamento":
+                Apartamento apt = new Apartamento();
+                apt.setArea(area);
+                apt.setEndereco(endereco);
+                apt.setQuartos(quartos);
+                apt.setBanheiros(banheiros);
+                apt.setAndar(andar);
+                apt.setVagas(vagas);
+                return apt;
+
+            case "Terreno":
+                Terreno terreno = new Terreno();
+                terreno.setArea(area);
+                terreno.setEndereco(endereco);
+                terreno.setZoneamento(zoneamento.isEmpty() ? "Urbano" : zoneamento); // Valor padrão
+                return terreno;
+
+            case "Sala Comercial":
+                SalaComercial sala = new SalaComercial();
+                sala.setArea(area);
+                sala.setEndereco(endereco);
+                sala.setAndar(andar);
+                sala.setTemBanheiro(temBanheiro);
+                sala.setVagasEstacionamento(vagas);
+                return sala;
+
+            default:
+                return null;
+        }
+    }
+
+    private Usuario.TipoUsuario lerTipoUsuario(String valor) {
+        try {
+            return Usuario.TipoUsuario.valueOf(valor);
+        } catch (IllegalArgumentException e) {
+            return Usuario.TipoUsuario.PROPRIETARIO;
+        }
+    }
+
+    private String lerTexto(JsonReader json) throws IOException {
+        String valor = json.nextString();
+        return valor == null ? "" : valor;
+    }
+
+    /**
+     * Campos nulos são gravados como string vazia (mesmo comportamento do formato original)
+     */
+    private String texto(String valor) {
+        return valor == null ? "" : valor;
+    }
+}
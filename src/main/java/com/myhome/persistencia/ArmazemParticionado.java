@@ -0,0 +1,299 @@
+package com.myhome.persistencia;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Endereco;
+import com.myhome.model.Usuario;
+
+/**
+ * Snapshot particionado por região (estado e, opcionalmente, cidade)
+ *
+ * RESPONSABILIDADES:
+ * - Gravar cada região em um arquivo binário próprio dentro do diretório
+ *   (ex.: data/anuncios.part/PB.bin ou data/anuncios.part/PB/joao-pessoa.bin)
+ * - Regravar só as partições com anúncios modificados, incluídos ou removidos
+ * - Carregar as partições em paralelo
+ * - Carregar apenas as partições de uma região (carregarRegiao)
+ *
+ * A ordem global dos anúncios é reconstruída pelo id numérico na carga.
+ * Usuários não têm região: são gravados em um único arquivo binário.
+ */
+public class ArmazemParticionado implements FormatoSnapshot {
+
+    private static final String SEM_REGIAO = "_sem-regiao";
+
+    private final FormatoBinario binario = new FormatoBinario();
+    private final boolean porCidade;
+    private final int threads;
+
+    /**
+     * Objetos gravados em cada arquivo de partição, para detectar partições inalteradas
+     */
+    private final Map<Path, Object[]> ocupantesPorParticao = new HashMap<>();
+
+    private int particoesGravadas;
+
+    /**
+     * @param porCidade true para uma partição por cidade dentro de cada estado
+     * @param threads Threads usadas na carga paralela das partições
+     */
+    public ArmazemParticionado(boolean porCidade, int threads) {
+        this.porCidade = porCidade;
+        this.threads = Math.max(1, threads);
+    }
+
+    @Override
+    public String getNome() {
+        return "particionado";
+    }
+
+    @Override
+    public String getExtensao() {
+        return "part";
+    }
+
+    /**
+     * Partições regravadas no último salvamento
+     */
+    public int getParticoesGravadas() {
+        return particoesGravadas;
+    }
+
+    // ========================================
+    // ANÚNCIOS
+    // ========================================
+
+    @Override
+    public synchronized void salvarAnuncios(Path diretorio, Iterable<Anuncio> anuncios) throws IOException {
+        Files.createDirectories(diretorio);
+
+        Map<Path, List<Anuncio>> particoes = new LinkedHashMap<>();
+        for (Anuncio anuncio : anuncios) {
+            particoes.computeIfAbsent(arquivoParticao(diretorio, anuncio), chave -> new ArrayList<>()).add(anuncio);
+        }
+
+        particoesGravadas = 0;
+        for (Map.Entry<Path, List<Anuncio>> particao : particoes.entrySet()) {
+            Path arquivo = particao.getKey();
+            List<Anuncio> membros = particao.getValue();
+            if (inalterada(arquivo, membros) && Files.exists(arquivo)) {
+                continue;
+            }
+            Files.createDirectories(arquivo.getParent());
+            binario.salvarAnuncios(arquivo, membros);
+            ocupantesPorParticao.put(arquivo, membros.toArray());
+            particoesGravadas++;
+        }
+
+        // Regiões que ficaram vazias (ou de um layout anterior) deixam de existir
+        for (Path arquivo : listarParticoes(diretorio)) {
+            if (!particoes.containsKey(arquivo)) {
+                Files.delete(arquivo);
+                Files.deleteIfExists(ArquivoAtomico.anterior(arquivo));
+                ocupantesPorParticao.remove(arquivo);
+            }
+        }
+    }
+
+    @Override
+    public void carregarAnuncios(Path diretorio, Consumer<Anuncio> destino) throws IOException {
+        carregarParticoes(listarParticoes(diretorio), true, destino);
+    }
+
+    /**
+     * Carrega somente as partições de um estado (e cidade, se informada).
+     * Com partição só por estado, a cidade é filtrada após a leitura.
+     * Os anúncios lidos são cópias avulsas: não afetam o controle de
+     * partições inalteradas do catálogo principal.
+     */
+    public void carregarRegiao(Path diretorio, String estado, String cidade, Consumer<Anuncio> destino)
+            throws IOException {
+        Path pastaEstado = diretorio.resolve(nomeEstado(estado));
+        List<Path> arquivos = new ArrayList<>();
+
+        Path arquivoEstado = diretorio.resolve(nomeEstado(estado) + "." + binario.getExtensao());
+        if (Files.exists(arquivoEstado)) {
+            arquivos.add(arquivoEstado);
+        }
+        if (Files.isDirectory(pastaEstado)) {
+            if (cidade != null && !cidade.trim().isEmpty()) {
+                Path arquivoCidade = pastaEstado.resolve(nomeCidade(cidade) + "." + binario.getExtensao());
+                if (Files.exists(arquivoCidade)) {
+                    arquivos.add(arquivoCidade);
+                }
+            } else {
+                arquivos.addAll(listarParticoes(pastaEstado));
+            }
+        }
+
+        carregarParticoes(arquivos, false, anuncio -> {
+            if (cidade == null || cidade.trim().isEmpty()
+                    || nomeCidade(cidade).equals(nomeCidade(anuncio.getImovel().getEndereco().getCidade()))) {
+                destino.accept(anuncio);
+            }
+        });
+    }
+
+    /**
+     * Lê as partições em paralelo; os anúncios são entregues ao destino na
+     * thread chamadora, ordenados pelo id
+     */
+    private void carregarParticoes(List<Path> arquivos, boolean catalogo, Consumer<Anuncio> destino)
+            throws IOException {
+        List<Anuncio> todos = new ArrayList<>();
+        if (arquivos.size() <= 1) {
+            for (Path arquivo : arquivos) {
+                todos.addAll(carregarParticao(arquivo, catalogo));
+            }
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, arquivos.size()));
+            try {
+                List<Future<List<Anuncio>>> leituras = new ArrayList<>();
+                for (Path arquivo : arquivos) {
+                    leituras.add(executor.submit(() -> carregarParticao(arquivo, catalogo)));
+                }
+                for (Future<List<Anuncio>> leitura : leituras) {
+                    todos.addAll(leitura.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Carga das partições interrompida");
+            } catch (ExecutionException e) {
+                Throwable causa = e.getCause();
+                throw causa instanceof IOException ? (IOException) causa : new IOException(causa);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        todos.sort((a, b) -> Long.compare(ordemId(a), ordemId(b)));
+        todos.forEach(destino);
+    }
+
+    /**
+     * @param catalogo true se os anúncios lidos formam o catálogo que será salvo depois
+     */
+    private List<Anuncio> carregarParticao(Path arquivo, boolean catalogo) throws IOException {
+        List<Anuncio> anuncios = new ArrayList<>();
+        try {
+            binario.carregarAnuncios(arquivo, anuncios::add);
+        } catch (ChecksumInvalidoException e) {
+            System.err.println("⚠️  " + e.getMessage() + ". Usando a geração anterior da partição.");
+            anuncios.clear();
+            binario.carregarAnuncios(ArquivoAtomico.anterior(arquivo), anuncios::add);
+        }
+        if (catalogo) {
+            synchronized (this) {
+                ocupantesPorParticao.put(arquivo, anuncios.toArray());
+            }
+        }
+        return anuncios;
+    }
+
+    // ========================================
+    // USUÁRIOS (arquivo único)
+    // ========================================
+
+    @Override
+    public void salvarUsuarios(Path arquivo, Iterable<Usuario> usuarios) throws IOException {
+        binario.salvarUsuarios(arquivo, usuarios);
+    }
+
+    @Override
+    public List<Usuario> carregarUsuarios(Path arquivo) throws IOException {
+        return binario.carregarUsuarios(arquivo);
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private boolean inalterada(Path arquivo, List<Anuncio> membros) {
+        Object[] anteriores = ocupantesPorParticao.get(arquivo);
+        if (anteriores == null || anteriores.length != membros.size()) {
+            return false;
+        }
+        for (int i = 0; i < anteriores.length; i++) {
+            Anuncio anuncio = membros.get(i);
+            if (anteriores[i] != anuncio || anuncio.isModificado()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Path arquivoParticao(Path diretorio, Anuncio anuncio) {
+        Endereco endereco = anuncio.getImovel() != null ? anuncio.getImovel().getEndereco() : null;
+        String estado = nomeEstado(endereco != null ? endereco.getEstado() : null);
+        if (!porCidade) {
+            return diretorio.resolve(estado + "." + binario.getExtensao());
+        }
+        String cidade = nomeCidade(endereco != null ? endereco.getCidade() : null);
+        return diretorio.resolve(estado).resolve(cidade + "." + binario.getExtensao());
+    }
+
+    private List<Path> listarParticoes(Path diretorio) throws IOException {
+        if (!Files.isDirectory(diretorio)) {
+            return Collections.emptyList();
+        }
+        String sufixo = "." + binario.getExtensao();
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            return arquivos.filter(arquivo -> arquivo.getFileName().toString().endsWith(sufixo))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Sigla do estado em maiúsculas, sem acentos nem caracteres inválidos em nomes de arquivo
+     */
+    public static String nomeEstado(String estado) {
+        String nome = normalizar(estado).toUpperCase();
+        return nome.isEmpty() ? SEM_REGIAO : nome;
+    }
+
+    /**
+     * Cidade em minúsculas, sem acentos, com hífens (ex.: "João Pessoa" -> "joao-pessoa")
+     */
+    public static String nomeCidade(String cidade) {
+        String nome = normalizar(cidade).toLowerCase();
+        return nome.isEmpty() ? SEM_REGIAO : nome;
+    }
+
+    private static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = Normalizer.normalize(texto.trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "");
+        return semAcentos.replaceAll("[^A-Za-z0-9]+", "-").replaceAll("^-|-$", "");
+    }
+
+    /**
+     * Ids numéricos na ordem de criação; ids ausentes ou não numéricos vão para o fim
+     */
+    private static long ordemId(Anuncio anuncio) {
+        try {
+            return anuncio.getId() != null ? Long.parseLong(anuncio.getId()) : Long.MAX_VALUE;
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,349 @@
+package com.myhome.persistencia;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Usuario;
+
+/**
+ * Snapshot segmentado com salvamento incremental
+ *
+ * RESPONSABILIDADES:
+ * - Dividir cada coleção (anúncios, usuários) em segmentos de tamanho fixo,
+ *   um arquivo binário por segmento, dentro de um diretório (ex.: data/anuncios.seg/)
+ * - Em cada salvamento, pular os segmentos sem registros modificados
+ * - Nos segmentos alterados, recodificar só os registros modificados e copiar
+ *   os bytes dos demais do arquivo anterior
+ *
+ * Cada segmento é um arquivo no layout do FormatoBinario (cabeçalho + registros).
+ * O arquivo "manifesto" guarda a quantidade de segmentos e de registros em cada um.
+ * Segmentos e manifesto são gravados via ArquivoAtomico; um segmento com
+ * checksum inválido é lido da sua geração anterior.
+ *
+ * Para reaproveitar bytes, o armazém lembra quais objetos ocupam cada segmento
+ * e onde começa cada registro no arquivo; por isso a mesma instância deve ser
+ * usada para carregar e salvar (o PersistenciaService mantém uma única).
+ */
+public class ArmazemSegmentado implements FormatoSnapshot {
+
+    private static final String MANIFESTO = "manifesto";
+    private static final String PREFIXO_SEGMENTO = "segmento-";
+
+    private final FormatoBinario binario = new FormatoBinario();
+    private final int registrosPorSegmento;
+
+    /**
+     * Segmentos conhecidos por diretório
+     */
+    private final Map<Path, List<Segmento>> segmentosPorDiretorio = new HashMap<>();
+
+    private int segmentosGravados;
+    private long bytesGravados;
+
+    public ArmazemSegmentado(int registrosPorSegmento) {
+        this.registrosPorSegmento = Math.max(1, registrosPorSegmento);
+    }
+
+    @Override
+    public String getNome() {
+        return "segmentado";
+    }
+
+    @Override
+    public String getExtensao() {
+        return "seg";
+    }
+
+    /**
+     * Segmentos regravados no último salvamento
+     */
+    public int getSegmentosGravados() {
+        return segmentosGravados;
+    }
+
+    /**
+     * Bytes escritos no último salvamento (segmentos + manifesto)
+     */
+    public long getBytesGravados() {
+        return bytesGravados;
+    }
+
+    // ========================================
+    // FORMATO SNAPSHOT
+    // ========================================
+
+    @Override
+    public synchronized void salvarAnuncios(Path diretorio, Iterable<Anuncio> anuncios) throws IOException {
+        salvar(diretorio, paraLista(anuncios), FormatoBinario.MAGICO_ANUNCIOS, new Registro<Anuncio>() {
+            public void escrever(DataOutputStream out, Anuncio anuncio) throws IOException {
+                binario.escreverAnuncio(out, anuncio);
+            }
+            public boolean modificado(Anuncio anuncio) {
+                return anuncio.isModificado();
+            }
+        });
+    }
+
+    @Override
+    public synchronized void carregarAnuncios(Path diretorio, Consumer<Anuncio> destino) throws IOException {
+        carregar(diretorio, FormatoBinario.MAGICO_ANUNCIOS, FormatoBinario.Leitor::lerAnuncio, destino);
+    }
+
+    @Override
+    public synchronized void salvarUsuarios(Path diretorio, Iterable<Usuario> usuarios) throws IOException {
+        salvar(diretorio, paraLista(usuarios), FormatoBinario.MAGICO_USUARIOS, new Registro<Usuario>() {
+            public void escrever(DataOutputStream out, Usuario usuario) throws IOException {
+                binario.escreverUsuario(out, usuario);
+            }
+            public boolean modificado(Usuario usuario) {
+                return usuario.isModificado();
+            }
+        });
+    }
+
+    @Override
+    public synchronized List<Usuario> carregarUsuarios(Path diretorio) throws IOException {
+        List<Usuario> usuarios = new ArrayList<>();
+        carregar(diretorio, FormatoBinario.MAGICO_USUARIOS, FormatoBinario.Leitor::lerUsuario, usuarios::add);
+        return usuarios;
+    }
+
+    // ========================================
+    // SALVAMENTO INCREMENTAL
+    // ========================================
+
+    private interface Registro<T> {
+        void escrever(DataOutputStream out, T registro) throws IOException;
+        boolean modificado(T registro);
+    }
+
+    private <T> void salvar(Path diretorio, List<T> registros, int magico, Registro<T> registro) throws IOException {
+        Files.createDirectories(diretorio);
+        List<Segmento> anteriores = segmentosPorDiretorio.getOrDefault(diretorio, new ArrayList<>());
+        List<Segmento> atuais = new ArrayList<>();
+        segmentosGravados = 0;
+        bytesGravados = 0;
+
+        int quantidade = (registros.size() + registrosPorSegmento - 1) / registrosPorSegmento;
+        for (int i = 0; i < quantidade; i++) {
+            List<T> trecho = registros.subList(i * registrosPorSegmento,
+                    Math.min(registros.size(), (i + 1) * registrosPorSegmento));
+            Segmento anterior = i < anteriores.size() ? anteriores.get(i) : null;
+            Path arquivo = diretorio.resolve(nomeSegmento(i));
+
+            if (anterior != null && anterior.inalterado(trecho, registro) && Files.exists(arquivo)) {
+                atuais.add(anterior);
+                continue;
+            }
+            atuais.add(gravarSegmento(arquivo, trecho, anterior, magico, registro));
+        }
+
+        gravarManifesto(diretorio, atuais);
+        removerSegmentosExcedentes(diretorio, quantidade);
+        segmentosPorDiretorio.put(diretorio, atuais);
+    }
+
+    /**
+     * Monta o novo conteúdo do segmento: registros inalterados que já estavam
+     * no segmento anterior são copiados byte a byte, os demais são codificados
+     */
+    private <T> Segmento gravarSegmento(Path arquivo, List<T> trecho, Segmento anterior,
+                                        int magico, Registro<T> registro) throws IOException {
+        byte[] bytesAnteriores = null;
+        Map<Object, Integer> posicaoAnterior = new IdentityHashMap<>();
+        if (anterior != null && Files.exists(arquivo)) {
+            try {
+                // Conteúdo verificado: bytes danificados nunca são copiados adiante,
+                // nem registros de uma versão anterior do formato
+                ByteBuffer conteudo = ArquivoAtomico.mapear(arquivo);
+                if (FormatoBinario.versao(conteudo) == FormatoBinario.VERSAO) {
+                    bytesAnteriores = new byte[conteudo.remaining()];
+                    conteudo.get(bytesAnteriores);
+                    for (int j = 0; j < anterior.ocupantes.length; j++) {
+                        posicaoAnterior.put(anterior.ocupantes[j], j);
+                    }
+                }
+            } catch (ChecksumInvalidoException e) {
+                bytesAnteriores = null;
+            }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        binario.escreverCabecalho(out, magico);
+
+        Object[] ocupantes = new Object[trecho.size()];
+        int[] inicios = new int[trecho.size() + 1];
+        for (int j = 0; j < trecho.size(); j++) {
+            T atual = trecho.get(j);
+            ocupantes[j] = atual;
+            inicios[j] = out.size();
+
+            Integer k = posicaoAnterior.get(atual);
+            if (bytesAnteriores != null && k != null && !registro.modificado(atual)) {
+                int inicio = anterior.inicios[k];
+                out.write(bytesAnteriores, inicio, anterior.inicios[k + 1] - inicio);
+            } else {
+                registro.escrever(out, atual);
+            }
+        }
+        inicios[trecho.size()] = out.size();
+        out.flush();
+
+        ArquivoAtomico.gravar(arquivo, bytes::writeTo);
+        segmentosGravados++;
+        bytesGravados += bytes.size();
+        return new Segmento(ocupantes, inicios);
+    }
+
+    private void gravarManifesto(Path diretorio, List<Segmento> segmentos) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(segmentos.size());
+        for (Segmento segmento : segmentos) {
+            out.writeInt(segmento.ocupantes.length);
+        }
+        out.flush();
+        ArquivoAtomico.gravar(diretorio.resolve(MANIFESTO), bytes::writeTo);
+        bytesGravados += bytes.size();
+    }
+
+    private void removerSegmentosExcedentes(Path diretorio, int quantidade) throws IOException {
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(diretorio, PREFIXO_SEGMENTO + "*")) {
+            for (Path arquivo : arquivos) {
+                String nome = arquivo.getFileName().toString();
+                try {
+                    int indice = Integer.parseInt(nome.substring(PREFIXO_SEGMENTO.length(), nome.indexOf('.')));
+                    if (indice >= quantidade) {
+                        Files.delete(arquivo);
+                    }
+                } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+                    // arquivo que não segue o padrão de nomes: não é nosso
+                }
+            }
+        }
+    }
+
+    // ========================================
+    // CARREGAMENTO
+    // ========================================
+
+    private interface Decodificador<T> {
+        T ler(FormatoBinario.Leitor leitor) throws IOException;
+    }
+
+    private <T> void carregar(Path diretorio, int magico, Decodificador<T> decodificador,
+                              Consumer<T> destino) throws IOException {
+        List<Segmento> segmentos = new ArrayList<>();
+        segmentosPorDiretorio.put(diretorio, segmentos);
+
+        for (int i = 0, quantidade = lerManifesto(diretorio); i < quantidade; i++) {
+            Path arquivo = diretorio.resolve(nomeSegmento(i));
+            ByteBuffer conteudo;
+            try {
+                conteudo = binario.mapear(arquivo, magico);
+            } catch (ChecksumInvalidoException e) {
+                System.err.println("⚠️  " + e.getMessage() + ". Usando a geração anterior do segmento.");
+                conteudo = binario.mapear(ArquivoAtomico.anterior(arquivo), magico);
+            }
+            FormatoBinario.Leitor leitor = new FormatoBinario.Leitor(conteudo, FormatoBinario.versao(conteudo));
+            List<Object> ocupantes = new ArrayList<>();
+            List<Integer> inicios = new ArrayList<>();
+            try {
+                while (leitor.buffer.hasRemaining()) {
+                    inicios.add(leitor.buffer.position());
+                    T lido = decodificador.ler(leitor);
+                    ocupantes.add(lido);
+                    destino.accept(lido);
+                }
+            } catch (BufferUnderflowException e) {
+                throw new IOException("Segmento truncado: " + arquivo);
+            }
+            inicios.add(leitor.buffer.position());
+
+            int[] posicoes = new int[inicios.size()];
+            for (int j = 0; j < posicoes.length; j++) {
+                posicoes[j] = inicios.get(j);
+            }
+            segmentos.add(new Segmento(ocupantes.toArray(), posicoes));
+        }
+    }
+
+    private int lerManifesto(Path diretorio) throws IOException {
+        Path manifesto = diretorio.resolve(MANIFESTO);
+        if (!Files.exists(manifesto)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(ArquivoAtomico.abrir(manifesto))) {
+            return in.readInt();
+        } catch (ChecksumInvalidoException e) {
+            System.err.println("⚠️  " + e.getMessage() + ". Usando a geração anterior do manifesto.");
+            try (DataInputStream in = new DataInputStream(ArquivoAtomico.abrir(ArquivoAtomico.anterior(manifesto)))) {
+                return in.readInt();
+            }
+        }
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private String nomeSegmento(int indice) {
+        return String.format("%s%05d.%s", PREFIXO_SEGMENTO, indice, binario.getExtensao());
+    }
+
+    private <T> List<T> paraLista(Iterable<T> registros) {
+        if (registros instanceof List) {
+            return (List<T>) registros;
+        }
+        List<T> lista = new ArrayList<>();
+        registros.forEach(lista::add);
+        return lista;
+    }
+
+    /**
+     * Objetos gravados em um segmento e a posição de cada registro no arquivo
+     * (inicios tem um elemento a mais: o fim do último registro)
+     */
+    private static class Segmento {
+
+        final Object[] ocupantes;
+        final int[] inicios;
+
+        Segmento(Object[] ocupantes, int[] inicios) {
+            this.ocupantes = ocupantes;
+            this.inicios = inicios;
+        }
+
+        /**
+         * true se o segmento contém exatamente os mesmos objetos, na mesma
+         * ordem, e nenhum deles foi modificado desde a gravação
+         */
+        <T> boolean inalterado(List<T> trecho, Registro<T> registro) {
+            if (trecho.size() != ocupantes.length) {
+                return false;
+            }
+            for (int j = 0; j < ocupantes.length; j++) {
+                T atual = trecho.get(j);
+                if (atual != ocupantes[j] || registro.modificado(atual)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
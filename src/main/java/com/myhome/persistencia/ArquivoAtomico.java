@@ -0,0 +1,475 @@
+package com.myhome.persistencia;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * Gravação atômica e verificada dos arquivos de data/
+ *
+ * RESPONSABILIDADES:
+ * - Gravar em "<arquivo>.tmp", anexar o rodapé com CRC32C e fazer fsync
+ * - Em arquivos de texto (gravarTexto), manter o conteúdo puro e guardar o
+ *   CRC32C em "<arquivo>.crc", para que outras ferramentas continuem lendo
+ * - Preservar a versão em uso como "<arquivo>.anterior" (geração anterior)
+ * - Renomear o temporário sobre o arquivo em uso de forma atômica
+ * - Na leitura, conferir o CRC32C e entregar só o conteúdo (sem o rodapé)
+ *
+ * Uma queda durante a escrita afeta apenas o .tmp: o arquivo em uso
+ * continua íntegro. Se mesmo assim o arquivo em uso estiver danificado,
+ * a leitura lança ChecksumInvalidoException e quem carrega pode recorrer
+ * à geração anterior.
+ *
+ * Rodapé (16 bytes, big-endian): long tamanho do conteúdo + int CRC32C + int mágico "MHCK".
+ * Arquivo .crc: uma linha "CRC32C <crc em hexadecimal> <tamanho>". O conteúdo
+ * é renomeado antes do .crc; se a queda for entre os dois renames, o
+ * "<arquivo>.crc.tmp" (já gravado com fsync) também é aceito.
+ * Arquivos sem rodapé nem .crc (gravados antes desta versão) são aceitos sem verificação.
+ */
+public final class ArquivoAtomico {
+
+    private static final int MAGICO_RODAPE = 0x4D48434B; // "MHCK"
+    private static final int TAMANHO_RODAPE = 16;
+    private static final String PREFIXO_VERIFICACAO = "CRC32C";
+
+    // Tamanho e data dos arquivos gravados por último neste processo: já
+    // conferidos, não são lidos de novo ao virar geração anterior
+    private static final Map<Path, FileTime> GRAVADOS = new ConcurrentHashMap<>();
+    private static final Map<Path, Long> TAMANHOS_GRAVADOS = new ConcurrentHashMap<>();
+
+    /**
+     * Produz o conteúdo do arquivo. O stream recebido não deve ser fechado.
+     */
+    public interface Escrita {
+        void escrever(OutputStream out) throws IOException;
+    }
+
+    private ArquivoAtomico() {
+    }
+
+    /**
+     * Caminho da geração anterior de um arquivo
+     */
+    public static Path anterior(Path arquivo) {
+        return arquivo.resolveSibling(arquivo.getFileName() + ".anterior");
+    }
+
+    /**
+     * Arquivo com o CRC32C de um arquivo de texto (gravarTexto)
+     */
+    public static Path verificacao(Path arquivo) {
+        return arquivo.resolveSibling(arquivo.getFileName() + ".crc");
+    }
+
+    // ========================================
+    // ESCRITA
+    // ========================================
+
+    /**
+     * Grava o conteúdo seguido do rodapé com CRC32C (formatos binários)
+     */
+    public static void gravar(Path destino, Escrita escrita) throws IOException {
+        gravar(destino, escrita, true);
+    }
+
+    /**
+     * Grava o conteúdo sem rodapé, com o CRC32C em "<arquivo>.crc": o
+     * arquivo continua um documento válido (ex.: JSON) para outras ferramentas
+     */
+    public static void gravarTexto(Path destino, Escrita escrita) throws IOException {
+        gravar(destino, escrita, false);
+    }
+
+    private static void gravar(Path destino, Escrita escrita, boolean rodape) throws IOException {
+        Path temporario = temporario(destino);
+        Path verificacaoTemporaria = rodape ? null : temporario(verificacao(destino));
+
+        SaidaVerificada saida;
+        try (FileOutputStream arquivo = new FileOutputStream(temporario.toFile())) {
+            saida = new SaidaVerificada(new BufferedOutputStream(arquivo, 64 * 1024));
+            escrita.escrever(saida);
+            if (rodape) {
+                saida.escreverRodape();
+            }
+            saida.flush();
+            arquivo.getFD().sync();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+
+        if (!rodape) {
+            try (FileOutputStream arquivo = new FileOutputStream(verificacaoTemporaria.toFile())) {
+                arquivo.write(String.format(Locale.ROOT, "%s %08x %d%n",
+                        PREFIXO_VERIFICACAO, saida.getCrc(), saida.getTamanho()).getBytes(StandardCharsets.US_ASCII));
+                arquivo.getFD().sync();
+            } catch (IOException e) {
+                Files.deleteIfExists(temporario);
+                Files.deleteIfExists(verificacaoTemporaria);
+                throw e;
+            }
+        }
+
+        preservarGeracaoAtual(destino);
+        Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        if (!rodape) {
+            Files.move(verificacaoTemporaria, verificacao(destino),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        sincronizarDiretorio(destino);
+        lembrarGravacao(destino);
+    }
+
+    /**
+     * Guarda o arquivo em uso como geração anterior, desde que ele esteja
+     * íntegro (um arquivo danificado nunca substitui uma geração boa).
+     * O arquivo gravado por último por este processo não é relido; os
+     * demais são conferidos por um canal fechado antes do rename.
+     */
+    private static void preservarGeracaoAtual(Path destino) throws IOException {
+        if (!Files.exists(destino)) {
+            return;
+        }
+        if (!gravadoPorUltimo(destino)) {
+            try {
+                verificar(destino);
+            } catch (ChecksumInvalidoException e) {
+                System.err.println("⚠️  " + e.getMessage() + ". Geração anterior mantida.");
+                return;
+            }
+        }
+
+        Path anterior = anterior(destino);
+        vincular(destino, anterior);
+        Path verificacao = verificacao(destino);
+        if (Files.exists(verificacao)) {
+            vincular(verificacao, verificacao(anterior));
+        } else {
+            Files.deleteIfExists(verificacao(anterior));
+        }
+    }
+
+    private static void vincular(Path origem, Path copia) throws IOException {
+        Files.deleteIfExists(copia);
+        try {
+            // Link físico: sem copiar dados; o rename seguinte só troca o nome de destino
+            Files.createLink(copia, origem);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(origem, copia, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void lembrarGravacao(Path destino) {
+        Path chave = destino.toAbsolutePath().normalize();
+        try {
+            TAMANHOS_GRAVADOS.put(chave, Files.size(destino));
+            GRAVADOS.put(chave, Files.getLastModifiedTime(destino));
+        } catch (IOException e) {
+            GRAVADOS.remove(chave);
+        }
+    }
+
+    private static boolean gravadoPorUltimo(Path destino) throws IOException {
+        Path chave = destino.toAbsolutePath().normalize();
+        FileTime gravado = GRAVADOS.get(chave);
+        Long tamanho = TAMANHOS_GRAVADOS.get(chave);
+        return gravado != null && tamanho != null
+                && gravado.equals(Files.getLastModifiedTime(destino)) && tamanho == Files.size(destino);
+    }
+
+    private static Path temporario(Path arquivo) {
+        return arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+    }
+
+    /**
+     * Persiste a troca de nomes no diretório (ignorado onde não é suportado)
+     */
+    private static void sincronizarDiretorio(Path arquivo) {
+        Path diretorio = arquivo.toAbsolutePath().getParent();
+        try (FileChannel canal = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            // alguns sistemas não permitem abrir diretórios; o rename já foi feito
+        }
+    }
+
+    // ========================================
+    // LEITURA
+    // ========================================
+
+    /**
+     * Mapeia o arquivo, confere o CRC32C e retorna um buffer limitado ao conteúdo
+     */
+    public static ByteBuffer mapear(Path arquivo) throws IOException {
+        MappedByteBuffer mapeado;
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            if (tamanho > Integer.MAX_VALUE) {
+                throw new IOException("Arquivo maior que 2 GB: " + arquivo);
+            }
+            mapeado = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamanho);
+        }
+
+        int tamanho = mapeado.capacity();
+        if (tamanho < TAMANHO_RODAPE || mapeado.getInt(tamanho - 4) != MAGICO_RODAPE) {
+            List<Esperado> esperados = verificacoesSeparadas(arquivo);
+            if (!esperados.isEmpty()) {
+                CRC32C crc = new CRC32C();
+                crc.update(mapeado.duplicate());
+                conferir(arquivo, tamanho, (int) crc.getValue(), esperados);
+            }
+            return mapeado; // texto com .crc, ou formato antigo sem verificação
+        }
+
+        long tamanhoConteudo = mapeado.getLong(tamanho - TAMANHO_RODAPE);
+        int crcEsperado = mapeado.getInt(tamanho - 8);
+        if (tamanhoConteudo != tamanho - TAMANHO_RODAPE) {
+            throw new ChecksumInvalidoException(arquivo,
+                    "tamanho " + (tamanho - TAMANHO_RODAPE) + ", esperado " + tamanhoConteudo);
+        }
+
+        ByteBuffer conteudo = mapeado.duplicate();
+        conteudo.limit((int) tamanhoConteudo);
+        CRC32C crc = new CRC32C();
+        crc.update(conteudo.duplicate());
+        if ((int) crc.getValue() != crcEsperado) {
+            throw new ChecksumInvalidoException(arquivo, "CRC32C não confere");
+        }
+        return conteudo.slice();
+    }
+
+    /**
+     * Confere o CRC32C lendo o arquivo por um canal (sem mapeá-lo); o canal
+     * é fechado ao final, antes de qualquer rename sobre o arquivo
+     */
+    static void verificar(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanho = canal.size();
+            ByteBuffer rodape = lerRodape(canal, arquivo);
+            List<Esperado> esperados = new ArrayList<>();
+            long conteudo = tamanho;
+            if (rodape != null) {
+                conteudo = tamanho - TAMANHO_RODAPE;
+                esperados.add(new Esperado(rodape.getLong(0), rodape.getInt(TAMANHO_RODAPE - 8)));
+            } else {
+                esperados = verificacoesSeparadas(arquivo);
+                if (esperados.isEmpty()) {
+                    return; // formato antigo, sem verificação
+                }
+            }
+
+            CRC32C crc = new CRC32C();
+            ByteBuffer bloco = ByteBuffer.allocateDirect(64 * 1024);
+            long posicao = 0;
+            while (posicao < conteudo) {
+                bloco.clear();
+                if (conteudo - posicao < bloco.capacity()) {
+                    bloco.limit((int) (conteudo - posicao));
+                }
+                int lidos = canal.read(bloco, posicao);
+                if (lidos < 0) {
+                    throw new IOException("Fim inesperado de " + arquivo);
+                }
+                bloco.flip();
+                crc.update(bloco);
+                posicao += lidos;
+            }
+            conferir(arquivo, conteudo, (int) crc.getValue(), esperados);
+        }
+    }
+
+    /**
+     * CRC32C gravado no rodapé ou no .crc, sem ler o conteúdo (0 se o arquivo não tiver nenhum).
+     * Serve para amarrar arquivos derivados (ex.: índices) a uma gravação específica.
+     */
+    public static int checksum(Path arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            ByteBuffer rodape = lerRodape(canal, arquivo);
+            if (rodape != null) {
+                return rodape.getInt(TAMANHO_RODAPE - 8);
+            }
+        }
+        List<Esperado> esperados = verificacoesSeparadas(arquivo);
+        return esperados.isEmpty() ? 0 : esperados.get(0).crc;
+    }
+
+    /**
+     * Rodapé do arquivo, ou null se ele não tiver um
+     */
+    private static ByteBuffer lerRodape(FileChannel canal, Path arquivo) throws IOException {
+        long tamanho = canal.size();
+        if (tamanho < TAMANHO_RODAPE) {
+            return null;
+        }
+        ByteBuffer rodape = ByteBuffer.allocate(TAMANHO_RODAPE);
+        while (rodape.hasRemaining()) {
+            if (canal.read(rodape, tamanho - TAMANHO_RODAPE + rodape.position()) < 0) {
+                throw new IOException("Fim inesperado de " + arquivo);
+            }
+        }
+        return rodape.getInt(TAMANHO_RODAPE - 4) == MAGICO_RODAPE ? rodape : null;
+    }
+
+    /**
+     * Valores aceitos do .crc: o atual e, se houver, o .crc.tmp de uma
+     * gravação interrompida depois do rename do conteúdo. Lista vazia sem .crc.
+     */
+    private static List<Esperado> verificacoesSeparadas(Path arquivo) throws IOException {
+        List<Esperado> esperados = new ArrayList<>(2);
+        Path verificacao = verificacao(arquivo);
+        for (Path candidato : new Path[] { verificacao, temporario(verificacao) }) {
+            if (Files.exists(candidato)) {
+                esperados.add(Esperado.ler(candidato));
+            }
+        }
+        return esperados;
+    }
+
+    private static void conferir(Path arquivo, long tamanho, int crc, List<Esperado> esperados)
+            throws ChecksumInvalidoException {
+        for (Esperado esperado : esperados) {
+            if (esperado.tamanho == tamanho && esperado.crc == crc) {
+                return;
+            }
+        }
+        Esperado esperado = esperados.get(0);
+        throw new ChecksumInvalidoException(arquivo, esperado.tamanho != tamanho
+                ? "tamanho " + tamanho + ", esperado " + esperado.tamanho
+                : "CRC32C não confere");
+    }
+
+    /**
+     * Abre o conteúdo verificado como InputStream (lido do arquivo mapeado)
+     */
+    public static InputStream abrir(Path arquivo) throws IOException {
+        return new EntradaBuffer(mapear(arquivo));
+    }
+
+    // ========================================
+    // CLASSES AUXILIARES
+    // ========================================
+
+    /**
+     * Tamanho e CRC32C registrados para o conteúdo
+     */
+    private static final class Esperado {
+
+        final long tamanho;
+        final int crc;
+
+        Esperado(long tamanho, int crc) {
+            this.tamanho = tamanho;
+            this.crc = crc;
+        }
+
+        /**
+         * Lê um .crc; um arquivo ilegível nunca confere (tamanho -1)
+         */
+        static Esperado ler(Path verificacao) throws IOException {
+            String[] partes = new String(Files.readAllBytes(verificacao), StandardCharsets.US_ASCII).trim().split("\\s+");
+            try {
+                if (partes.length == 3 && PREFIXO_VERIFICACAO.equals(partes[0])) {
+                    return new Esperado(Long.parseLong(partes[2]), Integer.parseUnsignedInt(partes[1], 16));
+                }
+            } catch (NumberFormatException e) {
+                // cai no valor que nunca confere
+            }
+            return new Esperado(-1, 0);
+        }
+    }
+
+    /**
+     * Calcula o CRC32C e conta os bytes enquanto repassa a escrita
+     */
+    private static class SaidaVerificada extends FilterOutputStream {
+
+        private final CRC32C crc = new CRC32C();
+        private long tamanho;
+
+        SaidaVerificada(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            crc.update(b);
+            tamanho++;
+        }
+
+        @Override
+        public void write(byte[] b, int inicio, int quantidade) throws IOException {
+            out.write(b, inicio, quantidade);
+            crc.update(b, inicio, quantidade);
+            tamanho += quantidade;
+        }
+
+        @Override
+        public void close() {
+            // o arquivo é fechado por gravar(), depois do rodapé e do fsync
+        }
+
+        int getCrc() {
+            return (int) crc.getValue();
+        }
+
+        long getTamanho() {
+            return tamanho;
+        }
+
+        void escreverRodape() throws IOException {
+            ByteBuffer rodape = ByteBuffer.allocate(TAMANHO_RODAPE);
+            rodape.putLong(tamanho);
+            rodape.putInt((int) crc.getValue());
+            rodape.putInt(MAGICO_RODAPE);
+            out.write(rodape.array());
+        }
+    }
+
+    private static class EntradaBuffer extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        EntradaBuffer(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] destino, int inicio, int quantidade) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int lidos = Math.min(quantidade, buffer.remaining());
+            buffer.get(destino, inicio, lidos);
+            return lidos;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
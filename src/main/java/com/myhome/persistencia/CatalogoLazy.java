@@ -0,0 +1,258 @@
+package com.myhome.persistencia;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import com.myhome.model.Anuncio;
+
+/**
+ * Catálogo de anúncios carregado sob demanda a partir do snapshot binário
+ *
+ * RESPONSABILIDADES:
+ * - Expor o snapshot como List<Anuncio> sem montar os objetos na abertura
+ *   (Anuncio, Imovel, Usuario e EmailNotificacao só existem após o primeiro acesso)
+ * - Hidratar cada anúncio no primeiro get(), lendo o registro pela posição do índice
+ * - Filtrar pelos resumos do índice (filtrar), hidratando só os resultados
+ * - Aceitar inclusões e remoções como uma lista comum
+ *
+ * Anúncios hidratados saem marcados como salvos. Para anexar observers ou
+ * outra configuração a cada anúncio hidratado, use setAoHidratar().
+ */
+public class CatalogoLazy extends AbstractList<Anuncio> implements RandomAccess {
+
+    /**
+     * Conteúdo do arquivo de dados (compartilhado entre cópias; lido sempre via duplicate())
+     */
+    private final ByteBuffer dados;
+    private final short versao;
+
+    /**
+     * Resumo de cada posição; null para anúncios incluídos depois da abertura
+     */
+    private final List<ResumoAnuncio> resumos;
+
+    /**
+     * Anúncio de cada posição; null enquanto não for hidratado
+     */
+    private final List<Anuncio> anuncios;
+
+    private Map<String, Integer> posicaoPorId;
+    private Consumer<Anuncio> aoHidratar;
+    private int hidratados;
+
+    CatalogoLazy(ByteBuffer dados, List<ResumoAnuncio> resumos) {
+        this(dados, new ArrayList<>(resumos), new ArrayList<>(), 0);
+        for (int i = 0; i < resumos.size(); i++) {
+            anuncios.add(null);
+        }
+    }
+
+    private CatalogoLazy(ByteBuffer dados, List<ResumoAnuncio> resumos, List<Anuncio> anuncios, int hidratados) {
+        this.dados = dados;
+        this.versao = FormatoBinario.versao(dados);
+        this.resumos = resumos;
+        this.anuncios = anuncios;
+        this.hidratados = hidratados;
+    }
+
+    // ========================================
+    // LIST
+    // ========================================
+
+    @Override
+    public Anuncio get(int indice) {
+        Anuncio anuncio = anuncios.get(indice);
+        if (anuncio == null) {
+            anuncio = hidratar(resumos.get(indice));
+            anuncios.set(indice, anuncio);
+            hidratados++;
+            if (aoHidratar != null) {
+                aoHidratar.accept(anuncio);
+            }
+        }
+        return anuncio;
+    }
+
+    @Override
+    public int size() {
+        return anuncios.size();
+    }
+
+    @Override
+    public Anuncio set(int indice, Anuncio anuncio) {
+        Anuncio anterior = get(indice);
+        anuncios.set(indice, anuncio);
+        resumos.set(indice, null);
+        posicaoPorId = null;
+        return anterior;
+    }
+
+    @Override
+    public void add(int indice, Anuncio anuncio) {
+        anuncios.add(indice, anuncio);
+        resumos.add(indice, null);
+        hidratados++;
+        if (indice == anuncios.size() - 1 && posicaoPorId != null && anuncio.getId() != null) {
+            posicaoPorId.putIfAbsent(anuncio.getId(), indice);
+        } else {
+            posicaoPorId = null;
+        }
+        modCount++;
+    }
+
+    @Override
+    public Anuncio remove(int indice) {
+        Anuncio removido = get(indice);
+        anuncios.remove(indice);
+        resumos.remove(indice);
+        hidratados--;
+        posicaoPorId = null;
+        modCount++;
+        return removido;
+    }
+
+    // ========================================
+    // ACESSO SEM HIDRATAR
+    // ========================================
+
+    /**
+     * Anúncio da posição, ou null se ainda não foi hidratado
+     */
+    public Anuncio getHidratado(int indice) {
+        return anuncios.get(indice);
+    }
+
+    /**
+     * Id da posição, lido do índice quando o anúncio não foi hidratado
+     */
+    public String getId(int indice) {
+        Anuncio anuncio = anuncios.get(indice);
+        return anuncio != null ? anuncio.getId() : resumos.get(indice).getId();
+    }
+
+    /**
+     * Resumo da posição sem hidratar: calculado do objeto em memória quando o
+     * anúncio já foi montado (reflete alterações posteriores ao snapshot),
+     * senão o resumo do índice
+     */
+    public ResumoAnuncio getResumoAtual(int indice) {
+        Anuncio anuncio = anuncios.get(indice);
+        return anuncio != null ? ResumoAnuncio.de(anuncio) : resumos.get(indice);
+    }
+
+    /**
+     * Localiza um anúncio pelo id, hidratando apenas ele
+     *
+     * @return O anúncio, ou null se não houver
+     */
+    public Anuncio buscarPorId(String id) {
+        if (posicaoPorId == null) {
+            posicaoPorId = new HashMap<>();
+            for (int i = 0; i < anuncios.size(); i++) {
+                String idPosicao = getId(i);
+                if (idPosicao != null) {
+                    posicaoPorId.putIfAbsent(idPosicao, i);
+                }
+            }
+        }
+        Integer indice = posicaoPorId.get(id);
+        return indice != null ? get(indice) : null;
+    }
+
+    /**
+     * Anúncios cujo resumo atual (getResumoAtual) satisfaz o filtro
+     */
+    public List<Anuncio> filtrar(Predicate<ResumoAnuncio> filtro) {
+        List<Anuncio> resultado = new ArrayList<>();
+        for (int i = 0; i < anuncios.size(); i++) {
+            if (filtro.test(getResumoAtual(i))) {
+                resultado.add(get(i));
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Executado para cada anúncio hidratado, inclusive os que já foram
+     */
+    public void setAoHidratar(Consumer<Anuncio> aoHidratar) {
+        this.aoHidratar = aoHidratar;
+        if (aoHidratar != null) {
+            for (Anuncio anuncio : anuncios) {
+                if (anuncio != null) {
+                    aoHidratar.accept(anuncio);
+                }
+            }
+        }
+    }
+
+    /**
+     * Quantidade de anúncios montados em memória
+     */
+    public int getHidratados() {
+        return hidratados;
+    }
+
+    /**
+     * Cópia da estrutura atual (para gravação em segundo plano), sem hidratar
+     * nada: compartilha os anúncios já montados e o arquivo mapeado
+     */
+    public CatalogoLazy copia() {
+        return new CatalogoLazy(dados, new ArrayList<>(resumos), new ArrayList<>(anuncios), hidratados);
+    }
+
+    // ========================================
+    // USO INTERNO (FormatoBinario)
+    // ========================================
+
+    ResumoAnuncio getResumo(int indice) {
+        return resumos.get(indice);
+    }
+
+    /**
+     * Versão do snapshot de onde vêm os registros (FormatoBinario)
+     */
+    short getVersao() {
+        return versao;
+    }
+
+    /**
+     * Copia os bytes do registro original, sem decodificar
+     */
+    void copiarRegistro(int indice, DataOutputStream out) throws IOException {
+        ResumoAnuncio resumo = resumos.get(indice);
+        ByteBuffer registro = dados.duplicate();
+        registro.position(resumo.getPosicao());
+        registro.limit(resumo.getPosicao() + resumo.getTamanho());
+        byte[] bytes = new byte[resumo.getTamanho()];
+        registro.get(bytes);
+        out.write(bytes);
+    }
+
+    private Anuncio hidratar(ResumoAnuncio resumo) {
+        ByteBuffer registro = dados.duplicate();
+        registro.position(resumo.getPosicao());
+        FormatoBinario.Leitor leitor = new FormatoBinario.Leitor(registro, versao);
+        try {
+            Anuncio anuncio = leitor.lerAnuncio();
+            anuncio.marcarComoSalvo();
+            return anuncio;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Registro ilegível no snapshot (id " + resumo.getId() + ")", e);
+        } catch (BufferUnderflowException e) {
+            throw new UncheckedIOException(new IOException(
+                    "Registro truncado no snapshot (id " + resumo.getId() + ")"));
+        }
+    }
+}
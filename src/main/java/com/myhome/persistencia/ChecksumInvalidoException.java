@@ -0,0 +1,24 @@
+package com.myhome.persistencia;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * O conteúdo de um arquivo de data/ não confere com o CRC32C do rodapé ou do .crc
+ * (escrita interrompida ou arquivo danificado)
+ */
+public class ChecksumInvalidoException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Path arquivo;
+
+    public ChecksumInvalidoException(Path arquivo, String detalhe) {
+        super("Checksum inválido em " + arquivo + ": " + detalhe);
+        this.arquivo = arquivo;
+    }
+
+    public Path getArquivo() {
+        return arquivo;
+    }
+}
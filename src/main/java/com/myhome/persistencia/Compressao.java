@@ -0,0 +1,196 @@
+package com.myhome.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import com.myhome.singleton.ConfigurationManager;
+
+/**
+ * Compressão dos snapshots em texto de data/ ("persistencia.compressao")
+ *
+ * RESPONSABILIDADES:
+ * - Envolver a saída de gravação em um compressor de fluxo (nada de
+ *   montar o documento descomprimido em memória)
+ * - Na leitura, reconhecer pelos primeiros bytes se o arquivo está
+ *   comprimido e com qual algoritmo; arquivos antigos continuam legíveis
+ *
+ * Algoritmos:
+ * - NENHUMA: grava o texto como está
+ * - GZIP: formato padrão do gzip, sem dicionário
+ * - DEFLATE: mágico "MHZD" + versão do dicionário + fluxo deflate com
+ *   dicionário pré-carregado com as chaves e a indentação do JSON de
+ *   anúncios, que se repetem em todo registro
+ *
+ * A compressão fica por dentro do ArquivoAtomico: o CRC32C do rodapé
+ * cobre os bytes comprimidos, como gravados no disco.
+ */
+public enum Compressao {
+
+    NENHUMA,
+    GZIP,
+    DEFLATE;
+
+    private static final int MAGICO_GZIP = 0x1F8B;
+    private static final int MAGICO_DEFLATE = 0x4D485A44; // "MHZD"
+    private static final int VERSAO_DICIONARIO = 1;
+    private static final int BUFFER = 64 * 1024;
+
+    /**
+     * Trechos que se repetem em todo anúncio/usuário gravado pelo JsonWriter.
+     * Não alterar: arquivos DEFLATE já gravados dependem deste dicionário.
+     * Um dicionário novo exige outra VERSAO_DICIONARIO.
+     */
+    private static final byte[] DICIONARIO = String.join("",
+            "{\n  \"usuarios\": [\n    {\n      \"nome\": \"\",\n      \"email\": \"\",\n",
+            "      \"telefone\": \"\",\n      \"tipo\": \"PROPRIETARIO\"\n    },",
+            "CORRETOR IMOBILIARIA COMPRADOR Rascunho Moderação Vendido Suspenso ",
+            "Sala Comercial Terreno Casa Campina Grande Rua Avenida @gmail.com ",
+            "\n        \"quartos\": ,\n        \"banheiros\": ,\n        \"andar\": ,",
+            "\n        \"vagas\": ,\n        \"temQuintal\": false,\n        \"temGaragem\": true,",
+            "\n        \"zoneamento\": \"\",\n        \"temBanheiro\": false\n      },",
+            "{\n  \"anuncios\": [\n    {\n      \"id\": \"\",\n      \"titulo\": \"\",",
+            "\n      \"preco\": 0.0,\n      \"descricao\": \"\",\n      \"estado\": \"Ativo\",",
+            "\n      \"imovel\": {\n        \"tipo\": \"Apartamento\",\n        \"area\": 0.0,",
+            "\n        \"endereco\": {\n          \"rua\": \"\",\n          \"numero\": \"\",",
+            "\n          \"cidade\": \"João Pessoa\",\n          \"estado\": \"PB\"\n        },",
+            "\n      \"anunciante\": {\n        \"nome\": \"\",\n        \"email\": \"\",",
+            "\n        \"telefone\": \"\"\n      }\n    },\n    {\n      \"id\": \"")
+            .getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Compressão configurada em "persistencia.compressao" (padrão: nenhuma)
+     */
+    public static Compressao daConfiguracao() {
+        String nome = ConfigurationManager.getInstance().getProperty("persistencia.compressao", "nenhuma");
+        try {
+            return porNome(nome);
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠️  " + e.getMessage() + ". Usando nenhuma.");
+            return NENHUMA;
+        }
+    }
+
+    public static Compressao porNome(String nome) {
+        for (Compressao compressao : values()) {
+            if (compressao.name().equalsIgnoreCase(nome.trim())) {
+                return compressao;
+            }
+        }
+        throw new IllegalArgumentException("Compressão desconhecida: " + nome);
+    }
+
+    // ========================================
+    // ESCRITA
+    // ========================================
+
+    /**
+     * Envolve a saída no compressor. Fechar o stream retornado conclui o
+     * fluxo comprimido e repassa o close() à saída original.
+     */
+    public OutputStream comprimir(OutputStream saida) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPOutputStream(saida, BUFFER);
+            case DEFLATE:
+                for (int deslocamento = 24; deslocamento >= 0; deslocamento -= 8) {
+                    saida.write(MAGICO_DEFLATE >>> deslocamento);
+                }
+                saida.write(VERSAO_DICIONARIO);
+                // Fluxo deflate puro: a integridade já é conferida pelo CRC32C do rodapé
+                Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+                deflater.setDictionary(DICIONARIO);
+                return new DeflaterOutputStream(saida, deflater, BUFFER) {
+                    @Override
+                    public void close() throws IOException {
+                        try {
+                            super.close();
+                        } finally {
+                            deflater.end();
+                        }
+                    }
+                };
+            default:
+                return saida;
+        }
+    }
+
+    // ========================================
+    // LEITURA
+    // ========================================
+
+    /**
+     * Abre a entrada descomprimindo conforme os primeiros bytes
+     * (gzip, "MHZD" ou texto sem compressão)
+     */
+    public static InputStream descomprimir(InputStream entrada) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(entrada, BUFFER);
+        switch (detectar(in)) {
+            case GZIP:
+                return new GZIPInputStream(in, BUFFER);
+            case DEFLATE:
+                in.readNBytes(4);
+                int versao = in.read();
+                if (versao != VERSAO_DICIONARIO) {
+                    throw new IOException("Versão de dicionário DEFLATE não suportada: " + versao);
+                }
+                return new EntradaDeflate(in);
+            default:
+                return in;
+        }
+    }
+
+    /**
+     * Identifica a compressão sem consumir a entrada (requer mark/reset)
+     */
+    static Compressao detectar(InputStream in) throws IOException {
+        in.mark(4);
+        int magico = 0;
+        int lidos = 0;
+        for (int b; lidos < 4 && (b = in.read()) >= 0; lidos++) {
+            magico = (magico << 8) | b;
+        }
+        in.reset();
+
+        if (lidos >= 2 && (magico >>> ((lidos - 2) * 8)) == MAGICO_GZIP) {
+            return GZIP;
+        }
+        if (lidos == 4 && magico == MAGICO_DEFLATE) {
+            return DEFLATE;
+        }
+        return NENHUMA;
+    }
+
+    /**
+     * Inflater com o dicionário já carregado
+     */
+    private static class EntradaDeflate extends InflaterInputStream {
+
+        EntradaDeflate(InputStream in) {
+            super(in, inflaterComDicionario(), BUFFER);
+        }
+
+        private static Inflater inflaterComDicionario() {
+            Inflater inflater = new Inflater(true);
+            inflater.setDictionary(DICIONARIO);
+            return inflater;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                inf.end();
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.myhome.persistencia;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.myhome.model.Anuncio;
+import com.myhome.singleton.ConfigurationManager;
+
+/**
+ * Conversão dos snapshots de data/ entre formatos (json, binario, segmentado, particionado)
+ *
+ * Uso via linha de comando:
+ *   java com.myhome.persistencia.ConversorSnapshot json binario [diretorio]
+ *   java com.myhome.persistencia.ConversorSnapshot binario json [diretorio]
+ *   java com.myhome.persistencia.ConversorSnapshot json segmentado [diretorio]
+ *
+ * Converte anuncios.* e usuarios.* que existirem no diretório (padrão: data).
+ * O journal (anuncios.wal) não é alterado, pois independe do formato do snapshot.
+ */
+public class ConversorSnapshot {
+
+    private final AnuncioJsonCodec codec = new AnuncioJsonCodec();
+
+    /**
+     * Retorna o formato correspondente ao nome da configuração
+     */
+    public static FormatoSnapshot formatoPorNome(String nome, AnuncioJsonCodec codec) {
+        if ("binario".equalsIgnoreCase(nome.trim())) {
+            return new FormatoBinario(true);
+        }
+        if ("json".equalsIgnoreCase(nome.trim())) {
+            return new FormatoJson(codec, Compressao.daConfiguracao());
+        }
+        if ("segmentado".equalsIgnoreCase(nome.trim())) {
+            String registros = ConfigurationManager.getInstance()
+                    .getProperty("persistencia.segmento.registros", "256");
+            return new ArmazemSegmentado(Integer.parseInt(registros.trim()));
+        }
+        if ("particionado".equalsIgnoreCase(nome.trim())) {
+            ConfigurationManager config = ConfigurationManager.getInstance();
+            boolean porCidade = Boolean.parseBoolean(
+                    config.getProperty("persistencia.particao.cidade", "false").trim());
+            int threads = Integer.parseInt(config.getProperty("persistencia.particao.threads",
+                    String.valueOf(Runtime.getRuntime().availableProcessors())).trim());
+            return new ArmazemParticionado(porCidade, threads);
+        }
+        if ("jdbc".equalsIgnoreCase(nome.trim())) {
+            return new RepositorioJdbc(PoolConexoes.daConfiguracao());
+        }
+        throw new IllegalArgumentException("Formato de snapshot desconhecido: " + nome);
+    }
+
+    /**
+     * Converte os arquivos de anúncios e usuários do diretório
+     *
+     * @return Quantidade de arquivos convertidos
+     */
+    public int converter(Path diretorio, FormatoSnapshot origem, FormatoSnapshot destino) throws IOException {
+        int convertidos = 0;
+
+        Path anunciosOrigem = diretorio.resolve("anuncios." + origem.getExtensao());
+        if (origem.existe(anunciosOrigem)) {
+            List<Anuncio> anuncios = new ArrayList<>();
+            origem.carregarAnuncios(anunciosOrigem, anuncios::add);
+            destino.salvarAnuncios(diretorio.resolve("anuncios." + destino.getExtensao()), anuncios);
+            System.out.println("🔄 " + anuncios.size() + " anúncio(s) convertido(s) para " + destino.getNome());
+            convertidos++;
+        }
+
+        Path usuariosOrigem = diretorio.resolve("usuarios." + origem.getExtensao());
+        if (origem.existe(usuariosOrigem)) {
+            destino.salvarUsuarios(diretorio.resolve("usuarios." + destino.getExtensao()),
+                    origem.carregarUsuarios(usuariosOrigem));
+            System.out.println("🔄 Usuários convertidos para " + destino.getNome());
+            convertidos++;
+        }
+        return convertidos;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Uso: ConversorSnapshot <origem> <destino> [diretorio]  (json | binario | segmentado | particionado | jdbc)");
+            System.exit(1);
+        }
+
+        ConversorSnapshot conversor = new ConversorSnapshot();
+        try {
+            FormatoSnapshot origem = formatoPorNome(args[0], conversor.codec);
+            FormatoSnapshot destino = formatoPorNome(args[1], conversor.codec);
+            Path diretorio = Paths.get(args.length > 2 ? args[2] : "data");
+
+            if (conversor.converter(diretorio, origem, destino) == 0) {
+                System.out.println("⚠️  Nenhum arquivo " + origem.getNome() + " encontrado em " + diretorio);
+            }
+        } catch (IllegalArgumentException | IOException e) {
+            System.err.println("❌ Erro ao converter snapshot: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.myhome.persistencia;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Apartamento;
+import com.myhome.model.Casa;
+import com.myhome.model.Imovel;
+import com.myhome.service.PersistenciaService;
+
+/**
+ * Exportação do catálogo em colunas, para análises (ex.: data/colunas/)
+ *
+ * RESPONSABILIDADES:
+ * - Gravar um arquivo por campo (preco, area, quartos, tipo, cidade, uf, situacao)
+ * - Codificar os textos: tipo e situação pela posição em listas fixas,
+ *   cidade e UF por dicionário (arquivo .dic com os termos distintos)
+ * - Receber os anúncios de uma lista em memória ou direto de um snapshot
+ *   gravado, sem montar a lista de anúncios
+ *
+ * Layout de cada coluna "<campo>.col" (big-endian, via ArquivoAtomico):
+ *   int mágico ("MHCL") + short versão + byte largura (1, 4 ou 8 bytes)
+ *   + um valor por anúncio, na ordem do catálogo
+ * Dicionário "<campo>.dic": int mágico ("MHDC") + short versão
+ *   + int quantidade + strings (como no FormatoBinario)
+ *
+ * Uma agregação sobre um campo lê apenas o arquivo desse campo (LeitorColunar).
+ *
+ * Uso via linha de comando (carrega o catálogo do PersistenciaService, journal incluído):
+ *   java com.myhome.persistencia.ExportacaoColunar [destino]
+ */
+public class ExportacaoColunar {
+
+    static final int MAGICO_COLUNA = 0x4D48434C;     // "MHCL"
+    static final int MAGICO_DICIONARIO = 0x4D484443; // "MHDC"
+    static final short VERSAO = 1;
+    static final int TAMANHO_CABECALHO = 7;
+
+    public static final String PRECO = "preco";
+    public static final String AREA = "area";
+    public static final String QUARTOS = "quartos";
+    public static final String TIPO = "tipo";
+    public static final String CIDADE = "cidade";
+    public static final String UF = "uf";
+    public static final String SITUACAO = "situacao";
+
+    /**
+     * Códigos das colunas "tipo" e "situacao" (posição na lista; -1 se desconhecido).
+     * Novos valores entram sempre no fim, para não mudar os códigos já exportados.
+     */
+    public static final List<String> TIPOS = List.of("Casa", "Apartamento", "Terreno", "Sala Comercial");
+    public static final List<String> SITUACOES = List.of("Rascunho", "Moderação", "Ativo", "Vendido", "Suspenso");
+
+    /**
+     * Exporta os anúncios em memória (ou um CatalogoLazy) para o diretório
+     *
+     * @return Quantidade de anúncios exportados
+     */
+    public int exportar(Iterable<Anuncio> anuncios, Path diretorio) throws IOException {
+        Colunas colunas = new Colunas();
+        for (Anuncio anuncio : anuncios) {
+            colunas.adicionar(anuncio);
+        }
+        colunas.gravar(diretorio);
+        return colunas.quantidade;
+    }
+
+    /**
+     * Exporta direto de um snapshot: cada anúncio lido vai para as colunas
+     * e é descartado em seguida
+     *
+     * @return Quantidade de anúncios exportados
+     */
+    public int exportar(FormatoSnapshot formato, Path arquivo, Path diretorio) throws IOException {
+        Colunas colunas = new Colunas();
+        formato.carregarAnuncios(arquivo, colunas::adicionar);
+        colunas.gravar(diretorio);
+        return colunas.quantidade;
+    }
+
+    public static void main(String[] args) {
+        Path diretorio = Paths.get(args.length > 0 ? args[0] : "data/colunas");
+        PersistenciaService persistencia = PersistenciaService.somenteLeitura();
+        try {
+            int quantidade = new ExportacaoColunar().exportar(persistencia.carregarAnuncios(), diretorio);
+            System.out.println("📊 " + quantidade + " anúncio(s) exportado(s) em colunas para " + diretorio);
+
+            LeitorColunar leitor = new LeitorColunar(diretorio);
+            System.out.println("   preço: " + resumo(leitor.estatisticas(PRECO)));
+            System.out.println("   área:  " + resumo(leitor.estatisticas(AREA)));
+        } catch (IOException e) {
+            System.err.println("❌ Erro ao exportar colunas: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Valores de cada campo acumulados em arrays primitivos
+     * (bem menores que os objetos Anuncio correspondentes)
+     */
+    private static class Colunas {
+
+        private int quantidade;
+        private double[] precos = new double[1024];
+        private double[] areas = new double[1024];
+        private int[] quartos = new int[1024];
+        private byte[] tipos = new byte[1024];
+        private int[] cidades = new int[1024];
+        private int[] ufs = new int[1024];
+        private byte[] situacoes = new byte[1024];
+
+        private final Map<String, Integer> dicionarioCidades = new LinkedHashMap<>();
+        private final Map<String, Integer> dicionarioUfs = new LinkedHashMap<>();
+
+        void adicionar(Anuncio anuncio) {
+            if (quantidade == precos.length) {
+                crescer(quantidade * 2);
+            }
+            ResumoAnuncio resumo = ResumoAnuncio.de(anuncio);
+            int i = quantidade++;
+            precos[i] = resumo.getPreco();
+            areas[i] = resumo.getArea();
+            quartos[i] = quartos(anuncio.getImovel());
+            tipos[i] = (byte) TIPOS.indexOf(resumo.getTipo());
+            cidades[i] = codigo(dicionarioCidades, resumo.getCidade());
+            ufs[i] = codigo(dicionarioUfs, resumo.getEstado());
+            situacoes[i] = (byte) SITUACOES.indexOf(resumo.getSituacao());
+        }
+
+        void gravar(Path diretorio) throws IOException {
+            Files.createDirectories(diretorio);
+            gravarColuna(diretorio, PRECO, 8, out -> {
+                for (int i = 0; i < quantidade; i++) {
+                    out.writeDouble(precos[i]);
+                }
+            });
+            gravarColuna(diretorio, AREA, 8, out -> {
+                for (int i = 0; i < quantidade; i++) {
+                    out.writeDouble(areas[i]);
+                }
+            });
+            gravarColuna(diretorio, QUARTOS, 4, out -> {
+                for (int i = 0; i < quantidade; i++) {
+                    out.writeInt(quartos[i]);
+                }
+            });
+            gravarColuna(diretorio, TIPO, 1, out -> out.write(tipos, 0, quantidade));
+            gravarColuna(diretorio, CIDADE, 4, out -> {
+                for (int i = 0; i < quantidade; i++) {
+                    out.writeInt(cidades[i]);
+                }
+            });
+            gravarColuna(diretorio, UF, 4, out -> {
+                for (int i = 0; i < quantidade; i++) {
+                    out.writeInt(ufs[i]);
+                }
+            });
+            gravarColuna(diretorio, SITUACAO, 1, out -> out.write(situacoes, 0, quantidade));
+            gravarDicionario(diretorio, CIDADE, dicionarioCidades);
+            gravarDicionario(diretorio, UF, dicionarioUfs);
+        }
+
+        private void crescer(int capacidade) {
+            precos = Arrays.copyOf(precos, capacidade);
+            areas = Arrays.copyOf(areas, capacidade);
+            quartos = Arrays.copyOf(quartos, capacidade);
+            tipos = Arrays.copyOf(tipos, capacidade);
+            cidades = Arrays.copyOf(cidades, capacidade);
+            ufs = Arrays.copyOf(ufs, capacidade);
+            situacoes = Arrays.copyOf(situacoes, capacidade);
+        }
+
+        /**
+         * Quartos de casas e apartamentos; 0 para os demais tipos
+         */
+        private static int quartos(Imovel imovel) {
+            if (imovel instanceof Casa) {
+                return ((Casa) imovel).getQuartos();
+            }
+            if (imovel instanceof Apartamento) {
+                return ((Apartamento) imovel).getQuartos();
+            }
+            return 0;
+        }
+
+        private static int codigo(Map<String, Integer> dicionario, String termo) {
+            return dicionario.computeIfAbsent(termo, chave -> dicionario.size());
+        }
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private static String resumo(DoubleSummaryStatistics estatisticas) {
+        return String.format("média %.2f | mínimo %.2f | máximo %.2f",
+                estatisticas.getAverage(), estatisticas.getMin(), estatisticas.getMax());
+    }
+
+    private interface Valores {
+        void escrever(DataOutputStream out) throws IOException;
+    }
+
+    static Path arquivoColuna(Path diretorio, String campo) {
+        return diretorio.resolve(campo + ".col");
+    }
+
+    static Path arquivoDicionario(Path diretorio, String campo) {
+        return diretorio.resolve(campo + ".dic");
+    }
+
+    private static void gravarColuna(Path diretorio, String campo, int largura, Valores valores) throws IOException {
+        ArquivoAtomico.gravar(arquivoColuna(diretorio, campo), saida -> {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(saida, 64 * 1024));
+            out.writeInt(MAGICO_COLUNA);
+            out.writeShort(VERSAO);
+            out.writeByte(largura);
+            valores.escrever(out);
+            out.flush();
+        });
+    }
+
+    private static void gravarDicionario(Path diretorio, String campo, Map<String, Integer> termos) throws IOException {
+        ArquivoAtomico.gravar(arquivoDicionario(diretorio, campo), saida -> {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(saida, 64 * 1024));
+            out.writeInt(MAGICO_DICIONARIO);
+            out.writeShort(VERSAO);
+            out.writeInt(termos.size());
+            for (String termo : termos.keySet()) {
+                FormatoBinario.escreverString(out, termo);
+            }
+            out.flush();
+        });
+    }
+}
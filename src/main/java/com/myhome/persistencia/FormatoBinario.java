@@ -0,0 +1,464 @@
+package com.myhome.persistencia;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Apartamento;
+import com.myhome.model.Casa;
+import com.myhome.model.Endereco;
+import com.myhome.model.Imovel;
+import com.myhome.model.SalaComercial;
+import com.myhome.model.Terreno;
+import com.myhome.model.TipoAnuncio;
+import com.myhome.model.Usuario;
+
+/**
+ * Snapshot binário compacto, carregado via MappedByteBuffer
+ *
+ * RESPONSABILIDADES:
+ * - Gravar anúncios e usuários como registros binários sequenciais
+ * - Ler o arquivo mapeado em memória, sem decodificar texto nem
+ *   procurar delimitadores
+ *
+ * Layout (big-endian):
+ *   cabeçalho: int mágico ("MHAN" / "MHUS") + short versão
+ *   string:    int tamanho (-1 = null) + bytes UTF-8
+ *   anúncio:   id, titulo, double preco, descricao, estado,
+ *              byte tipo, double area, rua, numero, cidade, estado,
+ *              campos do tipo (largura fixa), nome, email, telefone,
+ *              byte tipo de anúncio (0 = não informado; a partir da versão 2),
+ *              long data de publicação em ms (Long.MIN_VALUE = não publicado;
+ *              a partir da versão 3), double latitude, double longitude
+ *              do endereço (NaN = não geocodificado; a partir da versão 4)
+ *   usuário:   nome, email, telefone, tipo
+ *
+ * Arquivos das versões 1 a 3 (sem esses campos) continuam legíveis; a
+ * versão vale para o arquivo inteiro, então registros de um arquivo antigo
+ * são recodificados, e não copiados, ao gravar na versão atual.
+ *
+ * Os registros seguem até o fim do conteúdo; um arquivo truncado gera
+ * IOException com os registros anteriores já entregues. O arquivo é
+ * gravado via ArquivoAtomico (rodapé com CRC32C conferido na carga).
+ *
+ * Com índice (new FormatoBinario(true)), cada gravação de anúncios também
+ * gera "<arquivo>.idx" (IndiceAnuncios), usado por abrirCatalogo() para
+ * expor o snapshot como CatalogoLazy sem decodificar os registros.
+ */
+public class FormatoBinario implements FormatoSnapshot {
+
+    static final int MAGICO_ANUNCIOS = 0x4D48414E; // "MHAN"
+    static final int MAGICO_USUARIOS = 0x4D485553; // "MHUS"
+    static final short VERSAO = 4;
+    static final short VERSAO_MINIMA = 1;
+    static final long SEM_DATA = Long.MIN_VALUE;
+    static final int TAMANHO_CABECALHO = 6;
+
+    // Códigos de tipo de imóvel
+    private static final byte TIPO_CASA = 1;
+    private static final byte TIPO_APARTAMENTO = 2;
+    private static final byte TIPO_TERRENO = 3;
+    private static final byte TIPO_SALA_COMERCIAL = 4;
+
+    // Tipos de anúncio: ordinal + 1 (0 = não informado)
+    private static final TipoAnuncio[] TIPOS_ANUNCIO = TipoAnuncio.values();
+
+    private final boolean comIndice;
+
+    /**
+     * Formato sem índice (usado pelos segmentos e partições)
+     */
+    public FormatoBinario() {
+        this(false);
+    }
+
+    /**
+     * @param comIndice true para gravar o índice de posições junto com os anúncios
+     */
+    public FormatoBinario(boolean comIndice) {
+        this.comIndice = comIndice;
+    }
+
+    @Override
+    public String getNome() {
+        return "binario";
+    }
+
+    @Override
+    public String getExtensao() {
+        return "bin";
+    }
+
+    // ========================================
+    // ESCRITA
+    // ========================================
+
+    @Override
+    public void salvarAnuncios(Path arquivo, Iterable<Anuncio> anuncios) throws IOException {
+        List<ResumoAnuncio> resumos = new ArrayList<>();
+        long[] tamanhoDados = new long[1];
+
+        ArquivoAtomico.gravar(arquivo, saida -> {
+            DataOutputStream out = abrirSaida(saida, MAGICO_ANUNCIOS);
+            if (anuncios instanceof CatalogoLazy) {
+                // Registros ainda não hidratados são copiados byte a byte do snapshot anterior
+                CatalogoLazy catalogo = (CatalogoLazy) anuncios;
+                for (int i = 0; i < catalogo.size(); i++) {
+                    int inicio = out.size();
+                    Anuncio anuncio = catalogo.getVersao() == VERSAO ? catalogo.getHidratado(i) : catalogo.get(i);
+                    if (anuncio != null) {
+                        escreverAnuncio(out, anuncio);
+                        resumos.add(ResumoAnuncio.de(anuncio, inicio, out.size() - inicio));
+                    } else {
+                        catalogo.copiarRegistro(i, out);
+                        resumos.add(catalogo.getResumo(i).naPosicao(inicio, out.size() - inicio));
+                    }
+                }
+            } else {
+                for (Anuncio anuncio : anuncios) {
+                    int inicio = out.size();
+                    escreverAnuncio(out, anuncio);
+                    if (comIndice) {
+                        resumos.add(ResumoAnuncio.de(anuncio, inicio, out.size() - inicio));
+                    }
+                }
+            }
+            out.flush();
+            tamanhoDados[0] = out.size();
+        });
+
+        if (comIndice) {
+            IndiceAnuncios.gravar(arquivo, tamanhoDados[0], resumos);
+        }
+    }
+
+    @Override
+    public void salvarUsuarios(Path arquivo, Iterable<Usuario> usuarios) throws IOException {
+        ArquivoAtomico.gravar(arquivo, saida -> {
+            DataOutputStream out = abrirSaida(saida, MAGICO_USUARIOS);
+            for (Usuario usuario : usuarios) {
+                escreverUsuario(out, usuario);
+            }
+            out.flush();
+        });
+    }
+
+    private DataOutputStream abrirSaida(OutputStream saida, int magico) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(saida, 64 * 1024));
+        escreverCabecalho(out, magico);
+        return out;
+    }
+
+    void escreverCabecalho(DataOutputStream out, int magico) throws IOException {
+        out.writeInt(magico);
+        out.writeShort(VERSAO);
+    }
+
+    void escreverUsuario(DataOutputStream out, Usuario usuario) throws IOException {
+        escreverString(out, usuario.getNome());
+        escreverString(out, usuario.getEmail());
+        escreverString(out, usuario.getTelefone());
+        escreverString(out, String.valueOf(usuario.getTipo()));
+    }
+
+    void escreverAnuncio(DataOutputStream out, Anuncio anuncio) throws IOException {
+        Imovel imovel = anuncio.getImovel();
+        Endereco endereco = imovel.getEndereco();
+        Usuario anunciante = anuncio.getAnunciante();
+
+        escreverString(out, anuncio.getId());
+        escreverString(out, anuncio.getTitulo());
+        out.writeDouble(anuncio.getPreco());
+        escreverString(out, anuncio.getDescricao());
+        escreverString(out, anuncio.getState().getNome());
+
+        out.writeByte(codigoTipo(imovel));
+        out.writeDouble(imovel.getArea());
+        escreverString(out, endereco.getRua());
+        escreverString(out, endereco.getNumero());
+        escreverString(out, endereco.getCidade());
+        escreverString(out, endereco.getEstado());
+
+        if (imovel instanceof Casa) {
+            Casa casa = (Casa) imovel;
+            out.writeInt(casa.getQuartos());
+            out.writeInt(casa.getBanheiros());
+            out.writeBoolean(casa.isTemQuintal());
+            out.writeBoolean(casa.isTemGaragem());
+        } else if (imovel instanceof Apartamento) {
+            Apartamento apt = (Apartamento) imovel;
+            out.writeInt(apt.getQuartos());
+            out.writeInt(apt.getBanheiros());
+            out.writeInt(apt.getAndar());
+            out.writeInt(apt.getVagas());
+        } else if (imovel instanceof Terreno) {
+            escreverString(out, ((Terreno) imovel).getZoneamento());
+        } else if (imovel instanceof SalaComercial) {
+            SalaComercial sala = (SalaComercial) imovel;
+            out.writeInt(sala.getAndar());
+            out.writeBoolean(sala.isTemBanheiro());
+            out.writeInt(sala.getVagasEstacionamento());
+        }
+
+        escreverString(out, anunciante.getNome());
+        escreverString(out, anunciante.getEmail());
+        escreverString(out, anunciante.getTelefone());
+
+        TipoAnuncio tipoAnuncio = anuncio.getTipoAnuncio();
+        out.writeByte(tipoAnuncio != null ? tipoAnuncio.ordinal() + 1 : 0);
+        Date dataPublicacao = anuncio.getDataPublicacao();
+        out.writeLong(dataPublicacao != null ? dataPublicacao.getTime() : SEM_DATA);
+        out.writeDouble(endereco.getLatitude());
+        out.writeDouble(endereco.getLongitude());
+    }
+
+    private byte codigoTipo(Imovel imovel) throws IOException {
+        if (imovel instanceof Casa) {
+            return TIPO_CASA;
+        } else if (imovel instanceof Apartamento) {
+            return TIPO_APARTAMENTO;
+        } else if (imovel instanceof Terreno) {
+            return TIPO_TERRENO;
+        } else if (imovel instanceof SalaComercial) {
+            return TIPO_SALA_COMERCIAL;
+        }
+        throw new IOException("Tipo de imóvel sem código binário: " + imovel.getTipo());
+    }
+
+    static void escreverString(DataOutputStream out, String valor) throws IOException {
+        if (valor == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = valor.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // ========================================
+    // LEITURA (MappedByteBuffer)
+    // ========================================
+
+    @Override
+    public void carregarAnuncios(Path arquivo, Consumer<Anuncio> destino) throws IOException {
+        ByteBuffer conteudo = mapear(arquivo, MAGICO_ANUNCIOS);
+        Leitor leitor = new Leitor(conteudo, versao(conteudo));
+        try {
+            while (leitor.buffer.hasRemaining()) {
+                destino.accept(leitor.lerAnuncio());
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Snapshot binário truncado na posição " + leitor.buffer.position());
+        }
+    }
+
+    @Override
+    public List<Usuario> carregarUsuarios(Path arquivo) throws IOException {
+        Leitor leitor = new Leitor(mapear(arquivo, MAGICO_USUARIOS));
+        List<Usuario> usuarios = new ArrayList<>();
+        try {
+            while (leitor.buffer.hasRemaining()) {
+                usuarios.add(leitor.lerUsuario());
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Snapshot binário truncado na posição " + leitor.buffer.position());
+        }
+        return usuarios;
+    }
+
+    /**
+     * Abre o snapshot como catálogo preguiçoso: só o índice é decodificado;
+     * cada anúncio é montado a partir do arquivo mapeado no primeiro acesso.
+     *
+     * @throws IOException se o índice faltar ou não corresponder ao arquivo
+     *         (quem chama deve recorrer a carregarAnuncios)
+     */
+    public CatalogoLazy abrirCatalogo(Path arquivo) throws IOException {
+        ByteBuffer dados = mapear(arquivo, MAGICO_ANUNCIOS);
+        List<ResumoAnuncio> resumos = IndiceAnuncios.ler(arquivo, dados);
+        return new CatalogoLazy(dados, resumos);
+    }
+
+    /**
+     * Mapeia o arquivo (somente leitura), confere o checksum e valida o cabeçalho.
+     * O mapeamento continua válido depois que o canal é fechado.
+     */
+    ByteBuffer mapear(Path arquivo, int magico) throws IOException {
+        ByteBuffer buffer = ArquivoAtomico.mapear(arquivo);
+        validarCabecalho(buffer, magico, arquivo);
+        return buffer;
+    }
+
+    /**
+     * Confere mágico e versão, deixando o buffer posicionado no primeiro registro
+     */
+    void validarCabecalho(ByteBuffer buffer, int magico, Path arquivo) throws IOException {
+        if (buffer.remaining() < TAMANHO_CABECALHO || buffer.getInt() != magico) {
+            throw new IOException("Arquivo não é um snapshot binário válido: " + arquivo);
+        }
+        short versao = buffer.getShort();
+        if (versao < VERSAO_MINIMA || versao > VERSAO) {
+            throw new IOException("Versão de snapshot binário não suportada: " + versao);
+        }
+    }
+
+    /**
+     * Versão gravada no cabeçalho de um arquivo mapeado por inteiro
+     */
+    static short versao(ByteBuffer arquivo) {
+        return arquivo.getShort(4);
+    }
+
+    /**
+     * Decodifica registros de um buffer mapeado, reaproveitando o
+     * mesmo array de bytes para todas as strings
+     */
+    static class Leitor {
+
+        final ByteBuffer buffer;
+        private final short versao;
+        private byte[] bytes = new byte[256];
+
+        Leitor(ByteBuffer buffer) {
+            this(buffer, VERSAO);
+        }
+
+        /**
+         * @param versao Versão do arquivo de onde vêm os registros
+         */
+        Leitor(ByteBuffer buffer, short versao) {
+            this.buffer = buffer;
+            this.versao = versao;
+        }
+
+        Anuncio lerAnuncio() throws IOException {
+            String id = lerString();
+            String titulo = texto(lerString());
+            double preco = buffer.getDouble();
+            String descricao = texto(lerString());
+            String estadoNome = texto(lerString());
+            Imovel imovel = lerImovel();
+            String nome = texto(lerString());
+            String email = texto(lerString());
+            String telefone = texto(lerString());
+            TipoAnuncio tipoAnuncio = null;
+            if (versao >= 2) {
+                int codigo = buffer.get();
+                tipoAnuncio = codigo > 0 && codigo <= TIPOS_ANUNCIO.length ? TIPOS_ANUNCIO[codigo - 1] : null;
+            }
+            long dataPublicacao = versao >= 3 ? buffer.getLong() : SEM_DATA;
+            if (versao >= 4) {
+                imovel.getEndereco().setCoordenadas(buffer.getDouble(), buffer.getDouble());
+            }
+            // Uma instância por email; RF05 - canal padrão de email compartilhado
+            Usuario anunciante = RegistroAnunciantes.getInstance().anunciante(nome, email, telefone);
+
+            Anuncio anuncio = new Anuncio();
+            anuncio.setId(id);
+            anuncio.setTitulo(titulo);
+            anuncio.setPreco(preco);
+            anuncio.setDescricao(descricao);
+            anuncio.setImovel(imovel);
+            anuncio.setAnunciante(anunciante);
+            anuncio.setTipoAnuncio(tipoAnuncio);
+            if (dataPublicacao != SEM_DATA) {
+                anuncio.setDataPublicacao(new Date(dataPublicacao));
+            }
+            if (!estadoNome.isEmpty()) {
+                anuncio.restaurarEstado(estadoNome);
+            }
+            return anuncio;
+        }
+
+        private Imovel lerImovel() throws IOException {
+            byte tipo = buffer.get();
+            double area = buffer.getDouble();
+            Endereco endereco = new Endereco(
+                    texto(lerString()), texto(lerString()), texto(lerString()), texto(lerString()));
+
+            switch (tipo) {
+                case TIPO_CASA:
+                    Casa casa = new Casa();
+                    casa.setQuartos(buffer.getInt());
+                    casa.setBanheiros(buffer.getInt());
+                    casa.setTemQuintal(buffer.get() != 0);
+                    casa.setTemGaragem(buffer.get() != 0);
+                    return comum(casa, area, endereco);
+
+                case TIPO_APARTAMENTO:
+                    Apartamento apt = new Apartamento();
+                    apt.setQuartos(buffer.getInt());
+                    apt.setBanheiros(buffer.getInt());
+                    apt.setAndar(buffer.getInt());
+                    apt.setVagas(buffer.getInt());
+                    return comum(apt, area, endereco);
+
+                case TIPO_TERRENO:
+                    Terreno terreno = new Terreno();
+                    String zoneamento = texto(lerString());
+                    terreno.setZoneamento(zoneamento.isEmpty() ? "Urbano" : zoneamento);
+                    return comum(terreno, area, endereco);
+
+                case TIPO_SALA_COMERCIAL:
+                    SalaComercial sala = new SalaComercial();
+                    sala.setAndar(buffer.getInt());
+                    sala.setTemBanheiro(buffer.get() != 0);
+                    sala.setVagasEstacionamento(buffer.getInt());
+                    return comum(sala, area, endereco);
+
+                default:
+                    // Sem o tipo não há como saber o tamanho do registro
+                    throw new IOException("Tipo de imóvel inválido no snapshot binário: " + tipo);
+            }
+        }
+
+        private Imovel comum(Imovel imovel, double area, Endereco endereco) {
+            imovel.setArea(area);
+            imovel.setEndereco(endereco);
+            return imovel;
+        }
+
+        Usuario lerUsuario() {
+            Usuario usuario = new Usuario();
+            usuario.setNome(texto(lerString()));
+            usuario.setEmail(texto(lerString()));
+            usuario.setTelefone(texto(lerString()));
+            try {
+                usuario.setTipo(Usuario.TipoUsuario.valueOf(texto(lerString())));
+            } catch (IllegalArgumentException e) {
+                usuario.setTipo(Usuario.TipoUsuario.PROPRIETARIO);
+            }
+            usuario.setCanalNotificacao(RegistroAnunciantes.getInstance().getCanalPadrao());
+            return usuario;
+        }
+
+        String lerString() {
+            int tamanho = buffer.getInt();
+            if (tamanho < 0) {
+                return null;
+            }
+            if (tamanho > buffer.remaining()) {
+                throw new BufferUnderflowException();
+            }
+            if (tamanho > bytes.length) {
+                bytes = new byte[Math.max(tamanho, bytes.length * 2)];
+            }
+            buffer.get(bytes, 0, tamanho);
+            return new String(bytes, 0, tamanho, StandardCharsets.UTF_8);
+        }
+
+        private static String texto(String valor) {
+            return valor == null ? "" : valor;
+        }
+    }
+}
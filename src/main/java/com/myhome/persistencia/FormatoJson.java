@@ -0,0 +1,100 @@
+package com.myhome.persistencia;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Usuario;
+
+/**
+ * Snapshot em JSON (formato original de data/), via AnuncioJsonCodec
+ *
+ * Gravado via ArquivoAtomico.gravarTexto: o arquivo é só o documento JSON,
+ * legível por outras ferramentas, e o CRC32C fica em "<arquivo>.crc".
+ * Com compressão (Compressao), o documento passa por um compressor de fluxo;
+ * a leitura reconhece sozinha arquivos comprimidos ou não.
+ */
+public class FormatoJson implements FormatoSnapshot {
+
+    private final AnuncioJsonCodec codec;
+    private final Compressao compressao;
+
+    public FormatoJson(AnuncioJsonCodec codec) {
+        this(codec, Compressao.NENHUMA);
+    }
+
+    /**
+     * @param compressao Compressão usada na gravação (a leitura detecta a do arquivo)
+     */
+    public FormatoJson(AnuncioJsonCodec codec, Compressao compressao) {
+        this.codec = codec;
+        this.compressao = compressao;
+    }
+
+    @Override
+    public String getNome() {
+        return "json";
+    }
+
+    @Override
+    public String getExtensao() {
+        return "json";
+    }
+
+    @Override
+    public void salvarAnuncios(Path arquivo, Iterable<Anuncio> anuncios) throws IOException {
+        ArquivoAtomico.gravarTexto(arquivo, saida -> {
+            try (Writer out = escritor(saida)) {
+                codec.escreverAnuncios(out, anuncios);
+            }
+        });
+    }
+
+    @Override
+    public void carregarAnuncios(Path arquivo, Consumer<Anuncio> destino) throws IOException {
+        try (Reader in = leitor(arquivo)) {
+            codec.lerAnuncios(in, destino);
+        }
+    }
+
+    @Override
+    public void salvarUsuarios(Path arquivo, Iterable<Usuario> usuarios) throws IOException {
+        ArquivoAtomico.gravarTexto(arquivo, saida -> {
+            try (Writer out = escritor(saida)) {
+                codec.escreverUsuarios(out, usuarios);
+            }
+        });
+    }
+
+    @Override
+    public List<Usuario> carregarUsuarios(Path arquivo) throws IOException {
+        try (Reader in = leitor(arquivo)) {
+            return codec.lerUsuarios(in);
+        }
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Fechar o escritor conclui o fluxo comprimido; a saída do
+     * ArquivoAtomico ignora o close() (o arquivo é fechado por ele)
+     */
+    private Writer escritor(OutputStream saida) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(compressao.comprimir(saida), StandardCharsets.UTF_8));
+    }
+
+    private Reader leitor(Path arquivo) throws IOException {
+        return new InputStreamReader(Compressao.descomprimir(ArquivoAtomico.abrir(arquivo)), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,54 @@
+package com.myhome.persistencia;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Usuario;
+
+/**
+ * STRATEGY - Formato de gravação dos snapshots de data/
+ *
+ * Cada implementação sabe gravar e ler o catálogo de anúncios e a lista
+ * de usuários em um arquivo. O PersistenciaService escolhe o formato pela
+ * configuração "persistencia.formato" e não conhece os detalhes de cada um.
+ *
+ * Implementações:
+ * - FormatoJson: texto legível (anuncios.json / usuarios.json)
+ * - FormatoBinario: registros binários lidos via MappedByteBuffer (anuncios.bin / usuarios.bin)
+ * - ArmazemSegmentado / ArmazemParticionado: binário em vários arquivos
+ * - RepositorioJdbc: tabelas em um banco relacional (o caminho só identifica a tabela)
+ */
+public interface FormatoSnapshot {
+
+    /**
+     * Nome usado na configuração (ex.: "json", "binario")
+     */
+    String getNome();
+
+    /**
+     * Extensão dos arquivos deste formato, sem o ponto
+     */
+    String getExtensao();
+
+    /**
+     * Indica se já há dados gravados neste formato para o caminho
+     */
+    default boolean existe(Path arquivo) {
+        return Files.exists(arquivo);
+    }
+
+    void salvarAnuncios(Path arquivo, Iterable<Anuncio> anuncios) throws IOException;
+
+    /**
+     * Lê o arquivo entregando cada anúncio ao destino assim que ele é montado
+     */
+    void carregarAnuncios(Path arquivo, Consumer<Anuncio> destino) throws IOException;
+
+    void salvarUsuarios(Path arquivo, Iterable<Usuario> usuarios) throws IOException;
+
+    List<Usuario> carregarUsuarios(Path arquivo) throws IOException;
+}
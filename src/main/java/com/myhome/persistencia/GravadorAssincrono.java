@@ -0,0 +1,138 @@
+package com.myhome.persistencia;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gravação em segundo plano com agrupamento de solicitações
+ *
+ * RESPONSABILIDADES:
+ * - Executar as gravações em uma thread própria, fora da thread interativa
+ * - Agrupar solicitações repetidas: para cada chave (ex.: "anuncios"),
+ *   só a última tarefa solicitada é executada
+ * - Aguardar um intervalo sem novas solicitações (debounce) antes de gravar,
+ *   sem nunca passar do atraso máximo desde a primeira solicitação pendente
+ * - Descarregar tudo o que estiver pendente em flush() (encerramento)
+ *
+ * As tarefas são executadas sempre na mesma thread, uma de cada vez,
+ * na ordem da última solicitação de cada chave.
+ */
+public class GravadorAssincrono implements Closeable {
+
+    private final ScheduledExecutorService executor;
+    private final long debounceNanos;
+    private final long atrasoMaximoNanos;
+
+    private final Map<String, Runnable> pendentes = new LinkedHashMap<>();
+    private long primeiraSolicitacao;
+    private ScheduledFuture<?> agendamento;
+
+    private long solicitacoes;
+    private long execucoes;
+
+    /**
+     * @param debounceMs Espera sem novas solicitações antes de gravar
+     * @param atrasoMaximoMs Espera máxima desde a primeira solicitação pendente
+     */
+    public GravadorAssincrono(long debounceMs, long atrasoMaximoMs) {
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, debounceMs));
+        this.atrasoMaximoNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(debounceMs, atrasoMaximoMs));
+        this.executor = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, "myhome-persistencia");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Agenda a tarefa, substituindo a solicitação pendente de mesma chave
+     */
+    public synchronized void agendar(String chave, Runnable tarefa) {
+        long agora = System.nanoTime();
+        if (pendentes.isEmpty()) {
+            primeiraSolicitacao = agora;
+        }
+        // remove antes de inserir para que a chave vá para o fim da fila
+        pendentes.remove(chave);
+        pendentes.put(chave, tarefa);
+        solicitacoes++;
+
+        if (executor.isShutdown()) {
+            return;
+        }
+        long alvo = Math.min(agora + debounceNanos, primeiraSolicitacao + atrasoMaximoNanos);
+        if (agendamento != null) {
+            agendamento.cancel(false);
+        }
+        agendamento = executor.schedule(this::executarPendentes, Math.max(0, alvo - agora), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Executa imediatamente tudo o que estiver pendente e aguarda o término
+     */
+    public void flush() {
+        if (executor.isShutdown()) {
+            executarPendentes();
+            return;
+        }
+        try {
+            executor.submit(this::executarPendentes).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("❌ Erro ao descarregar gravações pendentes: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Descarrega as pendências e encerra a thread de gravação
+     */
+    @Override
+    public void close() {
+        flush();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Solicitações recebidas (inclusive as que foram agrupadas)
+     */
+    public synchronized long getSolicitacoes() {
+        return solicitacoes;
+    }
+
+    /**
+     * Tarefas efetivamente executadas
+     */
+    public synchronized long getExecucoes() {
+        return execucoes;
+    }
+
+    private void executarPendentes() {
+        List<Runnable> tarefas;
+        synchronized (this) {
+            tarefas = new ArrayList<>(pendentes.values());
+            pendentes.clear();
+            execucoes += tarefas.size();
+        }
+        for (Runnable tarefa : tarefas) {
+            try {
+                tarefa.run();
+            } catch (RuntimeException e) {
+                System.err.println("❌ Erro na gravação em segundo plano: " + e.getMessage());
+            }
+        }
+    }
+}
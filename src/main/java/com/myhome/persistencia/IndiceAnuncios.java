@@ -0,0 +1,150 @@
+package com.myhome.persistencia;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice de posições do snapshot binário de anúncios (ex.: data/anuncios.bin.idx)
+ *
+ * RESPONSABILIDADES:
+ * - Gravar, para cada registro, id -> posição/tamanho no arquivo de dados
+ *   junto com os campos resumidos usados nas buscas (ResumoAnuncio)
+ * - Recusar um índice que não corresponda à gravação atual do arquivo de dados
+ *
+ * Layout (big-endian):
+ *   cabeçalho: int mágico ("MHIX") + short versão
+ *              + int CRC32C e long tamanho do arquivo de dados
+ *   termos:    int quantidade + strings (tipos, cidades, estados, situações
+ *              e tipos de anúncio distintos, como no FormatoBinario)
+ *   entradas:  int quantidade + (id, int posição, int tamanho, double preco,
+ *              double area, int tipo, int cidade, int estado, int situação,
+ *              int tipo de anúncio), os cinco últimos como posição na lista de termos
+ *
+ * A versão acompanha a do FormatoBinario; um índice de outra versão é
+ * recusado e o snapshot é lido por completo (a próxima gravação o refaz).
+ *
+ * Os campos repetitivos viram códigos: o índice fica menor e a abertura
+ * decodifica cada cidade/estado uma única vez, compartilhando as strings.
+ *
+ * O índice é gravado depois dos dados. Se a gravação for interrompida entre
+ * os dois, o CRC não confere e quem carrega volta para a leitura completa.
+ */
+final class IndiceAnuncios {
+
+    static final int MAGICO_INDICE = 0x4D484958; // "MHIX"
+
+    private IndiceAnuncios() {
+    }
+
+    /**
+     * Caminho do índice de um arquivo de dados
+     */
+    static Path arquivoIndice(Path dados) {
+        return dados.resolveSibling(dados.getFileName() + ".idx");
+    }
+
+    static void gravar(Path dados, long tamanhoDados, List<ResumoAnuncio> resumos) throws IOException {
+        int crcDados = ArquivoAtomico.checksum(dados);
+        ArquivoAtomico.gravar(arquivoIndice(dados), saida -> {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(saida, 64 * 1024));
+            out.writeInt(MAGICO_INDICE);
+            out.writeShort(FormatoBinario.VERSAO);
+            out.writeInt(crcDados);
+            out.writeLong(tamanhoDados);
+
+            Map<String, Integer> termos = new LinkedHashMap<>();
+            for (ResumoAnuncio resumo : resumos) {
+                termos.putIfAbsent(resumo.getTipo(), termos.size());
+                termos.putIfAbsent(resumo.getCidade(), termos.size());
+                termos.putIfAbsent(resumo.getEstado(), termos.size());
+                termos.putIfAbsent(resumo.getSituacao(), termos.size());
+                termos.putIfAbsent(resumo.getTipoAnuncio(), termos.size());
+            }
+            out.writeInt(termos.size());
+            for (String termo : termos.keySet()) {
+                FormatoBinario.escreverString(out, termo);
+            }
+
+            out.writeInt(resumos.size());
+            for (ResumoAnuncio resumo : resumos) {
+                FormatoBinario.escreverString(out, resumo.getId());
+                out.writeInt(resumo.getPosicao());
+                out.writeInt(resumo.getTamanho());
+                out.writeDouble(resumo.getPreco());
+                out.writeDouble(resumo.getArea());
+                out.writeInt(termos.get(resumo.getTipo()));
+                out.writeInt(termos.get(resumo.getCidade()));
+                out.writeInt(termos.get(resumo.getEstado()));
+                out.writeInt(termos.get(resumo.getSituacao()));
+                out.writeInt(termos.get(resumo.getTipoAnuncio()));
+            }
+            out.flush();
+        });
+    }
+
+    /**
+     * Lê o índice de um arquivo de dados já mapeado
+     *
+     * @param dados Conteúdo verificado do arquivo de dados
+     * @throws IOException se o índice faltar, estiver danificado ou for de outra gravação
+     */
+    static List<ResumoAnuncio> ler(Path arquivoDados, ByteBuffer dados) throws IOException {
+        Path arquivo = arquivoIndice(arquivoDados);
+        ByteBuffer buffer = ArquivoAtomico.mapear(arquivo);
+        FormatoBinario.Leitor leitor = new FormatoBinario.Leitor(buffer);
+        try {
+            if (buffer.getInt() != MAGICO_INDICE || buffer.getShort() != FormatoBinario.VERSAO) {
+                throw new IOException("Índice inválido: " + arquivo);
+            }
+            int crcDados = buffer.getInt();
+            long tamanhoDados = buffer.getLong();
+            if (crcDados != ArquivoAtomico.checksum(arquivoDados) || tamanhoDados != dados.limit()) {
+                throw new IOException("Índice desatualizado em relação a " + arquivoDados.getFileName());
+            }
+
+            String[] termos = new String[buffer.getInt()];
+            for (int i = 0; i < termos.length; i++) {
+                termos[i] = texto(leitor.lerString());
+            }
+
+            int quantidade = buffer.getInt();
+            List<ResumoAnuncio> resumos = new ArrayList<>(quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                String id = leitor.lerString();
+                int posicao = buffer.getInt();
+                int tamanho = buffer.getInt();
+                if (posicao < FormatoBinario.TAMANHO_CABECALHO || posicao + tamanho > tamanhoDados) {
+                    throw new IOException("Posição fora do arquivo de dados no índice: " + posicao);
+                }
+                double preco = buffer.getDouble();
+                double area = buffer.getDouble();
+                resumos.add(new ResumoAnuncio(id, posicao, tamanho, preco, area,
+                        termo(termos, buffer.getInt()), termo(termos, buffer.getInt()),
+                        termo(termos, buffer.getInt()), termo(termos, buffer.getInt()),
+                        termo(termos, buffer.getInt())));
+            }
+            return resumos;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Índice truncado: " + arquivo);
+        }
+    }
+
+    private static String termo(String[] termos, int codigo) throws IOException {
+        if (codigo < 0 || codigo >= termos.length) {
+            throw new IOException("Código de termo inválido no índice: " + codigo);
+        }
+        return termos[codigo];
+    }
+
+    private static String texto(String valor) {
+        return valor == null ? "" : valor;
+    }
+}
@@ -0,0 +1,434 @@
+package com.myhome.persistencia;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.myhome.model.Anuncio;
+
+/**
+ * Journal (write-ahead log) de mutações de anúncios
+ *
+ * RESPONSABILIDADES:
+ * - Anexar um registro compacto (uma linha JSON) por mutação:
+ *   criação, mudança de estado e mudança de preço
+ * - Reaplicar o final do log sobre o snapshot carregado na inicialização
+ * - Ser truncado sempre que um novo snapshot completo é gravado
+ * - Avisar ouvintes (Ouvinte) de cada registro, na ordem da sequência
+ *
+ * Formato de cada linha:
+ *   {"seq":1,"op":"CRIAR","anuncio":{...}}
+ *   {"seq":2,"op":"ESTADO","id":"7","estado":"Ativo"}
+ *   {"seq":3,"op":"PRECO","id":"7","preco":250000.0}
+ *
+ * A reaplicação é idempotente: registros que já constam no snapshot
+ * (ex.: queda entre gravar o snapshot e truncar o log) não duplicam anúncios.
+ *
+ * Com a escrita adiada (gravação em segundo plano), os registros são
+ * codificados e numerados na hora, mas só vão para o arquivo em descarregar(),
+ * todos de uma vez. Cada escrita termina com fsync.
+ */
+public class JournalAnuncios implements Closeable {
+
+    public enum Operacao {
+        CRIAR, ESTADO, PRECO
+    }
+
+    /**
+     * Recebe cada registro assim que ele é numerado (ex.: replicação).
+     * É chamado com o journal bloqueado, na ordem da sequência: não deve
+     * demorar nem chamar o journal de volta.
+     */
+    public interface Ouvinte {
+        void registrado(long sequencia, String linha);
+    }
+
+    private final Path arquivo;
+    private final AnuncioJsonCodec codec;
+
+    private FileOutputStream arquivoSaida;
+    private Writer saida;
+    private long sequencia;
+    private int registrosPendentes;
+
+    private boolean escritaAdiada;
+    private final List<String> linhasNaoGravadas = new ArrayList<>();
+    private final List<Ouvinte> ouvintes = new CopyOnWriteArrayList<>();
+
+    public JournalAnuncios(Path arquivo, AnuncioJsonCodec codec) {
+        this.arquivo = arquivo;
+        this.codec = codec;
+    }
+
+    // ========================================
+    // ESCRITA
+    // ========================================
+
+    public synchronized long registrarCriacao(Anuncio anuncio) throws IOException {
+        StringWriter linha = new StringWriter();
+        JsonWriter json = iniciarRegistro(linha, Operacao.CRIAR);
+        json.name("anuncio");
+        codec.escreverAnuncio(json, anuncio);
+        json.endObject();
+        return anexar(linha);
+    }
+
+    public synchronized long registrarEstado(Anuncio anuncio) throws IOException {
+        StringWriter linha = new StringWriter();
+        JsonWriter json = iniciarRegistro(linha, Operacao.ESTADO);
+        json.name("id").value(anuncio.getId());
+        json.name("estado").value(anuncio.getState().getNome());
+        if (anuncio.getDataPublicacao() != null) {
+            json.name("dataPublicacao").value(anuncio.getDataPublicacao().getTime());
+        }
+        json.endObject();
+        return anexar(linha);
+    }
+
+    public synchronized long registrarPreco(Anuncio anuncio) throws IOException {
+        StringWriter linha = new StringWriter();
+        JsonWriter json = iniciarRegistro(linha, Operacao.PRECO);
+        json.name("id").value(anuncio.getId());
+        json.name("preco").value(anuncio.getPreco());
+        json.endObject();
+        return anexar(linha);
+    }
+
+    public void adicionarOuvinte(Ouvinte ouvinte) {
+        ouvintes.add(ouvinte);
+    }
+
+    public void removerOuvinte(Ouvinte ouvinte) {
+        ouvintes.remove(ouvinte);
+    }
+
+    /**
+     * Com escrita adiada, os registros ficam em memória até descarregar()
+     */
+    public synchronized void setEscritaAdiada(boolean escritaAdiada) {
+        this.escritaAdiada = escritaAdiada;
+    }
+
+    /**
+     * Grava de uma vez os registros adiados
+     */
+    public synchronized void descarregar() throws IOException {
+        if (linhasNaoGravadas.isEmpty()) {
+            return;
+        }
+        Writer destino = abrirSaida();
+        for (String linha : linhasNaoGravadas) {
+            destino.write(linha);
+            destino.write('\n');
+        }
+        destino.flush();
+        arquivoSaida.getFD().sync();
+        linhasNaoGravadas.clear();
+    }
+
+    /**
+     * Descarta o log após a gravação de um snapshot completo
+     */
+    public synchronized void truncar() throws IOException {
+        truncarAte(sequencia);
+    }
+
+    /**
+     * Descarta os registros já cobertos por um snapshot (seq <= corte),
+     * preservando os posteriores. Usado quando o snapshot é gravado em
+     * segundo plano e novas mutações chegaram depois dele ser solicitado.
+     */
+    public synchronized void truncarAte(long corte) throws IOException {
+        linhasNaoGravadas.removeIf(linha -> sequenciaDaLinha(linha) <= corte);
+
+        fecharSaida();
+        List<String> mantidas = new ArrayList<>();
+        if (Files.exists(arquivo)) {
+            for (String linha : Files.readAllLines(arquivo, StandardCharsets.UTF_8)) {
+                if (sequenciaDaLinha(linha) > corte) {
+                    mantidas.add(linha);
+                }
+            }
+        }
+        if (mantidas.isEmpty()) {
+            Files.deleteIfExists(arquivo);
+        } else {
+            // Regrava só os registros posteriores ao corte, trocando o arquivo atomicamente
+            Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+            try (FileOutputStream saidaTemporaria = new FileOutputStream(temporario.toFile())) {
+                Writer destino = new BufferedWriter(new OutputStreamWriter(saidaTemporaria, StandardCharsets.UTF_8));
+                for (String linha : mantidas) {
+                    destino.write(linha);
+                    destino.write('\n');
+                }
+                destino.flush();
+                saidaTemporaria.getFD().sync();
+            }
+            Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        registrosPendentes = mantidas.size() + linhasNaoGravadas.size();
+    }
+
+    /**
+     * Quantidade de registros anexados desde o último snapshot
+     */
+    public synchronized int getRegistrosPendentes() {
+        return registrosPendentes;
+    }
+
+    public synchronized long getSequencia() {
+        return sequencia;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        fecharSaida();
+    }
+
+    // ========================================
+    // REAPLICAÇÃO
+    // ========================================
+
+    /**
+     * Reaplica o log sobre a lista carregada do snapshot.
+     * Uma linha final incompleta (queda durante a escrita) encerra a reaplicação.
+     *
+     * @return Quantidade de registros reaplicados
+     */
+    public synchronized int reaplicar(List<Anuncio> anuncios) throws IOException {
+        int aplicados = aplicar(anuncios);
+        registrosPendentes = aplicados;
+        return aplicados;
+    }
+
+    /**
+     * Aplica o log sobre uma lista avulsa (ex.: anúncios de uma única região),
+     * sem alterar a contagem de registros pendentes do catálogo principal
+     *
+     * @return Quantidade de registros aplicados
+     */
+    public synchronized int aplicar(List<Anuncio> anuncios) throws IOException {
+        if (!Files.exists(arquivo)) {
+            return 0;
+        }
+
+        // No catálogo preguiçoso a busca por id hidrata só os anúncios alterados
+        Map<String, Anuncio> porId = new HashMap<>();
+        if (!(anuncios instanceof CatalogoLazy)) {
+            for (Anuncio anuncio : anuncios) {
+                if (anuncio.getId() != null) {
+                    porId.put(anuncio.getId(), anuncio);
+                }
+            }
+        }
+
+        int aplicados = 0;
+        try (BufferedReader in = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            String linha;
+            int numero = 0;
+            while ((linha = in.readLine()) != null) {
+                numero++;
+                if (linha.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    aplicarRegistro(linha, anuncios, porId);
+                    aplicados++;
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("⚠️  Journal interrompido na linha " + numero + ": " + e.getMessage());
+                    break;
+                }
+            }
+        }
+        return aplicados;
+    }
+
+    private void aplicarRegistro(String linha, List<Anuncio> anuncios, Map<String, Anuncio> porId) throws IOException {
+        Registro registro = Registro.ler(linha, codec);
+        sequencia = Math.max(sequencia, registro.getSequencia());
+        registro.aplicar(anuncios, porId);
+    }
+
+    /**
+     * Uma linha do journal já decodificada
+     */
+    public static final class Registro {
+
+        private long sequencia;
+        private Operacao operacao;
+        private String id;
+        private String estado;
+        private Double preco;
+        private Long dataPublicacao;
+        private Anuncio criado;
+
+        private Registro() {
+        }
+
+        /**
+         * Decodifica uma linha no formato do journal
+         *
+         * @throws IOException se a linha estiver incompleta ou sem operação
+         */
+        public static Registro ler(String linha, AnuncioJsonCodec codec) throws IOException {
+            Registro registro = new Registro();
+            JsonReader json = new JsonReader(new StringReader(linha));
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "seq":     registro.sequencia = json.nextLong(); break;
+                    case "op":      registro.operacao = Operacao.valueOf(json.nextString()); break;
+                    case "id":      registro.id = json.nextString(); break;
+                    case "estado":  registro.estado = json.nextString(); break;
+                    case "preco":   registro.preco = json.nextDouble(); break;
+                    case "dataPublicacao": registro.dataPublicacao = json.nextLong(); break;
+                    case "anuncio": registro.criado = codec.lerAnuncio(json); break;
+                    default:        json.skipValue();
+                }
+            }
+            json.endObject();
+
+            if (registro.operacao == null) {
+                throw new IOException("registro sem operação");
+            }
+            return registro;
+        }
+
+        /**
+         * Aplica o registro à lista (idempotente: criações de ids existentes
+         * são ignoradas; estado e preço são valores absolutos)
+         *
+         * @param porId Índice por id da lista, mantido atualizado nas criações
+         * @return Anúncio criado ou alterado; null se o registro não teve efeito
+         */
+        public Anuncio aplicar(List<Anuncio> anuncios, Map<String, Anuncio> porId) {
+            switch (operacao) {
+                case CRIAR:
+                    if (criado != null && localizar(criado.getId(), anuncios, porId) == null) {
+                        anuncios.add(criado);
+                        porId.put(criado.getId(), criado);
+                        return criado;
+                    }
+                    return null;
+                case ESTADO:
+                    Anuncio alvoEstado = localizar(id, anuncios, porId);
+                    if (alvoEstado != null && estado != null) {
+                        alvoEstado.restaurarEstado(estado);
+                        if (dataPublicacao != null) {
+                            alvoEstado.setDataPublicacao(new Date(dataPublicacao));
+                        }
+                        return alvoEstado;
+                    }
+                    return null;
+                case PRECO:
+                    Anuncio alvoPreco = localizar(id, anuncios, porId);
+                    if (alvoPreco != null && preco != null) {
+                        alvoPreco.setPreco(preco);
+                        return alvoPreco;
+                    }
+                    return null;
+                default:
+                    return null;
+            }
+        }
+
+        public long getSequencia() {
+            return sequencia;
+        }
+
+        public Operacao getOperacao() {
+            return operacao;
+        }
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private static Anuncio localizar(String id, List<Anuncio> anuncios, Map<String, Anuncio> porId) {
+        Anuncio anuncio = porId.get(id);
+        if (anuncio == null && id != null && anuncios instanceof CatalogoLazy) {
+            anuncio = ((CatalogoLazy) anuncios).buscarPorId(id);
+        }
+        return anuncio;
+    }
+
+    private JsonWriter iniciarRegistro(Writer linha, Operacao operacao) throws IOException {
+        JsonWriter json = new JsonWriter(linha, true);
+        json.beginObject();
+        json.name("seq").value(sequencia + 1);
+        json.name("op").value(operacao.name());
+        return json;
+    }
+
+    private long anexar(StringWriter linha) throws IOException {
+        String texto = linha.toString();
+        if (escritaAdiada) {
+            linhasNaoGravadas.add(texto);
+        } else {
+            Writer destino = abrirSaida();
+            destino.write(texto);
+            destino.write('\n');
+            destino.flush();
+            arquivoSaida.getFD().sync();
+        }
+        registrosPendentes++;
+        long numero = ++sequencia;
+        for (Ouvinte ouvinte : ouvintes) {
+            ouvinte.registrado(numero, texto);
+        }
+        return numero;
+    }
+
+    private Writer abrirSaida() throws IOException {
+        if (saida == null) {
+            Files.createDirectories(arquivo.toAbsolutePath().getParent());
+            arquivoSaida = new FileOutputStream(arquivo.toFile(), true);
+            saida = new BufferedWriter(new OutputStreamWriter(arquivoSaida, StandardCharsets.UTF_8));
+        }
+        return saida;
+    }
+
+    /**
+     * Lê o "seq" do início da linha ({"seq":N,...}); linhas ilegíveis valem 0
+     */
+    private static long sequenciaDaLinha(String linha) {
+        String prefixo = "{\"seq\":";
+        if (!linha.startsWith(prefixo)) {
+            return 0;
+        }
+        long valor = 0;
+        for (int i = prefixo.length(); i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+
+    private void fecharSaida() throws IOException {
+        if (saida != null) {
+            saida.close();
+            saida = null;
+            arquivoSaida = null;
+        }
+    }
+}
@@ -0,0 +1,425 @@
+package com.myhome.persistencia;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Leitor JSON incremental (pull parser), sem bibliotecas externas.
+ *
+ * RESPONSABILIDADES:
+ * - Ler o documento em uma única passada a partir de um Reader
+ * - Entregar um token por vez (objeto, array, nome, string, número...)
+ * - Tratar escapes (aspas, barras, quebras de linha, unicode) dentro de strings
+ *
+ * O chamador conduz a leitura (beginObject, nextName, nextString...),
+ * de forma que objetos de domínio são montados direto dos tokens, sem
+ * regex e sem carregar o arquivo inteiro em uma String.
+ */
+public class JsonReader implements Closeable {
+
+    /**
+     * Tipos de token que podem ser consultados via peek()
+     */
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY,
+        NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    // Contextos da pilha de aninhamento
+    private static final int DOCUMENTO_VAZIO = 0;
+    private static final int DOCUMENTO_LIDO = 1;
+    private static final int OBJETO_VAZIO = 2;
+    private static final int OBJETO = 3;
+    private static final int NOME_PENDENTE = 4;
+    private static final int ARRAY_VAZIO = 5;
+    private static final int ARRAY = 6;
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limite;
+    private long lidosAntesDoBuffer;
+
+    private int[] pilha = new int[32];
+    private int profundidade = 1;
+
+    private Token peeked;
+    private final StringBuilder texto = new StringBuilder();
+
+    public JsonReader(Reader in) {
+        this.in = in;
+        this.pilha[0] = DOCUMENTO_VAZIO;
+    }
+
+    // ========================================
+    // NAVEGAÇÃO
+    // ========================================
+
+    /**
+     * Retorna o próximo token sem consumi-lo
+     */
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        int contexto = pilha[profundidade - 1];
+        int c;
+        switch (contexto) {
+            case ARRAY_VAZIO:
+                pilha[profundidade - 1] = ARRAY;
+                c = proximoNaoBranco();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                pos--;
+                return peeked = lerInicioValor();
+
+            case ARRAY:
+                c = proximoNaoBranco();
+                if (c == ']') {
+                    return peeked = Token.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw erro("esperado ',' ou ']'");
+                }
+                return peeked = lerInicioValor();
+
+            case OBJETO_VAZIO:
+            case OBJETO:
+                c = proximoNaoBranco();
+                if (c == '}') {
+                    return peeked = Token.END_OBJECT;
+                }
+                if (contexto == OBJETO) {
+                    if (c != ',') {
+                        throw erro("esperado ',' ou '}'");
+                    }
+                    c = proximoNaoBranco();
+                }
+                if (c != '"') {
+                    throw erro("esperado nome entre aspas");
+                }
+                pilha[profundidade - 1] = NOME_PENDENTE;
+                return peeked = Token.NAME;
+
+            case NOME_PENDENTE:
+                if (proximoNaoBranco() != ':') {
+                    throw erro("esperado ':'");
+                }
+                pilha[profundidade - 1] = OBJETO;
+                return peeked = lerInicioValor();
+
+            case DOCUMENTO_VAZIO:
+                pilha[profundidade - 1] = DOCUMENTO_LIDO;
+                return peeked = lerInicioValor();
+
+            default:
+                if (proximoNaoBranco() != -1) {
+                    throw erro("conteúdo após o fim do documento");
+                }
+                return peeked = Token.END_DOCUMENT;
+        }
+    }
+
+    /**
+     * true enquanto houver elementos no objeto/array atual
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public void beginObject() throws IOException {
+        esperar(Token.BEGIN_OBJECT);
+        empilhar(OBJETO_VAZIO);
+    }
+
+    public void endObject() throws IOException {
+        esperar(Token.END_OBJECT);
+        profundidade--;
+    }
+
+    public void beginArray() throws IOException {
+        esperar(Token.BEGIN_ARRAY);
+        empilhar(ARRAY_VAZIO);
+    }
+
+    public void endArray() throws IOException {
+        esperar(Token.END_ARRAY);
+        profundidade--;
+    }
+
+    public String nextName() throws IOException {
+        esperar(Token.NAME);
+        return lerString();
+    }
+
+    // ========================================
+    // VALORES
+    // ========================================
+
+    /**
+     * Lê uma string; números e booleanos são devolvidos como texto
+     */
+    public String nextString() throws IOException {
+        Token token = peek();
+        peeked = null;
+        switch (token) {
+            case STRING:
+                return lerString();
+            case NUMBER:
+            case BOOLEAN:
+                return lerLiteral();
+            case NULL:
+                lerLiteral();
+                return null;
+            default:
+                throw erro("esperado string, encontrado " + token);
+        }
+    }
+
+    /**
+     * Lê um número; aceita também números gravados entre aspas
+     */
+    public double nextDouble() throws IOException {
+        String valor = nextString();
+        try {
+            return valor == null || valor.isEmpty() ? 0.0 : Double.parseDouble(valor);
+        } catch (NumberFormatException e) {
+            throw erro("número inválido: " + valor);
+        }
+    }
+
+    public long nextLong() throws IOException {
+        String valor = nextString();
+        if (valor == null || valor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            try {
+                return (long) Double.parseDouble(valor);
+            } catch (NumberFormatException invalido) {
+                throw erro("número inválido: " + valor);
+            }
+        }
+    }
+
+    public int nextInt() throws IOException {
+        return (int) nextLong();
+    }
+
+    /**
+     * Lê um booleano; aceita também "true"/"false" entre aspas
+     */
+    public boolean nextBoolean() throws IOException {
+        return "true".equals(nextString());
+    }
+
+    /**
+     * Descarta o próximo valor, inclusive objetos e arrays aninhados
+     */
+    public void skipValue() throws IOException {
+        int nivel = 0;
+        do {
+            Token token = peek();
+            switch (token) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    nivel++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    nivel++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    nivel--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    nivel--;
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                case END_DOCUMENT:
+                    return;
+                default:
+                    nextString();
+            }
+        } while (nivel > 0);
+    }
+
+    /**
+     * Quantidade de caracteres já consumidos do Reader
+     */
+    public long getPosicao() {
+        return lidosAntesDoBuffer + pos;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private void esperar(Token esperado) throws IOException {
+        Token token = peek();
+        if (token != esperado) {
+            throw erro("esperado " + esperado + ", encontrado " + token);
+        }
+        peeked = null;
+    }
+
+    private void empilhar(int contexto) {
+        if (profundidade == pilha.length) {
+            int[] maior = new int[pilha.length * 2];
+            System.arraycopy(pilha, 0, maior, 0, pilha.length);
+            pilha = maior;
+        }
+        pilha[profundidade++] = contexto;
+    }
+
+    /**
+     * Identifica o tipo do valor pelo primeiro caractere.
+     * Aspas são consumidas; literais (número, true, null) ficam no buffer.
+     */
+    private Token lerInicioValor() throws IOException {
+        int c = proximoNaoBranco();
+        switch (c) {
+            case '{': return Token.BEGIN_OBJECT;
+            case '[': return Token.BEGIN_ARRAY;
+            case '"': return Token.STRING;
+            case 't':
+            case 'f':
+                pos--;
+                return Token.BOOLEAN;
+            case 'n':
+                pos--;
+                return Token.NULL;
+            case -1:
+                throw erro("fim inesperado do documento");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    pos--;
+                    return Token.NUMBER;
+                }
+                throw erro("caractere inesperado '" + (char) c + "'");
+        }
+    }
+
+    /**
+     * Lê o conteúdo de uma string cuja aspa de abertura já foi consumida
+     */
+    private String lerString() throws IOException {
+        texto.setLength(0);
+        while (true) {
+            int inicio = pos;
+            while (pos < limite) {
+                char c = buffer[pos];
+                if (c == '"' || c == '\\') {
+                    break;
+                }
+                pos++;
+            }
+            texto.append(buffer, inicio, pos - inicio);
+            if (pos == limite) {
+                if (!preencher()) {
+                    throw erro("string não terminada");
+                }
+                continue;
+            }
+            char c = buffer[pos++];
+            if (c == '"') {
+                return texto.toString();
+            }
+            texto.append(lerEscape());
+        }
+    }
+
+    private char lerEscape() throws IOException {
+        int c = proximoCaractere();
+        switch (c) {
+            case 'n': return '\n';
+            case 'r': return '\r';
+            case 't': return '\t';
+            case 'b': return '\b';
+            case 'f': return '\f';
+            case 'u':
+                int codigo = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digito = Character.digit(proximoCaractere(), 16);
+                    if (digito < 0) {
+                        throw erro("escape unicode inválido");
+                    }
+                    codigo = (codigo << 4) | digito;
+                }
+                return (char) codigo;
+            case -1:
+                throw erro("string não terminada");
+            default:
+                // \" \\ \/ e qualquer outro caractere escapado literalmente
+                return (char) c;
+        }
+    }
+
+    /**
+     * Lê um literal sem aspas (número, true, false, null)
+     */
+    private String lerLiteral() throws IOException {
+        texto.setLength(0);
+        while (true) {
+            if (pos == limite && !preencher()) {
+                break;
+            }
+            char c = buffer[pos];
+            if (c == ',' || c == '}' || c == ']' || c == ':' || Character.isWhitespace(c)) {
+                break;
+            }
+            texto.append(c);
+            pos++;
+        }
+        return texto.toString();
+    }
+
+    private int proximoNaoBranco() throws IOException {
+        while (true) {
+            if (pos == limite && !preencher()) {
+                return -1;
+            }
+            char c = buffer[pos++];
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return c;
+            }
+        }
+    }
+
+    private int proximoCaractere() throws IOException {
+        if (pos == limite && !preencher()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    private boolean preencher() throws IOException {
+        lidosAntesDoBuffer += limite;
+        pos = 0;
+        limite = 0;
+        int lidos = in.read(buffer, 0, buffer.length);
+        if (lidos <= 0) {
+            return false;
+        }
+        limite = lidos;
+        return true;
+    }
+
+    private IOException erro(String mensagem) {
+        return new IOException("JSON inválido na posição " + getPosicao() + ": " + mensagem);
+    }
+}
@@ -0,0 +1,203 @@
+package com.myhome.persistencia;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Escritor JSON em fluxo (streaming), sem bibliotecas externas.
+ *
+ * RESPONSABILIDADES:
+ * - Escrever objetos, arrays e valores diretamente em um Writer
+ * - Escapar strings caractere a caractere, sem criar cópias intermediárias
+ * - Manter a indentação de 2 espaços usada nos arquivos de data/
+ *
+ * O documento nunca é montado em memória: cada token vai direto para o
+ * Writer (normalmente bufferizado), então o consumo de memória durante
+ * um salvamento é constante, independente do tamanho do catálogo.
+ */
+public class JsonWriter implements Closeable, Flushable {
+
+    private final Writer out;
+    private final boolean compacto;
+
+    private int nivel;
+    private boolean primeiro = true;
+    private boolean aguardandoValor;
+
+    /**
+     * Cria um escritor com saída indentada (formato dos arquivos de data/)
+     */
+    public JsonWriter(Writer out) {
+        this(out, false);
+    }
+
+    /**
+     * @param out Destino dos caracteres
+     * @param compacto true para escrever tudo em uma única linha, sem espaços
+     */
+    public JsonWriter(Writer out, boolean compacto) {
+        this.out = out;
+        this.compacto = compacto;
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        prefixoValor();
+        out.write('{');
+        nivel++;
+        primeiro = true;
+        return this;
+    }
+
+    public JsonWriter endObject() throws IOException {
+        fechar('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        prefixoValor();
+        out.write('[');
+        nivel++;
+        primeiro = true;
+        return this;
+    }
+
+    public JsonWriter endArray() throws IOException {
+        fechar(']');
+        return this;
+    }
+
+    /**
+     * Escreve o nome de uma chave; o próximo valor escrito pertence a ela
+     */
+    public JsonWriter name(String nome) throws IOException {
+        if (!primeiro) {
+            out.write(',');
+        }
+        novaLinha();
+        escreverString(nome);
+        out.write(compacto ? ":" : ": ");
+        primeiro = false;
+        aguardandoValor = true;
+        return this;
+    }
+
+    public JsonWriter value(String valor) throws IOException {
+        prefixoValor();
+        if (valor == null) {
+            out.write("null");
+        } else {
+            escreverString(valor);
+        }
+        return this;
+    }
+
+    public JsonWriter value(double valor) throws IOException {
+        prefixoValor();
+        out.write(Double.toString(valor));
+        return this;
+    }
+
+    public JsonWriter value(long valor) throws IOException {
+        prefixoValor();
+        out.write(Long.toString(valor));
+        return this;
+    }
+
+    public JsonWriter value(boolean valor) throws IOException {
+        prefixoValor();
+        out.write(valor ? "true" : "false");
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Fecha o objeto ou array. Array vazio indentado fica "[\n  ]", como
+     * nos arquivos de data/ gravados antes do JsonWriter
+     */
+    private void fechar(char fechamento) throws IOException {
+        nivel--;
+        if (!primeiro || fechamento == ']') {
+            novaLinha();
+        }
+        out.write(fechamento);
+        primeiro = false;
+    }
+
+    /**
+     * Separador antes de um valor: nada após uma chave, vírgula + quebra
+     * de linha entre elementos de array
+     */
+    private void prefixoValor() throws IOException {
+        if (aguardandoValor) {
+            aguardandoValor = false;
+            return;
+        }
+        if (nivel == 0) {
+            return;
+        }
+        if (!primeiro) {
+            out.write(',');
+        }
+        novaLinha();
+        primeiro = false;
+    }
+
+    private void novaLinha() throws IOException {
+        if (compacto) {
+            return;
+        }
+        out.write('\n');
+        for (int i = 0; i < nivel; i++) {
+            out.write("  ");
+        }
+    }
+
+    /**
+     * Escreve a string entre aspas, copiando trechos sem escape de uma vez
+     */
+    private void escreverString(String texto) throws IOException {
+        out.write('"');
+        int inicio = 0;
+        int tamanho = texto.length();
+        for (int i = 0; i < tamanho; i++) {
+            char c = texto.charAt(i);
+            String escape;
+            switch (c) {
+                case '"':  escape = "\\\""; break;
+                case '\\': escape = "\\\\"; break;
+                case '\n': escape = "\\n"; break;
+                case '\r': escape = "\\r"; break;
+                case '\t': escape = "\\t"; break;
+                default:
+                    if (c >= 0x20) {
+                        continue;
+                    }
+                    escape = String.format("\\u%04x", (int) c);
+            }
+            if (i > inicio) {
+                out.write(texto, inicio, i - inicio);
+            }
+            out.write(escape);
+            inicio = i + 1;
+        }
+        if (tamanho > inicio) {
+            out.write(texto, inicio, tamanho - inicio);
+        }
+        out.write('"');
+    }
+}
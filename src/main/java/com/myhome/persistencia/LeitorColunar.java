@@ -0,0 +1,202 @@
+package com.myhome.persistencia;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitura e agregação das colunas gravadas pela ExportacaoColunar
+ *
+ * RESPONSABILIDADES:
+ * - Mapear só o arquivo do campo consultado (MappedByteBuffer via ArquivoAtomico)
+ * - Calcular estatísticas de um campo numérico (preco, area, quartos)
+ * - Contar anúncios por tipo, situação, cidade ou UF, e agrupar um
+ *   campo numérico por um desses campos (lendo só as duas colunas)
+ *
+ * Os códigos de tipo e situação são traduzidos pelas listas fixas da
+ * ExportacaoColunar; os de cidade e UF, pelos arquivos .dic.
+ */
+public class LeitorColunar {
+
+    private final Path diretorio;
+
+    public LeitorColunar(Path diretorio) {
+        this.diretorio = diretorio;
+    }
+
+    // ========================================
+    // COLUNAS
+    // ========================================
+
+    public DoubleBuffer colunaDouble(String campo) throws IOException {
+        return mapear(campo, 8).asDoubleBuffer();
+    }
+
+    public IntBuffer colunaInt(String campo) throws IOException {
+        return mapear(campo, 4).asIntBuffer();
+    }
+
+    public ByteBuffer colunaByte(String campo) throws IOException {
+        return mapear(campo, 1);
+    }
+
+    /**
+     * Termos de um campo codificado por dicionário (cidade, uf), na ordem dos códigos
+     */
+    public List<String> dicionario(String campo) throws IOException {
+        Path arquivo = ExportacaoColunar.arquivoDicionario(diretorio, campo);
+        ByteBuffer buffer = ArquivoAtomico.mapear(arquivo);
+        try {
+            if (buffer.getInt() != ExportacaoColunar.MAGICO_DICIONARIO
+                    || buffer.getShort() != ExportacaoColunar.VERSAO) {
+                throw new IOException("Dicionário inválido: " + arquivo);
+            }
+            FormatoBinario.Leitor leitor = new FormatoBinario.Leitor(buffer);
+            int quantidade = buffer.getInt();
+            List<String> termos = new ArrayList<>(quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                termos.add(leitor.lerString());
+            }
+            return termos;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Dicionário truncado: " + arquivo);
+        }
+    }
+
+    // ========================================
+    // AGREGAÇÕES
+    // ========================================
+
+    /**
+     * Mínimo, máximo, média, soma e quantidade de um campo numérico
+     */
+    public DoubleSummaryStatistics estatisticas(String campo) throws IOException {
+        DoubleSummaryStatistics estatisticas = new DoubleSummaryStatistics();
+        if (ExportacaoColunar.QUARTOS.equals(campo)) {
+            IntBuffer valores = colunaInt(campo);
+            while (valores.hasRemaining()) {
+                estatisticas.accept(valores.get());
+            }
+        } else {
+            DoubleBuffer valores = colunaDouble(campo);
+            while (valores.hasRemaining()) {
+                estatisticas.accept(valores.get());
+            }
+        }
+        return estatisticas;
+    }
+
+    /**
+     * Quantidade de anúncios por valor de um campo codificado (tipo, situacao, cidade, uf)
+     */
+    public Map<String, Long> contagem(String campo) throws IOException {
+        int[] codigos = codigos(campo);
+        List<String> termos = termos(campo);
+        long[] contagens = new long[termos.size() + 1];
+        for (int codigo : codigos) {
+            contagens[indice(codigo, termos)]++;
+        }
+
+        Map<String, Long> resultado = new LinkedHashMap<>();
+        for (int i = 0; i < contagens.length; i++) {
+            if (contagens[i] > 0) {
+                resultado.put(i < termos.size() ? termos.get(i) : "?", contagens[i]);
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Estatísticas de um campo numérico agrupadas por um campo codificado
+     * (ex.: preço médio por cidade)
+     */
+    public Map<String, DoubleSummaryStatistics> estatisticasPor(String campo, String grupo) throws IOException {
+        int[] codigos = codigos(grupo);
+        List<String> termos = termos(grupo);
+        DoubleSummaryStatistics[] grupos = new DoubleSummaryStatistics[termos.size() + 1];
+        DoubleBuffer valores = colunaDouble(campo);
+        if (valores.remaining() != codigos.length) {
+            throw new IOException("Colunas " + campo + " e " + grupo + " com tamanhos diferentes");
+        }
+        for (int i = 0; i < codigos.length; i++) {
+            int g = indice(codigos[i], termos);
+            if (grupos[g] == null) {
+                grupos[g] = new DoubleSummaryStatistics();
+            }
+            grupos[g].accept(valores.get(i));
+        }
+
+        Map<String, DoubleSummaryStatistics> resultado = new LinkedHashMap<>();
+        for (int i = 0; i < grupos.length; i++) {
+            if (grupos[i] != null) {
+                resultado.put(i < termos.size() ? termos.get(i) : "?", grupos[i]);
+            }
+        }
+        return resultado;
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Mapeia a coluna, confere o cabeçalho e retorna só os valores
+     */
+    private ByteBuffer mapear(String campo, int largura) throws IOException {
+        Path arquivo = ExportacaoColunar.arquivoColuna(diretorio, campo);
+        ByteBuffer buffer = ArquivoAtomico.mapear(arquivo);
+        if (buffer.remaining() < ExportacaoColunar.TAMANHO_CABECALHO
+                || buffer.getInt() != ExportacaoColunar.MAGICO_COLUNA
+                || buffer.getShort() != ExportacaoColunar.VERSAO) {
+            throw new IOException("Coluna inválida: " + arquivo);
+        }
+        int larguraGravada = buffer.get();
+        if (larguraGravada != largura || buffer.remaining() % largura != 0) {
+            throw new IOException("Coluna " + campo + " com largura " + larguraGravada + ", esperada " + largura);
+        }
+        return buffer.slice();
+    }
+
+    /**
+     * Códigos de um campo codificado, seja de 1 byte (tipo, situacao) ou 4 (cidade, uf)
+     */
+    private int[] codigos(String campo) throws IOException {
+        if (ExportacaoColunar.TIPO.equals(campo) || ExportacaoColunar.SITUACAO.equals(campo)) {
+            ByteBuffer valores = colunaByte(campo);
+            int[] codigos = new int[valores.remaining()];
+            for (int i = 0; i < codigos.length; i++) {
+                codigos[i] = valores.get(i);
+            }
+            return codigos;
+        }
+        IntBuffer valores = colunaInt(campo);
+        int[] codigos = new int[valores.remaining()];
+        valores.get(codigos);
+        return codigos;
+    }
+
+    private List<String> termos(String campo) throws IOException {
+        if (ExportacaoColunar.TIPO.equals(campo)) {
+            return ExportacaoColunar.TIPOS;
+        }
+        if (ExportacaoColunar.SITUACAO.equals(campo)) {
+            return ExportacaoColunar.SITUACOES;
+        }
+        return dicionario(campo);
+    }
+
+    /**
+     * Posição do código nos termos; códigos desconhecidos vão para a última posição ("?")
+     */
+    private static int indice(int codigo, List<String> termos) {
+        return codigo >= 0 && codigo < termos.size() ? codigo : termos.size();
+    }
+}
@@ -0,0 +1,363 @@
+package com.myhome.persistencia;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.myhome.model.Anuncio;
+import com.myhome.singleton.ConfigurationManager;
+
+/**
+ * Instância líder da replicação do catálogo (servidor TCP)
+ *
+ * RESPONSABILIDADES:
+ * - Receber cada mutação registrada no journal (JournalAnuncios.Ouvinte)
+ *   e repassá-la, na ordem, a todos os seguidores conectados
+ * - Entregar um snapshot do catálogo em memória ao seguidor novo
+ *   (ou que ficou para trás além do backlog)
+ * - Retomar um seguidor reconectado a partir da última sequência que ele aplicou
+ *
+ * Protocolo (uma linha JSON por mensagem, UTF-8):
+ *   seguidor -> líder: {"epoca":"...","desde":N}
+ *   líder -> seguidor: {"epoca":"...","snapshot":S,"quantidade":K} + K anúncios
+ *                      ou {"epoca":"...","retomar":N}
+ *                      seguidas das linhas do journal ({"seq":...,"op":...})
+ *                      e de {"ping":S} quando não há mutações
+ *
+ * A época identifica esta execução do líder: a sequência do journal recomeça
+ * quando ele é truncado e o processo reinicia, então um seguidor de outra
+ * época sempre recebe um snapshot novo.
+ *
+ * O snapshot é uma cópia do catálogo lida depois da sequência S; mutações
+ * posteriores a S podem já constar nele e são reenviadas. Como o journal é
+ * idempotente (JournalAnuncios.Registro), o seguidor chega ao mesmo estado.
+ */
+public class LiderReplicacao implements JournalAnuncios.Ouvinte, Closeable {
+
+    private final String host;
+    private final int portaConfigurada;
+    private final int tamanhoBacklog;
+    private final long intervaloPingMs;
+    private final Supplier<List<Anuncio>> catalogo;
+    private final AnuncioJsonCodec codec = new AnuncioJsonCodec();
+    private final String epoca = UUID.randomUUID().toString();
+
+    private final ArrayDeque<Mudanca> backlog = new ArrayDeque<>();
+    private final Set<Seguidor> seguidores = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger contadorConexoes = new AtomicInteger();
+    private long ultimaSequencia;
+
+    private volatile ServerSocket servidor;
+
+    /**
+     * @param host           Endereço em que o líder escuta (127.0.0.1 só aceita
+     *                       seguidores da própria máquina; 0.0.0.0, de qualquer uma)
+     * @param porta          Porta TCP (0 escolhe uma livre; ver getPorta())
+     * @param tamanhoBacklog Mutações recentes guardadas para retomar seguidores
+     * @param sequenciaAtual Sequência do journal no momento da criação
+     * @param catalogo       Catálogo em memória usado nos snapshots
+     */
+    public LiderReplicacao(String host, int porta, int tamanhoBacklog, long intervaloPingMs,
+                           long sequenciaAtual, Supplier<List<Anuncio>> catalogo) {
+        this.host = host;
+        this.portaConfigurada = porta;
+        this.tamanhoBacklog = Math.max(1, tamanhoBacklog);
+        this.intervaloPingMs = intervaloPingMs;
+        this.ultimaSequencia = sequenciaAtual;
+        this.catalogo = catalogo;
+    }
+
+    /**
+     * Líder configurado por replicacao.host, replicacao.porta, replicacao.backlog
+     * e replicacao.ping.ms. Sem replicacao.host, escuta só em 127.0.0.1.
+     */
+    public static LiderReplicacao daConfiguracao(long sequenciaAtual, Supplier<List<Anuncio>> catalogo) {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        return new LiderReplicacao(
+                config.getProperty("replicacao.host", "127.0.0.1").trim(),
+                Integer.parseInt(config.getProperty("replicacao.porta", "7070").trim()),
+                Integer.parseInt(config.getProperty("replicacao.backlog", "10000").trim()),
+                Long.parseLong(config.getProperty("replicacao.ping.ms", "1000").trim()),
+                sequenciaAtual,
+                catalogo);
+    }
+
+    /**
+     * Abre a porta e passa a aceitar seguidores em segundo plano
+     */
+    public void iniciar() throws IOException {
+        ServerSocket socket = new ServerSocket();
+        try {
+            socket.setReuseAddress(true);
+            socket.bind(new InetSocketAddress(host, portaConfigurada));
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        servidor = socket;
+
+        Thread aceitacao = new Thread(this::aceitarSeguidores, "myhome-replicacao-lider");
+        aceitacao.setDaemon(true);
+        aceitacao.start();
+        System.out.println("📡 Replicação: líder aguardando seguidores em " + host + ":" + getPorta());
+    }
+
+    public int getPorta() {
+        ServerSocket socket = servidor;
+        return socket != null ? socket.getLocalPort() : portaConfigurada;
+    }
+
+    public String getEpoca() {
+        return epoca;
+    }
+
+    public int getSeguidoresConectados() {
+        return seguidores.size();
+    }
+
+    @Override
+    public void close() {
+        ServerSocket socket = servidor;
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // já fechado
+            }
+        }
+        for (Seguidor seguidor : seguidores) {
+            seguidor.desconectar();
+        }
+    }
+
+    // ========================================
+    // MUTAÇÕES (chamado pelo journal)
+    // ========================================
+
+    @Override
+    public synchronized void registrado(long sequencia, String linha) {
+        Mudanca mudanca = new Mudanca(sequencia, linha);
+        backlog.addLast(mudanca);
+        if (backlog.size() > tamanhoBacklog) {
+            backlog.removeFirst();
+        }
+        ultimaSequencia = sequencia;
+        for (Seguidor seguidor : seguidores) {
+            seguidor.enfileirar(mudanca);
+        }
+    }
+
+    // ========================================
+    // SEGUIDORES
+    // ========================================
+
+    private void aceitarSeguidores() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket socket = servidor.accept();
+                Thread atendimento = new Thread(() -> atender(socket),
+                        "myhome-replicacao-seguidor-" + contadorConexoes.incrementAndGet());
+                atendimento.setDaemon(true);
+                atendimento.start();
+            } catch (IOException e) {
+                if (!servidor.isClosed()) {
+                    System.err.println("❌ Erro ao aceitar seguidor: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void atender(Socket socket) {
+        Seguidor seguidor = new Seguidor(socket);
+        try {
+            socket.setTcpNoDelay(true);
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024);
+
+            String pedido = in.readLine();
+            if (pedido == null) {
+                return;
+            }
+            String epocaSeguidor = "";
+            long desde = -1;
+            JsonReader json = new JsonReader(new StringReader(pedido));
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "epoca": epocaSeguidor = json.nextString(); break;
+                    case "desde": desde = json.nextLong(); break;
+                    default:      json.skipValue();
+                }
+            }
+            json.endObject();
+
+            // A partir daqui o seguidor recebe toda mutação nova; o corte separa
+            // o que vem no snapshot (ou já foi aplicado) do que vem pela fila
+            long corte;
+            boolean retomar;
+            synchronized (this) {
+                seguidores.add(seguidor);
+                long primeira = backlog.isEmpty() ? ultimaSequencia + 1 : backlog.getFirst().sequencia;
+                retomar = epoca.equals(epocaSeguidor) && desde >= primeira - 1 && desde <= ultimaSequencia;
+                if (retomar) {
+                    corte = desde;
+                    for (Mudanca mudanca : backlog) {
+                        if (mudanca.sequencia > desde) {
+                            seguidor.enfileirar(mudanca);
+                        }
+                    }
+                } else {
+                    corte = ultimaSequencia;
+                }
+            }
+
+            if (retomar) {
+                cabecalho(out).name("retomar").value(corte).endObject();
+                out.write('\n');
+                System.out.println("📡 Seguidor " + socket.getRemoteSocketAddress() + " retomado a partir de " + corte);
+            } else {
+                int quantidade = enviarSnapshot(out, corte);
+                System.out.println("📡 Snapshot com " + quantidade + " anúncio(s) enviado a " + socket.getRemoteSocketAddress());
+            }
+            out.flush();
+
+            transmitir(seguidor, out, corte);
+        } catch (IOException e) {
+            if (!seguidor.desconectado) {
+                System.err.println("⚠️  Seguidor " + socket.getRemoteSocketAddress() + " desconectado: " + e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            seguidores.remove(seguidor);
+            seguidor.desconectar();
+        }
+    }
+
+    /**
+     * Envia o cabeçalho e um anúncio por linha, a partir de uma cópia do catálogo
+     */
+    private int enviarSnapshot(Writer out, long corte) throws IOException {
+        List<Anuncio> copia = copiarCatalogo();
+        cabecalho(out).name("snapshot").value(corte).name("quantidade").value(copia.size()).endObject();
+        out.write('\n');
+        for (Anuncio anuncio : copia) {
+            JsonWriter json = new JsonWriter(out, true);
+            codec.escreverAnuncio(json, anuncio);
+            out.write('\n');
+        }
+        return copia.size();
+    }
+
+    /**
+     * Repassa a fila do seguidor; sem mutações por intervaloPingMs, envia um ping
+     */
+    private void transmitir(Seguidor seguidor, Writer out, long corte) throws IOException, InterruptedException {
+        long enviada = corte;
+        while (!seguidor.desconectado) {
+            Mudanca mudanca = seguidor.fila.poll(intervaloPingMs, TimeUnit.MILLISECONDS);
+            if (mudanca == null) {
+                new JsonWriter(out, true).beginObject().name("ping").value(enviada).endObject();
+                out.write('\n');
+                out.flush();
+                continue;
+            }
+            if (mudanca.sequencia > enviada) {
+                out.write(mudanca.linha);
+                out.write('\n');
+                enviada = mudanca.sequencia;
+            }
+            if (seguidor.fila.isEmpty()) {
+                out.flush();
+            }
+        }
+    }
+
+    /**
+     * Cópia do catálogo sem bloquear quem o altera; entradas ainda não
+     * publicadas pela thread da interface são ignoradas (chegam pelo journal)
+     */
+    private List<Anuncio> copiarCatalogo() {
+        List<Anuncio> atual = catalogo.get();
+        Object[] anuncios = atual instanceof CatalogoLazy ? ((CatalogoLazy) atual).copia().toArray() : atual.toArray();
+        List<Anuncio> copia = new ArrayList<>(anuncios.length);
+        for (Object anuncio : anuncios) {
+            if (anuncio != null) {
+                copia.add((Anuncio) anuncio);
+            }
+        }
+        return copia;
+    }
+
+    private JsonWriter cabecalho(Writer out) throws IOException {
+        return new JsonWriter(out, true).beginObject().name("epoca").value(epoca);
+    }
+
+    // ========================================
+    // CLASSES AUXILIARES
+    // ========================================
+
+    private static final class Mudanca {
+
+        final long sequencia;
+        final String linha;
+
+        Mudanca(long sequencia, String linha) {
+            this.sequencia = sequencia;
+            this.linha = linha;
+        }
+    }
+
+    /**
+     * Conexão de um seguidor. Quem fica mais de um backlog atrasado é
+     * desconectado e, ao voltar, recebe um snapshot.
+     */
+    private final class Seguidor {
+
+        final Socket socket;
+        final BlockingQueue<Mudanca> fila = new LinkedBlockingQueue<>();
+        volatile boolean desconectado;
+
+        Seguidor(Socket socket) {
+            this.socket = socket;
+        }
+
+        void enfileirar(Mudanca mudanca) {
+            if (fila.size() >= tamanhoBacklog) {
+                System.err.println("⚠️  Seguidor " + socket.getRemoteSocketAddress() + " atrasado demais; desconectando");
+                desconectar();
+                return;
+            }
+            fila.offer(mudanca);
+        }
+
+        void desconectar() {
+            desconectado = true;
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // já fechado
+            }
+        }
+    }
+}
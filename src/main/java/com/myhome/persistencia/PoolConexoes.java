@@ -0,0 +1,203 @@
+package com.myhome.persistencia;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.myhome.singleton.ConfigurationManager;
+
+/**
+ * Pool limitado de conexões JDBC
+ *
+ * RESPONSABILIDADES:
+ * - Manter no máximo "db.pool.max.connections" conexões em uso ao mesmo tempo
+ * - Reaproveitar conexões livres, descartando as que deixaram de ser válidas
+ * - Executar um trabalho em uma transação (commit ou rollback)
+ *
+ * As conexões são abertas sob demanda. Quem passar do limite espera até
+ * "db.pool.espera.ms" por uma conexão liberada antes de receber SQLException.
+ */
+public class PoolConexoes implements AutoCloseable {
+
+    /**
+     * Operação executada com uma conexão emprestada do pool.
+     * A conexão não deve ser fechada pelo trabalho.
+     */
+    public interface Trabalho<T> {
+        T executar(Connection conexao) throws SQLException;
+    }
+
+    private final String url;
+    private final String usuario;
+    private final String senha;
+    private final int maximo;
+    private final long esperaMs;
+
+    private final Semaphore permissoes;
+    private final BlockingQueue<Connection> livres = new LinkedBlockingQueue<>();
+    private final AtomicInteger abertas = new AtomicInteger();
+    private volatile boolean fechado;
+
+    public PoolConexoes(String url, String usuario, String senha, int maximo, long esperaMs) {
+        this.url = url;
+        this.usuario = usuario;
+        this.senha = senha;
+        this.maximo = Math.max(1, maximo);
+        this.esperaMs = esperaMs;
+        this.permissoes = new Semaphore(this.maximo, true);
+    }
+
+    /**
+     * Pool configurado por db.url, db.usuario, db.senha, db.driver,
+     * db.pool.max.connections e db.pool.espera.ms
+     */
+    public static PoolConexoes daConfiguracao() {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        String driver = config.getProperty("db.driver", "").trim();
+        if (!driver.isEmpty()) {
+            try {
+                Class.forName(driver);
+            } catch (ClassNotFoundException e) {
+                System.err.println("⚠️  Driver JDBC não encontrado no classpath: " + driver);
+            }
+        }
+        return new PoolConexoes(
+                config.getProperty("db.url", "").trim(),
+                config.getProperty("db.usuario", ""),
+                config.getProperty("db.senha", ""),
+                Integer.parseInt(config.getProperty("db.pool.max.connections", "10").trim()),
+                Long.parseLong(config.getProperty("db.pool.espera.ms", "5000").trim()));
+    }
+
+    // ========================================
+    // EXECUÇÃO
+    // ========================================
+
+    /**
+     * Executa o trabalho com uma conexão do pool (auto-commit ligado)
+     */
+    public <T> T executar(Trabalho<T> trabalho) throws SQLException {
+        Connection conexao = emprestar();
+        boolean valida = true;
+        try {
+            return trabalho.executar(conexao);
+        } catch (SQLException e) {
+            valida = continuaValida(conexao);
+            throw e;
+        } finally {
+            devolver(conexao, valida);
+        }
+    }
+
+    /**
+     * Executa o trabalho em uma única transação: commit se terminar,
+     * rollback se lançar exceção
+     */
+    public <T> T transacao(Trabalho<T> trabalho) throws SQLException {
+        return executar(conexao -> {
+            conexao.setAutoCommit(false);
+            try {
+                T resultado = trabalho.executar(conexao);
+                conexao.commit();
+                return resultado;
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    conexao.rollback();
+                } catch (SQLException erroRollback) {
+                    e.addSuppressed(erroRollback);
+                }
+                throw e;
+            } finally {
+                conexao.setAutoCommit(true);
+            }
+        });
+    }
+
+    private Connection emprestar() throws SQLException {
+        if (fechado) {
+            throw new SQLException("Pool de conexões fechado");
+        }
+        try {
+            if (!permissoes.tryAcquire(esperaMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Nenhuma conexão livre após " + esperaMs + " ms (limite: " + maximo + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Espera por conexão interrompida");
+        }
+
+        try {
+            Connection livre;
+            while ((livre = livres.poll()) != null) {
+                if (continuaValida(livre)) {
+                    return livre;
+                }
+                descartar(livre);
+            }
+            Connection nova = DriverManager.getConnection(url, usuario, senha);
+            abertas.incrementAndGet();
+            return nova;
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    private void devolver(Connection conexao, boolean valida) {
+        if (valida && !fechado) {
+            livres.offer(conexao);
+        } else {
+            descartar(conexao);
+        }
+        permissoes.release();
+    }
+
+    private boolean continuaValida(Connection conexao) {
+        try {
+            return !conexao.isClosed() && conexao.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void descartar(Connection conexao) {
+        abertas.decrementAndGet();
+        try {
+            conexao.close();
+        } catch (SQLException e) {
+            // conexão já inutilizada
+        }
+    }
+
+    // ========================================
+    // ESTADO
+    // ========================================
+
+    public int getMaximo() {
+        return maximo;
+    }
+
+    /**
+     * Conexões abertas (em uso ou livres)
+     */
+    public int getAbertas() {
+        return abertas.get();
+    }
+
+    /**
+     * Fecha as conexões livres; as emprestadas são fechadas ao serem devolvidas
+     */
+    @Override
+    public void close() {
+        fechado = true;
+        Connection livre;
+        while ((livre = livres.poll()) != null) {
+            descartar(livre);
+        }
+    }
+}
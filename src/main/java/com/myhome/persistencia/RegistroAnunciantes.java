@@ -0,0 +1,116 @@
+package com.myhome.persistencia;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.myhome.model.Usuario;
+import com.myhome.service.EmailService;
+import com.myhome.strategy.EmailNotificacao;
+import com.myhome.strategy.NotificacaoStrategy;
+
+/**
+ * Registro único dos usuários montados a partir de data/ (Singleton)
+ *
+ * RESPONSABILIDADES:
+ * - Entregar uma única instância de Usuario por email para todos os
+ *   anúncios de um anunciante (JSON, binário, partições e journal)
+ * - Ligar os usuários de carregarUsuarios() a essas mesmas instâncias
+ * - Compartilhar um único canal padrão de notificação por email
+ *   (EmailNotificacao e EmailService não guardam estado por usuário)
+ *
+ * Como o CSVDataLoader, usa o email como chave única. Entre as cópias do
+ * anunciante embutidas nos anúncios vale a primeira lida; o registro de
+ * usuarios.json (registrar) prevalece sobre elas, mesmo quando os anúncios
+ * são lidos antes. Usuários sem email não são compartilhados.
+ *
+ * Seguro para as cargas paralelas do formato particionado.
+ */
+public class RegistroAnunciantes {
+
+    private static final RegistroAnunciantes instancia = new RegistroAnunciantes();
+
+    private final ConcurrentMap<String, Usuario> porEmail = new ConcurrentHashMap<>();
+    private volatile NotificacaoStrategy canalPadrao;
+
+    private RegistroAnunciantes() {
+    }
+
+    public static RegistroAnunciantes getInstance() {
+        return instancia;
+    }
+
+    /**
+     * Anunciante com o email informado, criado no primeiro uso
+     */
+    public Usuario anunciante(String nome, String email, String telefone) {
+        if (email == null || email.isEmpty()) {
+            return novo(nome, email, telefone);
+        }
+        return porEmail.computeIfAbsent(email, chave -> novo(nome, email, telefone));
+    }
+
+    /**
+     * Instância registrada para o email do usuário; se ainda não houver,
+     * o próprio usuário passa a ser a instância registrada.
+     *
+     * Se a instância já existia (criada a partir de um anúncio), recebe o
+     * nome e o telefone do usuário: o cadastro de usuarios.json é a fonte
+     * desses dados (ex.: telefone alterado depois do último snapshot dos
+     * anúncios). A versão do anunciante muda e os anúncios dele voltam a
+     * ficar modificados, para serem regravados.
+     */
+    public Usuario registrar(Usuario usuario) {
+        String email = usuario.getEmail();
+        if (email == null || email.isEmpty()) {
+            return usuario;
+        }
+        Usuario existente = porEmail.putIfAbsent(email, usuario);
+        if (existente == null || existente == usuario) {
+            return usuario;
+        }
+        if (!Objects.equals(existente.getNome(), usuario.getNome())) {
+            existente.setNome(usuario.getNome());
+        }
+        if (!Objects.equals(existente.getTelefone(), usuario.getTelefone())) {
+            existente.setTelefone(usuario.getTelefone());
+        }
+        // Anunciantes lidos dos anúncios não trazem o tipo do usuário
+        if (existente.getTipo() == null && usuario.getTipo() != null) {
+            existente.setTipo(usuario.getTipo());
+        }
+        return existente;
+    }
+
+    /**
+     * Canal padrão (RF05 - email), compartilhado por todos os usuários carregados
+     */
+    public NotificacaoStrategy getCanalPadrao() {
+        NotificacaoStrategy canal = canalPadrao;
+        if (canal == null) {
+            synchronized (this) {
+                if (canalPadrao == null) {
+                    canalPadrao = new EmailNotificacao(new EmailService());
+                }
+                canal = canalPadrao;
+            }
+        }
+        return canal;
+    }
+
+    /**
+     * Quantidade de usuários registrados
+     */
+    public int getQuantidade() {
+        return porEmail.size();
+    }
+
+    private Usuario novo(String nome, String email, String telefone) {
+        Usuario usuario = new Usuario();
+        usuario.setNome(nome);
+        usuario.setEmail(email);
+        usuario.setTelefone(telefone);
+        usuario.setCanalNotificacao(getCanalPadrao());
+        return usuario;
+    }
+}
@@ -0,0 +1,672 @@
+package com.myhome.persistencia;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Apartamento;
+import com.myhome.model.Casa;
+import com.myhome.model.Endereco;
+import com.myhome.model.Imovel;
+import com.myhome.model.SalaComercial;
+import com.myhome.model.Terreno;
+import com.myhome.model.TipoAnuncio;
+import com.myhome.model.Usuario;
+
+/**
+ * Repositório JDBC: anúncios e usuários em tabelas de um banco relacional
+ *
+ * RESPONSABILIDADES:
+ * - Criar as tabelas e os índices (região, cidade, tipo, preço e situação) na primeira conexão
+ * - Gravar só os anúncios incluídos, alterados ou removidos, em lotes de
+ *   INSERT/UPDATE/DELETE com PreparedStatement, dentro de uma transação
+ * - Consultar por região, preço, tipo e situação usando os índices (buscar)
+ * - Obter conexões do PoolConexoes (limitado por "db.pool.max.connections")
+ *
+ * Cidade e estado são gravados também normalizados (colunas *_chave, como os
+ * nomes de partição do ArmazemParticionado): a busca por região ignora acentos
+ * e maiúsculas e ainda assim usa o índice.
+ *
+ * O caminho recebido pelos métodos de FormatoSnapshot só identifica a
+ * tabela: usuarios.* para usuários, qualquer outro para anúncios.
+ * SQL portável (H2, HSQLDB, MySQL); o driver vem de "db.driver".
+ */
+public class RepositorioJdbc implements FormatoSnapshot {
+
+    private static final int TAMANHO_LOTE = 500;
+
+    private static final String COLUNAS_ANUNCIO =
+            "titulo, preco, descricao, situacao, tipo_imovel, area, rua, numero, cidade, estado,"
+            + " cidade_chave, estado_chave, quartos, banheiros, andar, vagas, tem_quintal, tem_garagem,"
+            + " tem_banheiro, zoneamento, anunciante_nome, anunciante_email, anunciante_telefone, ordem,"
+            + " tipo_anuncio, data_publicacao, latitude, longitude";
+
+    private static final String INSERIR_ANUNCIO =
+            "INSERT INTO anuncios (" + COLUNAS_ANUNCIO + ", id)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String ATUALIZAR_ANUNCIO =
+            "UPDATE anuncios SET titulo = ?, preco = ?, descricao = ?, situacao = ?, tipo_imovel = ?,"
+            + " area = ?, rua = ?, numero = ?, cidade = ?, estado = ?, cidade_chave = ?, estado_chave = ?,"
+            + " quartos = ?, banheiros = ?, andar = ?, vagas = ?, tem_quintal = ?, tem_garagem = ?,"
+            + " tem_banheiro = ?, zoneamento = ?, anunciante_nome = ?, anunciante_email = ?,"
+            + " anunciante_telefone = ?, ordem = ?, tipo_anuncio = ?,"
+            + " data_publicacao = ?, latitude = ?, longitude = ? WHERE id = ?";
+
+    private final PoolConexoes pool;
+
+    /**
+     * Ids presentes na tabela de anúncios, conforme a última carga ou gravação;
+     * null até a primeira consulta
+     */
+    private Set<String> idsGravados;
+    private volatile boolean esquemaCriado;
+
+    private int anunciosGravados;
+
+    public RepositorioJdbc(PoolConexoes pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public String getNome() {
+        return "jdbc";
+    }
+
+    @Override
+    public String getExtensao() {
+        return "jdbc";
+    }
+
+    /**
+     * Há dados se a tabela correspondente tiver ao menos uma linha
+     */
+    @Override
+    public boolean existe(Path arquivo) {
+        String tabela = tabela(arquivo);
+        try {
+            prepararEsquema();
+            return pool.executar(conexao -> {
+                try (Statement consulta = conexao.createStatement();
+                        ResultSet linhas = consulta.executeQuery("SELECT COUNT(*) FROM " + tabela)) {
+                    return linhas.next() && linhas.getLong(1) > 0;
+                }
+            });
+        } catch (IOException | SQLException e) {
+            System.err.println("⚠️  Banco de dados indisponível: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Anúncios inseridos, atualizados ou removidos no último salvamento
+     */
+    public int getAnunciosGravados() {
+        return anunciosGravados;
+    }
+
+    public PoolConexoes getPool() {
+        return pool;
+    }
+
+    // ========================================
+    // ANÚNCIOS
+    // ========================================
+
+    @Override
+    public synchronized void salvarAnuncios(Path arquivo, Iterable<Anuncio> anuncios) throws IOException {
+        prepararEsquema();
+        try {
+            anunciosGravados = pool.transacao(conexao -> {
+                if (idsGravados == null) {
+                    idsGravados = lerIds(conexao);
+                }
+                Set<String> atuais = new HashSet<>();
+                int gravados = 0;
+
+                try (PreparedStatement inserir = conexao.prepareStatement(INSERIR_ANUNCIO);
+                        PreparedStatement atualizar = conexao.prepareStatement(ATUALIZAR_ANUNCIO)) {
+                    int pendentesInserir = 0;
+                    int pendentesAtualizar = 0;
+                    for (Anuncio anuncio : anuncios) {
+                        String id = anuncio.getId();
+                        if (id == null) {
+                            throw new SQLException("Anúncio sem id não pode ser gravado: " + anuncio.getTitulo());
+                        }
+                        atuais.add(id);
+                        boolean gravado = idsGravados.contains(id);
+                        if (gravado && !anuncio.isModificado()) {
+                            continue;
+                        }
+
+                        PreparedStatement comando = gravado ? atualizar : inserir;
+                        preencher(comando, anuncio);
+                        comando.addBatch();
+                        gravados++;
+                        if (gravado && ++pendentesAtualizar == TAMANHO_LOTE) {
+                            atualizar.executeBatch();
+                            pendentesAtualizar = 0;
+                        } else if (!gravado && ++pendentesInserir == TAMANHO_LOTE) {
+                            inserir.executeBatch();
+                            pendentesInserir = 0;
+                        }
+                    }
+                    if (pendentesInserir > 0) {
+                        inserir.executeBatch();
+                    }
+                    if (pendentesAtualizar > 0) {
+                        atualizar.executeBatch();
+                    }
+                }
+
+                Set<String> removidos = new HashSet<>(idsGravados);
+                removidos.removeAll(atuais);
+                if (!removidos.isEmpty()) {
+                    try (PreparedStatement remover = conexao.prepareStatement("DELETE FROM anuncios WHERE id = ?")) {
+                        for (String id : removidos) {
+                            remover.setString(1, id);
+                            remover.addBatch();
+                        }
+                        remover.executeBatch();
+                    }
+                    gravados += removidos.size();
+                }
+
+                idsGravados = atuais;
+                return gravados;
+            });
+        } catch (SQLException e) {
+            // Depois de um rollback, o conteúdo da tabela é consultado de novo
+            idsGravados = null;
+            throw new IOException("Erro ao gravar anúncios no banco: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void carregarAnuncios(Path arquivo, Consumer<Anuncio> destino) throws IOException {
+        prepararEsquema();
+        Set<String> ids = new HashSet<>();
+        consultar("SELECT " + COLUNAS_ANUNCIO + ", id FROM anuncios ORDER BY ordem, id",
+                new ArrayList<>(), anuncio -> {
+                    ids.add(anuncio.getId());
+                    destino.accept(anuncio);
+                });
+        synchronized (this) {
+            idsGravados = ids;
+        }
+    }
+
+    /**
+     * Anúncios de um estado (e cidade, se informada), via índice de região
+     */
+    public void carregarRegiao(String estado, String cidade, Consumer<Anuncio> destino) throws IOException {
+        buscar(estado, cidade, null, null, null, null, destino);
+    }
+
+    /**
+     * Consulta indexada; parâmetros nulos ou vazios não filtram.
+     * Os anúncios retornados são cópias avulsas, independentes do catálogo.
+     *
+     * @param estado Sigla do estado (comparada sem acentos/maiúsculas)
+     * @param cidade Cidade (comparada sem acentos/maiúsculas)
+     * @param precoMin Preço mínimo (inclusive)
+     * @param precoMax Preço máximo (inclusive)
+     * @param tipo Tipo do imóvel, como em Imovel.getTipo()
+     * @param situacao Nome do estado do anúncio, ex.: "Ativo"
+     */
+    public void buscar(String estado, String cidade, Double precoMin, Double precoMax,
+            String tipo, String situacao, Consumer<Anuncio> destino) throws IOException {
+        prepararEsquema();
+        StringBuilder sql = new StringBuilder("SELECT " + COLUNAS_ANUNCIO + ", id FROM anuncios WHERE 1 = 1");
+        List<Object> parametros = new ArrayList<>();
+        if (informado(estado)) {
+            sql.append(" AND estado_chave = ?");
+            parametros.add(ArmazemParticionado.nomeEstado(estado));
+        }
+        if (informado(cidade)) {
+            sql.append(" AND cidade_chave = ?");
+            parametros.add(ArmazemParticionado.nomeCidade(cidade));
+        }
+        if (precoMin != null) {
+            sql.append(" AND preco >= ?");
+            parametros.add(precoMin);
+        }
+        if (precoMax != null) {
+            sql.append(" AND preco <= ?");
+            parametros.add(precoMax);
+        }
+        if (informado(tipo)) {
+            sql.append(" AND tipo_imovel = ?");
+            parametros.add(tipo);
+        }
+        if (informado(situacao)) {
+            sql.append(" AND situacao = ?");
+            parametros.add(situacao);
+        }
+        sql.append(" ORDER BY ordem, id");
+        consultar(sql.toString(), parametros, destino);
+    }
+
+    private void consultar(String sql, List<Object> parametros, Consumer<Anuncio> destino) throws IOException {
+        try {
+            pool.executar(conexao -> {
+                try (PreparedStatement consulta = conexao.prepareStatement(sql)) {
+                    for (int i = 0; i < parametros.size(); i++) {
+                        consulta.setObject(i + 1, parametros.get(i));
+                    }
+                    consulta.setFetchSize(TAMANHO_LOTE);
+                    try (ResultSet linhas = consulta.executeQuery()) {
+                        while (linhas.next()) {
+                            destino.accept(lerAnuncio(linhas));
+                        }
+                    }
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new IOException("Erro ao consultar anúncios no banco: " + e.getMessage(), e);
+        }
+    }
+
+    // ========================================
+    // USUÁRIOS (lista pequena: regravada inteira)
+    // ========================================
+
+    @Override
+    public void salvarUsuarios(Path arquivo, Iterable<Usuario> usuarios) throws IOException {
+        prepararEsquema();
+        try {
+            pool.transacao(conexao -> {
+                try (Statement limpar = conexao.createStatement()) {
+                    limpar.executeUpdate("DELETE FROM usuarios");
+                }
+                try (PreparedStatement inserir = conexao.prepareStatement(
+                        "INSERT INTO usuarios (ordem, nome, email, telefone, tipo) VALUES (?, ?, ?, ?, ?)")) {
+                    int ordem = 0;
+                    for (Usuario usuario : usuarios) {
+                        inserir.setInt(1, ordem++);
+                        inserir.setString(2, usuario.getNome());
+                        inserir.setString(3, usuario.getEmail());
+                        inserir.setString(4, usuario.getTelefone());
+                        inserir.setString(5, usuario.getTipo() != null ? usuario.getTipo().name() : null);
+                        inserir.addBatch();
+                    }
+                    inserir.executeBatch();
+                }
+                return null;
+            });
+        } catch (SQLException e) {
+            throw new IOException("Erro ao gravar usuários no banco: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Usuario> carregarUsuarios(Path arquivo) throws IOException {
+        prepararEsquema();
+        try {
+            return pool.executar(conexao -> {
+                List<Usuario> usuarios = new ArrayList<>();
+                try (Statement consulta = conexao.createStatement();
+                        ResultSet linhas = consulta.executeQuery(
+                                "SELECT nome, email, telefone, tipo FROM usuarios ORDER BY ordem")) {
+                    while (linhas.next()) {
+                        Usuario usuario = new Usuario();
+                        usuario.setNome(texto(linhas.getString(1)));
+                        usuario.setEmail(texto(linhas.getString(2)));
+                        usuario.setTelefone(texto(linhas.getString(3)));
+                        try {
+                            usuario.setTipo(Usuario.TipoUsuario.valueOf(texto(linhas.getString(4))));
+                        } catch (IllegalArgumentException e) {
+                            usuario.setTipo(Usuario.TipoUsuario.PROPRIETARIO);
+                        }
+                        usuario.setCanalNotificacao(RegistroAnunciantes.getInstance().getCanalPadrao());
+                        usuarios.add(usuario);
+                    }
+                }
+                return usuarios;
+            });
+        } catch (SQLException e) {
+            throw new IOException("Erro ao carregar usuários do banco: " + e.getMessage(), e);
+        }
+    }
+
+    // ========================================
+    // ESQUEMA
+    // ========================================
+
+    /**
+     * Cria tabelas e índices que ainda não existirem
+     */
+    private void prepararEsquema() throws IOException {
+        if (esquemaCriado) {
+            return;
+        }
+        synchronized (this) {
+            if (esquemaCriado) {
+                return;
+            }
+            try {
+                pool.executar(conexao -> {
+                    if (!existeTabela(conexao, "anuncios")) {
+                        try (Statement ddl = conexao.createStatement()) {
+                            ddl.executeUpdate("CREATE TABLE anuncios ("
+                                    + " id VARCHAR(64) NOT NULL PRIMARY KEY,"
+                                    + " ordem BIGINT NOT NULL,"
+                                    + " titulo VARCHAR(500),"
+                                    + " preco DOUBLE,"
+                                    + " descricao VARCHAR(4000),"
+                                    + " situacao VARCHAR(40),"
+                                    + " tipo_imovel VARCHAR(40),"
+                                    + " area DOUBLE,"
+                                    + " rua VARCHAR(255),"
+                                    + " numero VARCHAR(40),"
+                                    + " cidade VARCHAR(120),"
+                                    + " estado VARCHAR(60),"
+                                    + " cidade_chave VARCHAR(120),"
+                                    + " estado_chave VARCHAR(60),"
+                                    + " quartos INT,"
+                                    + " banheiros INT,"
+                                    + " andar INT,"
+                                    + " vagas INT,"
+                                    + " tem_quintal BOOLEAN,"
+                                    + " tem_garagem BOOLEAN,"
+                                    + " tem_banheiro BOOLEAN,"
+                                    + " zoneamento VARCHAR(60),"
+                                    + " anunciante_nome VARCHAR(255),"
+                                    + " anunciante_email VARCHAR(255),"
+                                    + " anunciante_telefone VARCHAR(60),"
+                                    + " tipo_anuncio VARCHAR(20),"
+                                    + " data_publicacao BIGINT,"
+                                    + " latitude DOUBLE,"
+                                    + " longitude DOUBLE)");
+                            ddl.executeUpdate("CREATE INDEX idx_anuncios_regiao ON anuncios (estado_chave, cidade_chave)");
+                            ddl.executeUpdate("CREATE INDEX idx_anuncios_cidade ON anuncios (cidade_chave)");
+                            ddl.executeUpdate("CREATE INDEX idx_anuncios_tipo ON anuncios (tipo_imovel)");
+                            ddl.executeUpdate("CREATE INDEX idx_anuncios_preco ON anuncios (preco)");
+                            ddl.executeUpdate("CREATE INDEX idx_anuncios_situacao ON anuncios (situacao)");
+                            ddl.executeUpdate("CREATE INDEX idx_anuncios_ordem ON anuncios (ordem)");
+                        }
+                    } else {
+                        // Tabela criada antes do tipo de anúncio / data de publicação /
+                        // coordenadas: linhas antigas ficam com NULL
+                        adicionarColuna(conexao, "anuncios", "tipo_anuncio", "VARCHAR(20)");
+                        adicionarColuna(conexao, "anuncios", "data_publicacao", "BIGINT");
+                        adicionarColuna(conexao, "anuncios", "latitude", "DOUBLE");
+                        adicionarColuna(conexao, "anuncios", "longitude", "DOUBLE");
+                    }
+                    if (!existeTabela(conexao, "usuarios")) {
+                        try (Statement ddl = conexao.createStatement()) {
+                            ddl.executeUpdate("CREATE TABLE usuarios ("
+                                    + " ordem INT NOT NULL PRIMARY KEY,"
+                                    + " nome VARCHAR(255),"
+                                    + " email VARCHAR(255),"
+                                    + " telefone VARCHAR(60),"
+                                    + " tipo VARCHAR(40))");
+                            ddl.executeUpdate("CREATE INDEX idx_usuarios_email ON usuarios (email)");
+                        }
+                    }
+                    return null;
+                });
+                esquemaCriado = true;
+            } catch (SQLException e) {
+                throw new IOException("Erro ao preparar tabelas no banco: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Consulta os metadados sem depender de como o banco guarda maiúsculas
+     */
+    private boolean existeTabela(Connection conexao, String nome) throws SQLException {
+        DatabaseMetaData metadados = conexao.getMetaData();
+        try (ResultSet tabelas = metadados.getTables(null, null, "%", new String[] { "TABLE" })) {
+            while (tabelas.next()) {
+                if (nome.equalsIgnoreCase(tabelas.getString("TABLE_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean existeColuna(Connection conexao, String tabela, String coluna) throws SQLException {
+        DatabaseMetaData metadados = conexao.getMetaData();
+        try (ResultSet colunas = metadados.getColumns(null, null, "%", "%")) {
+            while (colunas.next()) {
+                if (tabela.equalsIgnoreCase(colunas.getString("TABLE_NAME"))
+                        && coluna.equalsIgnoreCase(colunas.getString("COLUMN_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void adicionarColuna(Connection conexao, String tabela, String coluna, String tipo) throws SQLException {
+        if (!existeColuna(conexao, tabela, coluna)) {
+            try (Statement ddl = conexao.createStatement()) {
+                ddl.executeUpdate("ALTER TABLE " + tabela + " ADD COLUMN " + coluna + " " + tipo);
+            }
+        }
+    }
+
+    private Set<String> lerIds(Connection conexao) throws SQLException {
+        Set<String> ids = new HashSet<>();
+        try (Statement consulta = conexao.createStatement();
+                ResultSet linhas = consulta.executeQuery("SELECT id FROM anuncios")) {
+            while (linhas.next()) {
+                ids.add(linhas.getString(1));
+            }
+        }
+        return ids;
+    }
+
+    // ========================================
+    // MAPEAMENTO LINHA <-> OBJETO
+    // ========================================
+
+    /**
+     * Preenche os parâmetros na ordem de COLUNAS_ANUNCIO, seguidos do id
+     */
+    private void preencher(PreparedStatement comando, Anuncio anuncio) throws SQLException {
+        Imovel imovel = anuncio.getImovel();
+        Endereco endereco = imovel.getEndereco();
+        Usuario anunciante = anuncio.getAnunciante();
+
+        Integer quartos = null;
+        Integer banheiros = null;
+        Integer andar = null;
+        Integer vagas = null;
+        Boolean temQuintal = null;
+        Boolean temGaragem = null;
+        Boolean temBanheiro = null;
+        String zoneamento = null;
+        if (imovel instanceof Casa) {
+            Casa casa = (Casa) imovel;
+            quartos = casa.getQuartos();
+            banheiros = casa.getBanheiros();
+            temQuintal = casa.isTemQuintal();
+            temGaragem = casa.isTemGaragem();
+        } else if (imovel instanceof Apartamento) {
+            Apartamento apt = (Apartamento) imovel;
+            quartos = apt.getQuartos();
+            banheiros = apt.getBanheiros();
+            andar = apt.getAndar();
+            vagas = apt.getVagas();
+        } else if (imovel instanceof Terreno) {
+            zoneamento = ((Terreno) imovel).getZoneamento();
+        } else if (imovel instanceof SalaComercial) {
+            SalaComercial sala = (SalaComercial) imovel;
+            andar = sala.getAndar();
+            temBanheiro = sala.isTemBanheiro();
+            vagas = sala.getVagasEstacionamento();
+        }
+
+        int i = 1;
+        comando.setString(i++, anuncio.getTitulo());
+        comando.setDouble(i++, anuncio.getPreco());
+        comando.setString(i++, anuncio.getDescricao());
+        comando.setString(i++, anuncio.getState().getNome());
+        comando.setString(i++, imovel.getTipo());
+        comando.setDouble(i++, imovel.getArea());
+        comando.setString(i++, endereco.getRua());
+        comando.setString(i++, endereco.getNumero());
+        comando.setString(i++, endereco.getCidade());
+        comando.setString(i++, endereco.getEstado());
+        comando.setString(i++, ArmazemParticionado.nomeCidade(endereco.getCidade()));
+        comando.setString(i++, ArmazemParticionado.nomeEstado(endereco.getEstado()));
+        definirInt(comando, i++, quartos);
+        definirInt(comando, i++, banheiros);
+        definirInt(comando, i++, andar);
+        definirInt(comando, i++, vagas);
+        definirBoolean(comando, i++, temQuintal);
+        definirBoolean(comando, i++, temGaragem);
+        definirBoolean(comando, i++, temBanheiro);
+        comando.setString(i++, zoneamento);
+        comando.setString(i++, anunciante.getNome());
+        comando.setString(i++, anunciante.getEmail());
+        comando.setString(i++, anunciante.getTelefone());
+        comando.setLong(i++, ordem(anuncio.getId()));
+        TipoAnuncio tipoAnuncio = anuncio.getTipoAnuncio();
+        comando.setString(i++, tipoAnuncio != null ? tipoAnuncio.name() : null);
+        if (anuncio.getDataPublicacao() != null) {
+            comando.setLong(i++, anuncio.getDataPublicacao().getTime());
+        } else {
+            comando.setNull(i++, Types.BIGINT);
+        }
+        if (endereco.temCoordenadas()) {
+            comando.setDouble(i++, endereco.getLatitude());
+            comando.setDouble(i++, endereco.getLongitude());
+        } else {
+            comando.setNull(i++, Types.DOUBLE);
+            comando.setNull(i++, Types.DOUBLE);
+        }
+        comando.setString(i, anuncio.getId());
+    }
+
+    private Anuncio lerAnuncio(ResultSet linha) throws SQLException {
+        String tipo = texto(linha.getString("tipo_imovel"));
+        Imovel imovel;
+        switch (tipo) {
+            case "Casa":
+                Casa casa = new Casa();
+                casa.setQuartos(linha.getInt("quartos"));
+                casa.setBanheiros(linha.getInt("banheiros"));
+                casa.setTemQuintal(linha.getBoolean("tem_quintal"));
+                casa.setTemGaragem(linha.getBoolean("tem_garagem"));
+                imovel = casa;
+                break;
+            case "Apartamento":
+                Apartamento apt = new Apartamento();
+                apt.setQuartos(linha.getInt("quartos"));
+                apt.setBanheiros(linha.getInt("banheiros"));
+                apt.setAndar(linha.getInt("andar"));
+                apt.setVagas(linha.getInt("vagas"));
+                imovel = apt;
+                break;
+            case "Terreno":
+                Terreno terreno = new Terreno();
+                String zoneamento = texto(linha.getString("zoneamento"));
+                terreno.setZoneamento(zoneamento.isEmpty() ? "Urbano" : zoneamento);
+                imovel = terreno;
+                break;
+            case "Sala Comercial":
+                SalaComercial sala = new SalaComercial();
+                sala.setAndar(linha.getInt("andar"));
+                sala.setTemBanheiro(linha.getBoolean("tem_banheiro"));
+                sala.setVagasEstacionamento(linha.getInt("vagas"));
+                imovel = sala;
+                break;
+            default:
+                throw new SQLException("Tipo de imóvel inválido no banco: " + tipo);
+        }
+        imovel.setArea(linha.getDouble("area"));
+        Endereco endereco = new Endereco(
+                texto(linha.getString("rua")), texto(linha.getString("numero")),
+                texto(linha.getString("cidade")), texto(linha.getString("estado")));
+        double latitude = linha.getDouble("latitude");
+        boolean comLatitude = !linha.wasNull();
+        double longitude = linha.getDouble("longitude");
+        if (comLatitude && !linha.wasNull()) {
+            endereco.setCoordenadas(latitude, longitude);
+        }
+        imovel.setEndereco(endereco);
+
+        Anuncio anuncio = new Anuncio();
+        anuncio.setId(linha.getString("id"));
+        anuncio.setTitulo(texto(linha.getString("titulo")));
+        anuncio.setPreco(linha.getDouble("preco"));
+        anuncio.setDescricao(texto(linha.getString("descricao")));
+        anuncio.setImovel(imovel);
+        anuncio.setAnunciante(RegistroAnunciantes.getInstance().anunciante(
+                texto(linha.getString("anunciante_nome")),
+                texto(linha.getString("anunciante_email")),
+                texto(linha.getString("anunciante_telefone"))));
+        anuncio.setTipoAnuncio(TipoAnuncio.porNome(linha.getString("tipo_anuncio")));
+        long dataPublicacao = linha.getLong("data_publicacao");
+        if (!linha.wasNull()) {
+            anuncio.setDataPublicacao(new Date(dataPublicacao));
+        }
+        String situacao = texto(linha.getString("situacao"));
+        if (!situacao.isEmpty()) {
+            anuncio.restaurarEstado(situacao);
+        }
+        return anuncio;
+    }
+
+    private static void definirInt(PreparedStatement comando, int indice, Integer valor) throws SQLException {
+        if (valor == null) {
+            comando.setNull(indice, Types.INTEGER);
+        } else {
+            comando.setInt(indice, valor);
+        }
+    }
+
+    private static void definirBoolean(PreparedStatement comando, int indice, Boolean valor) throws SQLException {
+        if (valor == null) {
+            comando.setNull(indice, Types.BOOLEAN);
+        } else {
+            comando.setBoolean(indice, valor);
+        }
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private static String tabela(Path arquivo) {
+        return arquivo.getFileName().toString().startsWith("usuarios") ? "usuarios" : "anuncios";
+    }
+
+    /**
+     * Ids numéricos na ordem de criação; ids não numéricos vão para o fim
+     */
+    private static long ordem(String id) {
+        try {
+            return Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static boolean informado(String valor) {
+        return valor != null && !valor.trim().isEmpty();
+    }
+
+    private static String texto(String valor) {
+        return valor == null ? "" : valor;
+    }
+}
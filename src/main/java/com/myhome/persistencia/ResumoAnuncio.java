@@ -0,0 +1,122 @@
+package com.myhome.persistencia;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Endereco;
+import com.myhome.model.Imovel;
+
+/**
+ * Resumo de um anúncio guardado no índice do snapshot binário
+ *
+ * RESPONSABILIDADES:
+ * - Localizar o registro completo no arquivo de dados (posição e tamanho)
+ * - Carregar os campos usados nas buscas (preço, tipo, cidade, estado,
+ *   situação, tipo de anúncio e área), permitindo filtrar sem montar o Anuncio
+ *
+ * Imutável: pode ser compartilhado entre o catálogo e cópias dele.
+ */
+public final class ResumoAnuncio {
+
+    private final String id;
+    private final int posicao;
+    private final int tamanho;
+    private final double preco;
+    private final double area;
+    private final String tipo;
+    private final String cidade;
+    private final String estado;
+    private final String situacao;
+    private final String tipoAnuncio;
+
+    ResumoAnuncio(String id, int posicao, int tamanho, double preco, double area,
+            String tipo, String cidade, String estado, String situacao, String tipoAnuncio) {
+        this.id = id;
+        this.posicao = posicao;
+        this.tamanho = tamanho;
+        this.preco = preco;
+        this.area = area;
+        this.tipo = tipo;
+        this.cidade = cidade;
+        this.estado = estado;
+        this.situacao = situacao;
+        this.tipoAnuncio = tipoAnuncio;
+    }
+
+    /**
+     * Resumo de um anúncio em memória (sem posição no arquivo)
+     */
+    public static ResumoAnuncio de(Anuncio anuncio) {
+        return de(anuncio, -1, 0);
+    }
+
+    static ResumoAnuncio de(Anuncio anuncio, int posicao, int tamanho) {
+        Imovel imovel = anuncio.getImovel();
+        Endereco endereco = imovel != null ? imovel.getEndereco() : null;
+        return new ResumoAnuncio(
+                anuncio.getId(),
+                posicao,
+                tamanho,
+                anuncio.getPreco(),
+                imovel != null ? imovel.getArea() : 0,
+                imovel != null ? imovel.getTipo() : "",
+                endereco != null ? endereco.getCidade() : "",
+                endereco != null ? endereco.getEstado() : "",
+                anuncio.getState() != null ? anuncio.getState().getNome() : "",
+                anuncio.getTipoAnuncio() != null ? anuncio.getTipoAnuncio().name() : "");
+    }
+
+    /**
+     * Mesmo resumo em outra posição (registro copiado para um novo arquivo)
+     */
+    ResumoAnuncio naPosicao(int novaPosicao, int novoTamanho) {
+        return new ResumoAnuncio(id, novaPosicao, novoTamanho, preco, area, tipo, cidade, estado, situacao, tipoAnuncio);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    int getPosicao() {
+        return posicao;
+    }
+
+    int getTamanho() {
+        return tamanho;
+    }
+
+    public double getPreco() {
+        return preco;
+    }
+
+    public double getArea() {
+        return area;
+    }
+
+    /**
+     * Tipo do imóvel, como em Imovel.getTipo()
+     */
+    public String getTipo() {
+        return tipo;
+    }
+
+    public String getCidade() {
+        return cidade;
+    }
+
+    public String getEstado() {
+        return estado;
+    }
+
+    /**
+     * Nome do estado do anúncio (State Pattern), ex.: "Ativo"
+     */
+    public String getSituacao() {
+        return situacao;
+    }
+
+    /**
+     * Nome da constante de TipoAnuncio (ex.: "VENDA"); vazio se não informado
+     */
+    public String getTipoAnuncio() {
+        return tipoAnuncio;
+    }
+}
@@ -0,0 +1,281 @@
+package com.myhome.persistencia;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.myhome.busca.IndiceCatalogo;
+import com.myhome.model.Anuncio;
+import com.myhome.singleton.ConfigurationManager;
+
+/**
+ * Instância seguidora da replicação do catálogo (cliente TCP do LiderReplicacao)
+ *
+ * RESPONSABILIDADES:
+ * - Conectar ao líder informando a época e a última sequência aplicada
+ * - Substituir o catálogo local pelo snapshot recebido (primeira conexão,
+ *   líder reiniciado ou atraso maior que o backlog)
+ * - Aplicar as mutações do journal do líder, na ordem, ao catálogo local
+ * - Reconectar sozinha quando o líder cair ou parar de responder
+ *
+ * Só a thread da replicação altera o catálogo. Para que a interface possa
+ * percorrê-lo ao mesmo tempo, use uma lista segura para leitura concorrente
+ * (ex.: CopyOnWriteArrayList). A instância seguidora é somente leitura:
+ * anúncios são criados e alterados no líder. Os índices de busca
+ * (setIndices) acompanham cada snapshot e cada mutação aplicada.
+ */
+public class SeguidorReplicacao implements Closeable {
+
+    private final String host;
+    private final int porta;
+    private final long reconexaoMs;
+    private final int timeoutMs;
+    private final List<Anuncio> anuncios;
+    private final AnuncioJsonCodec codec = new AnuncioJsonCodec();
+
+    private final Map<String, Anuncio> porId = new HashMap<>();
+    private final CountDownLatch primeiraSincronizacao = new CountDownLatch(1);
+
+    private volatile String epoca = "";
+    private volatile long sequencia;
+    private volatile boolean conectado;
+    private volatile boolean encerrado;
+    private volatile Socket socket;
+    private volatile IndiceCatalogo indices;
+
+    /**
+     * @param anuncios  Catálogo local a ser mantido igual ao do líder
+     * @param timeoutMs Tempo sem nenhuma mensagem (nem ping) até reconectar
+     */
+    public SeguidorReplicacao(String host, int porta, List<Anuncio> anuncios, long reconexaoMs, int timeoutMs) {
+        this.host = host;
+        this.porta = porta;
+        this.anuncios = anuncios;
+        this.reconexaoMs = reconexaoMs;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Seguidor configurado por replicacao.lider (host:porta), replicacao.reconexao.ms
+     * e replicacao.ping.ms (o timeout é de três pings)
+     */
+    public static SeguidorReplicacao daConfiguracao(List<Anuncio> anuncios) {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        String lider = config.getProperty("replicacao.lider", "localhost:7070").trim();
+        int separador = lider.lastIndexOf(':');
+        String host = separador > 0 ? lider.substring(0, separador) : lider;
+        int porta = separador > 0 ? Integer.parseInt(lider.substring(separador + 1))
+                : Integer.parseInt(config.getProperty("replicacao.porta", "7070").trim());
+        long ping = Long.parseLong(config.getProperty("replicacao.ping.ms", "1000").trim());
+        return new SeguidorReplicacao(host, porta, anuncios,
+                Long.parseLong(config.getProperty("replicacao.reconexao.ms", "2000").trim()),
+                (int) Math.min(Integer.MAX_VALUE, ping * 3));
+    }
+
+    /**
+     * Passa a seguir o líder em segundo plano
+     */
+    public void iniciar() {
+        Thread replicacao = new Thread(this::seguir, "myhome-replicacao-seguidor");
+        replicacao.setDaemon(true);
+        replicacao.start();
+    }
+
+    /**
+     * Espera o primeiro snapshot (ou retomada) ser aplicado
+     *
+     * @return false se o tempo acabar antes
+     */
+    public boolean aguardarSincronizacao(long esperaMs) throws InterruptedException {
+        return primeiraSincronizacao.await(esperaMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Índices a manter junto com o catálogo local (chamar antes de iniciar())
+     */
+    public void setIndices(IndiceCatalogo indices) {
+        this.indices = indices;
+    }
+
+    public long getSequencia() {
+        return sequencia;
+    }
+
+    public String getEpoca() {
+        return epoca;
+    }
+
+    public boolean isConectado() {
+        return conectado;
+    }
+
+    @Override
+    public void close() {
+        encerrado = true;
+        Socket atual = socket;
+        if (atual != null) {
+            try {
+                atual.close();
+            } catch (IOException e) {
+                // já fechado
+            }
+        }
+    }
+
+    // ========================================
+    // CONEXÃO
+    // ========================================
+
+    private void seguir() {
+        boolean avisado = false;
+        while (!encerrado) {
+            try (Socket conexao = new Socket()) {
+                socket = conexao;
+                conexao.connect(new InetSocketAddress(host, porta), timeoutMs);
+                conexao.setSoTimeout(timeoutMs);
+                conexao.setTcpNoDelay(true);
+                conectado = true;
+                avisado = false;
+                sincronizar(conexao);
+            } catch (IOException | RuntimeException e) {
+                if (!encerrado && !avisado) {
+                    System.err.println("⚠️  Replicação: sem conexão com o líder " + host + ":" + porta
+                            + " (" + e.getMessage() + "). Tentando novamente a cada " + reconexaoMs + " ms");
+                    avisado = true;
+                }
+            } finally {
+                conectado = false;
+            }
+
+            if (!encerrado) {
+                try {
+                    Thread.sleep(reconexaoMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void sincronizar(Socket conexao) throws IOException {
+        Writer out = new OutputStreamWriter(conexao.getOutputStream(), StandardCharsets.UTF_8);
+        new JsonWriter(out, true).beginObject()
+                .name("epoca").value(epoca)
+                .name("desde").value(sequencia)
+                .endObject();
+        out.write('\n');
+        out.flush();
+
+        BufferedReader in = new BufferedReader(new InputStreamReader(conexao.getInputStream(), StandardCharsets.UTF_8), 64 * 1024);
+        lerCabecalho(in);
+        primeiraSincronizacao.countDown();
+
+        String linha;
+        while ((linha = in.readLine()) != null) {
+            if (linha.startsWith("{\"seq\":")) {
+                aplicar(JournalAnuncios.Registro.ler(linha, codec));
+            }
+            // {"ping":S}: só mantém a conexão viva
+        }
+        throw new IOException("conexão encerrada pelo líder");
+    }
+
+    /**
+     * Lê o cabeçalho do líder: retomada ou snapshot seguido dos anúncios
+     */
+    private void lerCabecalho(BufferedReader in) throws IOException {
+        String linha = in.readLine();
+        if (linha == null) {
+            throw new IOException("conexão encerrada pelo líder");
+        }
+
+        String epocaLider = "";
+        long snapshot = -1;
+        long retomar = -1;
+        int quantidade = 0;
+        JsonReader json = new JsonReader(new StringReader(linha));
+        json.beginObject();
+        while (json.hasNext()) {
+            switch (json.nextName()) {
+                case "epoca":      epocaLider = json.nextString(); break;
+                case "snapshot":   snapshot = json.nextLong(); break;
+                case "retomar":    retomar = json.nextLong(); break;
+                case "quantidade": quantidade = json.nextInt(); break;
+                default:           json.skipValue();
+            }
+        }
+        json.endObject();
+
+        if (retomar >= 0) {
+            System.out.println("📡 Replicação: retomada a partir da sequência " + retomar);
+            return;
+        }
+        if (snapshot < 0) {
+            throw new IOException("cabeçalho de replicação inválido: " + linha);
+        }
+
+        List<Anuncio> recebidos = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            String anuncio = in.readLine();
+            if (anuncio == null) {
+                throw new IOException("snapshot incompleto (" + i + " de " + quantidade + ")");
+            }
+            Anuncio recebido = codec.lerAnuncio(new JsonReader(new StringReader(anuncio)));
+            if (recebido != null) {
+                recebidos.add(recebido);
+            }
+        }
+        substituir(recebidos);
+        epoca = epocaLider;
+        sequencia = snapshot;
+        System.out.println("📡 Replicação: snapshot com " + quantidade + " anúncio(s) na sequência " + snapshot);
+    }
+
+    // ========================================
+    // APLICAÇÃO
+    // ========================================
+
+    private void substituir(List<Anuncio> recebidos) {
+        porId.clear();
+        for (Anuncio anuncio : recebidos) {
+            anuncio.marcarComoSalvo();
+            if (anuncio.getId() != null) {
+                porId.put(anuncio.getId(), anuncio);
+            }
+        }
+        anuncios.clear();
+        anuncios.addAll(recebidos);
+        if (indices != null) {
+            indices.indexar(anuncios);
+        }
+    }
+
+    private void aplicar(JournalAnuncios.Registro registro) {
+        if (registro.getSequencia() <= sequencia) {
+            return; // já aplicado (reenvio após retomada)
+        }
+        Anuncio alterado = registro.aplicar(anuncios, porId);
+        if (alterado != null && indices != null) {
+            if (registro.getOperacao() == JournalAnuncios.Operacao.CRIAR) {
+                indices.adicionar(alterado);
+            } else {
+                indices.atualizar(alterado);
+            }
+        }
+        sequencia = registro.getSequencia();
+    }
+}
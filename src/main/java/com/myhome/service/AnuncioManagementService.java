@@ -85,8 +85,8 @@ public class AnuncioManagementService {
                 boolean sucesso = executarAcaoAnuncio(facade, anuncio, opcao, estadoNome);
                 
                 if (sucesso) {
-                    // Salvar mudanças após transição bem-sucedida
-                    persistenciaService.salvarAnuncios(meusAnuncios);
+                    // Registrar a transição no journal (sem reescrever o catálogo)
+                    persistenciaService.registrarMudancaEstado(anuncio, meusAnuncios);
                     pausar(scanner);
                 } else {
                     pausar(scanner);
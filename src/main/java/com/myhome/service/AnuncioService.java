@@ -4,6 +4,7 @@ import com.myhome.factory.*;
 import com.myhome.model.*;
 import com.myhome.observer.LogObserver;
 import com.myhome.observer.NotificationObserver;
+import com.myhome.persistencia.CatalogoLazy;
 import com.myhome.strategy.NotificationManager;
 import java.util.Scanner;
 
@@ -229,8 +230,15 @@ public class AnuncioService {
     /**
      * Anexa observers a uma lista de anúncios
      * Usado após carregar anúncios persistidos do arquivo JSON
+     * 
+     * No catálogo preguiçoso os observers são anexados à medida que
+     * cada anúncio é hidratado, sem montar o catálogo inteiro
      */
     public void anexarObserversEmLote(java.util.List<Anuncio> anuncios) {
+        if (anuncios instanceof CatalogoLazy) {
+            ((CatalogoLazy) anuncios).setAoHidratar(this::anexarObserversAAnuncio);
+            return;
+        }
         for (Anuncio anuncio : anuncios) {
             anexarObserversAAnuncio(anuncio);
         }
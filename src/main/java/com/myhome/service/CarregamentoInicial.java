@@ -0,0 +1,173 @@
+package com.myhome.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Usuario;
+import com.myhome.persistencia.CatalogoLazy;
+import com.myhome.singleton.ConfigurationManager;
+
+/**
+ * Pipeline de inicialização do sistema
+ *
+ * RESPONSABILIDADES:
+ * - Ler e montar usuários e anúncios ao mesmo tempo (CompletableFuture)
+ * - Ligar anunciantes e usuários quando as duas leituras terminarem, com
+ *   os dados de usuarios.json prevalecendo sobre as cópias dos anúncios
+ * - Anexar observers (RF04) em blocos paralelos no ForkJoinPool
+ * - Medir e exibir o tempo de cada fase
+ *
+ * Fases: "anúncios" e "usuários" (em paralelo), "vínculo", "observers"
+ * e "total" (do início da leitura ao fim dos observers).
+ */
+public class CarregamentoInicial {
+
+    private final PersistenciaService persistenciaService;
+    private final AnuncioService anuncioService;
+    private final int blocoObservers;
+
+    private final Map<String, Long> tempos = new LinkedHashMap<>();
+    private long inicio;
+
+    private List<Usuario> usuarios = new ArrayList<>();
+    private List<Anuncio> anuncios = new ArrayList<>();
+
+    public CarregamentoInicial(PersistenciaService persistenciaService, AnuncioService anuncioService) {
+        this.persistenciaService = persistenciaService;
+        this.anuncioService = anuncioService;
+        this.blocoObservers = Math.max(1, Integer.parseInt(ConfigurationManager.getInstance()
+                .getProperty("inicializacao.observers.bloco", "2048").trim()));
+        tempos.put("anúncios", 0L);
+        tempos.put("usuários", 0L);
+        tempos.put("vínculo", 0L);
+        tempos.put("observers", 0L);
+    }
+
+    /**
+     * Carrega usuários e anúncios em paralelo e liga os anunciantes
+     */
+    public void carregar() {
+        inicio = System.nanoTime();
+
+        CompletableFuture<List<Anuncio>> leituraAnuncios =
+                CompletableFuture.supplyAsync(cronometrar("anúncios", persistenciaService::carregarAnuncios));
+        CompletableFuture<List<Usuario>> leituraUsuarios =
+                CompletableFuture.supplyAsync(cronometrar("usuários", persistenciaService::lerUsuarios));
+
+        try {
+            anuncios = leituraAnuncios.join();
+            usuarios = leituraUsuarios.join();
+        } catch (CompletionException e) {
+            // As leituras já tratam erros de arquivo; aqui só sobram falhas inesperadas
+            Throwable causa = e.getCause() != null ? e.getCause() : e;
+            System.err.println("❌ Erro na carga inicial: " + causa.getMessage());
+            anuncios = leituraAnuncios.isCompletedExceptionally() ? new ArrayList<>() : leituraAnuncios.join();
+            usuarios = leituraUsuarios.isCompletedExceptionally() ? new ArrayList<>() : leituraUsuarios.join();
+        }
+
+        long vinculo = System.nanoTime();
+        persistenciaService.vincularAnunciantes(usuarios, anuncios);
+        registrar("vínculo", vinculo);
+    }
+
+    /**
+     * Anexa observers aos anúncios em blocos paralelos.
+     * No catálogo preguiçoso, os observers são anexados a cada hidratação.
+     */
+    public void anexarObservers(List<Anuncio> lista) {
+        long observers = System.nanoTime();
+        if (lista instanceof CatalogoLazy || lista.size() <= blocoObservers) {
+            anuncioService.anexarObserversEmLote(lista);
+        } else {
+            ForkJoinPool.commonPool().invoke(new AnexarObservers(lista, 0, lista.size()));
+        }
+        registrar("observers", observers);
+        registrar("total", inicio);
+    }
+
+    /**
+     * Exibe o tempo de cada fase em uma linha
+     */
+    public void exibirTempos() {
+        StringBuilder linha = new StringBuilder("⏱️  Inicialização:");
+        String separador = " ";
+        for (Map.Entry<String, Long> fase : getTempos().entrySet()) {
+            linha.append(separador).append(fase.getKey()).append(' ').append(fase.getValue()).append(" ms");
+            separador = " | ";
+        }
+        System.out.println(linha);
+    }
+
+    /**
+     * Duração de cada fase em milissegundos, na ordem das fases
+     */
+    public synchronized Map<String, Long> getTempos() {
+        return new LinkedHashMap<>(tempos);
+    }
+
+    public List<Usuario> getUsuarios() {
+        return usuarios;
+    }
+
+    public List<Anuncio> getAnuncios() {
+        return anuncios;
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    private <T> Supplier<T> cronometrar(String fase, Supplier<T> leitura) {
+        return () -> {
+            long inicioFase = System.nanoTime();
+            try {
+                return leitura.get();
+            } finally {
+                registrar(fase, inicioFase);
+            }
+        };
+    }
+
+    private synchronized void registrar(String fase, long inicioFase) {
+        tempos.put(fase, (System.nanoTime() - inicioFase) / 1_000_000);
+    }
+
+    /**
+     * Divide a lista ao meio até o tamanho do bloco; cada bloco é
+     * processado por uma thread do pool (anúncios distintos, sem disputa)
+     */
+    private class AnexarObservers extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Anuncio> lista;
+        private final int de;
+        private final int ate;
+
+        AnexarObservers(List<Anuncio> lista, int de, int ate) {
+            this.lista = lista;
+            this.de = de;
+            this.ate = ate;
+        }
+
+        @Override
+        protected void compute() {
+            if (ate - de <= blocoObservers) {
+                for (int i = de; i < ate; i++) {
+                    anuncioService.anexarObserversAAnuncio(lista.get(i));
+                }
+                return;
+            }
+            int meio = (de + ate) >>> 1;
+            invokeAll(new AnexarObservers(lista, de, meio), new AnexarObservers(lista, meio, ate));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.myhome.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Endereco;
+import com.myhome.singleton.ConfigurationManager;
+
+/**
+ * SERVICE: Coordenadas dos endereços para a busca por mapa (IndiceGeografico)
+ *
+ * RESPONSABILIDADES:
+ * - Escolher o Geocodificador em servico.geolocalizacao.provedor: "simulado"
+ *   (sem rede) ou "opencage" (servico.geolocalizacao.url / .api.key, atrás
+ *   do cache local em servico.geolocalizacao.cache)
+ * - Geocodificar um endereço (novo anúncio, ponto de referência da busca)
+ * - Completar as coordenadas dos anúncios carregados sem elas, em segundo
+ *   plano para não atrasar a inicialização
+ *
+ * Falhas do serviço não impedem o uso do sistema: o anúncio fica sem
+ * coordenadas e apenas não aparece nas buscas por raio ou retângulo.
+ */
+public class GeocodificacaoService {
+
+    private final Geocodificador geocodificador;
+    private final AtomicInteger geocodificadosEmSegundoPlano = new AtomicInteger();
+    private volatile boolean interrompido;
+
+    /**
+     * Construtor que escolhe o geocodificador pelo ConfigurationManager.
+     */
+    public GeocodificacaoService() {
+        this(configurado());
+    }
+
+    public GeocodificacaoService(Geocodificador geocodificador) {
+        this.geocodificador = geocodificador;
+    }
+
+    private static Geocodificador configurado() {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        String provedor = config.getProperty("servico.geolocalizacao.provedor", "simulado").trim();
+        if ("opencage".equalsIgnoreCase(provedor)) {
+            String arquivo = config.getProperty("servico.geolocalizacao.cache", "").trim();
+            Path cache = arquivo.isEmpty() ? null : Paths.get(arquivo);
+            return new GeocodificadorCache(new GeocodificadorOpenCage(), cache);
+        }
+        if (!"simulado".equalsIgnoreCase(provedor)) {
+            System.err.println("⚠️  Provedor de geolocalização desconhecido: " + provedor + " (usando simulado)");
+        }
+        return new GeocodificadorSimulado();
+    }
+
+    /**
+     * Preenche as coordenadas do endereço
+     *
+     * @return false se o endereço não foi encontrado ou o serviço falhou
+     */
+    public boolean localizar(Endereco endereco) {
+        try {
+            return geocodificador.localizar(endereco);
+        } catch (IOException e) {
+            System.err.println("⚠️  Geolocalização indisponível: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Geocodifica os anúncios ainda sem coordenadas. Na primeira falha do
+     * serviço, os demais ficam para a próxima carga: um serviço fora do ar
+     * não atrasa a inicialização anúncio por anúncio.
+     *
+     * @return Anúncios que receberam coordenadas
+     */
+    public int geocodificar(List<Anuncio> anuncios) {
+        return geocodificar(anuncios, anuncio -> { });
+    }
+
+    /**
+     * Geocodifica os anúncios sem coordenadas em uma thread daemon. A lista
+     * deve ser uma cópia: a interface continua alterando o catálogo.
+     *
+     * @param localizado Chamado, na thread de geocodificação, para cada anúncio
+     *                   que recebeu coordenadas (ex.: atualizar o índice geográfico)
+     */
+    public void geocodificarEmSegundoPlano(List<Anuncio> anuncios, Consumer<Anuncio> localizado) {
+        Thread geocodificacao = new Thread(() -> {
+            // Contado antes do aviso: quem é avisado já vê o anúncio na contagem
+            int geocodificados = geocodificar(anuncios, anuncio -> {
+                geocodificadosEmSegundoPlano.incrementAndGet();
+                localizado.accept(anuncio);
+            });
+            if (geocodificados > 0) {
+                System.out.println("📍 " + geocodificados + " anúncio(s) geocodificado(s) em segundo plano");
+            }
+        }, "myhome-geocodificacao");
+        geocodificacao.setDaemon(true);
+        geocodificacao.start();
+    }
+
+    /**
+     * Para a geocodificação em segundo plano depois do anúncio em andamento
+     * (a consulta não é cortada no meio, para não corromper o cache local)
+     */
+    public void interromper() {
+        interrompido = true;
+    }
+
+    /**
+     * Anúncios que receberam coordenadas em segundo plano (ainda a gravar no snapshot)
+     */
+    public int getGeocodificadosEmSegundoPlano() {
+        return geocodificadosEmSegundoPlano.get();
+    }
+
+    private int geocodificar(List<Anuncio> anuncios, Consumer<Anuncio> localizado) {
+        int geocodificados = 0;
+        for (Anuncio anuncio : anuncios) {
+            if (interrompido) {
+                break;
+            }
+            Endereco endereco = anuncio.getImovel() != null ? anuncio.getImovel().getEndereco() : null;
+            if (endereco == null || endereco.temCoordenadas()) {
+                continue;
+            }
+            try {
+                if (geocodificador.localizar(endereco)) {
+                    geocodificados++;
+                    localizado.accept(anuncio);
+                }
+            } catch (IOException e) {
+                System.err.println("⚠️  Geolocalização indisponível, anúncios sem coordenadas: " + e.getMessage());
+                break;
+            }
+        }
+        return geocodificados;
+    }
+}
@@ -0,0 +1,23 @@
+package com.myhome.service;
+
+import java.io.IOException;
+
+import com.myhome.model.Endereco;
+
+/**
+ * STRATEGY - Converte um endereço em coordenadas (latitude/longitude)
+ *
+ * Implementações: GeocodificadorOpenCage (serviço externo configurado em
+ * servico.geolocalizacao.*), GeocodificadorSimulado (sem rede, para testes)
+ * e GeocodificadorCache (Proxy com cache local de qualquer um dos dois).
+ */
+public interface Geocodificador {
+
+    /**
+     * Preenche latitude e longitude do endereço
+     *
+     * @return false se o endereço não foi encontrado
+     * @throws IOException se o serviço não pôde ser consultado
+     */
+    boolean localizar(Endereco endereco) throws IOException;
+}
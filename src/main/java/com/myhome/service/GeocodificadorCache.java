@@ -0,0 +1,135 @@
+package com.myhome.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.myhome.busca.IndiceLocalizacao;
+import com.myhome.model.Endereco;
+
+/**
+ * PROXY - Cache local das coordenadas de um Geocodificador
+ *
+ * RESPONSABILIDADES:
+ * - Responder da memória os endereços já geocodificados (rua, número,
+ *   cidade e estado normalizados), sem consultar o serviço
+ * - Anexar cada endereço novo ao arquivo de cache ("chave<TAB>lat<TAB>lon"),
+ *   lido de volta na próxima execução
+ * - Lembrar, só durante a execução, os endereços não encontrados
+ *
+ * Falhas do serviço (IOException) não entram no cache: o endereço é
+ * consultado de novo na próxima vez.
+ */
+public class GeocodificadorCache implements Geocodificador {
+
+    private static final char SEPARADOR = '\t';
+
+    private final Geocodificador geocodificador;
+    private final Path arquivo;
+    private final Map<String, double[]> coordenadas = new HashMap<>();
+    private final Set<String> naoEncontrados = new HashSet<>();
+
+    /**
+     * @param geocodificador Geocodificador consultado para endereços novos
+     * @param arquivo Arquivo do cache (null: só em memória)
+     */
+    public GeocodificadorCache(Geocodificador geocodificador, Path arquivo) {
+        this.geocodificador = geocodificador;
+        this.arquivo = arquivo;
+        carregar();
+    }
+
+    @Override
+    public boolean localizar(Endereco endereco) throws IOException {
+        String chave = chave(endereco);
+        double[] conhecidas;
+        synchronized (this) {
+            conhecidas = coordenadas.get(chave);
+            if (conhecidas == null && naoEncontrados.contains(chave)) {
+                return false;
+            }
+        }
+        if (conhecidas != null) {
+            endereco.setCoordenadas(conhecidas[0], conhecidas[1]);
+            return true;
+        }
+
+        boolean encontrado = geocodificador.localizar(endereco);
+        synchronized (this) {
+            if (!encontrado) {
+                naoEncontrados.add(chave);
+            } else if (coordenadas.putIfAbsent(chave,
+                    new double[] { endereco.getLatitude(), endereco.getLongitude() }) == null) {
+                anexar(chave, endereco.getLatitude(), endereco.getLongitude());
+            }
+        }
+        return encontrado;
+    }
+
+    public synchronized int getTamanho() {
+        return coordenadas.size();
+    }
+
+    /**
+     * Mesmo endereço com grafias diferentes ("João Pessoa"/"joao pessoa") tem a mesma chave
+     */
+    static String chave(Endereco endereco) {
+        return IndiceLocalizacao.chave(endereco.getEstado(), endereco.getCidade()) + "|"
+                + normalizar(endereco.getRua()) + "|" + normalizar(endereco.getNumero());
+    }
+
+    private static String normalizar(String texto) {
+        return texto == null ? "" : texto.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT)
+                .replace(SEPARADOR, ' ');
+    }
+
+    private void carregar() {
+        if (arquivo == null || !Files.exists(arquivo)) {
+            return;
+        }
+        try {
+            List<String> linhas = Files.readAllLines(arquivo, StandardCharsets.UTF_8);
+            for (String linha : linhas) {
+                String[] campos = linha.split(String.valueOf(SEPARADOR));
+                if (campos.length != 3) {
+                    continue;
+                }
+                try {
+                    coordenadas.put(campos[0], new double[] {
+                        Double.parseDouble(campos[1]), Double.parseDouble(campos[2]) });
+                } catch (NumberFormatException e) {
+                    // Linha incompleta (ex.: gravação interrompida): o endereço é consultado de novo
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️  Cache de geolocalização ignorado (" + arquivo + "): " + e.getMessage());
+        }
+    }
+
+    private void anexar(String chave, double latitude, double longitude) {
+        if (arquivo == null) {
+            return;
+        }
+        try {
+            if (arquivo.getParent() != null) {
+                Files.createDirectories(arquivo.getParent());
+            }
+            try (BufferedWriter saida = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                saida.write(chave + SEPARADOR + latitude + SEPARADOR + longitude);
+                saida.newLine();
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️  Não foi possível gravar o cache de geolocalização: " + e.getMessage());
+        }
+    }
+}
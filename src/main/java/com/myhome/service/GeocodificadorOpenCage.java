@@ -0,0 +1,126 @@
+package com.myhome.service;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+import com.myhome.model.Endereco;
+import com.myhome.persistencia.JsonReader;
+import com.myhome.singleton.ConfigurationManager;
+
+/**
+ * Geocodificador do serviço externo (servico.geolocalizacao.url / .api.key)
+ *
+ * RESPONSABILIDADES:
+ * - Montar a consulta "rua número, cidade - estado, Brasil" na API de
+ *   geocodificação (formato OpenCage: GET {url}/json?q=...&key=...)
+ * - Ler do primeiro resultado as coordenadas (results[0].geometry.lat/lng)
+ *
+ * Cada chamada é uma requisição HTTP: use sempre atrás do
+ * GeocodificadorCache, que só consulta o serviço para endereços novos.
+ */
+public class GeocodificadorOpenCage implements Geocodificador {
+
+    private final String url;
+    private final String chave;
+    private final int tempoLimite;
+
+    /**
+     * Construtor que carrega as configurações do ConfigurationManager.
+     */
+    public GeocodificadorOpenCage() {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        this.url = config.getProperty("servico.geolocalizacao.url", "https://api.opencagedata.com/geocode/v1").trim();
+        this.chave = config.getProperty("servico.geolocalizacao.api.key", "").trim();
+        this.tempoLimite = Integer.parseInt(config.getProperty("servico.geolocalizacao.timeout.ms", "5000").trim());
+    }
+
+    @Override
+    public boolean localizar(Endereco endereco) throws IOException {
+        String consulta = String.format("%s %s, %s - %s, Brasil", texto(endereco.getRua()),
+                texto(endereco.getNumero()), texto(endereco.getCidade()), texto(endereco.getEstado()));
+        URL endpoint = new URL(url + "/json?q=" + URLEncoder.encode(consulta, StandardCharsets.UTF_8.name())
+                + "&key=" + URLEncoder.encode(chave, StandardCharsets.UTF_8.name())
+                + "&limit=1&no_annotations=1&countrycode=br&language=pt");
+
+        HttpURLConnection conexao = (HttpURLConnection) endpoint.openConnection();
+        conexao.setConnectTimeout(tempoLimite);
+        conexao.setReadTimeout(tempoLimite);
+        try {
+            int status = conexao.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Serviço de geolocalização respondeu HTTP " + status);
+            }
+            try (Reader corpo = new InputStreamReader(conexao.getInputStream(), StandardCharsets.UTF_8);
+                    JsonReader json = new JsonReader(corpo)) {
+                double[] coordenadas = primeiroResultado(json);
+                if (coordenadas == null) {
+                    return false;
+                }
+                endereco.setCoordenadas(coordenadas[0], coordenadas[1]);
+                return true;
+            }
+        } finally {
+            conexao.disconnect();
+        }
+    }
+
+    /**
+     * {latitude, longitude} do primeiro item de "results" (null se vazio)
+     */
+    private static double[] primeiroResultado(JsonReader json) throws IOException {
+        double[] coordenadas = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            if (!json.nextName().equals("results")) {
+                json.skipValue();
+                continue;
+            }
+            json.beginArray();
+            if (json.hasNext()) {
+                coordenadas = geometria(json);
+            }
+            while (json.hasNext()) {
+                json.skipValue();
+            }
+            json.endArray();
+        }
+        json.endObject();
+        return coordenadas;
+    }
+
+    private static double[] geometria(JsonReader json) throws IOException {
+        double[] coordenadas = null;
+        json.beginObject();
+        while (json.hasNext()) {
+            if (!json.nextName().equals("geometry")) {
+                json.skipValue();
+                continue;
+            }
+            double latitude = Double.NaN;
+            double longitude = Double.NaN;
+            json.beginObject();
+            while (json.hasNext()) {
+                switch (json.nextName()) {
+                    case "lat": latitude = json.nextDouble(); break;
+                    case "lng": longitude = json.nextDouble(); break;
+                    default:    json.skipValue();
+                }
+            }
+            json.endObject();
+            if (!Double.isNaN(latitude) && !Double.isNaN(longitude)) {
+                coordenadas = new double[] { latitude, longitude };
+            }
+        }
+        json.endObject();
+        return coordenadas;
+    }
+
+    private static String texto(String valor) {
+        return valor != null ? valor : "";
+    }
+}
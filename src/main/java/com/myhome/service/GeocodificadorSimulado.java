@@ -0,0 +1,99 @@
+package com.myhome.service;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import com.myhome.busca.IndiceLocalizacao;
+import com.myhome.model.Endereco;
+
+/**
+ * Geocodificador sem rede (servico.geolocalizacao.provedor=simulado)
+ *
+ * RESPONSABILIDADES:
+ * - Posicionar cada estado na sua capital
+ * - Espalhar as cidades de um estado a até ~1,5° da capital e as ruas de
+ *   uma cidade a até ~5 km do centro dela, a partir do hash dos nomes
+ *
+ * As coordenadas não são reais, mas são estáveis: o mesmo endereço sempre
+ * cai no mesmo ponto e endereços da mesma cidade ficam próximos. Serve
+ * para testes, demonstrações e para usar a busca por mapa sem chave de API.
+ */
+public class GeocodificadorSimulado implements Geocodificador {
+
+    private static final double DISPERSAO_CIDADE = 1.5;   // graus em torno da capital
+    private static final double DISPERSAO_RUA = 0.045;    // graus (~5 km) em torno da cidade
+
+    // Sigla do estado -> {latitude, longitude} da capital
+    private static final Map<String, double[]> CAPITAIS = new HashMap<>();
+
+    static {
+        capital("AC", -9.97, -67.81);
+        capital("AL", -9.65, -35.73);
+        capital("AM", -3.12, -60.02);
+        capital("AP", 0.03, -51.07);
+        capital("BA", -12.97, -38.50);
+        capital("CE", -3.73, -38.53);
+        capital("DF", -15.79, -47.88);
+        capital("ES", -20.32, -40.34);
+        capital("GO", -16.68, -49.25);
+        capital("MA", -2.53, -44.30);
+        capital("MG", -19.92, -43.94);
+        capital("MS", -20.45, -54.62);
+        capital("MT", -15.60, -56.10);
+        capital("PA", -1.46, -48.49);
+        capital("PB", -7.12, -34.86);
+        capital("PE", -8.05, -34.88);
+        capital("PI", -5.09, -42.80);
+        capital("PR", -25.43, -49.27);
+        capital("RJ", -22.91, -43.17);
+        capital("RN", -5.79, -35.21);
+        capital("RO", -8.76, -63.90);
+        capital("RR", 2.82, -60.67);
+        capital("RS", -30.03, -51.23);
+        capital("SC", -27.60, -48.55);
+        capital("SE", -10.91, -37.07);
+        capital("SP", -23.55, -46.63);
+        capital("TO", -10.18, -48.33);
+    }
+
+    private static void capital(String estado, double latitude, double longitude) {
+        CAPITAIS.put(estado, new double[] { latitude, longitude });
+    }
+
+    @Override
+    public boolean localizar(Endereco endereco) {
+        if (texto(endereco.getCidade()).trim().isEmpty()) {
+            return false;
+        }
+        String estado = IndiceLocalizacao.normalizarEstado(endereco.getEstado());
+        String cidade = IndiceLocalizacao.normalizarCidade(endereco.getCidade());
+        double[] capital = CAPITAIS.get(estado);
+        if (capital == null) {
+            return false;
+        }
+        String rua = texto(endereco.getRua()).trim().toLowerCase(Locale.ROOT) + "|"
+                + texto(endereco.getNumero()).trim();
+        double latitude = capital[0] + deslocamento(estado + "|" + cidade, 0) * DISPERSAO_CIDADE
+                + deslocamento(rua, 0) * DISPERSAO_RUA;
+        double longitude = capital[1] + deslocamento(estado + "|" + cidade, 1) * DISPERSAO_CIDADE
+                + deslocamento(rua, 1) * DISPERSAO_RUA;
+        endereco.setCoordenadas(latitude, longitude);
+        return true;
+    }
+
+    /**
+     * Valor estável em [-1, 1) a partir do texto (eixo 0: latitude, 1: longitude)
+     */
+    private static double deslocamento(String texto, int eixo) {
+        long hash = texto.hashCode() * 0x9E3779B97F4A7C15L + eixo;
+        hash ^= hash >>> 29;
+        hash *= 0xBF58476D1CE4E5B9L;
+        hash ^= hash >>> 32;
+        return ((hash >>> 11) * 0x1.0p-53) * 2 - 1;
+    }
+
+    private static String texto(String valor) {
+        return valor != null ? valor : "";
+    }
+}
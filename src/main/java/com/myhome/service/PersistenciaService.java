@@ -1,428 +1,592 @@
 package com.myhome.service;
 
+import com.myhome.busca.IndiceCatalogo;
 import com.myhome.model.*;
-import com.myhome.strategy.EmailNotificacao;
+import com.myhome.persistencia.AnuncioJsonCodec;
+import com.myhome.persistencia.ArmazemParticionado;
+import com.myhome.persistencia.ArquivoAtomico;
+import com.myhome.persistencia.CatalogoLazy;
+import com.myhome.persistencia.ConversorSnapshot;
+import com.myhome.persistencia.FormatoBinario;
+import com.myhome.persistencia.FormatoSnapshot;
+import com.myhome.persistencia.GravadorAssincrono;
+import com.myhome.persistencia.JournalAnuncios;
+import com.myhome.persistencia.RegistroAnunciantes;
+import com.myhome.persistencia.RepositorioJdbc;
+import com.myhome.singleton.ConfigurationManager;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Serviço de persistência de anúncios em arquivo JSON
- * 
+ * Serviço de persistência de anúncios em arquivo (JSON ou binário) ou banco de dados (JDBC)
+ *
  * RESPONSABILIDADES:
- * - Salvar anúncios em arquivo JSON
- * - Carregar anúncios do arquivo JSON
+ * - Salvar anúncios no formato configurado em "persistencia.formato" (Strategy: FormatoSnapshot)
+ * - Marcar registros como salvos, permitindo ao formato segmentado regravar só o que mudou
+ * - Carregar anúncios do snapshot (JSON em uma passada ou binário via MappedByteBuffer)
+ * - Comprimir os snapshots JSON em fluxo com "persistencia.compressao" (gzip ou deflate),
+ *   detectando na leitura se o arquivo está comprimido
+ * - Com "persistencia.carga.preguicosa=true" e formato binário, abrir o snapshot
+ *   pelo índice (CatalogoLazy), montando cada anúncio só no primeiro acesso
+ * - Gravar snapshots de forma atômica (ArquivoAtomico) e, se o arquivo em uso
+ *   estiver danificado, recuperar a geração anterior em vez de recomeçar do CSV
+ * - Carregar só os anúncios de uma região (lendo apenas as partições necessárias
+ *   quando "persistencia.formato=particionado", ou por consulta indexada com "jdbc")
+ * - Registrar mutações individuais no journal (anuncios.wal), sem reescrever o catálogo
+ * - Compactar o journal em um novo snapshot periodicamente
+ * - Publicar as mutações do journal para ouvintes (replicação para instâncias seguidoras)
+ * - Manter os índices de busca (setIndices) a cada criação ou alteração registrada
+ * - Gravar em segundo plano (GravadorAssincrono) quando "persistencia.durabilidade=async",
+ *   agrupando rajadas de salvamentos em uma única escrita; quem cria o serviço
+ *   chama close() no encerramento (a fachada registra o shutdown hook)
  * - Gerenciar o arquivo de dados
  */
-public class PersistenciaService {
-    
+public class PersistenciaService implements Closeable {
+
     private static final String DATA_DIR = "data";
-    private static final String ARQUIVO_ANUNCIOS = DATA_DIR + "/anuncios.json";
-    
+    private static final String ARQUIVO_JOURNAL = DATA_DIR + "/anuncios.wal";
+
+    private final AnuncioJsonCodec codec = new AnuncioJsonCodec();
+    private final JournalAnuncios journal = new JournalAnuncios(Paths.get(ARQUIVO_JOURNAL), codec);
+    private final AtomicLong proximoId = new AtomicLong(1);
+    private final int compactarApos;
+    private final boolean cargaPreguicosa;
+
+    /**
+     * Formato usado para gravar; o outro formato só é lido quando o arquivo
+     * no formato configurado ainda não existe (migração transparente)
+     */
+    private final FormatoSnapshot formato;
+    private final FormatoSnapshot formatoAlternativo;
+
+    /**
+     * Gravação em segundo plano; null no modo síncrono (grava na própria chamada)
+     */
+    private final GravadorAssincrono gravador;
+
+    /**
+     * Índices de busca do catálogo em memória; null se não houver
+     */
+    private volatile IndiceCatalogo indices;
+
+    public PersistenciaService() {
+        this(true);
+    }
+
     /**
-     * Salva a lista de anúncios em arquivo JSON
+     * Serviço só para leitura de data/ (ex.: ferramentas de linha de comando):
+     * não inicia a thread de gravação em segundo plano
+     */
+    public static PersistenciaService somenteLeitura() {
+        return new PersistenciaService(false);
+    }
+
+    private PersistenciaService(boolean gravacaoAssincrona) {
+        ConfigurationManager config = ConfigurationManager.getInstance();
+        this.compactarApos = Integer.parseInt(
+                config.getProperty("persistencia.journal.compactar.apos", "500").trim());
+
+        this.cargaPreguicosa = Boolean.parseBoolean(
+                config.getProperty("persistencia.carga.preguicosa", "true").trim());
+
+        String nomeFormato = config.getProperty("persistencia.formato", "json").trim();
+        FormatoSnapshot configurado;
+        try {
+            configurado = ConversorSnapshot.formatoPorNome(nomeFormato, codec);
+        } catch (IllegalArgumentException e) {
+            System.err.println("⚠️  " + e.getMessage() + ". Usando JSON.");
+            configurado = ConversorSnapshot.formatoPorNome("json", codec);
+        }
+        this.formato = configurado;
+        this.formatoAlternativo = ConversorSnapshot.formatoPorNome(
+                "json".equals(formato.getNome()) ? "binario" : "json", codec);
+
+        String durabilidade = config.getProperty("persistencia.durabilidade", "async").trim();
+        if (!gravacaoAssincrona || "sincrono".equalsIgnoreCase(durabilidade)) {
+            this.gravador = null;
+        } else {
+            long debounce = Long.parseLong(config.getProperty("persistencia.async.debounce.ms", "200").trim());
+            long atrasoMaximo = Long.parseLong(config.getProperty("persistencia.async.atraso.maximo.ms", "2000").trim());
+            this.gravador = new GravadorAssincrono(debounce, atrasoMaximo);
+            this.journal.setEscritaAdiada(true);
+        }
+    }
+
+    /**
+     * Grava imediatamente tudo o que estiver pendente
+     */
+    public void flush() {
+        if (gravador != null) {
+            gravador.flush();
+        }
+    }
+
+    /**
+     * Grava o que estiver pendente e encerra a thread de gravação (usar no encerramento)
+     */
+    @Override
+    public void close() {
+        if (gravador != null) {
+            gravador.close();
+        }
+    }
+
+    /**
+     * Salva a lista de anúncios no formato configurado (snapshot completo)
+     *
+     * O snapshot passa a conter todas as mutações, então o journal é truncado.
+     * No modo async, a gravação é agendada com uma cópia da lista e
+     * solicitações seguidas viram uma única escrita.
      */
     public void salvarAnuncios(List<Anuncio> anuncios) {
+        atribuirIds(anuncios);
+        long corte = journal.getSequencia();
+
+        if (gravador == null) {
+            gravarAnuncios(anuncios, corte);
+        } else {
+            List<Anuncio> copia = anuncios instanceof CatalogoLazy
+                    ? ((CatalogoLazy) anuncios).copia()
+                    : new ArrayList<>(anuncios);
+            gravador.agendar("anuncios", () -> gravarAnuncios(copia, corte));
+        }
+    }
+
+    /**
+     * @param corte Último registro do journal coberto por este snapshot
+     */
+    private void gravarAnuncios(List<Anuncio> anuncios, long corte) {
         try {
             // Cria diretório se não existir
             Files.createDirectories(Paths.get(DATA_DIR));
-            
-            // Converte para JSON
-            String json = toJson(anuncios);
-            
-            // Salva no arquivo
-            Files.write(Paths.get(ARQUIVO_ANUNCIOS), json.getBytes());
-            
-            System.out.println("💾 Anúncios salvos com sucesso!");
-            
+
+            // Versões lidas antes da escrita: o que mudar durante a gravação continua pendente
+            int[] versoes = new int[anuncios.size()];
+            int[] versoesAnunciante = new int[anuncios.size()];
+            for (int i = 0; i < versoes.length; i++) {
+                Anuncio anuncio = emMemoria(anuncios, i);
+                if (anuncio == null) {
+                    continue;
+                }
+                versoes[i] = anuncio.getVersao();
+                versoesAnunciante[i] = anuncio.getAnunciante() != null ? anuncio.getAnunciante().getVersao() : 0;
+            }
+
+            // Codifica direto no arquivo (streaming, sem montar o documento em memória)
+            formato.salvarAnuncios(arquivo("anuncios", formato), anuncios);
+            for (int i = 0; i < versoes.length; i++) {
+                Anuncio anuncio = emMemoria(anuncios, i);
+                if (anuncio != null) {
+                    anuncio.marcarComoSalvo(versoes[i], versoesAnunciante[i]);
+                }
+            }
+            journal.truncarAte(corte);
+
+            if (gravador == null) {
+                System.out.println("💾 Anúncios salvos com sucesso!");
+            }
+
         } catch (IOException e) {
             System.err.println("❌ Erro ao salvar anúncios: " + e.getMessage());
         }
     }
-    
+
     /**
-     * Carrega a lista de anúncios do arquivo JSON
+     * Carrega a lista de anúncios: snapshot + reaplicação do journal
+     *
+     * Se o snapshot estiver danificado, carrega a geração anterior; sem ela,
+     * retorna os anúncios lidos até o ponto do erro. Com carga preguiçosa,
+     * retorna um CatalogoLazy (só os anúncios alterados pelo journal são montados).
      */
     public List<Anuncio> carregarAnuncios() {
+        List<Anuncio> anuncios = new ArrayList<>();
+
+        FormatoSnapshot origem = formatoExistente("anuncios");
+        CatalogoLazy catalogo = null;
+        if (origem != null && origem == formato && cargaPreguicosa && origem instanceof FormatoBinario) {
+            catalogo = abrirCatalogo((FormatoBinario) origem, arquivo("anuncios", origem));
+        }
+
+        if (catalogo != null) {
+            anuncios = catalogo;
+        } else if (origem != null) {
+            Path arquivo = arquivo("anuncios", origem);
+            try {
+                carregarAnuncios(origem, arquivo, anuncios);
+            } catch (IOException e) {
+                System.err.println("❌ Erro ao carregar anúncios: " + e.getMessage());
+                Path anterior = ArquivoAtomico.anterior(arquivo);
+                if (Files.exists(anterior)) {
+                    System.out.println("↩️  Recuperando a geração anterior de " + arquivo.getFileName());
+                    anuncios.clear();
+                    try {
+                        carregarAnuncios(origem, anterior, anuncios);
+                    } catch (IOException erroAnterior) {
+                        System.err.println("❌ Erro ao carregar geração anterior: " + erroAnterior.getMessage());
+                    }
+                }
+            }
+        }
+
         try {
-            if (!Files.exists(Paths.get(ARQUIVO_ANUNCIOS))) {
-                return new ArrayList<>();
+            int reaplicados = journal.reaplicar(anuncios);
+            if (reaplicados > 0) {
+                System.out.println("📜 " + reaplicados + " alteração(ões) reaplicada(s) do journal");
             }
-            
-            String json = new String(Files.readAllBytes(Paths.get(ARQUIVO_ANUNCIOS)));
-            return fromJson(json);
-            
         } catch (IOException e) {
-            System.err.println("❌ Erro ao carregar anúncios: " + e.getMessage());
-            return new ArrayList<>();
+            System.err.println("❌ Erro ao ler journal de anúncios: " + e.getMessage());
         }
+
+        atribuirIds(anuncios);
+        return anuncios;
     }
-    
+
     /**
-     * Converte lista de anúncios para JSON (formato simples)
+     * Carrega apenas os anúncios de um estado (e cidade, se informada), já com
+     * as alterações do journal. No formato particionado só as partições da
+     * região são lidas; nos demais, o snapshot é lido e filtrado.
+     *
+     * Os anúncios retornados são cópias independentes do catálogo em memória.
      */
-    private String toJson(List<Anuncio> anuncios) {
-        StringBuilder json = new StringBuilder();
-        json.append("{\n  \"anuncios\": [\n");
-        
-        for (int i = 0; i < anuncios.size(); i++) {
-            Anuncio anuncio = anuncios.get(i);
-            Imovel imovel = anuncio.getImovel();
-            Usuario anunciante = anuncio.getAnunciante();
-            
-            json.append("    {\n");
-            json.append("      \"titulo\": \"").append(escaparJson(anuncio.getTitulo())).append("\",\n");
-            json.append("      \"preco\": ").append(anuncio.getPreco()).append(",\n");
-            json.append("      \"descricao\": \"").append(escaparJson(anuncio.getDescricao())).append("\",\n");
-            json.append("      \"estado\": \"").append(escaparJson(anuncio.getState().getNome())).append("\",\n");
-            
-            // Imovel
-            json.append("      \"imovel\": {\n");
-            json.append("        \"tipo\": \"").append(imovel.getTipo()).append("\",\n");
-            json.append("        \"area\": ").append(imovel.getArea()).append(",\n");
-            
-            // Endereco como objeto estruturado
-            Endereco endereco = imovel.getEndereco();
-            json.append("        \"endereco\": {\n");
-            json.append("          \"rua\": \"").append(escaparJson(endereco.getRua())).append("\",\n");
-            json.append("          \"numero\": \"").append(escaparJson(endereco.getNumero())).append("\",\n");
-            json.append("          \"cidade\": \"").append(escaparJson(endereco.getCidade())).append("\",\n");
-            json.append("          \"estado\": \"").append(escaparJson(endereco.getEstado())).append("\"\n");
-            json.append("        }");
-            
-            // Adiciona atributos específicos por tipo
-            if (imovel instanceof Casa) {
-                Casa casa = (Casa) imovel;
-                json.append(",\n        \"quartos\": ").append(casa.getQuartos());
-                json.append(",\n        \"banheiros\": ").append(casa.getBanheiros());
-                json.append(",\n        \"temQuintal\": ").append(casa.isTemQuintal());
-                json.append(",\n        \"temGaragem\": ").append(casa.isTemGaragem());
-            } else if (imovel instanceof Apartamento) {
-                Apartamento apt = (Apartamento) imovel;
-                json.append(",\n        \"quartos\": ").append(apt.getQuartos());
-                json.append(",\n        \"banheiros\": ").append(apt.getBanheiros());
-                json.append(",\n        \"andar\": ").append(apt.getAndar());
-                json.append(",\n        \"vagas\": ").append(apt.getVagas());
-            } else if (imovel instanceof Terreno) {
-                Terreno terreno = (Terreno) imovel;
-                json.append(",\n        \"zoneamento\": \"").append(escaparJson(terreno.getZoneamento())).append("\"");
-            } else if (imovel instanceof SalaComercial) {
-                SalaComercial sala = (SalaComercial) imovel;
-                json.append(",\n        \"andar\": ").append(sala.getAndar());
-                json.append(",\n        \"temBanheiro\": ").append(sala.isTemBanheiro());
-                json.append(",\n        \"vagas\": ").append(sala.getVagasEstacionamento());
-            }
-            
-            json.append("\n      },\n");
-            
-            // Anunciante
-            json.append("      \"anunciante\": {\n");
-            json.append("        \"nome\": \"").append(escaparJson(anunciante.getNome())).append("\",\n");
-            json.append("        \"email\": \"").append(escaparJson(anunciante.getEmail())).append("\",\n");
-            json.append("        \"telefone\": \"").append(escaparJson(anunciante.getTelefone())).append("\"\n");
-            json.append("      }\n");
-            
-            json.append("    }");
-            
-            if (i < anuncios.size() - 1) {
-                json.append(",");
+    public List<Anuncio> carregarAnunciosDaRegiao(String estado, String cidade) {
+        flush();
+        List<Anuncio> anuncios = new ArrayList<>();
+
+        FormatoSnapshot origem = formatoExistente("anuncios");
+        try {
+            if (origem instanceof ArmazemParticionado) {
+                ((ArmazemParticionado) origem).carregarRegiao(arquivo("anuncios", origem), estado, cidade, anuncios::add);
+            } else if (origem instanceof RepositorioJdbc) {
+                ((RepositorioJdbc) origem).carregarRegiao(estado, cidade, anuncios::add);
+            } else if (origem != null) {
+                origem.carregarAnuncios(arquivo("anuncios", origem), anuncio -> {
+                    if (naRegiao(anuncio, estado, cidade)) {
+                        anuncios.add(anuncio);
+                    }
+                });
             }
-            json.append("\n");
+            journal.aplicar(anuncios);
+        } catch (IOException e) {
+            System.err.println("❌ Erro ao carregar anúncios da região: " + e.getMessage());
         }
-        
-        json.append("  ]\n}");
-        return json.toString();
+
+        // Criações reaplicadas do journal podem ser de outras regiões
+        anuncios.removeIf(anuncio -> !naRegiao(anuncio, estado, cidade));
+        anuncios.forEach(Anuncio::marcarComoSalvo);
+        return anuncios;
+    }
+
+    private boolean naRegiao(Anuncio anuncio, String estado, String cidade) {
+        Endereco endereco = anuncio.getImovel().getEndereco();
+        if (!ArmazemParticionado.nomeEstado(estado).equals(ArmazemParticionado.nomeEstado(endereco.getEstado()))) {
+            return false;
+        }
+        return cidade == null || cidade.trim().isEmpty()
+                || ArmazemParticionado.nomeCidade(cidade).equals(ArmazemParticionado.nomeCidade(endereco.getCidade()));
     }
-    
+
     /**
-     * Converte JSON para lista de anúncios (parser simples)
+     * Abre o snapshot binário pelo índice, sem montar os anúncios.
+     * Retorna null (carga completa) se o índice faltar ou estiver desatualizado.
      */
-    private List<Anuncio> fromJson(String json) {
-        List<Anuncio> anuncios = new ArrayList<>();
-        
+    private CatalogoLazy abrirCatalogo(FormatoBinario binario, Path arquivo) {
         try {
-            // Parser JSON simples (sem bibliotecas externas)
-            String[] blocos = json.split("\\{\\s*\"titulo\"");
-            
-            for (int i = 1; i < blocos.length; i++) {
-                String bloco = "{\"titulo\"" + blocos[i];
-                
-                // Extrai valores do anúncio
-                String titulo = extrairValor(bloco, "titulo");
-                double preco = Double.parseDouble(extrairValor(bloco, "preco"));
-                String descricao = extrairValor(bloco, "descricao");
-                
-                // Extrai dados do imóvel
-                String tipoImovel = extrairValor(bloco, "tipo");
-                double area = Double.parseDouble(extrairValor(bloco, "area"));
-                
-                // IMPORTANTE: Passar string vazia pois o endereço agora é um objeto estruturado
-                String enderecoPlaceholder = "";
-                
-                // Cria imóvel baseado no tipo
-                Imovel imovel = criarImovelDoJson(bloco, tipoImovel, area, enderecoPlaceholder);
-                
-                // Extrai dados do anunciante
-                String nomeAnunciante = extrairValor(bloco, "nome");
-                String emailAnunciante = extrairValor(bloco, "email");
-                String telefoneAnunciante = extrairValor(bloco, "telefone");
-                
-                Usuario anunciante = new Usuario();
-                anunciante.setNome(nomeAnunciante);
-                anunciante.setEmail(emailAnunciante);
-                anunciante.setTelefone(telefoneAnunciante);
-                // RF05 - Configurar canal padrão de email ao carregar do JSON
-                anunciante.setCanalNotificacao(new EmailNotificacao(new EmailService()));
-                
-                // Cria anúncio
-                Anuncio anuncio = new Anuncio();
-                anuncio.setTitulo(titulo);
-                anuncio.setPreco(preco);
-                anuncio.setDescricao(descricao);
-                anuncio.setImovel(imovel);
-                anuncio.setAnunciante(anunciante);
-                
-                // Restaurar estado salvo no JSON
-                String estadoNome = extrairValor(bloco, "estado");
-                if (!estadoNome.isEmpty()) {
-                    anuncio.restaurarEstado(estadoNome);
-                }
-                
-                anuncios.add(anuncio);
-            }
-            
-        } catch (Exception e) {
-            System.err.println("❌ Erro ao processar JSON: " + e.getMessage());
-            e.printStackTrace();
+            return binario.abrirCatalogo(arquivo);
+        } catch (IOException e) {
+            System.err.println("⚠️  " + e.getMessage() + ". Carregando o snapshot completo.");
+            return null;
         }
-        
-        return anuncios;
     }
-    
+
     /**
-     * Cria imóvel a partir dos dados JSON
+     * Anúncio da posição, sem hidratar entradas do catálogo preguiçoso
+     * (retorna null para as que continuam apenas no arquivo)
      */
-    private Imovel criarImovelDoJson(String json, String tipo, double area, String endereco) {
-        Imovel imovel = null;
-        
-        // Extrai o bloco de endereco estruturado
-        String blocoEndereco = extrairBlocoJson(json, "endereco");
-        
-        // Extrai dados do endereco estruturado
-        String rua = extrairValor(blocoEndereco, "rua");
-        String numero = extrairValor(blocoEndereco, "numero");
-        String cidade = extrairValor(blocoEndereco, "cidade");
-        String estado = extrairValor(blocoEndereco, "estado");
-        
-        // Se não encontrou a estrutura de endereco, tenta parse da string (retrocompatibilidade)
-        if (rua.isEmpty() && !endereco.isEmpty()) {
-            rua = endereco;
+    private Anuncio emMemoria(List<Anuncio> anuncios, int indice) {
+        return anuncios instanceof CatalogoLazy
+                ? ((CatalogoLazy) anuncios).getHidratado(indice)
+                : anuncios.get(indice);
+    }
+
+    private void carregarAnuncios(FormatoSnapshot origem, Path arquivo, List<Anuncio> anuncios) throws IOException {
+        origem.carregarAnuncios(arquivo, anuncio -> {
+            anuncio.marcarComoSalvo();
+            anuncios.add(anuncio);
+        });
+    }
+
+    // ===================================================================
+    // JOURNAL DE MUTAÇÕES (uma linha por alteração, sem reescrever o catálogo)
+    // ===================================================================
+
+    /**
+     * Registra a criação de um anúncio já adicionado à lista
+     */
+    public void registrarCriacao(Anuncio anuncio, List<Anuncio> anuncios) {
+        if (anuncio.getId() == null) {
+            anuncio.setId(String.valueOf(proximoId.getAndIncrement()));
         }
-        
-        Endereco enderecoObj = new Endereco(rua, numero, cidade, estado);
-        
-        switch (tipo) {
-            case "Casa":
-                Casa casa = new Casa();
-                casa.setArea(area);
-                casa.setEndereco(enderecoObj);
-                String quartosStr = extrairValor(json, "quartos");
-                if (!quartosStr.isEmpty()) casa.setQuartos(Integer.parseInt(quartosStr));
-                String banheirosStr = extrairValor(json, "banheiros");
-                if (!banheirosStr.isEmpty()) casa.setBanheiros(Integer.parseInt(banheirosStr));
-                casa.setTemQuintal(extrairValor(json, "temQuintal").equals("true"));
-                casa.setTemGaragem(extrairValor(json, "temGaragem").equals("true"));
-                imovel = casa;
-                break;
-                
-            case "Apartamento":
-                Apartamento apt = new Apartamento();
-                apt.setArea(area);
-                apt.setEndereco(enderecoObj);
-                String quartosAptStr = extrairValor(json, "quartos");
-                if (!quartosAptStr.isEmpty()) apt.setQuartos(Integer.parseInt(quartosAptStr));
-                String banheirosAptStr = extrairValor(json, "banheiros");
-                if (!banheirosAptStr.isEmpty()) apt.setBanheiros(Integer.parseInt(banheirosAptStr));
-                String andarStr = extrairValor(json, "andar");
-                if (!andarStr.isEmpty()) apt.setAndar(Integer.parseInt(andarStr));
-                String vagasStr = extrairValor(json, "vagas");
-                if (!vagasStr.isEmpty()) apt.setVagas(Integer.parseInt(vagasStr));
-                imovel = apt;
-                break;
-                
-            case "Terreno":
-                Terreno terreno = new Terreno();
-                terreno.setArea(area);
-                terreno.setEndereco(enderecoObj);
-                String zoneamento = extrairValor(json, "zoneamento");
-                if (zoneamento.isEmpty()) {
-                    zoneamento = "Urbano"; // Valor padrão
-                }
-                terreno.setZoneamento(zoneamento);
-                imovel = terreno;
-                break;
-                
-            case "Sala Comercial":
-                SalaComercial sala = new SalaComercial();
-                sala.setArea(area);
-                sala.setEndereco(enderecoObj);
-                String andarSalaStr = extrairValor(json, "andar");
-                if (!andarSalaStr.isEmpty()) sala.setAndar(Integer.parseInt(andarSalaStr));
-                sala.setTemBanheiro(extrairValor(json, "temBanheiro").equals("true"));
-                String vagasSalaStr = extrairValor(json, "vagas");
-                if (!vagasSalaStr.isEmpty()) sala.setVagasEstacionamento(Integer.parseInt(vagasSalaStr));
-                imovel = sala;
-                break;
+        if (indices != null) {
+            indices.adicionar(anuncio);
         }
-        
-        return imovel;
+        registrar(anuncios, () -> journal.registrarCriacao(anuncio));
     }
-    
+
     /**
-     * Extrai valor de uma chave no JSON
+     * Registra a transição de estado (State Pattern - RF04) de um anúncio
      */
-    private String extrairValor(String json, String chave) {
-        String padrao = "\"" + chave + "\"\\s*:\\s*\"?([^,\"\\}\\n]+)\"?";
-        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(padrao);
-        java.util.regex.Matcher matcher = pattern.matcher(json);
-        
-        if (matcher.find()) {
-            return matcher.group(1).trim();
+    public void registrarMudancaEstado(Anuncio anuncio, List<Anuncio> anuncios) {
+        atualizarIndices(anuncio);
+        registrar(anuncios, () -> journal.registrarEstado(anuncio));
+    }
+
+    /**
+     * Registra a alteração de preço de um anúncio
+     */
+    public void registrarMudancaPreco(Anuncio anuncio, List<Anuncio> anuncios) {
+        atualizarIndices(anuncio);
+        registrar(anuncios, () -> journal.registrarPreco(anuncio));
+    }
+
+    /**
+     * Índices a manter a cada mutação registrada (ex.: IndicesBusca do catálogo)
+     */
+    public void setIndices(IndiceCatalogo indices) {
+        this.indices = indices;
+    }
+
+    private void atualizarIndices(Anuncio anuncio) {
+        if (indices != null) {
+            indices.atualizar(anuncio);
         }
-        return "";
     }
-    
+
+    /**
+     * Recebe cada mutação registrada no journal, na ordem (ex.: LiderReplicacao)
+     */
+    public void adicionarOuvinteJournal(JournalAnuncios.Ouvinte ouvinte) {
+        journal.adicionarOuvinte(ouvinte);
+    }
+
+    public void removerOuvinteJournal(JournalAnuncios.Ouvinte ouvinte) {
+        journal.removerOuvinte(ouvinte);
+    }
+
+    /**
+     * Sequência do último registro do journal
+     */
+    public long getSequenciaJournal() {
+        return journal.getSequencia();
+    }
+
     /**
-     * Extrai um bloco JSON estruturado (objeto entre chaves)
-     * Exemplo: extrairBlocoJson(json, "endereco") retorna {"rua": ..., "estado": ...}
+     * Grava um novo snapshot e descarta o journal
      */
-    private String extrairBlocoJson(String json, String chave) {
-        String padrao = "\"" + chave + "\"\\s*:\\s*\\{([^}]*)\\}";
-        java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(padrao);
-        java.util.regex.Matcher matcher = pattern.matcher(json);
-        
-        if (matcher.find()) {
-            return "{" + matcher.group(1) + "}";
+    public void compactar(List<Anuncio> anuncios) {
+        salvarAnuncios(anuncios);
+    }
+
+    private interface RegistroJournal {
+        void gravar() throws IOException;
+    }
+
+    private void registrar(List<Anuncio> anuncios, RegistroJournal registro) {
+        try {
+            registro.gravar();
+            if (gravador != null) {
+                gravador.agendar("journal", this::descarregarJournal);
+            }
+            System.out.println("💾 Alteração salva com sucesso!");
+        } catch (IOException e) {
+            // Sem journal, garante a alteração com um snapshot completo
+            System.err.println("❌ Erro ao gravar journal: " + e.getMessage());
+            salvarAnuncios(anuncios);
+            return;
+        }
+
+        if (journal.getRegistrosPendentes() >= compactarApos) {
+            compactar(anuncios);
         }
-        return "{}";
     }
-    
+
     /**
-     * Escapa caracteres especiais para JSON
+     * Executado pelo gravador: grava de uma vez os registros acumulados.
+     * Em caso de erro, os registros continuam em memória para a próxima tentativa.
      */
-    private String escaparJson(String texto) {
-        if (texto == null) return "";
-        return texto.replace("\\", "\\\\")
-                   .replace("\"", "\\\"")
-                   .replace("\n", "\\n")
-                   .replace("\r", "\\r")
-                   .replace("\t", "\\t");
-    }
-    
+    private void descarregarJournal() {
+        try {
+            journal.descarregar();
+        } catch (IOException e) {
+            System.err.println("❌ Erro ao gravar journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Atribui ids sequenciais aos anúncios que ainda não possuem
+     * (criados pelo CSV ou gravados antes da existência do campo "id")
+     */
+    private void atribuirIds(List<Anuncio> anuncios) {
+        long maior = proximoId.get() - 1;
+        for (int i = 0; i < anuncios.size(); i++) {
+            String id = idDe(anuncios, i);
+            if (id == null) {
+                continue;
+            }
+            try {
+                maior = Math.max(maior, Long.parseLong(id));
+            } catch (NumberFormatException e) {
+                // ids não numéricos não interferem na sequência
+            }
+        }
+        proximoId.set(maior + 1);
+
+        for (int i = 0; i < anuncios.size(); i++) {
+            if (idDe(anuncios, i) == null) {
+                anuncios.get(i).setId(String.valueOf(proximoId.getAndIncrement()));
+            }
+        }
+    }
+
+    private String idDe(List<Anuncio> anuncios, int indice) {
+        return anuncios instanceof CatalogoLazy
+                ? ((CatalogoLazy) anuncios).getId(indice)
+                : anuncios.get(indice).getId();
+    }
+
+    /**
+     * Caminho do arquivo de dados (ex.: data/anuncios.bin) para o formato
+     */
+    private Path arquivo(String nome, FormatoSnapshot formatoArquivo) {
+        return Paths.get(DATA_DIR, nome + "." + formatoArquivo.getExtensao());
+    }
+
+    /**
+     * Formato do snapshot a ser lido: o configurado ou, na falta do arquivo,
+     * o alternativo. Retorna null se nenhum dos dois existir.
+     */
+    private FormatoSnapshot formatoExistente(String nome) {
+        if (formato.existe(arquivo(nome, formato))) {
+            return formato;
+        }
+        if (formatoAlternativo.existe(arquivo(nome, formatoAlternativo))) {
+            return formatoAlternativo;
+        }
+        return null;
+    }
+
     // ===================================================================
     // PERSISTÊNCIA DE USUÁRIOS (Necessário para login/configurações)
     // ===================================================================
-    
-    private static final String ARQUIVO_USUARIOS = DATA_DIR + "/usuarios.json";
-    
+
     /**
-     * Salva a lista de usuários em arquivo JSON
+     * Salva a lista de usuários no formato configurado
      */
     public void salvarUsuarios(List<Usuario> usuarios) {
+        if (gravador == null) {
+            gravarUsuarios(usuarios);
+        } else {
+            List<Usuario> copia = new ArrayList<>(usuarios);
+            gravador.agendar("usuarios", () -> gravarUsuarios(copia));
+        }
+    }
+
+    private void gravarUsuarios(List<Usuario> usuarios) {
         try {
             Files.createDirectories(Paths.get(DATA_DIR));
-            String json = usuariosToJson(usuarios);
-            Files.write(Paths.get(ARQUIVO_USUARIOS), json.getBytes());
-            System.out.println("💾 Usuários salvos com sucesso!");
+            int[] versoes = new int[usuarios.size()];
+            for (int i = 0; i < versoes.length; i++) {
+                versoes[i] = usuarios.get(i).getVersao();
+            }
+            formato.salvarUsuarios(arquivo("usuarios", formato), usuarios);
+            for (int i = 0; i < versoes.length; i++) {
+                usuarios.get(i).marcarComoSalvo(versoes[i]);
+            }
+            if (gravador == null) {
+                System.out.println("💾 Usuários salvos com sucesso!");
+            }
         } catch (IOException e) {
             System.err.println("❌ Erro ao salvar usuários: " + e.getMessage());
         }
     }
-    
+
     /**
-     * Carrega a lista de usuários do arquivo JSON
+     * Carrega a lista de usuários do snapshot
+     *
+     * Cada usuário é ligado à instância registrada para o seu email: os
+     * anúncios carregados depois apontam para esses mesmos objetos.
      */
     public List<Usuario> carregarUsuarios() {
-        try {
-            if (!Files.exists(Paths.get(ARQUIVO_USUARIOS))) {
-                return new ArrayList<>();
+        List<Usuario> usuarios = lerUsuarios();
+        vincularAnunciantes(usuarios, Collections.emptyList());
+        return usuarios;
+    }
+
+    /**
+     * Liga os usuários às instâncias de anunciante já usadas pelos anúncios
+     * (ou as registra para os anúncios montados depois). Usado quando usuários
+     * e anúncios são carregados em paralelo.
+     *
+     * Nome e telefone vêm de usuarios.json (RegistroAnunciantes.registrar):
+     * os anúncios cujo anunciante mudou ficam modificados e são regravados
+     * no próximo snapshot. Completar só o tipo do anunciante não altera o
+     * registro dos anúncios: esses continuam marcados como salvos.
+     */
+    public void vincularAnunciantes(List<Usuario> usuarios, List<Anuncio> anuncios) {
+        List<Anuncio> salvos = new ArrayList<>();
+        List<String> anunciantesSalvos = new ArrayList<>();
+        for (int i = 0; i < anuncios.size(); i++) {
+            Anuncio anuncio = emMemoria(anuncios, i);
+            if (anuncio != null && !anuncio.isModificado()) {
+                salvos.add(anuncio);
+                anunciantesSalvos.add(dadosGravados(anuncio.getAnunciante()));
+            }
+        }
+
+        usuarios.replaceAll(RegistroAnunciantes.getInstance()::registrar);
+        usuarios.forEach(Usuario::marcarComoSalvo);
+        for (int i = 0; i < salvos.size(); i++) {
+            Anuncio anuncio = salvos.get(i);
+            if (anunciantesSalvos.get(i).equals(dadosGravados(anuncio.getAnunciante()))) {
+                anuncio.marcarComoSalvo();
             }
-            String json = new String(Files.readAllBytes(Paths.get(ARQUIVO_USUARIOS)));
-            return usuariosFromJson(json);
-        } catch (IOException e) {
-            System.err.println("❌ Erro ao carregar usuários: " + e.getMessage());
-            return new ArrayList<>();
         }
     }
-    
+
     /**
-     * Converte lista de usuários para JSON
+     * Campos do anunciante gravados no registro do anúncio
      */
-    private String usuariosToJson(List<Usuario> usuarios) {
-        StringBuilder json = new StringBuilder();
-        json.append("{\n  \"usuarios\": [\n");
-        
-        for (int i = 0; i < usuarios.size(); i++) {
-            Usuario usuario = usuarios.get(i);
-            json.append("    {\n");
-            json.append("      \"nome\": \"").append(escaparJson(usuario.getNome())).append("\",\n");
-            json.append("      \"email\": \"").append(escaparJson(usuario.getEmail())).append("\",\n");
-            json.append("      \"telefone\": \"").append(escaparJson(usuario.getTelefone())).append("\",\n");
-            json.append("      \"tipo\": \"").append(usuario.getTipo()).append("\"\n");
-            json.append("    }");
-            if (i < usuarios.size() - 1) json.append(",");
-            json.append("\n");
-        }
-        
-        json.append("  ]\n");
-        json.append("}\n");
-        return json.toString();
+    private static String dadosGravados(Usuario anunciante) {
+        return anunciante == null ? ""
+                : anunciante.getNome() + "\n" + anunciante.getEmail() + "\n" + anunciante.getTelefone();
     }
-    
+
     /**
-     * Converte JSON para lista de usuários
+     * Lê os usuários do snapshot sem ligá-los aos anunciantes (ver vincularAnunciantes)
      */
-    private List<Usuario> usuariosFromJson(String json) {
-        List<Usuario> usuarios = new ArrayList<>();
-        
-        if (json == null || json.isEmpty()) {
-            return usuarios;
+    public List<Usuario> lerUsuarios() {
+        FormatoSnapshot origem = formatoExistente("usuarios");
+        if (origem == null) {
+            return new ArrayList<>();
         }
-        
+
+        Path arquivo = arquivo("usuarios", origem);
         try {
-            // Regex para extrair cada usuário do JSON
-            String padrao = "\\{[^}]*?\"nome\"\\s*:\\s*\"([^\"]*?)\"[^}]*?" +
-                           "\"email\"\\s*:\\s*\"([^\"]*?)\"[^}]*?" +
-                           "\"telefone\"\\s*:\\s*\"([^\"]*?)\"";
-            java.util.regex.Pattern pattern = java.util.regex.Pattern.compile(padrao);
-            java.util.regex.Matcher matcher = pattern.matcher(json);
-            
-            while (matcher.find()) {
-                String nome = desescaparJson(matcher.group(1));
-                String email = desescaparJson(matcher.group(2));
-                String telefone = desescaparJson(matcher.group(3));
-                
-                Usuario usuario = new Usuario(nome, email, telefone);
-                usuario.setTipo(Usuario.TipoUsuario.PROPRIETARIO);
-                usuario.setCanalNotificacao(new EmailNotificacao(new EmailService()));
-                usuarios.add(usuario);
+            return origem.carregarUsuarios(arquivo);
+        } catch (IOException e) {
+            System.err.println("❌ Erro ao carregar usuários: " + e.getMessage());
+        }
+
+        Path anterior = ArquivoAtomico.anterior(arquivo);
+        if (Files.exists(anterior)) {
+            System.out.println("↩️  Recuperando a geração anterior de " + arquivo.getFileName());
+            try {
+                return origem.carregarUsuarios(anterior);
+            } catch (IOException e) {
+                System.err.println("❌ Erro ao carregar geração anterior: " + e.getMessage());
             }
-        } catch (Exception e) {
-            System.err.println("❌ Erro ao parsear JSON de usuários: " + e.getMessage());
         }
-        
-        return usuarios;
-    }
-    
-    /**
-     * Desescapa caracteres especiais do JSON
-     */
-    private String desescaparJson(String texto) {
-        if (texto == null) return "";
-        return texto.replace("\\\"", "\"")
-                   .replace("\\n", "\n")
-                   .replace("\\r", "\r")
-                   .replace("\\t", "\t")
-                   .replace("\\\\", "\\");
+        return new ArrayList<>();
     }
 }
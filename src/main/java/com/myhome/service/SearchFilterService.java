@@ -1,14 +1,37 @@
 package com.myhome.service;
 
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
+import com.myhome.busca.AreaGeografica;
+import com.myhome.busca.BitmapCompactado;
+import com.myhome.busca.CacheBusca;
+import com.myhome.busca.CriteriosBusca;
+import com.myhome.busca.IndiceBitmap;
+import com.myhome.busca.IndiceLocalizacao;
+import com.myhome.busca.IndiceTexto;
+import com.myhome.busca.IndicesBusca;
+import com.myhome.busca.PlanejadorBusca;
+import com.myhome.busca.PlanoBusca;
 import com.myhome.controller.UIController;
 import com.myhome.decorator.BuscaFiltro;
 import com.myhome.decorator.BuscaPadrao;
+import com.myhome.decorator.BuscaParalelaDecorator;
+import com.myhome.decorator.CacheBuscaDecorator;
+import com.myhome.decorator.CursorBusca;
+import com.myhome.decorator.FiltroAreaDecorator;
+import com.myhome.decorator.FiltroBaseDecorator;
 import com.myhome.decorator.FiltroLocalizacaoDecorator;
 import com.myhome.decorator.FiltroPrecoDecorator;
+import com.myhome.decorator.FiltroSituacaoDecorator;
+import com.myhome.decorator.FiltroTipoAnuncioDecorator;
+import com.myhome.decorator.FiltroTextoDecorator;
 import com.myhome.decorator.FiltroTipoImovelDecorator;
+import com.myhome.decorator.Ordenacao;
+import com.myhome.decorator.PaginaBusca;
 import com.myhome.model.Anuncio;
+import com.myhome.persistencia.CatalogoLazy;
+import com.myhome.singleton.ConfigurationManager;
 
 /**
  * RF06 - SERVICE: Gerencia a busca avançada com filtros via Decorator Pattern
@@ -30,35 +53,63 @@ import com.myhome.model.Anuncio;
  * - FiltroPrecoDecorator: Filtra por faixa de preço
  * - FiltroLocalizacaoDecorator: Filtra por cidade/estado
  * - FiltroTipoImovelDecorator: Filtra por tipo de imóvel
+ * - FiltroTipoAnuncioDecorator: Filtra por tipo de anúncio (venda, aluguel, temporada)
+ * - FiltroSituacaoDecorator: Filtra pela situação (estado) do anúncio
+ * - FiltroTextoDecorator: Filtra por palavras-chave no título/descrição
+ * - FiltroAreaDecorator: Filtra por raio ou retângulo no mapa (coordenadas do endereço)
+ * - CacheBuscaDecorator: Guarda o resultado da cadeia no CacheBusca (LRU)
+ * - BuscaParalelaDecorator: Avalia a cadeia em blocos paralelos (ForkJoinPool)
+ * 
+ * A cadeia é avaliada em uma única passada: FiltroBaseDecorator combina
+ * os critérios de todos os decorators, sem listas intermediárias.
+ * 
+ * O PlanejadorBusca escolhe, pelo custo estimado com as contagens dos
+ * índices (IndicesBusca), de onde a busca parte: da faixa de preço (em
+ * ordem de preço), da cidade/estado, da combinação de bitmaps de
+ * tipo/tipo de anúncio/situação, das palavras-chave no índice de texto,
+ * das células da grade geográfica que cruzam a área no mapa
+ * ou da lista inteira. No catálogo
+ * preguiçoso (CatalogoLazy) sem índice, os filtros são avaliados primeiro
+ * sobre os resumos do índice, sem montar todos os anúncios. Os filtros
+ * restantes são encadeados do mais seletivo ao menos seletivo.
+ * 
+ * Resultados paginados (executarPagina) saem em ordem de preço, área,
+ * preço por m² ou publicação, k por vez, por um heap limitado; em ordem
+ * de preço no catálogo indexado, a busca percorre o índice de preço e para
+ * ao completar a página.
+ * 
+ * Listas com busca.paralela.limiar candidatos ou mais são filtradas em
+ * blocos paralelos (BuscaParalelaDecorator) por um ForkJoinPool de
+ * busca.paralela.nivel threads, compartilhado entre as buscas.
  */
 public class SearchFilterService {
     
+    private static ForkJoinPool poolParalelo;
+    
     private UIController uiController;
+    private IndicesBusca indices;
+    private int limiarParalelo;
     
     /**
      * Construtor com injeção do UIController para mensagens de erro
      */
     public SearchFilterService(UIController uiController) {
+        this(uiController, null);
+    }
+    
+    /**
+     * @param indices Índices do catálogo (null para sempre percorrer a lista)
+     */
+    public SearchFilterService(UIController uiController, IndicesBusca indices) {
         this.uiController = uiController;
+        this.indices = indices;
+        this.limiarParalelo = Integer.parseInt(ConfigurationManager.getInstance()
+                .getProperty("busca.paralela.limiar", "50000").trim());
     }
     
     /**
      * Aplica filtros aos anúncios de forma composável
-     * 
-     * Fluxo:
-     * 1. Cria BuscaPadrao com todos os anúncios
-     * 2. Envolve com FiltroPrecoDecorator se preços informados
-     * 3. Envolve com FiltroLocalizacaoDecorator se cidade/estado informados
-     * 4. Envolve com FiltroTipoImovelDecorator se tipo informado
-     * 5. Retorna a chain completa (ou parcial se algum filtro estiver vazio)
-     * 
-     * @param anuncios Lista de anúncios a filtrar
-     * @param precoMin Preço mínimo (pode estar vazio)
-     * @param precoMax Preço máximo (pode estar vazio)
-     * @param cidade Cidade para filtro de localização (pode estar vazia)
-     * @param estado Estado para filtro de localização (pode estar vazio)
-     * @param tipo Tipo de imóvel para filtro (pode estar vazio)
-     * @return BuscaFiltro com todos os decorators aplicáveis compostos
+     * (sem filtros de tipo de anúncio, situação, palavras-chave e área)
      */
     public BuscaFiltro aplicarFiltros(
             List<Anuncio> anuncios,
@@ -67,34 +118,262 @@ public class SearchFilterService {
             String cidade,
             String estado,
             String tipo) {
-        
-        // Iniciar com a busca padrão (retorna todos)
-        BuscaFiltro busca = new BuscaPadrao(anuncios);
-        
-        // Aplicar filtro de preço se informado
+        return aplicarFiltros(anuncios,
+                criterios(new String[] { precoMin, precoMax, cidade, estado, tipo, "", "", "" }, null));
+    }
+    
+    /**
+     * Aplica filtros aos anúncios de forma composável, na ordem escolhida
+     * pelo planejador (ver planejar e montarBusca)
+     * 
+     * @param anuncios Lista de anúncios a filtrar
+     * @param criterios Filtros já validados (ver criterios)
+     * @return BuscaFiltro com todos os decorators aplicáveis compostos
+     */
+    public BuscaFiltro aplicarFiltros(List<Anuncio> anuncios, CriteriosBusca criterios) {
+        return montarBusca(anuncios, planejar(anuncios, criterios, null, 0));
+    }
+    
+    /**
+     * Valida os filtros digitados (UIController.coletarFiltrosBusca) e monta
+     * os critérios da busca. Preços inválidos são ignorados com uma mensagem
+     * de erro; preço e localização só valem preenchidos por completo.
+     * 
+     * Tipo, tipo de anúncio e situação aceitam mais de um valor separados
+     * por vírgula (qualquer um deles atende ao filtro). As palavras-chave são
+     * todas exigidas no título ou na descrição, sem acentos nem maiúsculas.
+     * 
+     * @param filtros [precoMin, precoMax, cidade, estado, tipo, tipoAnuncio, situacao, texto],
+     *                cada um podendo estar vazio
+     * @param area Raio (AreaGeografica.raio) ou retângulo (AreaGeografica.retangulo);
+     *             null sem filtro de área
+     */
+    public CriteriosBusca criterios(String[] filtros, AreaGeografica area) {
+        String precoMin = filtros[0];
+        String precoMax = filtros[1];
+        Double min = null;
+        Double max = null;
         if (!precoMin.isEmpty() && !precoMax.isEmpty()) {
             try {
-                double min = Double.parseDouble(precoMin);
-                double max = Double.parseDouble(precoMax);
-                busca = new FiltroPrecoDecorator(busca, min, max);
+                min = Double.parseDouble(precoMin);
+                max = Double.parseDouble(precoMax);
             } catch (NumberFormatException e) {
+                min = null;
+                max = null;
                 uiController.exibirErro("Preços inválidos, filtro de preço ignorado.");
             }
         }
+        String cidade = filtros[2];
+        String estado = filtros[3];
+        boolean filtrarLocalizacao = !cidade.isEmpty() && !estado.isEmpty();
+        return new CriteriosBusca(min, max,
+                filtrarLocalizacao ? cidade : null,
+                filtrarLocalizacao ? estado : null,
+                FiltroBaseDecorator.valores(filtros[4]),
+                FiltroBaseDecorator.valores(filtros[5]),
+                FiltroBaseDecorator.valores(filtros[6]),
+                filtros[7],
+                area);
+    }
+    
+    /**
+     * Escolhe o plano da busca: caminho de acesso (varredura ou índice) e
+     * ordem dos filtros. Numa busca paginada, o custo considera só o
+     * necessário para montar as páginas de limite anúncios na ordenação
+     * informada. PlanoBusca.explain() descreve a escolha.
+     * 
+     * @param criterios Filtros já validados (ver criterios)
+     * @param ordenacao Ordenação das páginas (null para a busca completa)
+     * @param limite Anúncios por página
+     */
+    public PlanoBusca planejar(List<Anuncio> anuncios, CriteriosBusca criterios, Ordenacao ordenacao, int limite) {
+        return new PlanejadorBusca(indices).planejar(anuncios, criterios, ordenacao, limite);
+    }
+    
+    /**
+     * Monta a cadeia de decorators de um plano
+     * 
+     * Fluxo:
+     * 1. Cria BuscaPadrao com os candidatos do caminho de acesso do plano
+     *    (índice, resumos do catálogo preguiçoso ou a lista inteira)
+     * 2. Envolve com um decorator por filtro, na ordem do plano: o primeiro
+     *    filtro é o mais interno da cadeia e é avaliado antes dos demais
+     * 3. Com candidatos suficientes, avalia a cadeia em blocos paralelos
+     *    (BuscaParalelaDecorator), na ordem dos candidatos
+     * 4. Retorna a chain completa (ou parcial se algum filtro estiver vazio)
+     * 
+     * No catálogo indexado, a mesma busca (filtros normalizados) repetida sem
+     * alterações no meio vem do CacheBusca, sem montar a cadeia; uma busca
+     * nova é guardada pelo CacheBuscaDecorator ao ser executada. Uma busca
+     * paginada na ordem do índice de preço não é guardada: ela não chega a
+     * calcular o resultado inteiro. Nem uma busca por palavras em ordem de
+     * relevância: a relevância de cada anúncio vem do filtro de texto da cadeia.
+     */
+    public BuscaFiltro montarBusca(List<Anuncio> anuncios, PlanoBusca plano) {
+        CriteriosBusca criterios = plano.getCriterios();
+        boolean indexado = indices != null && indices.cobre(anuncios);
+        boolean porRelevancia = criterios.temTexto() && plano.getOrdenacao() == Ordenacao.RELEVANCIA;
+        CacheBusca cache = indexado && !plano.isOrdenadoPeloAcesso() && !porRelevancia ? indices.getCache() : null;
+        String chave = criterios.chave();
+        long geracao = 0;
+        if (cache != null) {
+            List<Anuncio> emCache = cache.buscar(chave);
+            if (emCache != null) {
+                return new BuscaPadrao(emCache);
+            }
+            geracao = cache.getGeracao();
+        }
         
-        // Aplicar filtro de localização se informado
-        if (!cidade.isEmpty() && !estado.isEmpty()) {
-            busca = new FiltroLocalizacaoDecorator(busca, cidade, estado);
+        // Palavras-chave respondidas uma vez pelo índice: candidatos e filtro usam o mesmo resultado
+        IndiceTexto.Resultado resultadoTexto = indexado && criterios.temTexto()
+                ? indices.getTexto().consultar(criterios.getTermosTexto()) : null;
+        List<Anuncio> candidatos = candidatos(anuncios, plano, resultadoTexto);
+        BuscaFiltro busca = plano.isOrdenadoPeloAcesso()
+                ? new BuscaPadrao(candidatos, plano.getOrdenacao())
+                : new BuscaPadrao(candidatos);
+        
+        for (PlanoBusca.Etapa etapa : plano.getEtapas()) {
+            switch (etapa.getFiltro()) {
+                case PRECO:
+                    busca = new FiltroPrecoDecorator(busca, criterios.getPrecoMin(), criterios.getPrecoMax());
+                    break;
+                case LOCALIZACAO:
+                    busca = new FiltroLocalizacaoDecorator(busca, criterios.getCidade(), criterios.getEstado());
+                    break;
+                case TIPO_IMOVEL:
+                    busca = new FiltroTipoImovelDecorator(busca, String.join(",", criterios.getTipos()));
+                    break;
+                case TIPO_ANUNCIO:
+                    busca = new FiltroTipoAnuncioDecorator(busca, String.join(",", criterios.getTiposAnuncio()));
+                    break;
+                case SITUACAO:
+                    busca = new FiltroSituacaoDecorator(busca, String.join(",", criterios.getSituacoes()));
+                    break;
+                case TEXTO:
+                    busca = new FiltroTextoDecorator(busca, criterios.getTexto(), resultadoTexto);
+                    break;
+                case AREA:
+                    busca = new FiltroAreaDecorator(busca, criterios.getArea());
+                    break;
+                default:
+                    break;
+            }
         }
         
-        // Aplicar filtro de tipo se informado
-        if (!tipo.isEmpty()) {
-            busca = new FiltroTipoImovelDecorator(busca, tipo);
+        // O catálogo preguiçoso hidrata anúncios ao ser lido: fica na thread de quem busca
+        if (limiarParalelo > 0 && candidatos.size() >= limiarParalelo && !(candidatos instanceof CatalogoLazy)
+                && !plano.isOrdenadoPeloAcesso()) {
+            ForkJoinPool pool = poolParalelo();
+            if (pool.getParallelism() > 1) {
+                busca = new BuscaParalelaDecorator(busca, pool, limiarParalelo);
+            }
         }
         
+        if (cache != null) {
+            busca = new CacheBuscaDecorator(busca, cache, chave, geracao);
+        }
         return busca;
     }
     
+    /**
+     * Candidatos do caminho de acesso do plano. Os índices de preço (em
+     * ordem de preço) e de localização entregam só os anúncios da faixa ou
+     * da região; na ordem do índice de preço, a faixa é lida sob demanda
+     * (sem filtro de preço, o índice inteiro). Os bitmaps de tipo, tipo de anúncio e situação são
+     * combinados (OU entre valores, E entre campos) sem tocar em nenhum anúncio.
+     * O índice de texto entrega os anúncios com todas as palavras-chave, e a
+     * grade geográfica os pontos dentro da área, lendo só as células que a cruzam.
+     */
+    private List<Anuncio> candidatos(List<Anuncio> anuncios, PlanoBusca plano,
+            IndiceTexto.Resultado resultadoTexto) {
+        CriteriosBusca criterios = plano.getCriterios();
+        switch (plano.getAcesso()) {
+            case INDICE_PRECO:
+                if (plano.isOrdenadoPeloAcesso()) {
+                    return indices.getPreco().percorrer(
+                            criterios.temPreco() ? criterios.getPrecoMin() : Double.NEGATIVE_INFINITY,
+                            criterios.temPreco() ? criterios.getPrecoMax() : Double.POSITIVE_INFINITY);
+                }
+                return indices.getPreco().buscar(criterios.getPrecoMin(), criterios.getPrecoMax());
+            case INDICE_LOCALIZACAO:
+                return indices.getLocalizacao().buscar(criterios.getEstado(), criterios.getCidade());
+            case INDICE_CATEGORIAS:
+                return indices.getCategorias().anuncios(selecaoCategorias(criterios));
+            case INDICE_TEXTO:
+                return resultadoTexto.getAnuncios();
+            case INDICE_GEOGRAFICO:
+                return indices.getGeografico().buscar(criterios.getArea());
+            case RESUMOS:
+                return preSelecionar((CatalogoLazy) anuncios, criterios);
+            default:
+                return anuncios;
+        }
+    }
+    
+    /**
+     * Pool das buscas paralelas, criado na primeira busca grande com
+     * busca.paralela.nivel threads (0: uma por processador)
+     */
+    private static synchronized ForkJoinPool poolParalelo() {
+        if (poolParalelo == null) {
+            int nivel = Integer.parseInt(ConfigurationManager.getInstance()
+                    .getProperty("busca.paralela.nivel", "0").trim());
+            poolParalelo = new ForkJoinPool(nivel > 0 ? nivel : Runtime.getRuntime().availableProcessors());
+        }
+        return poolParalelo;
+    }
+    
+    private BitmapCompactado selecaoCategorias(CriteriosBusca criterios) {
+        IndiceBitmap categorias = indices.getCategorias();
+        BitmapCompactado selecao = null;
+        if (!criterios.getTipos().isEmpty()) {
+            selecao = categorias.comValores(IndiceBitmap.Campo.TIPO_IMOVEL, criterios.getTipos());
+        }
+        if (!criterios.getTiposAnuncio().isEmpty()) {
+            selecao = intersecao(selecao,
+                    categorias.comValores(IndiceBitmap.Campo.TIPO_ANUNCIO, criterios.getTiposAnuncio()));
+        }
+        if (!criterios.getSituacoes().isEmpty()) {
+            selecao = intersecao(selecao,
+                    categorias.comValores(IndiceBitmap.Campo.SITUACAO, criterios.getSituacoes()));
+        }
+        return selecao;
+    }
+    
+    private static BitmapCompactado intersecao(BitmapCompactado atual, BitmapCompactado outro) {
+        return atual == null ? outro : BitmapCompactado.e(atual, outro);
+    }
+    
+    /**
+     * No catálogo preguiçoso, seleciona os candidatos pelos resumos do índice,
+     * montando apenas os anúncios que passam nos filtros. Os decorators
+     * continuam aplicando os mesmos critérios sobre os objetos completos.
+     */
+    private List<Anuncio> preSelecionar(CatalogoLazy catalogo, CriteriosBusca criterios) {
+        Double min = criterios.getPrecoMin();
+        Double max = criterios.getPrecoMax();
+        String regiao = criterios.temLocalizacao()
+                ? IndiceLocalizacao.chave(criterios.getEstado(), criterios.getCidade()) : null;
+        List<String> tipos = criterios.getTipos();
+        List<String> tiposAnuncio = criterios.getTiposAnuncio();
+        List<String> situacoes = criterios.getSituacoes();
+        return catalogo.filtrar(resumo ->
+                (min == null || (resumo.getPreco() >= min && resumo.getPreco() <= max))
+                && (regiao == null || regiao.equals(IndiceLocalizacao.chave(resumo.getEstado(), resumo.getCidade())))
+                && (tipos.isEmpty() || contem(tipos, resumo.getTipo()))
+                && (tiposAnuncio.isEmpty() || contem(tiposAnuncio, resumo.getTipoAnuncio()))
+                && (situacoes.isEmpty() || contem(situacoes, resumo.getSituacao())));
+    }
+    
+    private static boolean contem(List<String> valores, String valor) {
+        for (String aceito : valores) {
+            if (aceito.equalsIgnoreCase(valor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Executar busca com filtros já aplicados
      * 
@@ -105,4 +384,20 @@ public class SearchFilterService {
         System.out.println("🔍 Executando busca com filtros...\n");
         return busca.buscar();
     }
+    
+    /**
+     * Executar uma página da busca com filtros já aplicados
+     * 
+     * @param busca A chain de decorators já construída
+     * @param ordenacao Ordem dos resultados
+     * @param limite Anúncios por página
+     * @param cursor Cursor da página anterior (null para a primeira)
+     * @return Página com até limite anúncios e o cursor da seguinte
+     */
+    public PaginaBusca executarPagina(BuscaFiltro busca, Ordenacao ordenacao, int limite, CursorBusca cursor) {
+        if (cursor == null) {
+            System.out.println("🔍 Executando busca com filtros...\n");
+        }
+        return busca.buscarPagina(ordenacao, limite, cursor);
+    }
 }
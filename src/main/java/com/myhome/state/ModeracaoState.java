@@ -1,5 +1,7 @@
 package com.myhome.state;
 
+import java.util.Date;
+
 import com.myhome.model.Anuncio;
 import com.myhome.service.ChainValidationService;
 
@@ -17,6 +19,10 @@ public class ModeracaoState extends AnuncioState {
         
         if (validationService.validarAnuncio(this.anuncio)) {
             System.out.println("Anúncio aprovado na moderação. Movendo para estado Ativo.");
+            // Primeira publicação: usada na ordenação "mais recentes" da busca
+            if (this.anuncio.getDataPublicacao() == null) {
+                this.anuncio.setDataPublicacao(new Date());
+            }
             this.anuncio.setState(new AtivoState(this.anuncio));
         } else {
             System.out.println("Anúncio reprovado na moderação. Movendo para estado Suspenso.");
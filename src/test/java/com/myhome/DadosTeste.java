@@ -0,0 +1,95 @@
+package com.myhome;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import com.myhome.model.Anuncio;
+import com.myhome.model.Apartamento;
+import com.myhome.model.Casa;
+import com.myhome.model.Endereco;
+import com.myhome.model.Imovel;
+import com.myhome.model.SalaComercial;
+import com.myhome.model.Terreno;
+import com.myhome.model.TipoAnuncio;
+import com.myhome.model.Usuario;
+
+/**
+ * Anúncios e usuários gerados para os testes: determinísticos pelo índice,
+ * com os quatro tipos de imóvel, regiões variadas e anunciantes repetidos
+ */
+public final class DadosTeste {
+
+    private static final String[][] CIDADES = {
+        { "João Pessoa", "PB" }, { "Campina Grande", "PB" }, { "Recife", "PE" },
+        { "Natal", "RN" }, { "São Paulo", "SP" }, { "Campinas", "SP" },
+        { "Rio de Janeiro", "RJ" }, { "Curitiba", "PR" }
+    };
+
+    private DadosTeste() {
+    }
+
+    /**
+     * Anúncios "1".."quantidade", com um anunciante a cada dez anúncios
+     */
+    public static List<Anuncio> anuncios(int quantidade) {
+        List<Anuncio> anuncios = new ArrayList<>(quantidade);
+        List<Usuario> anunciantes = usuarios(Math.max(1, quantidade / 10));
+        for (int i = 0; i < quantidade; i++) {
+            anuncios.add(anuncio(i, anunciantes.get(i % anunciantes.size())));
+        }
+        return anuncios;
+    }
+
+    public static Anuncio anuncio(int i, Usuario anunciante) {
+        Imovel imovel;
+        switch (i % 4) {
+            case 0:
+                Casa casa = new Casa();
+                casa.setQuartos(1 + i % 5);
+                casa.setBanheiros(1 + i % 3);
+                imovel = casa;
+                break;
+            case 1:
+                Apartamento apartamento = new Apartamento();
+                apartamento.setQuartos(1 + i % 4);
+                apartamento.setAndar(i % 20);
+                imovel = apartamento;
+                break;
+            case 2:
+                Terreno terreno = new Terreno();
+                terreno.setZoneamento("Residencial");
+                imovel = terreno;
+                break;
+            default:
+                SalaComercial sala = new SalaComercial();
+                sala.setAndar(1 + i % 10);
+                imovel = sala;
+        }
+        String[] cidade = CIDADES[i % CIDADES.length];
+        imovel.setArea(40 + i % 400);
+        imovel.setEndereco(new Endereco("Rua " + (i % 997), String.valueOf(i % 1500), cidade[0], cidade[1]));
+
+        Anuncio anuncio = new Anuncio();
+        anuncio.setId(String.valueOf(i + 1));
+        anuncio.setTitulo("Imóvel " + i + " em " + cidade[0]);
+        anuncio.setDescricao("Descrição do anúncio " + i + ", com \"aspas\", vírgulas e\nquebra de linha");
+        anuncio.setPreco(50_000 + (i * 7919L) % 2_000_000);
+        anuncio.setTipoAnuncio(TipoAnuncio.values()[i % TipoAnuncio.values().length]);
+        anuncio.setImovel(imovel);
+        anuncio.setAnunciante(anunciante);
+        anuncio.setDataPublicacao(new Date(1_700_000_000_000L + i * 60_000L));
+        return anuncio;
+    }
+
+    /**
+     * Usuários "usuario0@teste.com".."usuario{n-1}@teste.com"
+     */
+    public static List<Usuario> usuarios(int quantidade) {
+        List<Usuario> usuarios = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            usuarios.add(new Usuario("Usuário " + i, "usuario" + i + "@teste.com", "8399900" + String.format("%04d", i % 10000)));
+        }
+        return usuarios;
+    }
+}
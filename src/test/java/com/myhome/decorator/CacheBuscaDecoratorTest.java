@@ -0,0 +1,70 @@
+package com.myhome.decorator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.myhome.DadosTeste;
+import com.myhome.busca.CacheBusca;
+import com.myhome.model.Anuncio;
+
+/**
+ * Invalidação do CacheBusca com a cadeia avaliada em paralelo: o critério
+ * guardado é o dos filtros dentro do BuscaParalelaDecorator
+ */
+public class CacheBuscaDecoratorTest {
+
+    private static final String CHAVE = "preco<=300000";
+
+    private final List<Anuncio> anuncios = DadosTeste.anuncios(2_000);
+    private final CacheBusca cache = new CacheBusca(16, 10_000);
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @After
+    public void fechar() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void alteracaoForaDosFiltrosNaoInvalida() {
+        List<Anuncio> resultado = buscarEmParalelo();
+        assertTrue(resultado.size() > 0);
+
+        Anuncio caro = primeiroComPrecoAcimaDe(300_000);
+        caro.setPreco(caro.getPreco() + 1);
+        cache.atualizar(caro);
+
+        assertEquals(0, cache.getInvalidacoes());
+        assertNotNull(cache.buscar(CHAVE));
+    }
+
+    @Test
+    public void alteracaoQuePassaNosFiltrosInvalida() {
+        buscarEmParalelo();
+
+        Anuncio caro = primeiroComPrecoAcimaDe(300_000);
+        caro.setPreco(100_000);
+        cache.atualizar(caro);
+
+        assertEquals(1, cache.getInvalidacoes());
+        assertNull(cache.buscar(CHAVE));
+    }
+
+    private List<Anuncio> buscarEmParalelo() {
+        BuscaFiltro filtros = new FiltroPrecoDecorator(new BuscaPadrao(anuncios), 0, 300_000);
+        BuscaFiltro busca = new CacheBuscaDecorator(new BuscaParalelaDecorator(filtros, pool, 1),
+                cache, CHAVE, cache.getGeracao());
+        return busca.buscar();
+    }
+
+    private Anuncio primeiroComPrecoAcimaDe(double preco) {
+        return anuncios.stream().filter(anuncio -> anuncio.getPreco() > preco).findFirst().get();
+    }
+}
@@ -0,0 +1,101 @@
+package com.myhome.decorator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.myhome.DadosTeste;
+import com.myhome.model.Anuncio;
+
+/**
+ * Passada única da cadeia de filtros: só o trecho contíguo de decorators
+ * que filtram por aceita() é fundido; quem sobrescreve buscar() é chamado
+ */
+public class FiltroBaseDecoratorTest {
+
+    private final List<Anuncio> anuncios = DadosTeste.anuncios(400);
+
+    @Test
+    public void cadeiaSoDeFiltrosEFundidaNaOrigem() {
+        BuscaPadrao padrao = new BuscaPadrao(anuncios);
+        BuscaFiltro cadeia = new FiltroPrecoDecorator(
+                new FiltroLocalizacaoDecorator(padrao, "Recife", "PE"), 0, 1_000_000);
+
+        assertTrue(FiltroBaseDecorator.fundivel(cadeia));
+        assertEquals(padrao, FiltroBaseDecorator.origemDaCadeia(cadeia));
+        assertEquals(esperados(a -> cidade(a, "Recife") && a.getPreco() <= 1_000_000), cadeia.buscar());
+    }
+
+    @Test
+    public void decoratorQueSobrescreveBuscarEChamado() {
+        BuscaPadrao padrao = new BuscaPadrao(anuncios);
+        FiltroAreaMinimaAntigo antigo = new FiltroAreaMinimaAntigo(
+                new FiltroLocalizacaoDecorator(padrao, "Recife", "PE"), 200);
+        BuscaFiltro cadeia = new FiltroPrecoDecorator(antigo, 0, 1_000_000);
+
+        // A fusão do topo para no decorator antigo, que é a origem da passada
+        assertFalse(FiltroBaseDecorator.fundivel(antigo));
+        assertEquals(antigo, FiltroBaseDecorator.origemDaCadeia(cadeia));
+
+        List<Anuncio> esperados = esperados(a -> cidade(a, "Recife")
+                && a.getImovel().getArea() >= 200 && a.getPreco() <= 1_000_000);
+        assertEquals(esperados, cadeia.buscar());
+        assertEquals(1, antigo.chamadas);
+
+        PaginaBusca pagina = cadeia.buscarPagina(Ordenacao.PRECO, 5, null);
+        List<Anuncio> maisBaratos = esperados.stream()
+                .sorted((a, b) -> Double.compare(a.getPreco(), b.getPreco()))
+                .limit(5)
+                .collect(Collectors.toList());
+        assertEquals(maisBaratos, pagina.getItens());
+        assertEquals(2, antigo.chamadas);
+    }
+
+    @Test
+    public void criterioDaCadeiaSemAceitaNaoRejeita() {
+        BuscaFiltro antigo = new FiltroAreaMinimaAntigo(new BuscaPadrao(anuncios), 10_000);
+        for (Anuncio anuncio : anuncios) {
+            assertTrue(FiltroBaseDecorator.aceitaCadeia(antigo, anuncio));
+        }
+    }
+
+    private List<Anuncio> esperados(Predicate<Anuncio> criterio) {
+        return anuncios.stream().filter(criterio).collect(Collectors.toList());
+    }
+
+    private static boolean cidade(Anuncio anuncio, String cidade) {
+        return anuncio.getImovel().getEndereco().getCidade().equals(cidade);
+    }
+
+    /**
+     * Decorator no estilo anterior à passada única: filtra em buscar(), sem aceita()
+     */
+    private static class FiltroAreaMinimaAntigo extends FiltroBaseDecorator {
+        private final double areaMinima;
+        int chamadas;
+
+        FiltroAreaMinimaAntigo(BuscaFiltro wrappee, double areaMinima) {
+            super(wrappee);
+            this.areaMinima = areaMinima;
+        }
+
+        @Override
+        public List<Anuncio> buscar() {
+            chamadas++;
+            List<Anuncio> anunciosFiltrados = new ArrayList<>();
+            for (Anuncio anuncio : this.wrappee.buscar()) {
+                if (anuncio.getImovel().getArea() >= areaMinima) {
+                    anunciosFiltrados.add(anuncio);
+                }
+            }
+            return anunciosFiltrados;
+        }
+    }
+}
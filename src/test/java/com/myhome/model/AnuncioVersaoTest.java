@@ -0,0 +1,86 @@
+package com.myhome.model;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.myhome.DadosTeste;
+
+/**
+ * Controle de alterações do anúncio (salvamento incremental): edições no
+ * imóvel e no endereço também deixam o anúncio modificado
+ */
+public class AnuncioVersaoTest {
+
+    private Anuncio anuncio;
+
+    @Before
+    public void salvo() {
+        anuncio = DadosTeste.anuncio(0, new Usuario("Ana", "ana@teste.com", "83999990000"));
+        anuncio.marcarComoSalvo();
+        assertFalse(anuncio.isModificado());
+    }
+
+    @Test
+    public void campoDoAnuncio() {
+        anuncio.setPreco(anuncio.getPreco() + 1);
+        assertTrue(anuncio.isModificado());
+    }
+
+    @Test
+    public void campoDoImovel() {
+        ((Casa) anuncio.getImovel()).setQuartos(9);
+        assertTrue(anuncio.isModificado());
+    }
+
+    @Test
+    public void areaDoImovel() {
+        anuncio.getImovel().setArea(999);
+        assertTrue(anuncio.isModificado());
+    }
+
+    @Test
+    public void coordenadasDoEndereco() {
+        anuncio.getImovel().getEndereco().setCoordenadas(-7.1, -34.8);
+        assertTrue(anuncio.isModificado());
+    }
+
+    @Test
+    public void anunciante() {
+        anuncio.getAnunciante().setTelefone("83911112222");
+        assertTrue(anuncio.isModificado());
+    }
+
+    @Test
+    public void trocaPorImovelComVersaoMenorNaoVoltaAVersaoSalva() {
+        Imovel imovel = anuncio.getImovel();
+        imovel.setArea(200);
+        imovel.getEndereco().setCoordenadas(-7.1, -34.8);
+        anuncio.marcarComoSalvo();
+
+        anuncio.setImovel(new Casa());
+        assertTrue(anuncio.isModificado());
+    }
+
+    @Test
+    public void trocaDeEnderecoComVersaoMenorNaoVoltaAVersaoSalva() {
+        Endereco endereco = anuncio.getImovel().getEndereco();
+        endereco.setCoordenadas(-7.1, -34.8);
+        endereco.setCoordenadas(-7.2, -34.9);
+        anuncio.marcarComoSalvo();
+
+        anuncio.getImovel().setEndereco(new Endereco("Rua B", "2", "Recife", "PE"));
+        assertTrue(anuncio.isModificado());
+    }
+
+    @Test
+    public void alteracaoDuranteGravacaoContinuaPendente() {
+        int versaoLida = anuncio.getVersao();
+        int versaoAnunciante = anuncio.getAnunciante().getVersao();
+        anuncio.getImovel().setArea(321);
+        anuncio.marcarComoSalvo(versaoLida, versaoAnunciante);
+        assertTrue(anuncio.isModificado());
+    }
+}
@@ -0,0 +1,127 @@
+package com.myhome.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.myhome.DadosTeste;
+import com.myhome.model.Anuncio;
+
+/**
+ * Gravação atômica: JSON puro com o CRC32C em "<arquivo>.crc", rodapé só
+ * nos binários, e uma geração danificada nunca vira a geração anterior
+ */
+public class ArquivoAtomicoTest {
+
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    private final AnuncioJsonCodec codec = new AnuncioJsonCodec();
+    private final FormatoJson json = new FormatoJson(codec);
+
+    @Test
+    public void jsonGravadoSemRodape() throws IOException {
+        Path arquivo = pasta.getRoot().toPath().resolve("anuncios.json");
+        json.salvarAnuncios(arquivo, DadosTeste.anuncios(30));
+
+        // Legível como JSON comum, sem passar pelo ArquivoAtomico
+        List<Anuncio> lidos = new ArrayList<>();
+        try (Reader in = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            codec.lerAnuncios(in, lidos::add);
+        }
+        assertEquals(30, lidos.size());
+        String texto = new String(Files.readAllBytes(arquivo), StandardCharsets.UTF_8).trim();
+        assertTrue(texto.endsWith("]") || texto.endsWith("}"));
+
+        assertTrue(Files.exists(ArquivoAtomico.verificacao(arquivo)));
+        assertNotEquals(0, ArquivoAtomico.checksum(arquivo));
+        assertEquals(30, carregar(arquivo).size());
+    }
+
+    @Test
+    public void binarioMantemRodapeSemArquivoCrc() throws IOException {
+        Path arquivo = pasta.getRoot().toPath().resolve("dados.bin");
+        ArquivoAtomico.gravar(arquivo, saida -> saida.write(new byte[] { 1, 2, 3 }));
+
+        assertEquals(3 + 16, Files.size(arquivo));
+        assertFalse(Files.exists(ArquivoAtomico.verificacao(arquivo)));
+        assertNotEquals(0, ArquivoAtomico.checksum(arquivo));
+        assertEquals(3, ArquivoAtomico.mapear(arquivo).remaining());
+    }
+
+    @Test
+    public void jsonDanificadoRecuperaGeracaoAnterior() throws IOException {
+        Path arquivo = pasta.getRoot().toPath().resolve("anuncios.json");
+        json.salvarAnuncios(arquivo, DadosTeste.anuncios(10));
+        json.salvarAnuncios(arquivo, DadosTeste.anuncios(20));
+        danificar(arquivo);
+
+        try {
+            carregar(arquivo);
+            fail("conteúdo danificado aceito");
+        } catch (ChecksumInvalidoException e) {
+            assertEquals(arquivo, e.getArquivo());
+        }
+        assertEquals(10, carregar(ArquivoAtomico.anterior(arquivo)).size());
+    }
+
+    @Test
+    public void geracaoDanificadaNaoSubstituiAAnterior() throws IOException {
+        Path arquivo = pasta.getRoot().toPath().resolve("anuncios.json");
+        json.salvarAnuncios(arquivo, DadosTeste.anuncios(10));
+        json.salvarAnuncios(arquivo, DadosTeste.anuncios(20));
+        danificar(arquivo);
+
+        json.salvarAnuncios(arquivo, DadosTeste.anuncios(30));
+
+        assertEquals(30, carregar(arquivo).size());
+        assertEquals(10, carregar(ArquivoAtomico.anterior(arquivo)).size());
+    }
+
+    @Test
+    public void quedaEntreOsRenamesAceitaOCrcTemporario() throws IOException {
+        Path arquivo = pasta.getRoot().toPath().resolve("anuncios.json");
+        json.salvarAnuncios(arquivo, DadosTeste.anuncios(10));
+        Path verificacao = ArquivoAtomico.verificacao(arquivo);
+        byte[] crcAntigo = Files.readAllBytes(verificacao);
+        json.salvarAnuncios(arquivo, DadosTeste.anuncios(20));
+
+        // Conteúdo novo já renomeado, .crc novo ainda como .crc.tmp
+        Files.move(verificacao, verificacao.resolveSibling(verificacao.getFileName() + ".tmp"));
+        Files.write(verificacao, crcAntigo);
+
+        assertEquals(20, carregar(arquivo).size());
+    }
+
+    private List<Anuncio> carregar(Path arquivo) throws IOException {
+        List<Anuncio> anuncios = new ArrayList<>();
+        json.carregarAnuncios(arquivo, anuncios::add);
+        return anuncios;
+    }
+
+    /**
+     * Troca um byte no meio do arquivo, como um disco com defeito (tamanho igual)
+     */
+    private static void danificar(Path arquivo) throws IOException {
+        FileTime gravado = Files.getLastModifiedTime(arquivo);
+        byte[] conteudo = Files.readAllBytes(arquivo);
+        conteudo[conteudo.length / 2] ^= 0x01;
+        Files.write(arquivo, conteudo);
+        Files.setLastModifiedTime(arquivo, FileTime.fromMillis(gravado.toMillis() - 60_000));
+    }
+}
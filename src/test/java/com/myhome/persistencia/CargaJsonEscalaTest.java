@@ -0,0 +1,103 @@
+package com.myhome.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.myhome.DadosTeste;
+import com.myhome.model.Anuncio;
+
+/**
+ * Carga de anuncios.json pelo JsonReader/AnuncioJsonCodec: os campos gravados
+ * voltam iguais, e o tempo por anúncio não cresce com o tamanho do arquivo
+ * (carga linear). A medição de tempo só roda com -Dmyhome.benchmark=true.
+ */
+public class CargaJsonEscalaTest {
+
+    private static final int[] TAMANHOS = { 20_000, 80_000, 320_000 };
+
+    // Folga para ruído de GC/JIT: quadrático daria 16x entre 20k e 320k
+    private static final double CRESCIMENTO_MAXIMO = 3.0;
+
+    @Rule
+    public TemporaryFolder pasta = new TemporaryFolder();
+
+    private final AnuncioJsonCodec codec = new AnuncioJsonCodec();
+
+    @Test
+    public void leOsCamposGravados() throws IOException {
+        List<Anuncio> originais = DadosTeste.anuncios(50);
+        List<Anuncio> lidos = ler(gravar(originais));
+
+        assertEquals(originais.size(), lidos.size());
+        for (int i = 0; i < originais.size(); i++) {
+            Anuncio original = originais.get(i);
+            Anuncio lido = lidos.get(i);
+            assertEquals(original.getId(), lido.getId());
+            assertEquals(original.getTitulo(), lido.getTitulo());
+            assertEquals(original.getDescricao(), lido.getDescricao());
+            assertEquals(original.getPreco(), lido.getPreco(), 0.0);
+            assertEquals(original.getImovel().getTipo(), lido.getImovel().getTipo());
+            assertEquals(original.getImovel().getEndereco().getEstado(), lido.getImovel().getEndereco().getEstado());
+            assertEquals(original.getState().getNome(), lido.getState().getNome());
+            assertEquals(original.getAnunciante().getEmail(), lido.getAnunciante().getEmail());
+        }
+    }
+
+    @Test
+    public void tempoDeCargaCresceLinearmente() throws IOException {
+        assumeTrue("medição de tempo: rodar com -Dmyhome.benchmark=true", Boolean.getBoolean("myhome.benchmark"));
+
+        // Aquecimento do JIT antes das medições
+        Path aquecimento = gravar(DadosTeste.anuncios(TAMANHOS[0]));
+        for (int i = 0; i < 3; i++) {
+            ler(aquecimento);
+        }
+
+        double[] nanosPorAnuncio = new double[TAMANHOS.length];
+        for (int i = 0; i < TAMANHOS.length; i++) {
+            Path arquivo = gravar(DadosTeste.anuncios(TAMANHOS[i]));
+            long melhor = Long.MAX_VALUE;
+            for (int repeticao = 0; repeticao < 2; repeticao++) {
+                long inicio = System.nanoTime();
+                assertEquals(TAMANHOS[i], ler(arquivo).size());
+                melhor = Math.min(melhor, System.nanoTime() - inicio);
+            }
+            nanosPorAnuncio[i] = (double) melhor / TAMANHOS[i];
+            Files.delete(arquivo);
+        }
+
+        double crescimento = nanosPorAnuncio[TAMANHOS.length - 1] / nanosPorAnuncio[0];
+        assertTrue("tempo por anúncio cresceu " + crescimento + "x de " + TAMANHOS[0] + " para "
+                + TAMANHOS[TAMANHOS.length - 1], crescimento < CRESCIMENTO_MAXIMO);
+    }
+
+    private Path gravar(List<Anuncio> anuncios) throws IOException {
+        Path arquivo = pasta.newFile().toPath();
+        try (Writer destino = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8)) {
+            codec.escreverAnuncios(destino, anuncios);
+        }
+        return arquivo;
+    }
+
+    private List<Anuncio> ler(Path arquivo) throws IOException {
+        List<Anuncio> anuncios = new ArrayList<>();
+        try (Reader origem = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            codec.lerAnuncios(origem, anuncios::add);
+        }
+        return anuncios;
+    }
+}
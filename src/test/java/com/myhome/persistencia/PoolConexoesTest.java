@@ -0,0 +1,147 @@
+package com.myhome.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * PoolConexoes contra H2 em memória: limite de db.pool.max.connections,
+ * espera por conexão livre e transações
+ */
+public class PoolConexoesTest {
+
+    private static final int MAXIMO = 2;
+    private static final long ESPERA_MS = 300;
+
+    private final PoolConexoes pool = new PoolConexoes(
+            "jdbc:h2:mem:pool_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "", MAXIMO, ESPERA_MS);
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+
+    @After
+    public void fechar() {
+        threads.shutdownNow();
+        pool.close();
+    }
+
+    @Test
+    public void nuncaPassaDoLimite() throws Exception {
+        AtomicInteger emUso = new AtomicInteger();
+        AtomicInteger maximoEmUso = new AtomicInteger();
+        List<Future<?>> tarefas = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tarefas.add(threads.submit(() -> pool.executar(conexao -> {
+                maximoEmUso.accumulateAndGet(emUso.incrementAndGet(), Math::max);
+                segurar(() -> Thread.sleep(20));
+                emUso.decrementAndGet();
+                return null;
+            })));
+        }
+        for (Future<?> tarefa : tarefas) {
+            tarefa.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(MAXIMO, maximoEmUso.get());
+        assertTrue(pool.getAbertas() <= MAXIMO);
+    }
+
+    @Test
+    public void semConexaoLivreFalhaAposAEspera() throws Exception {
+        CountDownLatch emprestadas = new CountDownLatch(MAXIMO);
+        CountDownLatch liberar = new CountDownLatch(1);
+        for (int i = 0; i < MAXIMO; i++) {
+            threads.submit(() -> pool.executar(conexao -> {
+                emprestadas.countDown();
+                segurar(liberar::await);
+                return null;
+            }));
+        }
+        assertTrue(emprestadas.await(5, TimeUnit.SECONDS));
+
+        long inicio = System.nanoTime();
+        try {
+            pool.executar(conexao -> null);
+            fail("o pool deveria estar no limite");
+        } catch (SQLException e) {
+            long esperou = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            assertTrue("esperou " + esperou + " ms", esperou >= ESPERA_MS - 20);
+        } finally {
+            liberar.countDown();
+        }
+        // Conexões devolvidas voltam a ser emprestadas, sem abrir novas
+        assertEquals(Integer.valueOf(1), pool.executar(conexao -> 1));
+        assertTrue(pool.getAbertas() <= MAXIMO);
+    }
+
+    @Test
+    public void esperaUmaConexaoDevolvidaDentroDoPrazo() throws Exception {
+        CountDownLatch emprestadas = new CountDownLatch(MAXIMO);
+        for (int i = 0; i < MAXIMO; i++) {
+            threads.submit(() -> pool.executar(conexao -> {
+                emprestadas.countDown();
+                segurar(() -> Thread.sleep(ESPERA_MS / 3));
+                return null;
+            }));
+        }
+        assertTrue(emprestadas.await(5, TimeUnit.SECONDS));
+        assertEquals("ok", pool.executar(conexao -> "ok"));
+    }
+
+    @Test
+    public void transacaoDesfazAoFalhar() throws Exception {
+        pool.executar(conexao -> {
+            try (Statement ddl = conexao.createStatement()) {
+                ddl.executeUpdate("CREATE TABLE itens (id INT PRIMARY KEY)");
+            }
+            return null;
+        });
+        try {
+            pool.transacao(conexao -> {
+                try (Statement sql = conexao.createStatement()) {
+                    sql.executeUpdate("INSERT INTO itens VALUES (1)");
+                    sql.executeUpdate("INSERT INTO itens VALUES (1)");
+                }
+                return null;
+            });
+            fail("chave duplicada");
+        } catch (SQLException e) {
+            // esperado
+        }
+        int linhas = pool.executar(conexao -> {
+            try (Statement sql = conexao.createStatement();
+                    ResultSet contagem = sql.executeQuery("SELECT COUNT(*) FROM itens")) {
+                contagem.next();
+                return contagem.getInt(1);
+            }
+        });
+        assertEquals(0, linhas);
+    }
+
+    private interface Pausa {
+        void aguardar() throws InterruptedException;
+    }
+
+    /**
+     * Segura a conexão emprestada enquanto a pausa durar
+     */
+    private static void segurar(Pausa pausa) {
+        try {
+            pausa.aguardar();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.myhome.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.BindException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.myhome.DadosTeste;
+import com.myhome.model.Anuncio;
+
+/**
+ * Líder e seguidores em portas efêmeras de 127.0.0.1: snapshot inicial,
+ * fluxo de mutações, retomada após queda da conexão e snapshot novo
+ * quando o líder reinicia (outra época)
+ */
+public class ReplicacaoTest {
+
+    private static final long ESPERA_MS = 10_000;
+
+    private final List<Closeable> abertos = new ArrayList<>();
+    private Path pasta;
+    private List<Anuncio> catalogo;
+    private JournalAnuncios journal;
+    private LiderReplicacao lider;
+
+    @Before
+    public void iniciarLider() throws IOException, InterruptedException {
+        pasta = Files.createTempDirectory("replicacao");
+        catalogo = new CopyOnWriteArrayList<>(DadosTeste.anuncios(50));
+        journal = new JournalAnuncios(pasta.resolve("journal.jsonl"), new AnuncioJsonCodec());
+        lider = iniciar(0);
+    }
+
+    @After
+    public void fechar() throws IOException {
+        for (int i = abertos.size() - 1; i >= 0; i--) {
+            abertos.get(i).close();
+        }
+        journal.close();
+        try (Stream<Path> arquivos = Files.list(pasta)) {
+            for (Path arquivo : (Iterable<Path>) arquivos::iterator) {
+                Files.delete(arquivo);
+            }
+        }
+        Files.delete(pasta);
+    }
+
+    @Test
+    public void snapshotMutacoesRetomadaENovaEpoca() throws Exception {
+        Proxy proxy = abrir(new Proxy(lider.getPorta()));
+        List<Anuncio> viaProxy = new CopyOnWriteArrayList<>();
+        List<Anuncio> direto = new CopyOnWriteArrayList<>();
+        SeguidorReplicacao seguidorViaProxy = seguir(proxy.getPorta(), viaProxy);
+        SeguidorReplicacao seguidorDireto = seguir(lider.getPorta(), direto);
+
+        // Snapshot inicial
+        assertTrue(seguidorViaProxy.aguardarSincronizacao(ESPERA_MS));
+        assertTrue(seguidorDireto.aguardarSincronizacao(ESPERA_MS));
+        assertEquals(lider.getEpoca(), seguidorViaProxy.getEpoca());
+        assertIguais(catalogo, viaProxy);
+        assertIguais(catalogo, direto);
+
+        // Fluxo de mutações
+        criar(DadosTeste.anuncio(100, catalogo.get(0).getAnunciante()));
+        alterarPreco(3, 123_456);
+        aguardar(() -> seguidorViaProxy.getSequencia() == 2 && seguidorDireto.getSequencia() == 2);
+        assertIguais(catalogo, viaProxy);
+        assertIguais(catalogo, direto);
+
+        // Queda da conexão: o seguidor retoma da sequência 2, sem snapshot
+        Anuncio mantido = viaProxy.get(0);
+        proxy.derrubarConexoes();
+        alterarPreco(7, 777);
+        alterarPreco(8, 888);
+        aguardar(() -> seguidorViaProxy.getSequencia() == 4 && seguidorDireto.getSequencia() == 4);
+        assertSame("retomada reaproveita o catálogo local", mantido, viaProxy.get(0));
+        assertIguais(catalogo, viaProxy);
+
+        // Líder reiniciado: journal recomeça, outra época, snapshot novo para todos
+        int porta = lider.getPorta();
+        String epocaAnterior = lider.getEpoca();
+        lider.close();
+        catalogo.remove(10);
+        catalogo.get(0).setPreco(1.0);
+        journal.close();
+        journal = new JournalAnuncios(pasta.resolve("journal-2.jsonl"), new AnuncioJsonCodec());
+        lider = iniciar(porta);
+        assertNotEquals(epocaAnterior, lider.getEpoca());
+
+        aguardar(() -> lider.getEpoca().equals(seguidorViaProxy.getEpoca())
+                && lider.getEpoca().equals(seguidorDireto.getEpoca()));
+        assertEquals(0, seguidorViaProxy.getSequencia());
+        assertIguais(catalogo, viaProxy);
+        assertIguais(catalogo, direto);
+
+        alterarPreco(20, 2_020);
+        aguardar(() -> seguidorViaProxy.getSequencia() == 1 && seguidorDireto.getSequencia() == 1);
+        assertIguais(catalogo, viaProxy);
+        assertIguais(catalogo, direto);
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Na reinicialização, a porta liberada pode estar brevemente em uso como porta
+     * local de um seguidor tentando reconectar; tenta de novo até ESPERA_MS
+     */
+    private LiderReplicacao iniciar(int porta) throws IOException, InterruptedException {
+        LiderReplicacao novo = new LiderReplicacao("127.0.0.1", porta, 100, 200, journal.getSequencia(), () -> catalogo);
+        long limite = System.currentTimeMillis() + ESPERA_MS;
+        while (true) {
+            try {
+                novo.iniciar();
+                break;
+            } catch (BindException e) {
+                if (System.currentTimeMillis() > limite) {
+                    throw e;
+                }
+                Thread.sleep(20);
+            }
+        }
+        journal.adicionarOuvinte(novo);
+        return abrir(novo);
+    }
+
+    private SeguidorReplicacao seguir(int porta, List<Anuncio> anuncios) {
+        SeguidorReplicacao seguidor = new SeguidorReplicacao("127.0.0.1", porta, anuncios, 50, 1_000);
+        seguidor.iniciar();
+        return abrir(seguidor);
+    }
+
+    /**
+     * Como a fachada: altera o catálogo do líder e registra no journal
+     */
+    private void criar(Anuncio anuncio) throws IOException {
+        catalogo.add(anuncio);
+        journal.registrarCriacao(anuncio);
+    }
+
+    private void alterarPreco(int posicao, double preco) throws IOException {
+        Anuncio anuncio = catalogo.get(posicao);
+        anuncio.setPreco(preco);
+        journal.registrarPreco(anuncio);
+    }
+
+    private <T extends Closeable> T abrir(T recurso) {
+        abertos.add(recurso);
+        return recurso;
+    }
+
+    private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.currentTimeMillis() + ESPERA_MS;
+        while (!condicao.getAsBoolean()) {
+            assertTrue("replicação não concluída em " + ESPERA_MS + " ms", System.currentTimeMillis() < limite);
+            Thread.sleep(20);
+        }
+    }
+
+    private static void assertIguais(List<Anuncio> esperados, List<Anuncio> replicados) {
+        assertEquals(esperados.size(), replicados.size());
+        Map<String, Anuncio> porId = new HashMap<>();
+        replicados.forEach(anuncio -> porId.put(anuncio.getId(), anuncio));
+        for (Anuncio esperado : esperados) {
+            Anuncio replicado = porId.get(esperado.getId());
+            assertNotNull("anúncio " + esperado.getId(), replicado);
+            assertEquals(esperado.getTitulo(), replicado.getTitulo());
+            assertEquals(esperado.getPreco(), replicado.getPreco(), 0.0);
+            assertEquals(esperado.getState().getNome(), replicado.getState().getNome());
+        }
+    }
+
+    /**
+     * Repassa conexões TCP ao líder; derrubarConexoes() simula uma queda da rede
+     * sem que o líder ou o seguidor sejam encerrados
+     */
+    private static final class Proxy implements Closeable {
+
+        private final int portaLider;
+        private final ServerSocket servidor;
+        private final Set<Socket> conexoes = ConcurrentHashMap.newKeySet();
+
+        Proxy(int portaLider) throws IOException {
+            this.portaLider = portaLider;
+            this.servidor = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread aceitacao = new Thread(this::aceitar, "replicacao-teste-proxy");
+            aceitacao.setDaemon(true);
+            aceitacao.start();
+        }
+
+        int getPorta() {
+            return servidor.getLocalPort();
+        }
+
+        void derrubarConexoes() {
+            conexoes.forEach(Proxy::fechar);
+            conexoes.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            servidor.close();
+            derrubarConexoes();
+        }
+
+        private void aceitar() {
+            while (!servidor.isClosed()) {
+                try {
+                    Socket seguidor = servidor.accept();
+                    Socket lider = new Socket();
+                    conexoes.add(seguidor);
+                    conexoes.add(lider);
+                    try {
+                        lider.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), portaLider), 1_000);
+                    } catch (IOException e) {
+                        fechar(seguidor);
+                        fechar(lider);
+                        continue;
+                    }
+                    repassar(seguidor, lider);
+                    repassar(lider, seguidor);
+                } catch (IOException e) {
+                    // servidor fechado
+                }
+            }
+        }
+
+        private static void repassar(Socket origem, Socket destino) {
+            Thread repasse = new Thread(() -> {
+                byte[] buffer = new byte[8192];
+                try (InputStream in = origem.getInputStream(); OutputStream out = destino.getOutputStream()) {
+                    int lidos;
+                    while ((lidos = in.read(buffer)) >= 0) {
+                        out.write(buffer, 0, lidos);
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // conexão derrubada
+                } finally {
+                    fechar(origem);
+                    fechar(destino);
+                }
+            }, "replicacao-teste-repasse");
+            repasse.setDaemon(true);
+            repasse.start();
+        }
+
+        private static void fechar(Socket socket) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // já fechado
+            }
+        }
+    }
+}
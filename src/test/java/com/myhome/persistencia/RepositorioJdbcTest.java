@@ -0,0 +1,193 @@
+package com.myhome.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.myhome.DadosTeste;
+import com.myhome.model.Anuncio;
+import com.myhome.model.Usuario;
+
+/**
+ * RepositorioJdbc contra H2 em memória: gravação incremental em lotes,
+ * consulta por região e gravações simultâneas com o pool no limite
+ */
+public class RepositorioJdbcTest {
+
+    private static final Path ANUNCIOS = Paths.get("anuncios.jdbc");
+    private static final Path USUARIOS = Paths.get("usuarios.jdbc");
+
+    private final PoolConexoes pool = new PoolConexoes(
+            "jdbc:h2:mem:repositorio_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "", 2, 5000);
+    private final RepositorioJdbc repositorio = new RepositorioJdbc(pool);
+
+    @After
+    public void fechar() {
+        pool.close();
+    }
+
+    @Test
+    public void gravaEmLotesSoOQueMudou() throws Exception {
+        // Mais de um lote (TAMANHO_LOTE = 500) de INSERT
+        List<Anuncio> anuncios = DadosTeste.anuncios(1_200);
+        anuncios.get(7).getImovel().getEndereco().setCoordenadas(-7.115, -34.863);
+        salvar(anuncios);
+        assertEquals(1_200, repositorio.getAnunciosGravados());
+        assertIguais(anuncios, carregar());
+
+        salvar(anuncios);
+        assertEquals("nada mudou", 0, repositorio.getAnunciosGravados());
+
+        anuncios.get(0).setPreco(1.0);
+        anuncios.get(600).setTitulo("Título alterado");
+        anuncios.get(1_100).getImovel().setArea(999);
+        anuncios.remove(50);
+        anuncios.remove(50);
+        Anuncio novo = DadosTeste.anuncio(5_000, anuncios.get(0).getAnunciante());
+        anuncios.add(novo);
+        salvar(anuncios);
+
+        assertEquals("3 UPDATE + 2 DELETE + 1 INSERT", 6, repositorio.getAnunciosGravados());
+        assertIguais(anuncios, carregar());
+    }
+
+    @Test
+    public void usuariosIdaEVolta() throws Exception {
+        List<Usuario> usuarios = DadosTeste.usuarios(30);
+        usuarios.get(3).setTipo(Usuario.TipoUsuario.CORRETOR);
+        repositorio.salvarUsuarios(USUARIOS, usuarios);
+
+        List<Usuario> lidos = repositorio.carregarUsuarios(USUARIOS);
+        assertEquals(usuarios.size(), lidos.size());
+        for (int i = 0; i < usuarios.size(); i++) {
+            assertEquals(usuarios.get(i).getEmail(), lidos.get(i).getEmail());
+            assertEquals(usuarios.get(i).getTelefone(), lidos.get(i).getTelefone());
+            assertEquals(usuarios.get(i).getTipo(), lidos.get(i).getTipo());
+        }
+    }
+
+    @Test
+    public void regiaoIgnoraAcentosEMaiusculas() throws Exception {
+        List<Anuncio> anuncios = DadosTeste.anuncios(400);
+        salvar(anuncios);
+
+        List<Anuncio> daRegiao = new ArrayList<>();
+        repositorio.carregarRegiao("pb", "JOAO PESSOA", daRegiao::add);
+
+        long esperados = anuncios.stream()
+                .filter(anuncio -> anuncio.getImovel().getEndereco().getCidade().equals("João Pessoa"))
+                .count();
+        assertTrue(esperados > 0);
+        assertEquals(esperados, daRegiao.size());
+        for (Anuncio anuncio : daRegiao) {
+            assertEquals("PB", anuncio.getImovel().getEndereco().getEstado());
+        }
+    }
+
+    /**
+     * Duas threads gravando anúncios, uma gravando usuários e duas lendo a
+     * região, todas disputando um pool de 2 conexões
+     */
+    @Test
+    public void gravacoesSimultaneas() throws Exception {
+        List<Anuncio> anuncios = DadosTeste.anuncios(600);
+        salvar(anuncios);
+
+        ExecutorService threads = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int escritor = 0; escritor < 2; escritor++) {
+                int inicio = escritor;
+                tarefas.add(threads.submit(() -> {
+                    for (int rodada = 1; rodada <= 10; rodada++) {
+                        // Cada escritor altera os seus anúncios (pares ou ímpares)
+                        for (int i = inicio; i < anuncios.size(); i += 2) {
+                            anuncios.get(i).setPreco(100_000 * (inicio + 1) + rodada);
+                        }
+                        repositorio.salvarAnuncios(ANUNCIOS, anuncios);
+                    }
+                    return null;
+                }));
+            }
+            tarefas.add(threads.submit(() -> {
+                for (int rodada = 0; rodada < 10; rodada++) {
+                    repositorio.salvarUsuarios(USUARIOS, DadosTeste.usuarios(20 + rodada));
+                }
+                return null;
+            }));
+            for (int leitor = 0; leitor < 2; leitor++) {
+                tarefas.add(threads.submit(() -> {
+                    for (int rodada = 0; rodada < 10; rodada++) {
+                        List<Anuncio> daRegiao = new ArrayList<>();
+                        repositorio.carregarRegiao("PE", null, daRegiao::add);
+                        assertFalse(daRegiao.isEmpty());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertIguais(anuncios, carregar());
+        assertEquals(29, repositorio.carregarUsuarios(USUARIOS).size());
+        assertTrue(pool.getAbertas() <= pool.getMaximo());
+    }
+
+    // ========================================
+    // MÉTODOS AUXILIARES
+    // ========================================
+
+    /**
+     * Grava e marca como salvos, como o PersistenciaService
+     */
+    private void salvar(List<Anuncio> anuncios) throws Exception {
+        repositorio.salvarAnuncios(ANUNCIOS, anuncios);
+        anuncios.forEach(Anuncio::marcarComoSalvo);
+    }
+
+    private List<Anuncio> carregar() throws Exception {
+        List<Anuncio> lidos = new ArrayList<>();
+        repositorio.carregarAnuncios(ANUNCIOS, lidos::add);
+        return lidos;
+    }
+
+    private static void assertIguais(List<Anuncio> esperados, List<Anuncio> lidos) {
+        assertEquals(esperados.size(), lidos.size());
+        Map<String, Anuncio> porId = new HashMap<>();
+        lidos.forEach(anuncio -> porId.put(anuncio.getId(), anuncio));
+        for (Anuncio esperado : esperados) {
+            Anuncio lido = porId.get(esperado.getId());
+            assertNotNull("anúncio " + esperado.getId(), lido);
+            assertEquals(esperado.getTitulo(), lido.getTitulo());
+            assertEquals(esperado.getDescricao(), lido.getDescricao());
+            assertEquals(esperado.getPreco(), lido.getPreco(), 0.0);
+            assertEquals(esperado.getTipoAnuncio(), lido.getTipoAnuncio());
+            assertEquals(esperado.getDataPublicacao(), lido.getDataPublicacao());
+            assertEquals(esperado.getImovel().getTipo(), lido.getImovel().getTipo());
+            assertEquals(esperado.getImovel().getArea(), lido.getImovel().getArea(), 0.0);
+            assertEquals(esperado.getImovel().getEndereco().toString(), lido.getImovel().getEndereco().toString());
+            assertEquals(esperado.getImovel().getEndereco().getLatitude(),
+                    lido.getImovel().getEndereco().getLatitude(), 0.0);
+            assertEquals(esperado.getAnunciante().getEmail(), lido.getAnunciante().getEmail());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.myhome.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.myhome.DadosTeste;
+import com.myhome.model.Anuncio;
+import com.myhome.model.Endereco;
+
+/**
+ * Geocodificação dos anúncios carregados: em segundo plano, só dos que não
+ * têm coordenadas, deixando-os modificados para o próximo snapshot
+ */
+public class GeocodificacaoServiceTest {
+
+    @Test
+    public void segundoPlanoSoConsultaAnunciosSemCoordenadas() throws InterruptedException {
+        List<Anuncio> anuncios = DadosTeste.anuncios(40);
+        for (int i = 0; i < 10; i++) {
+            anuncios.get(i).getImovel().getEndereco().setCoordenadas(-7.1, -34.8);
+        }
+        anuncios.forEach(Anuncio::marcarComoSalvo);
+
+        AtomicInteger consultas = new AtomicInteger();
+        CountDownLatch liberar = new CountDownLatch(1);
+        GeocodificacaoService servico = new GeocodificacaoService(endereco -> {
+            aguardar(liberar);
+            consultas.incrementAndGet();
+            endereco.setCoordenadas(-8.05, -34.9);
+            return true;
+        });
+
+        List<Anuncio> localizados = new CopyOnWriteArrayList<>();
+        CountDownLatch concluido = new CountDownLatch(30);
+        servico.geocodificarEmSegundoPlano(anuncios, anuncio -> {
+            localizados.add(anuncio);
+            concluido.countDown();
+        });
+
+        // Quem chamou não espera pelo serviço
+        assertEquals(0, consultas.get());
+        liberar.countDown();
+        assertTrue(concluido.await(10, TimeUnit.SECONDS));
+
+        assertEquals(30, consultas.get());
+        assertEquals(30, servico.getGeocodificadosEmSegundoPlano());
+        assertEquals(anuncios.subList(10, 40), localizados);
+        for (int i = 0; i < anuncios.size(); i++) {
+            Endereco endereco = anuncios.get(i).getImovel().getEndereco();
+            assertTrue(endereco.temCoordenadas());
+            assertEquals("só os geocodificados ficam por gravar", i >= 10, anuncios.get(i).isModificado());
+        }
+    }
+
+    @Test
+    public void interromperParaAntesDoProximoAnuncio() throws InterruptedException {
+        List<Anuncio> anuncios = DadosTeste.anuncios(20);
+        CountDownLatch primeiro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        GeocodificacaoService servico = new GeocodificacaoService(endereco -> {
+            primeiro.countDown();
+            aguardar(liberar);
+            endereco.setCoordenadas(-8.05, -34.9);
+            return true;
+        });
+
+        CountDownLatch concluido = new CountDownLatch(1);
+        servico.geocodificarEmSegundoPlano(anuncios, anuncio -> concluido.countDown());
+        assertTrue(primeiro.await(10, TimeUnit.SECONDS));
+        servico.interromper();
+        liberar.countDown();
+        assertTrue(concluido.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        assertEquals(1, servico.getGeocodificadosEmSegundoPlano());
+        assertFalse(anuncios.get(1).getImovel().getEndereco().temCoordenadas());
+    }
+
+    private static void aguardar(CountDownLatch liberar) {
+        try {
+            liberar.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.myhome.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.myhome.DadosTeste;
+import com.myhome.model.Anuncio;
+import com.myhome.persistencia.PoolConexoes;
+import com.myhome.persistencia.RepositorioJdbc;
+import com.myhome.singleton.ConfigurationManager;
+
+/**
+ * PersistenciaService com persistencia.formato=jdbc (H2 em memória):
+ * carregarAnunciosDaRegiao consulta o banco pelo índice de região
+ */
+public class PersistenciaRegiaoJdbcTest {
+
+    private static final String URL = "jdbc:h2:mem:persistencia_regiao;DB_CLOSE_DELAY=-1";
+
+    private static final String[][] CONFIGURACAO = {
+        { "persistencia.formato", "jdbc" },
+        { "persistencia.durabilidade", "sincrono" },
+        { "db.url", URL },
+        { "db.usuario", "sa" },
+        { "db.senha", "" },
+        { "db.driver", "org.h2.Driver" }
+    };
+
+    private static final Map<String, String> anteriores = new HashMap<>();
+    private static List<Anuncio> anuncios;
+
+    @BeforeClass
+    public static void configurar() throws Exception {
+        Properties propriedades = ConfigurationManager.getInstance().getAllProperties();
+        for (String[] propriedade : CONFIGURACAO) {
+            anteriores.put(propriedade[0], propriedades.getProperty(propriedade[0]));
+            propriedades.setProperty(propriedade[0], propriedade[1]);
+        }
+        anuncios = DadosTeste.anuncios(2_000);
+        try (PoolConexoes pool = new PoolConexoes(URL, "sa", "", 2, 5000)) {
+            new RepositorioJdbc(pool).salvarAnuncios(Paths.get("anuncios.jdbc"), anuncios);
+        }
+    }
+
+    @AfterClass
+    public static void restaurar() {
+        Properties propriedades = ConfigurationManager.getInstance().getAllProperties();
+        anteriores.forEach((chave, valor) -> {
+            if (valor == null) {
+                propriedades.remove(chave);
+            } else {
+                propriedades.setProperty(chave, valor);
+            }
+        });
+    }
+
+    @Test
+    public void carregaSoARegiao() {
+        List<Anuncio> daRegiao = PersistenciaService.somenteLeitura().carregarAnunciosDaRegiao("SP", "sao paulo");
+
+        long esperados = anuncios.stream()
+                .filter(anuncio -> anuncio.getImovel().getEndereco().getCidade().equals("São Paulo"))
+                .count();
+        assertEquals(esperados, daRegiao.size());
+        for (Anuncio anuncio : daRegiao) {
+            assertEquals("São Paulo", anuncio.getImovel().getEndereco().getCidade());
+        }
+    }
+
+    @Test
+    public void consultaUsaOIndiceDeRegiao() throws Exception {
+        try (Connection conexao = DriverManager.getConnection(URL, "sa", "");
+                Statement comando = conexao.createStatement()) {
+            comando.execute("SET QUERY_STATISTICS TRUE");
+            comando.execute("SET QUERY_STATISTICS_MAX_ENTRIES 1000");
+
+            List<Anuncio> daRegiao = PersistenciaService.somenteLeitura().carregarAnunciosDaRegiao("PB", "João Pessoa");
+            assertTrue(daRegiao.size() > 0);
+
+            // Consulta enviada pelo RepositorioJdbc, explicada com os mesmos parâmetros
+            String sql = null;
+            try (ResultSet estatisticas = comando.executeQuery(
+                    "SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS"
+                    + " WHERE SQL_STATEMENT LIKE '%estado_chave = ?%'")) {
+                if (estatisticas.next()) {
+                    sql = estatisticas.getString(1);
+                }
+            }
+            assertNotNull("consulta por região não executada", sql);
+
+            try (PreparedStatement explicar = conexao.prepareStatement("EXPLAIN " + sql)) {
+                explicar.setString(1, "PB");
+                explicar.setString(2, "JOAO PESSOA");
+                try (ResultSet plano = explicar.executeQuery()) {
+                    plano.next();
+                    String texto = plano.getString(1);
+                    assertTrue(texto, texto.toUpperCase().contains("IDX_ANUNCIOS_REGIAO"));
+                }
+            }
+        }
+    }
+}
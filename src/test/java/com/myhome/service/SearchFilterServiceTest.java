@@ -0,0 +1,141 @@
+package com.myhome.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.myhome.DadosTeste;
+import com.myhome.busca.CriteriosBusca;
+import com.myhome.busca.IndicesBusca;
+import com.myhome.decorator.Ordenacao;
+import com.myhome.model.Anuncio;
+
+/**
+ * Buscas pelos índices (e pelo CacheBusca) contra a varredura da lista,
+ * com o catálogo alterado entre uma busca e outra
+ */
+public class SearchFilterServiceTest {
+
+    private final List<Anuncio> anuncios = DadosTeste.anuncios(300);
+    private final IndicesBusca indices = new IndicesBusca();
+    private final SearchFilterService indexada = new SearchFilterService(null, indices);
+    private final SearchFilterService varredura = new SearchFilterService(null, null);
+
+    @Before
+    public void indexar() {
+        anuncios.get(5).setDescricao("Casa com piscina e vista para o mar");
+        indices.indexar(anuncios);
+    }
+
+    @Test
+    public void buscaPorPalavraVeAnuncioNovo() {
+        assertEquals(1, buscarTexto(indexada, "piscina").size());
+
+        Anuncio novo = DadosTeste.anuncio(1_000, anuncios.get(0).getAnunciante());
+        novo.setDescricao("Apartamento com piscina");
+        anuncios.add(novo);
+        indices.adicionar(novo);
+
+        assertEquals(buscarTexto(varredura, "piscina"), buscarTexto(indexada, "piscina"));
+        assertEquals(2, buscarTexto(indexada, "piscina").size());
+        assertTrue(indices.getCache().getInvalidacoes() > 0);
+    }
+
+    @Test
+    public void buscaPorPalavraVeAnuncioEditado() {
+        assertEquals(1, buscarTexto(indexada, "vista mar").size());
+
+        Anuncio editado = anuncios.get(40);
+        editado.setTitulo("Cobertura com vista para o mar");
+        indices.atualizar(editado);
+
+        assertEquals(buscarTexto(varredura, "vista mar"), buscarTexto(indexada, "vista mar"));
+        assertEquals(2, buscarTexto(indexada, "vista mar").size());
+    }
+
+    @Test
+    public void paginaPorPrecoVeAnuncioNovo() {
+        assertEquals(1, paginaTexto(indexada, "piscina").size());
+
+        Anuncio novo = DadosTeste.anuncio(1_001, anuncios.get(0).getAnunciante());
+        novo.setTitulo("Casa com piscina");
+        anuncios.add(novo);
+        indices.adicionar(novo);
+
+        assertEquals(paginaTexto(varredura, "piscina"), paginaTexto(indexada, "piscina"));
+        assertEquals(2, paginaTexto(indexada, "piscina").size());
+    }
+
+    /**
+     * Buscas sorteadas intercaladas com criações e edições de preço e texto:
+     * a busca indexada (com cache) devolve sempre os mesmos anúncios da varredura
+     */
+    @Test
+    public void buscasSorteadasComAlteracoesIguaisAVarredura() {
+        String[] textos = { "", "piscina", "piscina mar", "vista mar", "recife", "imovel" };
+        String[][] regioes = { { "", "" }, { "Recife", "PE" }, { "João Pessoa", "PB" } };
+        Double[][] precos = { { null, null }, { 0.0, 800_000.0 }, { 500_000.0, 2_000_000.0 } };
+        Random sorteio = new Random(42);
+
+        for (int rodada = 0; rodada < 600; rodada++) {
+            Anuncio alvo = anuncios.get(sorteio.nextInt(anuncios.size()));
+            switch (sorteio.nextInt(4)) {
+                case 0:
+                    Anuncio novo = DadosTeste.anuncio(2_000 + rodada, alvo.getAnunciante());
+                    novo.setDescricao(textos[1 + sorteio.nextInt(textos.length - 1)]);
+                    anuncios.add(novo);
+                    indices.adicionar(novo);
+                    break;
+                case 1:
+                    alvo.setTitulo("Casa com " + textos[1 + sorteio.nextInt(textos.length - 1)]);
+                    indices.atualizar(alvo);
+                    break;
+                case 2:
+                    alvo.setPreco(sorteio.nextInt(2_000_000));
+                    indices.atualizar(alvo);
+                    break;
+                default:
+                    break;
+            }
+
+            String texto = textos[sorteio.nextInt(textos.length)];
+            String[] regiao = regioes[sorteio.nextInt(regioes.length)];
+            Double[] preco = precos[sorteio.nextInt(precos.length)];
+            CriteriosBusca criterios = criterios(preco[0], preco[1], regiao[0], regiao[1], texto);
+            assertEquals("rodada " + rodada + ": \"" + texto + "\"",
+                    ids(varredura.aplicarFiltros(anuncios, criterios).buscar()),
+                    ids(indexada.aplicarFiltros(anuncios, criterios).buscar()));
+        }
+    }
+
+    private static Set<String> ids(List<Anuncio> anuncios) {
+        Set<String> ids = new TreeSet<>();
+        anuncios.forEach(anuncio -> ids.add(anuncio.getId()));
+        return ids;
+    }
+
+    private static CriteriosBusca criterios(Double precoMin, Double precoMax, String cidade, String estado,
+            String texto) {
+        return new CriteriosBusca(precoMin, precoMax, cidade.isEmpty() ? null : cidade,
+                estado.isEmpty() ? null : estado, Collections.emptyList(), Collections.emptyList(),
+                Collections.emptyList(), texto);
+    }
+
+    private List<Anuncio> buscarTexto(SearchFilterService servico, String texto) {
+        return servico.aplicarFiltros(anuncios, criterios(null, null, "", "", texto)).buscar();
+    }
+
+    private List<Anuncio> paginaTexto(SearchFilterService servico, String texto) {
+        return servico.montarBusca(anuncios,
+                servico.planejar(anuncios, criterios(null, null, "", "", texto), Ordenacao.PRECO, 10))
+                .buscarPagina(Ordenacao.PRECO, 10, null).getItens();
+    }
+}
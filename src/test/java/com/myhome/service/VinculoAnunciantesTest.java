@@ -0,0 +1,82 @@
+package com.myhome.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.myhome.DadosTeste;
+import com.myhome.model.Anuncio;
+import com.myhome.model.Usuario;
+import com.myhome.persistencia.AnuncioJsonCodec;
+
+/**
+ * Carga paralela (CarregamentoInicial): anúncios lidos antes dos usuários
+ * não podem sobrepor os dados de usuarios.json
+ */
+public class VinculoAnunciantesTest {
+
+    private final PersistenciaService persistencia = PersistenciaService.somenteLeitura();
+
+    @Test
+    public void telefoneDeUsuariosJsonPrevaleceSobreOsAnuncios() throws IOException {
+        String email = "vinculo.telefone@teste.com";
+        List<Anuncio> anuncios = lerComoDoSnapshot(email, "83900000000", 3);
+        Usuario doCadastro = new Usuario("Carla", email, "83911111111");
+        List<Usuario> usuarios = new ArrayList<>(Collections.singletonList(doCadastro));
+
+        persistencia.vincularAnunciantes(usuarios, anuncios);
+
+        Usuario vinculado = usuarios.get(0);
+        assertSame(anuncios.get(0).getAnunciante(), vinculado);
+        assertEquals("83911111111", vinculado.getTelefone());
+        assertFalse("usuarios.json já tem esses dados", vinculado.isModificado());
+        for (Anuncio anuncio : anuncios) {
+            assertSame(vinculado, anuncio.getAnunciante());
+            assertTrue("o snapshot dos anúncios tem o telefone antigo", anuncio.isModificado());
+        }
+    }
+
+    @Test
+    public void mesmosDadosMantemOsAnunciosSalvos() throws IOException {
+        String email = "vinculo.iguais@teste.com";
+        List<Anuncio> anuncios = lerComoDoSnapshot(email, "83922222222", 2);
+        Usuario doCadastro = new Usuario("Carla", email, "83922222222");
+        List<Usuario> usuarios = new ArrayList<>(Collections.singletonList(doCadastro));
+
+        persistencia.vincularAnunciantes(usuarios, anuncios);
+
+        assertSame(anuncios.get(0).getAnunciante(), usuarios.get(0));
+        for (Anuncio anuncio : anuncios) {
+            assertFalse(anuncio.isModificado());
+        }
+    }
+
+    /**
+     * Anúncios gravados e lidos pelo codec (anunciante pelo RegistroAnunciantes), já marcados como salvos
+     */
+    private List<Anuncio> lerComoDoSnapshot(String email, String telefone, int quantidade) throws IOException {
+        Usuario embutido = new Usuario("Carla", email, telefone);
+        List<Anuncio> originais = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            originais.add(DadosTeste.anuncio(i, embutido));
+        }
+        AnuncioJsonCodec codec = new AnuncioJsonCodec();
+        StringWriter json = new StringWriter();
+        codec.escreverAnuncios(json, originais);
+
+        List<Anuncio> lidos = new ArrayList<>();
+        codec.lerAnuncios(new StringReader(json.toString()), lidos::add);
+        lidos.forEach(Anuncio::marcarComoSalvo);
+        return lidos;
+    }
+}